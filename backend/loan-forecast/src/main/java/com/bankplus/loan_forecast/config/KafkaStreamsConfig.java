@@ -60,22 +60,51 @@ public class KafkaStreamsConfig {
                 String batchId = event.get("batchId");
                 String filePath = event.get("filePath");
                 String startMonth = event.get("startMonth");
-
-                // Parse, clean, and predict
-                java.util.List<com.bankplus.loan_forecast.model.CsvLoanData> loanDataList;
-                try (java.io.Reader reader = new java.io.FileReader(filePath)) {
-                    loanDataList = csvProcessingService.processCsvData(reader);
+                String baseBatchId = event.get("baseBatchId");
+                UploadHistory uploadHistory = uploadHistoryRepository.findByBatchId(batchId).orElse(null);
+                if (baseBatchId == null && uploadHistory != null && uploadHistory.getContentSha256() != null) {
+                    // A re-upload of an identical file reuses the forecasts of the earlier upload
+                    UploadHistory identical = uploadHistoryRepository.findFirstByContentSha256AndUploadStatusOrderByUploadedAtDesc(
+                            uploadHistory.getContentSha256(), "SUCCESS");
+                    if (identical != null) {
+                        log.info("Batch {} has the same content as batch {}", batchId, identical.getBatchId());
+                        baseBatchId = identical.getBatchId();
+                        uploadHistory.setBaseBatchId(baseBatchId);
+                    }
                 }
-                java.util.List<com.bankplus.loan_forecast.dto.LoanForecastData> forecastDataList = csvProcessingService.convertToLoanForecastData(loanDataList, startMonth);
 
-                String forecastCsvPath = csvProcessingService.generateForecastCsvWithOriginalFormat(loanDataList, forecastDataList, filePath.substring(filePath.lastIndexOf("_") + 1), startMonth);
+                // Parse, clean, predict and write one row at a time
+                String forecastCsvPath;
+                com.bankplus.loan_forecast.service.StreamingResult result;
+                try (com.bankplus.loan_forecast.service.ForecastCsvStreamWriter writer =
+                             csvProcessingService.openForecastCsvWriter(filePath.substring(filePath.lastIndexOf("_") + 1), startMonth);
+                     com.bankplus.loan_forecast.service.columnar.LoanColumnarWriter columnarWriter =
+                             csvProcessingService.openColumnarWriter(java.nio.file.Paths.get(filePath));
+                     com.bankplus.loan_forecast.service.columnar.ForecastBaseline baseline = openBaseline(baseBatchId)) {
+                    // Also keep the parsed loans and their forecasts in columnar form so later reads of this batch
+                    // skip the CSV and later uploads can reuse the forecasts
+                    result = csvProcessingService.processCsvStreaming(java.nio.file.Paths.get(filePath), startMonth,
+                            writer.andThen(columnarWriter), baseline);
+                    forecastCsvPath = writer.finish();
+                    if (csvProcessingService.isStorableForecastStart(startMonth)) {
+                        columnarWriter.setForecastAlgorithm(result.getAlgorithm(), result.getAlgorithmVersion());
+                    }
+                    if (columnarWriter.finish() != null) {
+                        buildLoanIndex(java.nio.file.Paths.get(filePath));
+                    }
+                }
 
-                UploadHistory uploadHistory = uploadHistoryRepository.findByBatchId(batchId).orElse(null);
                 if (uploadHistory != null) {
                     uploadHistory.setForecastCsvPath(forecastCsvPath);
-                    uploadHistory.setTotalRecords(loanDataList.size());
-                    uploadHistory.setProcessedRecords(forecastDataList.size());
-                    uploadHistory.setFailedRecords(loanDataList.size() - forecastDataList.size());
+                    uploadHistory.setTotalRecords(result.getTotalRecords());
+                    uploadHistory.setProcessedRecords(result.getProcessedRecords());
+                    uploadHistory.setFailedRecords(result.getFailedRecords());
+                    uploadHistory.setRejectionSummary(mapper.writeValueAsString(result.getRejections()));
+                    uploadHistory.setForecastAlgorithm(result.getAlgorithm());
+                    uploadHistory.setForecastAlgorithmVersion(result.getAlgorithmVersion());
+                    uploadHistory.setReusedRecords(result.getReusedRecords());
+                    uploadHistory.setRecomputedRecords(result.getRecomputedRecords());
+                    uploadHistory.setPortfolioSummary(mapper.writeValueAsString(result.getPortfolio()));
                     uploadHistory.setUploadStatus("SUCCESS");
                     uploadHistory.setProcessedAt(java.time.Instant.now());
                     uploadHistoryRepository.save(uploadHistory);
@@ -85,8 +114,10 @@ public class KafkaStreamsConfig {
                 Map<String, Object> progress = new HashMap<>();
                 progress.put("batchId", batchId);
                 progress.put("status", "SUCCESS");
-                progress.put("processedRecords", forecastDataList.size());
-                progress.put("totalRecords", loanDataList.size());
+                progress.put("processedRecords", result.getProcessedRecords());
+                progress.put("totalRecords", result.getTotalRecords());
+                progress.put("reusedRecords", result.getReusedRecords());
+                progress.put("recomputedRecords", result.getRecomputedRecords());
                 progress.put("timestamp", System.currentTimeMillis());
                 String progressJson = mapper.writeValueAsString(progress);
                 org.apache.kafka.clients.producer.ProducerRecord<String, String> progressRecord = new org.apache.kafka.clients.producer.ProducerRecord<>(progressUpdatesTopic, batchId, progressJson);
@@ -106,4 +137,41 @@ public class KafkaStreamsConfig {
         });
         return uploadEvents;
     }
+
+    /**
+     * Sort the batch's loans for paging; a failure only leaves the index to be built on the first page request
+     */
+    private void buildLoanIndex(java.nio.file.Path filePath) {
+        try {
+            csvProcessingService.buildLoanIndex(filePath);
+        } catch (java.io.IOException | RuntimeException e) {
+            log.warn("Failed to build the loan index of {}: {}", filePath, e.getMessage());
+        }
+    }
+
+    /**
+     * The forecasts of the base batch of an incremental upload
+     * @return The baseline, or null if there is no base batch or its files are gone, in which case every loan is forecast
+     */
+    private com.bankplus.loan_forecast.service.columnar.ForecastBaseline openBaseline(String baseBatchId) {
+        if (baseBatchId == null) {
+            return null;
+        }
+        UploadHistory base = uploadHistoryRepository.findByBatchId(baseBatchId).orElse(null);
+        if (base == null || base.getOriginalFilePath() == null) {
+            log.warn("Base batch {} not found, forecasting every loan", baseBatchId);
+            return null;
+        }
+        try {
+            com.bankplus.loan_forecast.service.columnar.ForecastBaseline baseline =
+                    csvProcessingService.openForecastBaseline(java.nio.file.Paths.get(base.getOriginalFilePath()));
+            if (baseline == null) {
+                log.warn("Base batch {} has no columnar cache, forecasting every loan", baseBatchId);
+            }
+            return baseline;
+        } catch (java.io.IOException e) {
+            log.warn("Failed to open the forecasts of base batch {}, forecasting every loan: {}", baseBatchId, e.getMessage());
+            return null;
+        }
+    }
 } 
\ No newline at end of file
@@ -1,23 +1,40 @@
 package com.bankplus.loan_forecast.controller;
 
 import com.bankplus.loan_forecast.dto.DataIngestionResponse;
+import com.bankplus.loan_forecast.dto.ForecastPageRequest;
+import com.bankplus.loan_forecast.dto.ForecastPageResponse;
+import com.bankplus.loan_forecast.dto.ForecastRequest;
 import com.bankplus.loan_forecast.dto.LoanForecastData;
+import com.bankplus.loan_forecast.dto.PortfolioSummary;
+import com.bankplus.loan_forecast.dto.ScenarioSweepResponse;
 import com.bankplus.loan_forecast.model.UploadHistory;
 import com.bankplus.loan_forecast.repository.UploadHistoryRepository;
 import com.bankplus.loan_forecast.service.CsvProcessingService;
+import com.bankplus.loan_forecast.service.MonthWindow;
 import com.bankplus.loan_forecast.service.ReactiveUploadService;
+import com.bankplus.loan_forecast.service.ScenarioSweepResult;
 import com.bankplus.loan_forecast.service.TracingMetricsService;
+import com.bankplus.loan_forecast.service.UploadScanResult;
+import com.bankplus.loan_forecast.service.algorithm.SCurveScenario;
+import com.bankplus.loan_forecast.service.columnar.LoanColumnarFile;
+import com.bankplus.loan_forecast.service.columnar.LoanIndexFile;
+import com.bankplus.loan_forecast.service.csv.CompressedInput;
+import com.bankplus.loan_forecast.service.csv.ContentDigest;
+import com.bankplus.loan_forecast.service.csv.CsvFormatException;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.Tracer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
 import java.time.Instant;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -49,10 +66,19 @@ public class LoanForecastController {
     @Autowired
     private TracingMetricsService tracingMetrics;
 
+    // Scenarios accepted by one sweep request
+    @Value("${forecast.scenarios.max:200}")
+    private int maxScenarios = 200;
+
+    // Loans returned by one forecast page or subset forecast
+    @Value("${forecast.page.max-limit:1000}")
+    private int maxPageLimit = 1000;
+
     @PostMapping("/upload")
     public Mono<ResponseEntity<DataIngestionResponse>> uploadCsvFile(
             @RequestParam("file") MultipartFile file,
-            @RequestParam("startMonth") String startMonth
+            @RequestParam("startMonth") String startMonth,
+            @RequestParam(value = "baseBatchId", required = false) String baseBatchId
     ) {
         // Create a new Span for tracing
         Span span = tracer.spanBuilder("loan-forecast-upload").startSpan();
@@ -68,6 +94,9 @@ public class LoanForecastController {
             span.setAttribute("file.name", file.getOriginalFilename());
             span.setAttribute("file.size", file.getSize());
             span.setAttribute("start.month", startMonth);
+            if (baseBatchId != null && !isCompletedBatch(baseBatchId)) {
+                return Mono.just(unknownBaseBatch(baseBatchId));
+            }
             
             String batchId = csvProcessingService.generateBatchId();
             span.setAttribute("batch.id", batchId);
@@ -79,6 +108,7 @@ public class LoanForecastController {
             uploadHistory.setUploadStatus("PROCESSING");
             uploadHistory.setForecastStartDate(startMonth);
             uploadHistory.setUploadedAt(Instant.now());
+            uploadHistory.setBaseBatchId(baseBatchId);
             
             try {
                 // 追踪文件保存操作
@@ -88,54 +118,19 @@ public class LoanForecastController {
                     java.nio.file.Files.createDirectories(java.nio.file.Paths.get(inputDir));
                     String savedFileName = batchId + "_" + file.getOriginalFilename();
                     java.nio.file.Path savedFilePath = java.nio.file.Paths.get(inputDir, savedFileName);
-                    try (java.io.InputStream in = file.getInputStream()) {
+                    java.security.MessageDigest digest = ContentDigest.newSha256();
+                    try (java.io.InputStream in = new java.security.DigestInputStream(file.getInputStream(), digest)) {
                         java.nio.file.Files.copy(in, savedFilePath, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
                     }
                     uploadHistory.setOriginalFilePath(savedFilePath.toString());
+                    uploadHistory.setContentSha256(ContentDigest.hex(digest));
                     fileSaveSpan.setAttribute("save.path", savedFilePath.toString());
                     fileSaveSpan.setAttribute("save.success", "true");
                 } finally {
                     fileSaveSpan.end();
                 }
                 
-                // 追踪数据库操作
-                Span dbSpan = tracer.spanBuilder("db-save-upload-history").startSpan();
-                try (var dbScope = dbSpan.makeCurrent()) {
-                    uploadHistoryRepository.save(uploadHistory);
-                    dbSpan.setAttribute("db.operation", "save");
-                    dbSpan.setAttribute("db.table", "upload_history");
-                    dbSpan.setAttribute("db.success", "true");
-                } finally {
-                    dbSpan.end();
-                }
-                
-                // 追踪 Kafka 消息发送
-                Span kafkaSpan = tracer.spanBuilder("kafka-send-event").startSpan();
-                try (var kafkaScope = kafkaSpan.makeCurrent()) {
-                    kafkaSpan.setAttribute("kafka.topic", "file-upload-events");
-                    kafkaSpan.setAttribute("kafka.batch.id", batchId);
-                    
-                    Mono<ResponseEntity<DataIngestionResponse>> result = reactiveUploadService.sendFileUploadEvent(batchId, uploadHistory.getOriginalFilePath(), startMonth)
-                            .thenReturn(ResponseEntity.ok(
-                                DataIngestionResponse.builder()
-                                    .batchId(batchId)
-                                    .status("PROCESSING")
-                                    .message("File received, processing started asynchronously.")
-                                    .build()
-                            ))
-                            .doOnSuccess(response -> {
-                                kafkaSpan.setAttribute("kafka.success", "true");
-                                span.setAttribute("upload.status", "PROCESSING");
-                                span.setAttribute("upload.success", "true");
-                            })
-                            .doOnError(error -> {
-                                kafkaSpan.recordException(error);
-                                span.recordException(error);
-                            });
-                    
-                    kafkaSpan.end();
-                    return result;
-                }
+                return publishUpload(span, uploadHistory, startMonth);
                 
             } catch (Exception e) {
                 span.recordException(e);
@@ -160,6 +155,149 @@ public class LoanForecastController {
         }
     }
 
+    /**
+     * Upload a CSV as the raw request body, without the multipart size limit.
+     * The body is written to disk and parsed in the same pass, so it is never buffered in memory
+     * and a bad header is rejected with 400 before the rest of the file is transferred.
+     */
+    @PostMapping("/upload/stream")
+    public Mono<ResponseEntity<DataIngestionResponse>> uploadCsvStream(
+            InputStream body,
+            @RequestParam("fileName") String fileName,
+            @RequestParam("startMonth") String startMonth,
+            @RequestParam(value = "baseBatchId", required = false) String baseBatchId
+    ) {
+        Span span = tracer.spanBuilder("loan-forecast-upload-stream").startSpan();
+        tracingMetrics.recordTrace("loan-forecast-upload-stream");
+        var timer = tracingMetrics.startTimer();
+
+        try (var scope = span.makeCurrent()) {
+            // Only keep the name part of the client-supplied file name
+            String originalFilename = java.nio.file.Paths.get(fileName).getFileName().toString();
+            log.info("Receiving streamed CSV upload: {} with startMonth {}", originalFilename, startMonth);
+            span.setAttribute("file.name", originalFilename);
+            span.setAttribute("start.month", startMonth);
+            if (baseBatchId != null && !isCompletedBatch(baseBatchId)) {
+                return Mono.just(unknownBaseBatch(baseBatchId));
+            }
+
+            String batchId = csvProcessingService.generateBatchId();
+            span.setAttribute("batch.id", batchId);
+
+            java.nio.file.Path savedFilePath = null;
+            try {
+                String inputDir = new java.io.File("backend/data/Input/").getAbsoluteFile().toString();
+                java.nio.file.Files.createDirectories(java.nio.file.Paths.get(inputDir));
+                savedFilePath = java.nio.file.Paths.get(inputDir, batchId + "_" + originalFilename);
+
+                UploadScanResult scan = csvProcessingService.saveAndScanCsv(body, savedFilePath);
+                span.setAttribute("file.size", scan.getBytesWritten());
+                span.setAttribute("upload.rows", scan.getTotalRows());
+
+                UploadHistory uploadHistory = new UploadHistory();
+                uploadHistory.setBatchId(batchId);
+                uploadHistory.setOriginalFilename(originalFilename);
+                uploadHistory.setFileSize(scan.getBytesWritten());
+                uploadHistory.setUploadStatus("PROCESSING");
+                uploadHistory.setForecastStartDate(startMonth);
+                uploadHistory.setUploadedAt(Instant.now());
+                uploadHistory.setTotalRecords(scan.getTotalRows());
+                uploadHistory.setOriginalFilePath(savedFilePath.toString());
+                uploadHistory.setContentSha256(scan.getContentSha256());
+                uploadHistory.setBaseBatchId(baseBatchId);
+                return publishUpload(span, uploadHistory, startMonth);
+            } catch (CsvFormatException e) {
+                deleteFileIfExists(savedFilePath != null ? savedFilePath.toString() : null, "Rejected upload");
+                span.setAttribute("upload.status", "REJECTED");
+                log.warn("Rejected streamed CSV upload {}: {}", originalFilename, e.getMessage());
+                return Mono.just(ResponseEntity.badRequest()
+                        .body(DataIngestionResponse.builder()
+                                .status("FAILED")
+                                .errors(List.of(e.getMessage()))
+                                .message("Invalid CSV: " + e.getMessage())
+                                .build()));
+            } catch (Exception e) {
+                deleteFileIfExists(savedFilePath != null ? savedFilePath.toString() : null, "Partial upload");
+                span.recordException(e);
+                span.setAttribute("error.type", e.getClass().getSimpleName());
+                log.error("Error receiving streamed CSV upload: {}", e.getMessage(), e);
+                return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(DataIngestionResponse.builder()
+                                .status("FAILED")
+                                .message("Error processing CSV upload: " + e.getMessage())
+                                .build()));
+            }
+        } finally {
+            tracingMetrics.stopTimer(timer);
+            span.end();
+        }
+    }
+
+    /**
+     * @return Whether batchId is an upload that finished processing, whose forecasts an incremental upload can reuse
+     */
+    private boolean isCompletedBatch(String batchId) {
+        return uploadHistoryRepository.findByBatchId(batchId)
+                .map(history -> "SUCCESS".equals(history.getUploadStatus()))
+                .orElse(false);
+    }
+
+    private ResponseEntity<DataIngestionResponse> unknownBaseBatch(String baseBatchId) {
+        log.warn("Rejected upload against unknown or unfinished base batch {}", baseBatchId);
+        return ResponseEntity.badRequest()
+                .body(DataIngestionResponse.builder()
+                        .status("FAILED")
+                        .message("Base batch not found or not processed: " + baseBatchId)
+                        .build());
+    }
+
+    /**
+     * Record the upload and publish the event that starts processing of the saved file
+     */
+    private Mono<ResponseEntity<DataIngestionResponse>> publishUpload(Span span, UploadHistory uploadHistory, String startMonth) {
+        String batchId = uploadHistory.getBatchId();
+
+        // 追踪数据库操作
+        Span dbSpan = tracer.spanBuilder("db-save-upload-history").startSpan();
+        try (var dbScope = dbSpan.makeCurrent()) {
+            uploadHistoryRepository.save(uploadHistory);
+            dbSpan.setAttribute("db.operation", "save");
+            dbSpan.setAttribute("db.table", "upload_history");
+            dbSpan.setAttribute("db.success", "true");
+        } finally {
+            dbSpan.end();
+        }
+        
+        // 追踪 Kafka 消息发送
+        Span kafkaSpan = tracer.spanBuilder("kafka-send-event").startSpan();
+        try (var kafkaScope = kafkaSpan.makeCurrent()) {
+            kafkaSpan.setAttribute("kafka.topic", "file-upload-events");
+            kafkaSpan.setAttribute("kafka.batch.id", batchId);
+            
+            Mono<ResponseEntity<DataIngestionResponse>> result = reactiveUploadService.sendFileUploadEvent(batchId, uploadHistory.getOriginalFilePath(), startMonth,
+                            uploadHistory.getBaseBatchId())
+                    .thenReturn(ResponseEntity.ok(
+                        DataIngestionResponse.builder()
+                            .batchId(batchId)
+                            .status("PROCESSING")
+                            .message("File received, processing started asynchronously.")
+                            .build()
+                    ))
+                    .doOnSuccess(response -> {
+                        kafkaSpan.setAttribute("kafka.success", "true");
+                        span.setAttribute("upload.status", "PROCESSING");
+                        span.setAttribute("upload.success", "true");
+                    })
+                    .doOnError(error -> {
+                        kafkaSpan.recordException(error);
+                        span.recordException(error);
+                    });
+            
+            kafkaSpan.end();
+            return result;
+        }
+    }
+
     @GetMapping(value = "/upload-history", produces = MediaType.APPLICATION_JSON_VALUE)
     @ResponseBody
     public ResponseEntity<String> getUploadHistory() {
@@ -189,6 +327,12 @@ public class LoanForecastController {
                 h.put("errorMessage", uh.getErrorMessage());
                 h.put("originalFilePath", uh.getOriginalFilePath());
                 h.put("forecastCsvPath", uh.getForecastCsvPath());
+                h.put("rejectionSummary", uh.getRejectionSummary() != null ? objectMapper.readTree(uh.getRejectionSummary()) : null);
+                h.put("forecastAlgorithm", uh.getForecastAlgorithm());
+                h.put("forecastAlgorithmVersion", uh.getForecastAlgorithmVersion());
+                h.put("baseBatchId", uh.getBaseBatchId());
+                h.put("reusedRecords", uh.getReusedRecords());
+                h.put("recomputedRecords", uh.getRecomputedRecords());
                 result.add(h);
             }
             return ResponseEntity.ok(objectMapper.writeValueAsString(result));
@@ -221,6 +365,12 @@ public class LoanForecastController {
             h.put("errorMessage", latest.getErrorMessage());
             h.put("originalFilePath", latest.getOriginalFilePath());
             h.put("forecastCsvPath", latest.getForecastCsvPath());
+            h.put("rejectionSummary", latest.getRejectionSummary() != null ? objectMapper.readTree(latest.getRejectionSummary()) : null);
+            h.put("forecastAlgorithm", latest.getForecastAlgorithm());
+            h.put("forecastAlgorithmVersion", latest.getForecastAlgorithmVersion());
+            h.put("baseBatchId", latest.getBaseBatchId());
+            h.put("reusedRecords", latest.getReusedRecords());
+            h.put("recomputedRecords", latest.getRecomputedRecords());
             return ResponseEntity.ok(objectMapper.writeValueAsString(h));
         } catch (Exception e) {
             log.error("Error fetching latest upload: {}", e.getMessage());
@@ -236,6 +386,10 @@ public class LoanForecastController {
             
             deleteFileIfExists(uploadHistory.getOriginalFilePath(), "Original file");
             deleteFileIfExists(uploadHistory.getForecastCsvPath(), "Forecast file");
+            if (uploadHistory.getOriginalFilePath() != null) {
+                deleteFileIfExists(LoanColumnarFile.pathFor(java.nio.file.Paths.get(uploadHistory.getOriginalFilePath())).toString(), "Columnar cache");
+                deleteFileIfExists(LoanIndexFile.pathFor(java.nio.file.Paths.get(uploadHistory.getOriginalFilePath())).toString(), "Loan index");
+            }
             
             // Delete db record
             uploadHistoryRepository.delete(uploadHistory);
@@ -263,27 +417,54 @@ public class LoanForecastController {
         }
     }
 
+    /**
+     * The forecast CSV written at ingest, or with fromMonth and/or toMonth (yyyy-MM) one with only those months,
+     * forecast from the saved upload
+     */
     @GetMapping("/download/{batchId}")
-    public ResponseEntity<org.springframework.core.io.Resource> downloadForecastFile(@PathVariable String batchId) {
+    public ResponseEntity<org.springframework.core.io.Resource> downloadForecastFile(
+            @PathVariable String batchId,
+            @RequestParam(required = false) String fromMonth,
+            @RequestParam(required = false) String toMonth) {
         try {
             UploadHistory uploadHistory = uploadHistoryRepository.findByBatchId(batchId)
                     .orElseThrow(() -> new RuntimeException("Upload history not found"));
             
-            String filePath = uploadHistory.getForecastCsvPath();
-            if (filePath == null || filePath.trim().isEmpty()) {
-                return ResponseEntity.notFound().build();
-            }
-            
-            java.nio.file.Path path = java.nio.file.Paths.get(filePath);
-            if (!java.nio.file.Files.exists(path)) {
-                log.warn("Forecast file not found: {}", filePath);
-                return ResponseEntity.notFound().build();
+            MonthWindow window = MonthWindow.parse(fromMonth, toMonth);
+            org.springframework.core.io.Resource resource;
+            if (window != null) {
+                String originalFilePath = uploadHistory.getOriginalFilePath();
+                if (originalFilePath == null || !java.nio.file.Files.exists(java.nio.file.Paths.get(originalFilePath))) {
+                    return ResponseEntity.notFound().build();
+                }
+                java.nio.file.Path windowCsv = java.nio.file.Files.createTempFile("forecast-" + batchId + "-", ".csv");
+                try {
+                    csvProcessingService.exportForecastCsv(originalFilePath, uploadHistory.getForecastStartDate(),
+                            uploadHistory.getForecastAlgorithm(), uploadHistory.getContentSha256(), window, windowCsv);
+                } catch (Exception e) {
+                    java.nio.file.Files.deleteIfExists(windowCsv);
+                    throw e;
+                }
+                // Removed once the response has been streamed
+                resource = new org.springframework.core.io.InputStreamResource(java.nio.file.Files.newInputStream(
+                        windowCsv, java.nio.file.StandardOpenOption.DELETE_ON_CLOSE));
+            } else {
+                String filePath = uploadHistory.getForecastCsvPath();
+                if (filePath == null || filePath.trim().isEmpty()) {
+                    return ResponseEntity.notFound().build();
+                }
+                
+                java.nio.file.Path path = java.nio.file.Paths.get(filePath);
+                if (!java.nio.file.Files.exists(path)) {
+                    log.warn("Forecast file not found: {}", filePath);
+                    return ResponseEntity.notFound().build();
+                }
+                
+                resource = new org.springframework.core.io.FileSystemResource(path);
             }
             
-            org.springframework.core.io.Resource resource = new org.springframework.core.io.FileSystemResource(path);
-            
             String originalFilename = uploadHistory.getOriginalFilename();
-            String baseName = originalFilename != null ? originalFilename.replaceAll("\\.[^.]*$", "") : "forecast";
+            String baseName = originalFilename != null ? CompressedInput.baseName(originalFilename) : "forecast";
             String downloadFilename = baseName + "_forecast.csv";
             
             return ResponseEntity.ok()
@@ -291,24 +472,37 @@ public class LoanForecastController {
                            "attachment; filename=\"" + downloadFilename + "\"")
                     .header(org.springframework.http.HttpHeaders.CONTENT_TYPE, "text/csv")
                     .body(resource);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("Error downloading file for batch {}: {}", batchId, e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    /**
+     * The forecasts of a batch, with fromMonth and/or toMonth (yyyy-MM, inclusive) only those months
+     */
     @GetMapping("/upload-history/{batchId}/forecast-data")
-    public ResponseEntity<List<LoanForecastData>> getForecastData(@PathVariable String batchId) {
+    public ResponseEntity<List<LoanForecastData>> getForecastData(
+            @PathVariable String batchId,
+            @RequestParam(required = false) String fromMonth,
+            @RequestParam(required = false) String toMonth) {
         try {
+            MonthWindow window = MonthWindow.parse(fromMonth, toMonth);
             UploadHistory uploadHistory = uploadHistoryRepository.findByBatchId(batchId)
                     .orElseThrow(() -> new RuntimeException("Upload history not found"));
 
             // Regenerate forecast data from the saved original file
             if (uploadHistory.getOriginalFilePath() != null && java.nio.file.Files.exists(java.nio.file.Paths.get(uploadHistory.getOriginalFilePath()))) {
-                // Process CSV directly from the file path
-                List<LoanForecastData> forecastDataList = csvProcessingService.processCsvFileFromPath(
+                // Served from the forecast result cache, else read from the columnar cache written at ingest,
+                // or the CSV if there is none
+                List<LoanForecastData> forecastDataList = csvProcessingService.loadForecastData(
                     uploadHistory.getOriginalFilePath(),
-                    uploadHistory.getForecastStartDate()
+                    uploadHistory.getForecastStartDate(),
+                    uploadHistory.getForecastAlgorithm(),
+                    uploadHistory.getContentSha256(),
+                    window
                 );
 
                 return ResponseEntity.ok(forecastDataList);
@@ -316,12 +510,192 @@ public class LoanForecastController {
                 log.warn("Original file not found for batch {}", batchId);
                 return ResponseEntity.ok(List.of());
             }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("Error fetching forecast data for batch {}: {}", batchId, e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    /**
+     * One page of a batch's forecasts, sorted and filtered with the loan index built at ingest.
+     * Pass the nextCursor of a page, with the same sort and filters, to get the next one.
+     */
+    @GetMapping(value = "/upload-history/{batchId}/forecast-data/page", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getForecastDataPage(@PathVariable String batchId, @ModelAttribute ForecastPageRequest request) {
+        try {
+            if (request.getLimit() != null && request.getLimit() > maxPageLimit) {
+                return ResponseEntity.badRequest().body(Map.of("message", "At most " + maxPageLimit + " loans per page"));
+            }
+            UploadHistory uploadHistory = uploadHistoryRepository.findByBatchId(batchId).orElse(null);
+            if (uploadHistory == null || uploadHistory.getOriginalFilePath() == null
+                    || !java.nio.file.Files.exists(java.nio.file.Paths.get(uploadHistory.getOriginalFilePath()))) {
+                return ResponseEntity.notFound().build();
+            }
+            ForecastPageResponse page = csvProcessingService.pageForecastData(
+                    uploadHistory.getOriginalFilePath(),
+                    uploadHistory.getForecastStartDate(),
+                    uploadHistory.getForecastAlgorithm(),
+                    request);
+            if (page == null) {
+                // Processed before loans were kept in columnar form: only the full list is available
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(Map.of("message", "Batch " + batchId + " has no loan index, use /forecast-data"));
+            }
+            page.setBatchId(batchId);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error fetching forecast page for batch {}: {}", batchId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * One loan of a batch with its forecast, found through the batch's loan index
+     */
+    @GetMapping(value = "/batches/{batchId}/loans/{loanNumber}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<LoanForecastData> getLoan(@PathVariable String batchId, @PathVariable String loanNumber) {
+        try {
+            UploadHistory uploadHistory = uploadHistoryRepository.findByBatchId(batchId).orElse(null);
+            if (uploadHistory == null || uploadHistory.getOriginalFilePath() == null
+                    || !java.nio.file.Files.exists(java.nio.file.Paths.get(uploadHistory.getOriginalFilePath()))) {
+                return ResponseEntity.notFound().build();
+            }
+            List<LoanForecastData> forecasts = csvProcessingService.forecastSelectedLoans(
+                    uploadHistory.getOriginalFilePath(),
+                    uploadHistory.getForecastStartDate(),
+                    uploadHistory.getForecastAlgorithm(),
+                    List.of(loanNumber));
+            return forecasts.isEmpty() ? ResponseEntity.notFound().build() : ResponseEntity.ok(forecasts.get(0));
+        } catch (Exception e) {
+            log.error("Error fetching loan {} of batch {}: {}", loanNumber, batchId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Forecast request.selectedLoanNumbers of a batch, reading only those loans.
+     * forecastStartDate defaults to the upload's, with forecastEndDate the months after it are not forecast;
+     * loan numbers the batch does not have are left out.
+     */
+    @PostMapping(value = "/batches/{batchId}/forecast", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> forecastSelectedLoans(@PathVariable String batchId, @RequestBody ForecastRequest request) {
+        try {
+            List<String> loanNumbers = request.getSelectedLoanNumbers();
+            if (loanNumbers == null || loanNumbers.isEmpty()) {
+                return ResponseEntity.badRequest().body(Map.of("message", "selectedLoanNumbers is required"));
+            }
+            if (loanNumbers.size() > maxPageLimit) {
+                return ResponseEntity.badRequest().body(Map.of("message", "At most " + maxPageLimit + " loans per request"));
+            }
+            UploadHistory uploadHistory = uploadHistoryRepository.findByBatchId(batchId).orElse(null);
+            if (uploadHistory == null || uploadHistory.getOriginalFilePath() == null
+                    || !java.nio.file.Files.exists(java.nio.file.Paths.get(uploadHistory.getOriginalFilePath()))) {
+                return ResponseEntity.notFound().build();
+            }
+            String startMonth = request.getForecastStartDate() != null
+                    ? request.getForecastStartDate().toString() : uploadHistory.getForecastStartDate();
+            return ResponseEntity.ok(csvProcessingService.forecastSelectedLoans(
+                    uploadHistory.getOriginalFilePath(),
+                    startMonth,
+                    uploadHistory.getForecastAlgorithm(),
+                    loanNumbers,
+                    request.getForecastEndDate() != null
+                            ? new MonthWindow(null, YearMonth.from(request.getForecastEndDate())) : null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error forecasting selected loans of batch {}: {}", batchId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Portfolio aggregates of a batch (monthly totals, min/max, totals by % of Completion) without per-loan data.
+     * Recorded when the batch was processed; batches processed before that are summarized from their forecasts.
+     */
+    @GetMapping(value = "/upload-history/{batchId}/summary", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getPortfolioSummary(@PathVariable String batchId) {
+        try {
+            UploadHistory uploadHistory = uploadHistoryRepository.findByBatchId(batchId).orElse(null);
+            if (uploadHistory == null) {
+                return ResponseEntity.notFound().build();
+            }
+            if (uploadHistory.getPortfolioSummary() != null) {
+                return ResponseEntity.ok(objectMapper.readTree(uploadHistory.getPortfolioSummary()));
+            }
+            if (!"SUCCESS".equals(uploadHistory.getUploadStatus()) || uploadHistory.getOriginalFilePath() == null
+                    || !java.nio.file.Files.exists(java.nio.file.Paths.get(uploadHistory.getOriginalFilePath()))) {
+                return ResponseEntity.notFound().build();
+            }
+            PortfolioSummary summary = csvProcessingService.summarizeForecastData(
+                    uploadHistory.getOriginalFilePath(),
+                    uploadHistory.getForecastStartDate(),
+                    uploadHistory.getForecastAlgorithm(),
+                    uploadHistory.getContentSha256());
+            return ResponseEntity.ok(summary);
+        } catch (Exception e) {
+            log.error("Error summarizing batch {}: {}", batchId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Sensitivity sweep of a processed upload: the portfolio forecast under each of request.scenarios,
+     * all evaluated in one pass over the batch's loans.
+     * Parameters left out of a scenario keep the simple algorithm's values; forecastStartDate defaults to the upload's.
+     */
+    @PostMapping("/scenarios")
+    public ResponseEntity<?> sweepScenarios(@RequestBody ForecastRequest request) {
+        try {
+            List<ForecastRequest.ForecastParameters> scenarios = request.getScenarios();
+            if (request.getBatchId() == null || scenarios == null || scenarios.isEmpty()) {
+                return ResponseEntity.badRequest().body(Map.of("message", "batchId and at least one scenario are required"));
+            }
+            if (scenarios.size() > maxScenarios) {
+                return ResponseEntity.badRequest().body(Map.of("message", "At most " + maxScenarios + " scenarios per request"));
+            }
+            List<SCurveScenario> grid = new ArrayList<>(scenarios.size());
+            for (ForecastRequest.ForecastParameters parameters : scenarios) {
+                grid.add(new SCurveScenario(parameters.getSCurveSteepness(), parameters.getSCurveMidpoint(),
+                        parameters.getCompletionRate(), parameters.getRiskAdjustment()));
+            }
+
+            UploadHistory uploadHistory = uploadHistoryRepository.findByBatchId(request.getBatchId()).orElse(null);
+            if (uploadHistory == null || uploadHistory.getOriginalFilePath() == null
+                    || !java.nio.file.Files.exists(java.nio.file.Paths.get(uploadHistory.getOriginalFilePath()))) {
+                return ResponseEntity.notFound().build();
+            }
+            String startMonth = request.getForecastStartDate() != null
+                    ? request.getForecastStartDate().toString() : uploadHistory.getForecastStartDate();
+
+            ScenarioSweepResult result = csvProcessingService.sweepScenarios(uploadHistory.getOriginalFilePath(), startMonth, grid);
+            List<ScenarioSweepResponse.ScenarioCurve> curves = new ArrayList<>(grid.size());
+            for (int i = 0; i < grid.size(); i++) {
+                SCurveScenario scenario = grid.get(i);
+                curves.add(new ScenarioSweepResponse.ScenarioCurve(
+                        new ForecastRequest.ForecastParameters(scenario.getSteepness(), scenario.getMidpoint(),
+                                scenario.getCompletionRate(), scenario.getRiskAdjustment()),
+                        result.getPortfolioCurves().get(i)));
+            }
+            return ResponseEntity.ok(ScenarioSweepResponse.builder()
+                    .batchId(request.getBatchId())
+                    .forecastStartDate(startMonth)
+                    .loanCount(result.getLoanCount())
+                    .rejectedLoans(result.getRejectedLoans())
+                    .scenarios(curves)
+                    .build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error sweeping scenarios for batch {}: {}", request.getBatchId(), e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @GetMapping("/ping")
     public ResponseEntity<String> ping() {
         return ResponseEntity.ok("Pong");
@@ -0,0 +1,31 @@
+package com.bankplus.loan_forecast.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of a batch's forecasts, bound from the query parameters
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ForecastPageRequest {
+    // loanNumber, customerName, outstandingBalance or totalForecastedAmount
+    private String sort;
+    // asc or desc
+    private String direction;
+    // nextCursor of the previous page, null for the first page
+    private String cursor;
+    private Integer limit;
+    // Case-insensitive prefix of the customer name
+    private String customerPrefix;
+    // Inclusive % of Completion range
+    private Integer minCompletion;
+    private Integer maxCompletion;
+    // Months of the forecasts to return (yyyy-MM, inclusive), all months when left out
+    private String fromMonth;
+    private String toMonth;
+}
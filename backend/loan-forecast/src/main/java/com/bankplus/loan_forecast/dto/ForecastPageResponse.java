@@ -0,0 +1,23 @@
+package com.bankplus.loan_forecast.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ForecastPageResponse {
+    private String batchId;
+    private String sort;
+    private String direction;
+    // Loans in the batch, before filtering
+    private int totalLoans;
+    private List<LoanForecastData> loans;
+    // Cursor of the next page, null on the last page
+    private String nextCursor;
+}
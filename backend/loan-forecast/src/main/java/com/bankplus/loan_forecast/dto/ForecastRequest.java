@@ -1,5 +1,6 @@
 package com.bankplus.loan_forecast.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -17,12 +18,16 @@ public class ForecastRequest {
     private String forecastModel; // "S-curve", "linear", "custom"
     private List<String> selectedLoanNumbers; // Optional: specific loans to forecast
     private ForecastParameters parameters;
+    private List<ForecastParameters> scenarios; // Sensitivity sweep: one portfolio curve per scenario
     
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
     public static class ForecastParameters {
+        // Named explicitly, the getters alone would map to "scurveSteepness"
+        @JsonProperty("sCurveSteepness")
         private Double sCurveSteepness;
+        @JsonProperty("sCurveMidpoint")
         private Double sCurveMidpoint;
         private Double completionRate;
         private Double riskAdjustment;
@@ -0,0 +1,103 @@
+package com.bankplus.loan_forecast.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Arrays;
+
+/**
+ * Monthly forecast of one loan: a value in cents per month of a {@link MonthAxis}, month i at index i.
+ * Serialized as an object of "MMM-yy" labels to amounts in month order, e.g. {"Jan-25": 400000.00, ...};
+ * the labels only exist in the output.
+ */
+@JsonSerialize(using = ForecastSeries.Serializer.class)
+public final class ForecastSeries {
+    private final MonthAxis axis;
+    private final long[] cents;
+
+    /**
+     * @param cents Values in cents by month offset; the array is kept, not copied
+     */
+    public ForecastSeries(YearMonth startMonth, long[] cents) {
+        this.axis = MonthAxis.of(startMonth);
+        this.cents = cents;
+    }
+
+    public MonthAxis getAxis() {
+        return axis;
+    }
+
+    public YearMonth getStartMonth() {
+        return axis.getStartMonth();
+    }
+
+    public int size() {
+        return cents.length;
+    }
+
+    public boolean isEmpty() {
+        return cents.length == 0;
+    }
+
+    public long getCents(int month) {
+        return cents[month];
+    }
+
+    /**
+     * @return The months [from, to) as a series starting at month from
+     */
+    public ForecastSeries slice(int from, int to) {
+        return new ForecastSeries(getStartMonth().plusMonths(from), Arrays.copyOfRange(cents, from, to));
+    }
+
+    public BigDecimal getAmount(int month) {
+        return BigDecimal.valueOf(cents[month], 2);
+    }
+
+    public String getLabel(int month) {
+        return axis.label(month);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ForecastSeries)) {
+            return false;
+        }
+        ForecastSeries other = (ForecastSeries) o;
+        return getStartMonth().equals(other.getStartMonth()) && Arrays.equals(cents, other.cents);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * getStartMonth().hashCode() + Arrays.hashCode(cents);
+    }
+
+    @Override
+    public String toString() {
+        return "ForecastSeries(" + getStartMonth() + ", " + Arrays.toString(cents) + ")";
+    }
+
+    static class Serializer extends StdSerializer<ForecastSeries> {
+        Serializer() {
+            super(ForecastSeries.class);
+        }
+
+        @Override
+        public void serialize(ForecastSeries series, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            for (int month = 0; month < series.size(); month++) {
+                gen.writeFieldName(series.getLabel(month));
+                gen.writeNumber(series.getAmount(month));
+            }
+            gen.writeEndObject();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.bankplus.loan_forecast.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -7,12 +8,11 @@ import lombok.Builder;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.Map;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class LoanForecastData {
     private String loanNumber;
     private String customerName;
@@ -30,7 +30,11 @@ public class LoanForecastData {
     private BigDecimal undisbursedAmount;
     private BigDecimal percentOfLoanDrawn;
     private BigDecimal percentOfCompletion;
-    private Map<String, BigDecimal> forecastData;
+    // Amount per month from the batch start month
+    private ForecastSeries forecastData;
     private BigDecimal totalForecastedAmount;
+    // Sum of the months in forecastData when fromMonth/toMonth limit them, else null
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private BigDecimal windowForecastedAmount;
     private int forecastMonths;
 } 
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.bankplus.loan_forecast.dto;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Consecutive months from a start month, shared by every forecast series of a batch.
+ * Month i is the column at offset i, and its "MMM-yy" label is formatted once per axis when first needed.
+ */
+public final class MonthAxis {
+    private static final DateTimeFormatter LABEL_FORMAT = DateTimeFormatter.ofPattern("MMM-yy", Locale.ENGLISH);
+    private static final int MAX_SHARED_AXES = 1024;
+    private static final Map<YearMonth, MonthAxis> SHARED = new ConcurrentHashMap<>();
+
+    private final YearMonth startMonth;
+    private volatile String[] labels = new String[0];
+
+    private MonthAxis(YearMonth startMonth) {
+        this.startMonth = startMonth;
+    }
+
+    /**
+     * @return The axis starting at startMonth, the same instance for every caller
+     */
+    public static MonthAxis of(YearMonth startMonth) {
+        MonthAxis axis = SHARED.get(startMonth);
+        if (axis != null) {
+            return axis;
+        }
+        if (SHARED.size() >= MAX_SHARED_AXES) {
+            return new MonthAxis(startMonth);
+        }
+        return SHARED.computeIfAbsent(startMonth, MonthAxis::new);
+    }
+
+    public YearMonth getStartMonth() {
+        return startMonth;
+    }
+
+    public YearMonth month(int offset) {
+        return startMonth.plusMonths(offset);
+    }
+
+    /**
+     * @return The "MMM-yy" label of the month at offset, e.g. "Jan-25"
+     */
+    public String label(int offset) {
+        String[] current = labels;
+        return offset < current.length ? current[offset] : growLabels(offset);
+    }
+
+    private synchronized String growLabels(int offset) {
+        String[] current = labels;
+        if (offset >= current.length) {
+            String[] grown = new String[Math.max(offset + 1, Math.max(current.length * 2, 64))];
+            System.arraycopy(current, 0, grown, 0, current.length);
+            for (int i = current.length; i < grown.length; i++) {
+                grown[i] = startMonth.plusMonths(i).format(LABEL_FORMAT);
+            }
+            labels = grown;
+            current = grown;
+        }
+        return current[offset];
+    }
+}
@@ -0,0 +1,46 @@
+package com.bankplus.loan_forecast.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Portfolio aggregates of a batch's forecasts, without per-loan data
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PortfolioSummary {
+    private int loanCount;
+    private BigDecimal totalLoanAmount;
+    private BigDecimal totalOutstandingBalance;
+    private BigDecimal totalUndisbursedAmount;
+    private BigDecimal minOutstandingBalance;
+    private BigDecimal maxOutstandingBalance;
+    private BigDecimal minUndisbursedAmount;
+    private BigDecimal maxUndisbursedAmount;
+    // Sum, smallest and largest loan forecast by month, over the loans forecast for that month
+    private ForecastSeries monthlyTotals;
+    private ForecastSeries monthlyMin;
+    private ForecastSeries monthlyMax;
+    private Map<String, Integer> monthlyLoanCounts;
+    private List<CompletionBucket> completionBuckets;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CompletionBucket {
+        // % of Completion range, e.g. "10-19"
+        private String range;
+        private int loanCount;
+        private BigDecimal outstandingBalance;
+        private BigDecimal undisbursedAmount;
+        private BigDecimal totalForecastedAmount;
+    }
+}
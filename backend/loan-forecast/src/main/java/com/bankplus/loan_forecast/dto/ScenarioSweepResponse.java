@@ -0,0 +1,30 @@
+package com.bankplus.loan_forecast.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScenarioSweepResponse {
+    private String batchId;
+    private String forecastStartDate;
+    private int loanCount;
+    private long rejectedLoans;
+    private List<ScenarioCurve> scenarios;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ScenarioCurve {
+        // The scenario with defaults filled in
+        private ForecastRequest.ForecastParameters parameters;
+        // Portfolio balance by month
+        private ForecastSeries portfolio;
+    }
+}
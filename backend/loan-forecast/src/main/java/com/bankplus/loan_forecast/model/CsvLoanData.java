@@ -2,6 +2,7 @@ package com.bankplus.loan_forecast.model;
 
 import com.opencsv.bean.CsvBindByName;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
@@ -36,4 +37,8 @@ public class CsvLoanData {
     
     @CsvBindByName(column = "% of Completion")
     private String percentOfCompletion;
+
+    // Row in the source file (the header is row 1), 0 if unknown
+    @EqualsAndHashCode.Exclude
+    private int rowNumber;
 } 
\ No newline at end of file
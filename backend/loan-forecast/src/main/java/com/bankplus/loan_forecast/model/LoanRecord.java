@@ -0,0 +1,36 @@
+package com.bankplus.loan_forecast.model;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * A validated loan as the forecast engine and the writers consume it, built once from a {@link CsvLoanData} row.
+ * Amounts are whole cents and percentages hundredths of a percent, so the forecast loop never parses,
+ * boxes or casts a value.
+ */
+@Value
+public class LoanRecord {
+    String loanNumber;
+    String customerName;
+    long loanAmountCents;
+    LocalDate maturityDate;
+    LocalDate extendedDate;
+    long outstandingBalanceCents;
+    long undisbursedAmountCents;
+    long percentOfLoanDrawnHundredths;
+    int percentOfCompletion;
+
+    // Row in the source file (the header is row 1), 0 if unknown
+    @EqualsAndHashCode.Exclude
+    int rowNumber;
+
+    /**
+     * @return A value kept in cents or hundredths as a BigDecimal with scale 2
+     */
+    public static BigDecimal toDecimal(long hundredths) {
+        return BigDecimal.valueOf(hundredths, 2);
+    }
+}
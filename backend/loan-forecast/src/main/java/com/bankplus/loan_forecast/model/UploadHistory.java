@@ -76,6 +76,42 @@ public class UploadHistory implements java.io.Serializable {
     @JsonProperty("forecastCsvPath")
     @Column(name = "forecast_csv_path")
     private String forecastCsvPath;
+    
+    // JSON RejectionSummary: counts of rejected rows by reason and column, with a few sample rows
+    @JsonProperty("rejectionSummary")
+    @Column(name = "rejection_summary", columnDefinition = "TEXT")
+    private String rejectionSummary;
+    
+    @JsonProperty("forecastAlgorithm")
+    @Column(name = "forecast_algorithm", length = 50)
+    private String forecastAlgorithm;
+    
+    @JsonProperty("forecastAlgorithmVersion")
+    @Column(name = "forecast_algorithm_version", length = 50)
+    private String forecastAlgorithmVersion;
+    
+    // Batch whose forecasts an incremental upload reuses for unchanged loans
+    @JsonProperty("baseBatchId")
+    @Column(name = "base_batch_id")
+    private String baseBatchId;
+    
+    // SHA-256 of the saved upload, shared by uploads of identical files
+    @JsonProperty("contentSha256")
+    @Column(name = "content_sha256", length = 64)
+    private String contentSha256;
+    
+    @JsonProperty("reusedRecords")
+    @Column(name = "reused_records")
+    private Integer reusedRecords;
+    
+    @JsonProperty("recomputedRecords")
+    @Column(name = "recomputed_records")
+    private Integer recomputedRecords;
+    
+    // JSON PortfolioSummary: monthly totals, min/max and completion buckets of the batch's forecasts
+    @JsonProperty("portfolioSummary")
+    @Column(name = "portfolio_summary", columnDefinition = "TEXT")
+    private String portfolioSummary;
 
     public Long getId() {
         return id;
@@ -188,4 +224,68 @@ public class UploadHistory implements java.io.Serializable {
     public void setForecastCsvPath(String forecastCsvPath) {
         this.forecastCsvPath = forecastCsvPath;
     }
-} 
\ No newline at end of file
+
+    public String getRejectionSummary() {
+        return rejectionSummary;
+    }
+
+    public void setRejectionSummary(String rejectionSummary) {
+        this.rejectionSummary = rejectionSummary;
+    }
+
+    public String getForecastAlgorithm() {
+        return forecastAlgorithm;
+    }
+
+    public void setForecastAlgorithm(String forecastAlgorithm) {
+        this.forecastAlgorithm = forecastAlgorithm;
+    }
+
+    public String getForecastAlgorithmVersion() {
+        return forecastAlgorithmVersion;
+    }
+
+    public void setForecastAlgorithmVersion(String forecastAlgorithmVersion) {
+        this.forecastAlgorithmVersion = forecastAlgorithmVersion;
+    }
+
+    public String getBaseBatchId() {
+        return baseBatchId;
+    }
+
+    public void setBaseBatchId(String baseBatchId) {
+        this.baseBatchId = baseBatchId;
+    }
+
+    public String getContentSha256() {
+        return contentSha256;
+    }
+
+    public void setContentSha256(String contentSha256) {
+        this.contentSha256 = contentSha256;
+    }
+
+    public String getPortfolioSummary() {
+        return portfolioSummary;
+    }
+
+    public void setPortfolioSummary(String portfolioSummary) {
+        this.portfolioSummary = portfolioSummary;
+    }
+
+    public Integer getReusedRecords() {
+        return reusedRecords;
+    }
+
+    public void setReusedRecords(Integer reusedRecords) {
+        this.reusedRecords = reusedRecords;
+    }
+
+    public Integer getRecomputedRecords() {
+        return recomputedRecords;
+    }
+
+    public void setRecomputedRecords(Integer recomputedRecords) {
+        this.recomputedRecords = recomputedRecords;
+    }
+}
@@ -15,4 +15,6 @@ public interface UploadHistoryRepository extends JpaRepository<UploadHistory, Lo
     List<UploadHistory> findAllByOrderByUploadedAtDesc();
     
     UploadHistory findFirstByUploadStatusOrderByUploadedAtDesc(String uploadStatus);
+    
+    UploadHistory findFirstByContentSha256AndUploadStatusOrderByUploadedAtDesc(String contentSha256, String uploadStatus);
 } 
\ No newline at end of file
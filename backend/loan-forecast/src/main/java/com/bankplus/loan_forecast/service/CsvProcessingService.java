@@ -1,39 +1,109 @@
 package com.bankplus.loan_forecast.service;
 
+import com.bankplus.loan_forecast.dto.ForecastPageRequest;
+import com.bankplus.loan_forecast.dto.ForecastPageResponse;
+import com.bankplus.loan_forecast.dto.ForecastSeries;
 import com.bankplus.loan_forecast.dto.LoanForecastData;
+import com.bankplus.loan_forecast.dto.PortfolioSummary;
 import com.bankplus.loan_forecast.model.CsvLoanData;
+import com.bankplus.loan_forecast.model.LoanRecord;
 import com.bankplus.loan_forecast.service.algorithm.AlgorithmFactory;
+import com.bankplus.loan_forecast.service.algorithm.CentsArithmetic;
 import com.bankplus.loan_forecast.service.algorithm.ForecastAlgorithmInterface;
-import com.opencsv.CSVReader;
+import com.bankplus.loan_forecast.service.algorithm.SCurveScenario;
+import com.bankplus.loan_forecast.service.columnar.ForecastBaseline;
+import com.bankplus.loan_forecast.service.columnar.LoanColumnarFile;
+import com.bankplus.loan_forecast.service.columnar.LoanColumnarReader;
+import com.bankplus.loan_forecast.service.columnar.LoanColumnarWriter;
+import com.bankplus.loan_forecast.service.columnar.LoanIndex;
+import com.bankplus.loan_forecast.service.csv.CompressedInput;
+import com.bankplus.loan_forecast.service.csv.ContentDigest;
+import com.bankplus.loan_forecast.service.csv.CsvFormatException;
+import com.bankplus.loan_forecast.service.csv.CsvProjectionPlan;
+import com.bankplus.loan_forecast.service.csv.CsvProjectionPlanCache;
+import com.bankplus.loan_forecast.service.csv.CsvRowSource;
+import com.bankplus.loan_forecast.service.csv.LoanDateParser;
+import com.bankplus.loan_forecast.service.csv.MoneyParser;
+import com.bankplus.loan_forecast.service.csv.OpenCsvRowSource;
+import com.bankplus.loan_forecast.service.csv.ParallelCsvRowSource;
+import com.bankplus.loan_forecast.service.csv.TeeInputStream;
 import com.opencsv.CSVWriter;
-import com.opencsv.exceptions.CsvValidationException;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.*;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.time.YearMonth;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntFunction;
 import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
 @Service
 @Slf4j
 public class CsvProcessingService {
+    // Loans per page of forecasts when the request names no limit
+    private static final int DEFAULT_PAGE_LIMIT = 100;
+
     private final LoanProcessingMetrics metrics;
     private final AlgorithmFactory algorithmFactory;
+    private final CsvProjectionPlanCache projectionPlanCache = new CsvProjectionPlanCache(64);
+    private final LoanDateParser dateParser = new LoanDateParser(4096);
+
+    // Reader used for files already saved on disk: "mapped" or "opencsv", both return the same cells.
+    // Only the mapped reader can split a file, so parallel parsing needs "mapped".
+    @Value("${csv.reader.type:mapped}")
+    private String csvReaderType = CsvRowSource.MAPPED;
+
+    // With the mapped reader, files of at least this size are parsed in parallel byte ranges (0 disables)
+    @Value("${csv.parallel.threshold-bytes:67108864}")
+    private long parallelThresholdBytes = 64L * 1024 * 1024;
+
+    @Value("${csv.parallel.chunk-bytes:8388608}")
+    private long parallelChunkBytes = 8L * 1024 * 1024;
+
+    // Number of parser threads, 0 for one per available processor
+    @Value("${csv.parallel.parallelism:0}")
+    private int parallelism;
+
+    private ForkJoinPool parsePool;
+
+    // Batches of at least this many loans are forecast in parallel (0 disables); a streamed file switches
+    // to parallel slices once this many rows have been forecast one by one
+    @Value("${forecast.parallel.threshold-loans:2000}")
+    private int forecastParallelThreshold = 2000;
+
+    // Loans forecast by one task
+    @Value("${forecast.parallel.slice-size:256}")
+    private int forecastSliceSize = 256;
+
+    // Number of forecast threads, 0 for one per available processor
+    @Value("${forecast.parallel.parallelism:0}")
+    private int forecastParallelism;
+
+    private ForkJoinPool forecastPool;
+
+    // Forecasts of uploads, whole or of a month window, by content digest, start month and algorithm
+    private final ForecastResultCache forecastCache;
 
     @Autowired
     public CsvProcessingService(LoanProcessingMetrics metrics, AlgorithmFactory algorithmFactory) {
         this.metrics = metrics;
         this.algorithmFactory = algorithmFactory;
+        this.forecastCache = new ForecastResultCache(200_000, metrics);
     }
 
     public List<CsvLoanData> processCsvFile(MultipartFile file) throws IOException {
@@ -42,7 +112,8 @@ public class CsvProcessingService {
         Timer.Sample sample = metrics.startTimer();
         
         try {
-            List<CsvLoanData> result = processCsvData(new InputStreamReader(file.getInputStream()));
+            List<CsvLoanData> result = processCsvData(new InputStreamReader(CompressedInput.decompressIfGzip(file.getInputStream()),
+                StandardCharsets.UTF_8));
             BigDecimal totalAmount = calculateTotalAmount(result);
             long durationMs = sample.stop(metrics.getProcessingTimer());
             metrics.onProcessingComplete(durationMs, result.size(), totalAmount);
@@ -54,175 +125,817 @@ public class CsvProcessingService {
     }
 
     public List<LoanForecastData> processCsvFileFromPath(String filePath, String startMonth) throws IOException {
+        return processCsvFileFromPath(filePath, startMonth, algorithmFactory.getActiveAlgorithm(), null);
+    }
+
+    private List<LoanForecastData> processCsvFileFromPath(String filePath, String startMonth,
+                                                          ForecastAlgorithmInterface algorithm, MonthWindow window) throws IOException {
         log.info("Processing CSV file from path: {}", filePath);
         metrics.onProcessingStart();
         Timer.Sample sample = metrics.startTimer();
         
-        try (Reader reader = new FileReader(filePath)) {
-            List<CsvLoanData> loanDataList = processCsvData(reader);
+        try {
+            RejectionCollector rejections = new RejectionCollector();
+            List<CsvLoanData> loanDataList = processCsvData(Paths.get(filePath), rejections);
             BigDecimal totalAmount = calculateTotalAmount(loanDataList);
             long durationMs = sample.stop(metrics.getProcessingTimer());
             metrics.onProcessingComplete(durationMs, loanDataList.size(), totalAmount);
             log.info("Successfully parsed {} loan records from CSV file", loanDataList.size());
-            return convertToLoanForecastData(loanDataList, startMonth);
+            List<LoanForecastData> result = convertToLoanForecastData(loanDataList, startMonth, algorithm, rejections, window);
+            rejections.logSummary();
+            return result;
         } catch (IOException e) {
             metrics.onProcessingError("io_error", 1);
             throw new RuntimeException(e);
         }
     }
     
-    private BigDecimal calculateTotalAmount(List<CsvLoanData> loanDataList) {
-        return loanDataList.stream()
-            .map(data -> {
-                if (data.getLoanAmount() != null && !data.getLoanAmount().isEmpty()) {
-                    try {
-                        return new BigDecimal(data.getLoanAmount());
-                    } catch (NumberFormatException e) {
-                        return BigDecimal.ZERO;
+    /**
+     * Parse, validate, forecast and hand each loan to the sink one row at a time.
+     * Nothing is collected between the stages, so heap usage does not grow with the size of the file.
+     * The whole file is forecast with the algorithm active when it starts.
+     */
+    public StreamingResult processCsvStreaming(Path filePath, String startMonth, ForecastSink sink) throws IOException {
+        return processCsvStreaming(filePath, startMonth, sink, null);
+    }
+
+    /**
+     * {@link #processCsvStreaming(Path, String, ForecastSink)} reusing the forecasts of the base batch for the loans
+     * whose forecast inputs did not change, so only new and changed loans are forecast
+     * @param baseline The forecasts of the base batch, or null to forecast every loan. Ignored if they start in
+     *                 another month or were calculated with another algorithm, or if startMonth is not the first
+     *                 day of a month.
+     */
+    public StreamingResult processCsvStreaming(Path filePath, String startMonth, ForecastSink sink,
+                                               ForecastBaseline baseline) throws IOException {
+        ForecastAlgorithmInterface algorithm = algorithmFactory.getActiveAlgorithm();
+        log.info("Streaming CSV file from path: {} (algorithm {} v{})", filePath, algorithm.getAlgorithmName(), algorithm.getAlgorithmVersion());
+        LocalDate forecastStartDate = parseStartMonth(startMonth);
+        if (baseline != null && (forecastStartDate.getDayOfMonth() != 1 || !baseline.isComparable(
+                YearMonth.from(forecastStartDate), algorithm.getAlgorithmName(), algorithm.getAlgorithmVersion()))) {
+            log.info("Base batch was forecast from another start or with another algorithm, forecasting every loan");
+            baseline = null;
+        } else if (baseline != null) {
+            log.info("Reusing unchanged forecasts of a base batch of {} loans", baseline.size());
+        }
+        ForecastBaseline base = baseline;
+        metrics.onProcessingStart();
+        Timer.Sample sample = metrics.startTimer();
+
+        StreamCounters counters = new StreamCounters(new PortfolioAccumulator(YearMonth.from(forecastStartDate)));
+        RejectionCollector rejections = new RejectionCollector();
+        boolean parallel = forecastParallelThreshold > 0;
+        ForkJoinPool pool = parallel ? getForecastPool() : null;
+        Deque<ForecastSlice> inFlight = new ArrayDeque<>();
+        ForecastSlice[] filling = new ForecastSlice[1];
+        try (CsvRowSource source = openRowSource(filePath)) {
+            readCsvRows(source, loanData -> {
+                counters.totalRecords++;
+                if (!parallel || counters.totalRecords <= forecastParallelThreshold) {
+                    LoanRecord loan = toLoanRecord(loanData, rejections);
+                    LoanForecastData forecastData = loan != null ? reuseForecast(loan, forecastStartDate, base) : null;
+                    boolean reused = forecastData != null;
+                    if (loan != null && !reused) {
+                        forecastData = forecastLoan(loan, forecastStartDate, algorithm, rejections);
                     }
+                    if (forecastData != null) {
+                        counters.portfolio.add(loan, forecastData.getForecastData());
+                    }
+                    emitForecast(counters, sink, loanData, loan, forecastData, reused);
+                    return;
                 }
-                return BigDecimal.ZERO;
-            })
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+                if (filling[0] == null) {
+                    filling[0] = new ForecastSlice(forecastSliceSize);
+                }
+                if (filling[0].add(loanData)) {
+                    filling[0].submit(pool, forecastStartDate, algorithm, base, rejections);
+                    inFlight.add(filling[0]);
+                    filling[0] = null;
+                    // Bound the rows held in memory: two queued slices per thread keep every thread busy
+                    while (inFlight.size() > pool.getParallelism() * 2) {
+                        emitSlice(inFlight.poll(), counters, sink);
+                    }
+                }
+            }, rejections);
+            if (filling[0] != null) {
+                filling[0].submit(pool, forecastStartDate, algorithm, base, rejections);
+                inFlight.add(filling[0]);
+            }
+            while (!inFlight.isEmpty()) {
+                emitSlice(inFlight.poll(), counters, sink);
+            }
+            long durationMs = sample.stop(metrics.getProcessingTimer());
+            metrics.onProcessingComplete(durationMs, counters.totalRecords, counters.totalAmount);
+            log.info("Streamed {} loan records, {} forecasted ({} reused from the base batch)", counters.totalRecords,
+                counters.processedRecords, counters.reusedRecords);
+            rejections.logSummary();
+            return new StreamingResult(counters.totalRecords, counters.processedRecords, counters.totalAmount, rejections.summarize(),
+                algorithm.getAlgorithmName(), algorithm.getAlgorithmVersion(), counters.reusedRecords,
+                counters.portfolio.toSummary());
+        } catch (IOException e) {
+            metrics.onProcessingError("io_error", counters.totalRecords);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void emitSlice(ForecastSlice slice, StreamCounters counters, ForecastSink sink) throws IOException {
+        slice.task.join();
+        // The slice's loans were folded by the worker that forecast them
+        counters.portfolio.merge(slice.portfolio);
+        for (int i = 0; i < slice.size; i++) {
+            emitForecast(counters, sink, slice.rows[i], slice.loans[i], slice.forecasts[i], slice.reused[i]);
+        }
+    }
+
+    private void emitForecast(StreamCounters counters, ForecastSink sink, CsvLoanData loanData, LoanRecord loan,
+                              LoanForecastData forecastData, boolean reused) throws IOException {
+        if (forecastData != null) {
+            // Reuse the amount parsed for the forecast instead of parsing the cell again
+            counters.totalAmount = counters.totalAmount.add(forecastData.getLoanAmount());
+            counters.processedRecords++;
+            if (reused) {
+                counters.reusedRecords++;
+            }
+            sink.accept(loan, forecastData);
+        } else {
+            counters.totalAmount = counters.totalAmount.add(parseLoanAmount(loanData));
+        }
     }
 
     /**
-     * Only extract the required columns, ignore all other columns
+     * The base batch's forecast of an unchanged loan, or null if there is no base or the loan has to be forecast
      */
-    public List<CsvLoanData> processCsvData(Reader reader) throws IOException {
-        List<CsvLoanData> loanDataList = new ArrayList<>();
-        
-        try (CSVReader csvReader = new CSVReader(reader)) {
-            String[] headers;
+    private LoanForecastData reuseForecast(LoanRecord loan, LocalDate forecastStartDate, ForecastBaseline baseline) {
+        if (baseline == null) {
+            return null;
+        }
+        long[] monthlyCents = baseline.reusableForecast(loan);
+        return monthlyCents != null ? toForecastData(loan, forecastStartDate, monthlyCents) : null;
+    }
+
+    /**
+     * Open a streaming writer for the forecast CSV of the given input file
+     */
+    public ForecastCsvStreamWriter openForecastCsvWriter(String inputFileName, String startMonth) throws IOException {
+        String baseName = CompressedInput.baseName(inputFileName);
+        return new ForecastCsvStreamWriter(Paths.get("backend/data/forecast/", baseName + "_forecast.csv"), parseStartMonth(startMonth));
+    }
+
+    /**
+     * Save an upload to target while parsing it in the same pass, without holding the body in memory.
+     * The header is validated as soon as it arrives, so schema errors stop the transfer early.
+     * @throws CsvFormatException If the header lacks a required column or a row is not well-formed CSV
+     */
+    public UploadScanResult saveAndScanCsv(InputStream body, Path target) throws IOException {
+        MessageDigest digest = ContentDigest.newSha256();
+        try (OutputStream out = new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(target), 64 * 1024), digest)) {
+            TeeInputStream tee = new TeeInputStream(body, out);
+            int[] completeRows = new int[1];
+            // Not closed here: closing the reader would close the request body
+            // The copy gets the bytes as sent, so compressed uploads stay compressed on disk
+            CsvRowSource source = new OpenCsvRowSource(new InputStreamReader(CompressedInput.decompressIfGzip(tee), StandardCharsets.UTF_8));
+            RejectionCollector rejections = new RejectionCollector();
+            int totalRows = readCsvRows(source, loanData -> completeRows[0]++, rejections);
+            rejections.logSummary();
+            tee.drain();
+            log.info("Saved {} bytes to {} while parsing: {} rows, {} complete", tee.getBytesRead(), target, totalRows, completeRows[0]);
+            return new UploadScanResult(tee.getBytesRead(), totalRows, completeRows[0], ContentDigest.hex(digest));
+        }
+    }
+
+    /**
+     * Open a writer for the columnar cache of a saved upload, to be fed by {@link #processCsvStreaming}
+     */
+    public LoanColumnarWriter openColumnarWriter(Path filePath) throws IOException {
+        return new LoanColumnarWriter(LoanColumnarFile.pathFor(filePath), filePath);
+    }
+
+    /**
+     * Sort the loans of a saved upload's columnar cache into its loan index, for paging through the batch
+     * @return The index path, or null if the upload has no columnar cache
+     */
+    public Path buildLoanIndex(Path filePath) throws IOException {
+        return LoanIndex.build(filePath);
+    }
+
+    /**
+     * A page of a saved upload's forecasts in the order and with the filters of the request, from its loan index.
+     * The stored forecasts are returned as forecast at ingest; only when they were forecast from another month or
+     * with another algorithm are the loans of the page forecast again.
+     * With fromMonth/toMonth the totalForecastedAmount order is still that of the whole-forecast totals the loans show.
+     * @param algorithmType The algorithm the upload was processed with, or null for the active one
+     * @return The page, or null if the upload has no columnar cache to serve pages from
+     * @throws IllegalArgumentException If the sort, direction, cursor, limit or month window is invalid
+     */
+    public ForecastPageResponse pageForecastData(String filePath, String startMonth, String algorithmType,
+                                                 ForecastPageRequest request) throws IOException {
+        LoanIndex.SortKey sort = parseSortKey(request.getSort());
+        boolean descending = parseDescending(request.getDirection());
+        int limit = request.getLimit() != null ? request.getLimit() : DEFAULT_PAGE_LIMIT;
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive, got " + limit);
+        }
+        MonthWindow window = MonthWindow.parse(request.getFromMonth(), request.getToMonth());
+        String query = sort + ":" + descending + ":" + (request.getCustomerPrefix() != null ? request.getCustomerPrefix().toLowerCase() : "")
+            + ":" + request.getMinCompletion() + ":" + request.getMaxCompletion() + ":" + window;
+        int position = request.getCursor() != null ? decodeCursor(request.getCursor(), query) : 0;
+
+        try (LoanIndex index = openLoanIndex(Paths.get(filePath))) {
+            if (index == null) {
+                return null;
+            }
+            LoanIndex.Page page = index.page(sort, descending, position, limit, request.getCustomerPrefix(),
+                request.getMinCompletion(), request.getMaxCompletion());
+            return ForecastPageResponse.builder()
+                .sort(request.getSort() != null ? request.getSort() : "loanNumber")
+                .direction(descending ? "desc" : "asc")
+                .totalLoans(index.getLoans().getRowCount())
+                .loans(forecastRows(index.getLoans(), page.getRows(), startMonth, algorithmType, window))
+                .nextCursor(page.getNextPosition() < 0 ? null : encodeCursor(page.getNextPosition(), query))
+                .build();
+        }
+    }
+
+    /**
+     * Forecast the given loans of a saved upload, found through its loan index without reading the other loans.
+     * Loans the upload does not have (or that were rejected at ingest) are left out.
+     * Uploads without a columnar cache are forecast in full and filtered.
+     * @param algorithmType The algorithm the upload was processed with, or null for the active one
+     * @return The forecasts in the order of loanNumbers
+     */
+    public List<LoanForecastData> forecastSelectedLoans(String filePath, String startMonth, String algorithmType,
+                                                        List<String> loanNumbers) throws IOException {
+        return forecastSelectedLoans(filePath, startMonth, algorithmType, loanNumbers, null);
+    }
+
+    /**
+     * {@link #forecastSelectedLoans(String, String, String, List)} with only the months of a window in forecastData
+     * @param window The months to return, or null for the whole forecast
+     */
+    public List<LoanForecastData> forecastSelectedLoans(String filePath, String startMonth, String algorithmType,
+                                                        List<String> loanNumbers, MonthWindow window) throws IOException {
+        try (LoanIndex index = openLoanIndex(Paths.get(filePath))) {
+            if (index != null) {
+                int[] rows = new int[loanNumbers.size()];
+                int found = 0;
+                for (String loanNumber : loanNumbers) {
+                    int row = loanNumber != null ? index.findRow(loanNumber) : -1;
+                    if (row >= 0) {
+                        rows[found++] = row;
+                    }
+                }
+                return forecastRows(index.getLoans(), Arrays.copyOf(rows, found), startMonth, algorithmType, window);
+            }
+        }
+        log.info("No loan index for {}, forecasting the whole upload for {} loans", filePath, loanNumbers.size());
+        Map<String, LoanForecastData> byLoanNumber = new HashMap<>();
+        for (LoanForecastData forecast : loadForecastData(filePath, startMonth, algorithmType, null, window)) {
+            byLoanNumber.putIfAbsent(forecast.getLoanNumber(), forecast);
+        }
+        List<LoanForecastData> forecasts = new ArrayList<>(loanNumbers.size());
+        for (String loanNumber : loanNumbers) {
+            LoanForecastData forecast = byLoanNumber.get(loanNumber);
+            if (forecast != null) {
+                forecasts.add(forecast);
+            }
+        }
+        return forecasts;
+    }
+
+    /**
+     * The loan index of a saved upload, built from its columnar cache if it has none yet
+     * @return The index, or null if the upload has no columnar cache
+     */
+    private LoanIndex openLoanIndex(Path source) throws IOException {
+        LoanIndex index = LoanIndex.open(source);
+        if (index == null && buildLoanIndex(source) != null) {
+            index = LoanIndex.open(source);
+        }
+        return index;
+    }
+
+    /**
+     * The forecasts of some rows of a columnar cache: as stored at ingest when they start in the same month and were
+     * calculated with the same algorithm, otherwise forecast again
+     * @param window The months to return, or null for the whole forecast
+     */
+    private List<LoanForecastData> forecastRows(LoanColumnarReader loans, int[] rows, String startMonth, String algorithmType,
+                                                MonthWindow window) {
+        LocalDate forecastStartDate = parseStartMonth(startMonth);
+        ForecastAlgorithmInterface algorithm = algorithmFactory.resolve(algorithmType);
+        boolean storedForecasts = hasStoredForecasts(loans, forecastStartDate, algorithm);
+        RejectionCollector rejections = new RejectionCollector();
+        List<LoanForecastData> forecasts = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            LoanRecord loan = loans.loan(row);
+            LoanForecastData forecast = storedForecasts
+                ? storedForecast(loan, forecastStartDate, loans.forecastCents(row), window)
+                : forecastLoan(loan, forecastStartDate, algorithm, rejections, window);
+            if (forecast != null) {
+                forecasts.add(forecast);
+            }
+        }
+        return forecasts;
+    }
+
+    /**
+     * @return Whether the forecasts stored in a columnar cache start at forecastStartDate and were calculated with
+     *         the same version of algorithm, so they can be returned without forecasting again
+     */
+    private static boolean hasStoredForecasts(LoanColumnarReader loans, LocalDate forecastStartDate,
+                                              ForecastAlgorithmInterface algorithm) {
+        return forecastStartDate.getDayOfMonth() == 1
+            && YearMonth.from(forecastStartDate).equals(loans.getForecastStartMonth())
+            && algorithm.getAlgorithmName().equals(loans.getForecastAlgorithm())
+            && algorithm.getAlgorithmVersion().equals(loans.getForecastAlgorithmVersion());
+    }
+
+    /**
+     * Open the forecasts of a saved upload for an incremental upload
+     * @return The baseline, or null if the upload has no columnar cache
+     */
+    public ForecastBaseline openForecastBaseline(Path filePath) throws IOException {
+        return ForecastBaseline.open(filePath);
+    }
+
+    /**
+     * Forecast a saved upload from its columnar cache when there is one for the current file,
+     * otherwise by parsing the CSV
+     * @param algorithmType The algorithm the upload was processed with, or null for the active one
+     */
+    public List<LoanForecastData> loadForecastData(String filePath, String startMonth, String algorithmType) throws IOException {
+        return loadForecastData(filePath, startMonth, algorithmType, null);
+    }
+
+    /**
+     * {@link #loadForecastData(String, String, String)} through the forecast result cache
+     * @param contentSha256 Digest of the upload recorded when it was saved, or null to bypass the cache
+     * @return The forecasts, unmodifiable when they come from or went into the cache
+     */
+    public List<LoanForecastData> loadForecastData(String filePath, String startMonth, String algorithmType,
+                                                   String contentSha256) throws IOException {
+        return loadForecastData(filePath, startMonth, algorithmType, contentSha256, null);
+    }
+
+    /**
+     * {@link #loadForecastData(String, String, String, String)} with only the months of a window in forecastData:
+     * totalForecastedAmount and forecastMonths stay those of the whole forecast, windowForecastedAmount is the sum
+     * of the window. A whole forecast already in the cache is cut to the window; otherwise only the window's months
+     * are forecast and cached under the window.
+     * @param window The months to return, or null for the whole forecast
+     */
+    public List<LoanForecastData> loadForecastData(String filePath, String startMonth, String algorithmType,
+                                                   String contentSha256, MonthWindow window) throws IOException {
+        ForecastAlgorithmInterface algorithm = algorithmFactory.resolve(algorithmType);
+        LocalDate forecastStartDate = parseStartMonth(startMonth);
+        if (contentSha256 == null) {
+            return loadForecastData(filePath, startMonth, algorithm, window);
+        }
+        String key = ForecastResultCache.key(contentSha256, forecastStartDate.toString(),
+            algorithm.getAlgorithmName(), algorithm.getAlgorithmVersion());
+        if (window == null) {
+            List<LoanForecastData> forecasts = forecastCache.get(key);
+            return forecasts != null ? forecasts : forecastCache.put(key, loadForecastData(filePath, startMonth, algorithm, null));
+        }
+        // One hit or miss per load: the whole forecast is only a first choice before the window's own entry
+        List<LoanForecastData> forecasts = forecastCache.peek(key);
+        if (forecasts != null) {
+            metrics.onForecastCacheHit();
+            return forecasts.stream().map(forecast -> inWindow(forecast, forecastStartDate, window)).toList();
+        }
+        String windowKey = ForecastResultCache.key(contentSha256, forecastStartDate + " " + window,
+            algorithm.getAlgorithmName(), algorithm.getAlgorithmVersion());
+        forecasts = forecastCache.get(windowKey);
+        return forecasts != null ? forecasts : forecastCache.put(windowKey, loadForecastData(filePath, startMonth, algorithm, window));
+    }
+
+    /**
+     * Write the forecast CSV of a saved upload for the months of a window, in the layout of the CSV written at ingest
+     * @return The path of the written CSV
+     */
+    public String exportForecastCsv(String filePath, String startMonth, String algorithmType, String contentSha256,
+                                    MonthWindow window, Path target) throws IOException {
+        LocalDate forecastStartDate = parseStartMonth(startMonth);
+        LocalDate firstMonth = window != null ? forecastStartDate.plusMonths(window.firstOffset(forecastStartDate)) : forecastStartDate;
+        try (ForecastCsvStreamWriter writer = new ForecastCsvStreamWriter(target, firstMonth)) {
+            for (LoanForecastData forecast : loadForecastData(filePath, startMonth, algorithmType, contentSha256, window)) {
+                writer.accept(null, forecast);
+            }
+            return writer.finish();
+        }
+    }
+
+    /**
+     * Portfolio aggregates of a saved upload whose summary was not recorded at ingest, as for batches processed
+     * before summaries were kept. The forecasts come from {@link #loadForecastData(String, String, String, String)}.
+     */
+    public PortfolioSummary summarizeForecastData(String filePath, String startMonth, String algorithmType,
+                                                  String contentSha256) throws IOException {
+        PortfolioAccumulator portfolio = new PortfolioAccumulator(YearMonth.from(parseStartMonth(startMonth)));
+        for (LoanForecastData forecast : loadForecastData(filePath, startMonth, algorithmType, contentSha256)) {
+            portfolio.add(forecast);
+        }
+        return portfolio.toSummary();
+    }
+
+    private List<LoanForecastData> loadForecastData(String filePath, String startMonth,
+                                                    ForecastAlgorithmInterface algorithm, MonthWindow window) throws IOException {
+        Path source = Paths.get(filePath);
+        try (LoanColumnarReader reader = LoanColumnarReader.open(LoanColumnarFile.pathFor(source), source)) {
+            if (reader != null) {
+                return forecastFromColumnar(reader, startMonth, algorithm, window);
+            }
+        }
+        return processCsvFileFromPath(filePath, startMonth, algorithm, window);
+    }
+
+    /**
+     * Forecast every loan of a columnar cache. The cache holds the values already parsed and validated at ingest,
+     * so this is a scan of primitive columns with no CSV tokenization. The forecasts stored at ingest are returned
+     * as they are when they start in the same month and were calculated with the same algorithm.
+     */
+    public List<LoanForecastData> forecastFromColumnar(LoanColumnarReader reader, String startMonth) {
+        return forecastFromColumnar(reader, startMonth, algorithmFactory.getActiveAlgorithm(), null);
+    }
+
+    private List<LoanForecastData> forecastFromColumnar(LoanColumnarReader reader, String startMonth,
+                                                        ForecastAlgorithmInterface algorithm, MonthWindow window) {
+        LocalDate forecastStartDate = parseStartMonth(startMonth);
+        int rowCount = reader.getRowCount();
+        if (hasStoredForecasts(reader, forecastStartDate, algorithm)) {
+            log.info("Reading the stored forecasts of {} loans from columnar cache", rowCount);
+            return forecastSlices(rowCount, (forecasts, from, to) -> {
+                for (int row = from; row < to; row++) {
+                    forecasts[row] = storedForecast(reader.loan(row), forecastStartDate, reader.forecastCents(row), window);
+                }
+            });
+        }
+        log.info("Forecasting {} loans from columnar cache", rowCount);
+        RejectionCollector rejections = new RejectionCollector();
+        List<LoanForecastData> result = forecastSlices(rowCount, (forecasts, from, to) ->
+            forecastColumnarSlice(reader, from, to, forecastStartDate, algorithm, window, rejections, forecasts));
+        rejections.logSummary();
+        return result;
+    }
+
+    /**
+     * Forecast the rows [from, to) of a columnar cache with one
+     * {@link ForecastAlgorithmInterface#calculateForecastCurves} call over the slice's loan columns.
+     * With a window the call covers the window's months and each loan's total is summed separately.
+     */
+    private void forecastColumnarSlice(LoanColumnarReader reader, int from, int to, LocalDate forecastStartDate,
+                                       ForecastAlgorithmInterface algorithm, MonthWindow window,
+                                       RejectionCollector rejections, LoanForecastData[] forecasts) {
+        int count = to - from;
+        LoanRecord[] loans = new LoanRecord[count];
+        long[] outstandingCents = new long[count];
+        long[] undisbursedCents = new long[count];
+        double[] percentOfCompletion = new double[count];
+        long[] projectStartDays = new long[count];
+        long[] extendedDays = new long[count];
+        long[][] curves = new long[count][];
+        int[] curveMonths = new int[count];
+        CurvePlan[] plans = new CurvePlan[count];
+        // Index of the month every curve of the slice is evaluated from
+        int evaluationStart = window != null ? evaluationStart(forecastStartDate, window.firstOffset(forecastStartDate)) : 0;
+        for (int i = 0; i < count; i++) {
+            LoanRecord loan = reader.loan(from + i);
+            CurvePlan plan;
             try {
-                headers = csvReader.readNext();
-                if (headers == null) {
-                    throw new IOException("CSV file is empty or has no headers");
+                plan = planCurve(loan, forecastStartDate, rejections);
+            } catch (Exception e) {
+                rejections.reject(loan.getRowNumber(), loan.getLoanNumber(), RejectionCollector.Reason.PROCESSING_ERROR,
+                    null, e.toString(), e);
+                plan = null;
+            }
+            if (plan == null) {
+                // Rejected, no months to forecast
+                curves[i] = new long[0];
+                continue;
+            }
+            loans[i] = loan;
+            outstandingCents[i] = loan.getOutstandingBalanceCents();
+            undisbursedCents[i] = loan.getUndisbursedAmountCents();
+            percentOfCompletion[i] = loan.getPercentOfCompletion() / 100.0;
+            projectStartDays[i] = plan.projectStartDate.toEpochDay();
+            extendedDays[i] = loan.getExtendedDate().toEpochDay();
+            plans[i] = plan;
+            if (window == null) {
+                curves[i] = new long[plan.forecastMonths];
+                curveMonths[i] = plan.curveMonths;
+            } else {
+                int end = plan.windowStart(forecastStartDate, window) + plan.windowLength(forecastStartDate, window);
+                curves[i] = new long[Math.max(0, end - evaluationStart)];
+                curveMonths[i] = Math.max(0, Math.min(plan.curveMonths, end) - evaluationStart);
+            }
+        }
+
+        try {
+            algorithm.calculateForecastCurves(outstandingCents, undisbursedCents, percentOfCompletion, projectStartDays,
+                forecastStartDate.plusMonths(evaluationStart), extendedDays, curves, curveMonths, count);
+            for (int i = 0; i < count; i++) {
+                if (loans[i] == null) {
+                    continue;
+                }
+                if (window == null) {
+                    forecasts[from + i] = toForecastData(loans[i], forecastStartDate, curves[i]);
+                } else {
+                    int first = plans[i].windowStart(forecastStartDate, window);
+                    long[] months = Arrays.copyOfRange(curves[i], Math.max(0, first - evaluationStart), curves[i].length);
+                    forecasts[from + i] = toWindowForecastData(loans[i], forecastStartDate, plans[i], algorithm, first, months);
                 }
-            } catch (CsvValidationException e) {
-                throw new IOException("Invalid CSV format: " + e.getMessage(), e);
             }
-            
-            // Find the index of the required columns
-            Map<String, Integer> columnIndexes = findRequiredColumnIndexes(headers);
-            log.info("Found required columns at indexes: {}", columnIndexes);
-            
-            // Verify that all required columns exist
-            String[] criticalColumns = {"Loan Number", "Loan Amount", "Maturity Date", "Extended Date", 
-                                      "Outstanding Balance", "Undisbursed Amount", "% of Completion"};
-            for (String col : criticalColumns) {
-                if (!columnIndexes.containsKey(col)) {
-                    throw new IOException("Required column missing: " + col);
+        } catch (Exception e) {
+            log.warn("Forecasting rows {} to {} column-wise failed, forecasting them one by one: {}", from, to, e.toString());
+            for (int i = 0; i < count; i++) {
+                if (loans[i] != null) {
+                    forecasts[from + i] = forecastLoan(loans[i], forecastStartDate, algorithm, rejections, window);
                 }
             }
-            
-            String[] row;
-            int rowNum = 1;
+        }
+    }
+
+    /**
+     * Portfolio forecast of a saved upload under each scenario, in one pass over its loans. The loans are read once,
+     * from the columnar cache when there is one, and each loan's project start, months and time progress are derived
+     * once and shared by every scenario.
+     * @return One portfolio curve per scenario, in the same order
+     */
+    public ScenarioSweepResult sweepScenarios(String filePath, String startMonth, List<SCurveScenario> scenarios) throws IOException {
+        LocalDate forecastStartDate = parseStartMonth(startMonth);
+        RejectionCollector rejections = new RejectionCollector();
+        List<LoanRecord> loans = readLoanRecords(Paths.get(filePath), rejections);
+        log.info("Sweeping {} scenarios over {} loans of {}", scenarios.size(), loans.size(), filePath);
+
+        SweepColumns columns = new SweepColumns(loans.size());
+        int months = 0;
+        for (LoanRecord loan : loans) {
+            CurvePlan plan;
             try {
-                while ((row = csvReader.readNext()) != null) {
-                    rowNum++;
-                    try {
-                        CsvLoanData loanData = extractRequiredFields(row, columnIndexes);
-                        if (loanData != null) {
-                            loanDataList.add(loanData);
-                        }
-                    } catch (Exception e) {
-                        log.warn("Skipping row {} due to parsing error: {}", rowNum, e.getMessage());
+                plan = planCurve(loan, forecastStartDate, rejections);
+            } catch (Exception e) {
+                rejections.reject(loan.getRowNumber(), loan.getLoanNumber(), RejectionCollector.Reason.PROCESSING_ERROR,
+                    null, e.toString(), e);
+                continue;
+            }
+            if (plan != null) {
+                columns.add(loan, plan);
+                months = Math.max(months, plan.forecastMonths);
+            }
+        }
+        long[] forecastDays = new long[months];
+        for (int month = 0; month < months; month++) {
+            forecastDays[month] = forecastStartDate.plusMonths(month).toEpochDay();
+        }
+
+        SCurveScenario[] grid = scenarios.toArray(new SCurveScenario[0]);
+        long[][] totals = new long[grid.length][months];
+        int count = columns.count;
+        if (forecastParallelThreshold <= 0 || count < forecastParallelThreshold) {
+            columns.sweep(0, count, grid, forecastDays, totals);
+        } else {
+            // A few ranges per thread, each summed into its own totals and added up in order
+            ForkJoinPool pool = getForecastPool();
+            int rangeSize = Math.max(forecastSliceSize, (count + pool.getParallelism() * 4 - 1) / (pool.getParallelism() * 4));
+            List<ForkJoinTask<long[][]>> ranges = new ArrayList<>();
+            for (int start = 0; start < count; start += rangeSize) {
+                int from = start;
+                int to = Math.min(count, start + rangeSize);
+                ranges.add(pool.submit(() -> {
+                    long[][] partial = new long[grid.length][forecastDays.length];
+                    columns.sweep(from, to, grid, forecastDays, partial);
+                    return partial;
+                }));
+            }
+            for (ForkJoinTask<long[][]> range : ranges) {
+                long[][] partial = range.join();
+                for (int s = 0; s < grid.length; s++) {
+                    for (int month = 0; month < months; month++) {
+                        totals[s][month] += partial[s][month];
                     }
                 }
-            } catch (CsvValidationException e) {
-                throw new IOException("CSV validation error at row " + rowNum + ": " + e.getMessage(), e);
             }
         }
-        
-        log.info("Successfully extracted {} valid loan records from CSV", loanDataList.size());
-        return loanDataList;
+
+        List<ForecastSeries> curves = new ArrayList<>(grid.length);
+        for (long[] total : totals) {
+            curves.add(new ForecastSeries(YearMonth.from(forecastStartDate), total));
+        }
+        rejections.logSummary();
+        return new ScenarioSweepResult(count, rejections.getTotalRejected(), curves);
     }
-    
+
     /**
-     * Find the index of the required columns in the CSV
+     * The validated loans of a saved upload, from its columnar cache when there is one for the current file
      */
-    private Map<String, Integer> findRequiredColumnIndexes(String[] headers) {
-        Map<String, Integer> indexes = new HashMap<>();
-        String[] requiredColumns = {"Loan Number", "Customer Name", "Loan Amount", "Maturity Date", "Extended Date", 
-                                  "Outstanding Balance", "Undisbursed Amount", "% of Loan Drawn", "% of Completion"};
-        
-        // Debug: Print all headers for troubleshooting
-        log.info("CSV Headers found: {}", Arrays.toString(headers));
-        
-        for (String requiredCol : requiredColumns) {
-            for (int i = 0; i < headers.length; i++) {
-                // More aggressive cleaning: remove quotes, trim, normalize whitespace, remove BOM
-                String header = headers[i]
-                    .trim()
-                    .replaceAll("\"", "")
-                    .replaceAll("\\s+", " ")  // normalize whitespace
-                    .replaceAll("^\\uFEFF", "");  // remove BOM if present
-                
-                log.debug("Comparing '{}' with '{}'", requiredCol, header);
-                
-                if (requiredCol.equals(header)) {
-                    indexes.put(requiredCol, i);
-                    log.debug("Found column '{}' at index {}", requiredCol, i);
-                    break;
+    private List<LoanRecord> readLoanRecords(Path source, RejectionCollector rejections) throws IOException {
+        try (LoanColumnarReader reader = LoanColumnarReader.open(LoanColumnarFile.pathFor(source), source)) {
+            if (reader != null) {
+                List<LoanRecord> loans = new ArrayList<>(reader.getRowCount());
+                for (int row = 0; row < reader.getRowCount(); row++) {
+                    loans.add(reader.loan(row));
                 }
+                return loans;
             }
         }
-        
-        // Debug: Show what columns were found
-        log.info("Column mapping result: {}", indexes);
-        
-        return indexes;
+        List<LoanRecord> loans = new ArrayList<>();
+        try (CsvRowSource rows = openRowSource(source)) {
+            readCsvRows(rows, loanData -> {
+                LoanRecord loan = toLoanRecord(loanData, rejections);
+                if (loan != null) {
+                    loans.add(loan);
+                }
+            }, rejections);
+        }
+        return loans;
     }
-    
+
+    private BigDecimal calculateTotalAmount(List<CsvLoanData> loanDataList) {
+        return loanDataList.stream()
+            .map(this::parseLoanAmount)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private BigDecimal parseLoanAmount(CsvLoanData data) {
+        BigDecimal amount = MoneyParser.parse(data.getLoanAmount());
+        return amount != null ? amount : BigDecimal.ZERO;
+    }
+
     /**
-     * Extract the required fields from the CSV row and create a CsvLoanData object
+     * Only extract the required columns, ignore all other columns
      */
-    private CsvLoanData extractRequiredFields(String[] row, Map<String, Integer> columnIndexes) {
+    public List<CsvLoanData> processCsvData(Reader reader) throws IOException {
+        RejectionCollector rejections = new RejectionCollector();
+        try (CsvRowSource source = new OpenCsvRowSource(reader)) {
+            return collectCsvRows(source, rejections);
+        } finally {
+            rejections.logSummary();
+        }
+    }
+
+    /**
+     * Same as {@link #processCsvData(Reader)} for a file on disk, read with the configured reader type
+     */
+    public List<CsvLoanData> processCsvData(Path filePath) throws IOException {
+        RejectionCollector rejections = new RejectionCollector();
         try {
-            String loanNumber = getColumnValue(row, columnIndexes, "Loan Number");
-            String customerName = getColumnValue(row, columnIndexes, "Customer Name");
-            String loanAmount = getColumnValue(row, columnIndexes, "Loan Amount");
-            String maturityDate = getColumnValue(row, columnIndexes, "Maturity Date");
-            String extendedDate = getColumnValue(row, columnIndexes, "Extended Date");
-            String outstandingBalance = getColumnValue(row, columnIndexes, "Outstanding Balance");
-            String undisbursedAmount = getColumnValue(row, columnIndexes, "Undisbursed Amount");
-            String percentOfLoanDrawn = getColumnValue(row, columnIndexes, "% of Loan Drawn");
-            String percentOfCompletion = getColumnValue(row, columnIndexes, "% of Completion");
-            
-            if (isEmpty(loanNumber) || isEmpty(loanAmount) || isEmpty(maturityDate) 
-                || isEmpty(extendedDate) || isEmpty(outstandingBalance) 
-                || isEmpty(undisbursedAmount) || isEmpty(percentOfCompletion)) {
-                return null; // Skip invalid rows
-            }
-            
-            CsvLoanData loanData = new CsvLoanData();
-            loanData.setLoanNumber(loanNumber);
-            loanData.setCustomerName(customerName);
-            loanData.setLoanAmount(loanAmount);
-            loanData.setMaturityDate(maturityDate);
-            loanData.setExtendedDate(extendedDate);
-            loanData.setOutstandingBalance(outstandingBalance);
-            loanData.setUndisbursedAmount(undisbursedAmount);
-            loanData.setPercentOfLoanDrawn(percentOfLoanDrawn);
-            loanData.setPercentOfCompletion(percentOfCompletion);
-            
-            return loanData;
-        } catch (Exception e) {
-            log.error("Error extracting fields from row: {}", e.getMessage());
-            return null;
+            return processCsvData(filePath, rejections);
+        } finally {
+            rejections.logSummary();
         }
     }
-    
-    private String getColumnValue(String[] row, Map<String, Integer> columnIndexes, String columnName) {
-        Integer index = columnIndexes.get(columnName);
-        if (index == null || index >= row.length) {
-            return "";
+
+    private List<CsvLoanData> processCsvData(Path filePath, RejectionCollector rejections) throws IOException {
+        try (CsvRowSource source = openRowSource(filePath)) {
+            return collectCsvRows(source, rejections);
         }
-        String value = row[index];
-        return value != null ? value.trim() : "";
     }
-    
+
+    public void setCsvReaderType(String csvReaderType) {
+        this.csvReaderType = csvReaderType;
+    }
+
+    public void setParallelThresholdBytes(long parallelThresholdBytes) {
+        this.parallelThresholdBytes = parallelThresholdBytes;
+    }
+
+    public void setParallelChunkBytes(long parallelChunkBytes) {
+        this.parallelChunkBytes = parallelChunkBytes;
+    }
+
+    /**
+     * Open the configured reader, switching to parallel parsing for large files read with the mapped tokenizer
+     * and to a decompressing stream for gzip files
+     */
+    CsvRowSource openRowSource(Path filePath) throws IOException {
+        if (CompressedInput.isGzip(filePath)) {
+            // Compressed bytes cannot be mapped or split, so decompress as a stream
+            log.info("Reading gzip-compressed CSV {}", filePath);
+            return new OpenCsvRowSource(new InputStreamReader(
+                CompressedInput.decompressIfGzip(Files.newInputStream(filePath)), StandardCharsets.UTF_8));
+        }
+        if (CsvRowSource.MAPPED.equalsIgnoreCase(csvReaderType) && parallelThresholdBytes > 0
+                && Files.size(filePath) >= parallelThresholdBytes) {
+            ForkJoinPool pool = getParsePool();
+            log.info("Parsing {} in parallel ({} threads, {} byte chunks)", filePath, pool.getParallelism(), parallelChunkBytes);
+            // Two chunks per thread keeps every thread busy while the caller consumes rows in order
+            return new ParallelCsvRowSource(filePath, pool, parallelChunkBytes, pool.getParallelism() * 2);
+        }
+        return CsvRowSource.open(filePath, csvReaderType);
+    }
+
+    public void setForecastParallelThreshold(int forecastParallelThreshold) {
+        this.forecastParallelThreshold = forecastParallelThreshold;
+    }
+
+    public void setForecastSliceSize(int forecastSliceSize) {
+        this.forecastSliceSize = forecastSliceSize;
+    }
+
+    @Value("${forecast.cache.max-loans:200000}")
+    public void setForecastCacheMaxLoans(long maxLoans) {
+        forecastCache.setMaxLoans(maxLoans);
+    }
+
+    public ForecastResultCache getForecastCache() {
+        return forecastCache;
+    }
+
+    public void setForecastParallelism(int forecastParallelism) {
+        this.forecastParallelism = forecastParallelism;
+    }
+
+    private synchronized ForkJoinPool getParsePool() {
+        if (parsePool == null) {
+            parsePool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        }
+        return parsePool;
+    }
+
+    private synchronized ForkJoinPool getForecastPool() {
+        if (forecastPool == null) {
+            forecastPool = new ForkJoinPool(forecastParallelism > 0 ? forecastParallelism : Runtime.getRuntime().availableProcessors());
+        }
+        return forecastPool;
+    }
+
+    @PreDestroy
+    public synchronized void shutdownParsePool() {
+        if (parsePool != null) {
+            parsePool.shutdown();
+        }
+        if (forecastPool != null) {
+            forecastPool.shutdown();
+        }
+    }
+
+    private List<CsvLoanData> collectCsvRows(CsvRowSource source, RejectionCollector rejections) throws IOException {
+        List<CsvLoanData> loanDataList = new ArrayList<>();
+        readCsvRows(source, loanDataList::add, rejections);
+        log.info("Successfully extracted {} valid loan records from CSV", loanDataList.size());
+        return loanDataList;
+    }
+
+    /**
+     * Read the CSV and pass every valid row to the handler as soon as it is extracted
+     * @return The number of data rows read
+     * @throws CsvFormatException If the header is missing or incomplete, or a row is not well-formed CSV
+     */
+    private int readCsvRows(CsvRowSource source, RowHandler handler, RejectionCollector rejections) throws IOException {
+        String[] headers;
+        try {
+            headers = source.readHeader();
+            if (headers == null) {
+                throw new CsvFormatException("CSV file is empty or has no headers");
+            }
+        } catch (CsvFormatException e) {
+            throw new CsvFormatException("Invalid CSV format: " + e.getMessage(), e);
+        }
+        
+        // Resolve the required columns once per header layout
+        boolean cached = projectionPlanCache.contains(headers);
+        CsvProjectionPlan plan = projectionPlanCache.planFor(headers);
+        if (cached) {
+            log.debug("Reusing cached column mapping: {}", plan);
+        } else {
+            log.info("CSV Headers found: {}", Arrays.toString(headers));
+            log.info("Found required columns at indexes: {}", plan);
+        }
+        
+        // Verify that all required columns exist
+        CsvProjectionPlan.RequiredColumn missing = plan.firstMissingCriticalColumn();
+        if (missing != null) {
+            throw new CsvFormatException("Required column missing: " + missing.getHeader());
+        }
+        source.project(plan.getProjectedColumns());
+        
+        String[] row;
+        int rowNum = 1;
+        try {
+            while ((row = source.readNext()) != null) {
+                rowNum++;
+                CsvLoanData loanData;
+                try {
+                    loanData = plan.extract(row);
+                } catch (Exception e) {
+                    rejections.reject(rowNum, null, RejectionCollector.Reason.MALFORMED_ROW, null, e.getMessage());
+                    continue;
+                }
+                if (loanData != null) {
+                    loanData.setRowNumber(rowNum);
+                    handler.handle(loanData);
+                } else if (!plan.isBlank(row)) {
+                    CsvProjectionPlan.RequiredColumn column = plan.firstMissingValue(row);
+                    rejections.reject(rowNum, plan.valueOf(row, CsvProjectionPlan.RequiredColumn.LOAN_NUMBER),
+                        RejectionCollector.Reason.MISSING_VALUE, column.getHeader(), plan.valueOf(row, column));
+                }
+            }
+        } catch (CsvFormatException e) {
+            throw new CsvFormatException("CSV validation error at row " + rowNum + ": " + e.getMessage(), e);
+        }
+        return rowNum - 1;
+    }
+
     private boolean isEmpty(String s) {
         return s == null || s.trim().isEmpty() || "N/A".equalsIgnoreCase(s.trim());
     }
@@ -231,37 +944,24 @@ public class CsvProcessingService {
      * Generate forecast data
      */
     public List<LoanForecastData> convertToLoanForecastData(List<CsvLoanData> csvDataList, String startMonthStr) {
+        RejectionCollector rejections = new RejectionCollector();
+        List<LoanForecastData> result = convertToLoanForecastData(csvDataList, startMonthStr,
+            algorithmFactory.getActiveAlgorithm(), rejections, null);
+        rejections.logSummary();
+        return result;
+    }
+
+    private List<LoanForecastData> convertToLoanForecastData(List<CsvLoanData> csvDataList, String startMonthStr,
+                                                             ForecastAlgorithmInterface algorithm, RejectionCollector rejections,
+                                                             MonthWindow window) {
         log.info("Converting {} CSV records to forecast data using local algorithms", csvDataList.size());
         
         try {
-            LocalDate forecastStartDate;
-            if (startMonthStr.matches("\\d{4}-\\d{2}")) {
-                // Handle yyyy-MM format
-                forecastStartDate = LocalDate.parse(startMonthStr + "-01");
-            } else {
-                // Handle yyyy-MM-dd format
-                forecastStartDate = LocalDate.parse(startMonthStr);
-            }
-            
-            // Convert CSV data to Map
-            List<Map<String, Object>> loanDataList = new ArrayList<>();
-            for (CsvLoanData csvData : csvDataList) {
-                Map<String, Object> loanData = convertCsvToMap(csvData);
-                if (loanData != null) {
-                    loanDataList.add(loanData);
-                }
-            }
-            
-            // Calculate forecasts (slow-fast-slow curve)
-            List<Map<String, Object>> loanForecasts = calculateForecastsLocally(loanDataList, forecastStartDate);
+            LocalDate forecastStartDate = parseStartMonth(startMonthStr);
             
-            List<LoanForecastData> result = new ArrayList<>();
-            for (Map<String, Object> forecast : loanForecasts) {
-                LoanForecastData loanForecastData = convertMapToLoanForecastData(forecast);
-                if (loanForecastData != null) {
-                    result.add(loanForecastData);
-                }
-            }
+            List<CsvLoanData> rows = csvDataList instanceof RandomAccess ? csvDataList : new ArrayList<>(csvDataList);
+            List<LoanForecastData> result = forecastAll(rows.size(),
+                i -> forecastLoan(rows.get(i), forecastStartDate, algorithm, rejections, window));
             
             log.info("Successfully converted {} records to forecast data", result.size());
             return result;
@@ -273,102 +973,373 @@ public class CsvProcessingService {
     }
     
     /**
-     * Calculate forecasts
+     * Forecast count loans, in parallel slices once the batch reaches the threshold.
+     * The forecasts keep the input order, without the rejected loans.
      */
-    private List<Map<String, Object>> calculateForecastsLocally(List<Map<String, Object>> loanDataList, LocalDate forecastStartDate) {
-        List<Map<String, Object>> results = new ArrayList<>();
-        
-        for (Map<String, Object> loanData : loanDataList) {
-            try {
-                Map<String, Object> forecast = calculateSingleLoanForecastLocally(loanData, forecastStartDate);
-                if (forecast != null) {
-                    results.add(forecast);
-                }
-            } catch (Exception e) {
-                log.error("Error calculating local forecast for loan: {}", loanData.get("loanNumber"), e);
+    private List<LoanForecastData> forecastAll(int count, IntFunction<LoanForecastData> forecastLoan) {
+        return forecastSlices(count, (forecasts, from, to) -> {
+            for (int i = from; i < to; i++) {
+                forecasts[i] = forecastLoan.apply(i);
+            }
+        });
+    }
+
+    /**
+     * Forecast count loans a slice at a time, the slices in parallel once the batch reaches the threshold.
+     * The forecasts keep the input order, without the rejected loans.
+     */
+    private List<LoanForecastData> forecastSlices(int count, SliceForecaster forecaster) {
+        LoanForecastData[] forecasts = new LoanForecastData[count];
+        if (forecastParallelThreshold <= 0 || count < forecastParallelThreshold) {
+            forecaster.forecast(forecasts, 0, count);
+        } else {
+            ForkJoinPool pool = getForecastPool();
+            log.info("Forecasting {} loans in parallel ({} threads, {} loans per task)", count, pool.getParallelism(), forecastSliceSize);
+            List<ForkJoinTask<?>> slices = new ArrayList<>();
+            for (int start = 0; start < count; start += forecastSliceSize) {
+                int from = start;
+                int to = Math.min(count, start + forecastSliceSize);
+                slices.add(pool.submit(() -> forecaster.forecast(forecasts, from, to)));
+            }
+            for (ForkJoinTask<?> slice : slices) {
+                slice.join();
             }
         }
-        
-        return results;
+        List<LoanForecastData> result = new ArrayList<>(count);
+        for (LoanForecastData forecast : forecasts) {
+            if (forecast != null) {
+                result.add(forecast);
+            }
+        }
+        return result;
+    }
+
+    @FunctionalInterface
+    private interface SliceForecaster {
+        /**
+         * Set forecasts[i] for every i in [from, to), null for a rejected loan. Per-loan failures are rejections,
+         * so one bad loan does not fail its slice.
+         */
+        void forecast(LoanForecastData[] forecasts, int from, int to);
+    }
+
+    /**
+     * Columnar caches record only the month their forecasts start in, so only forecasts from the first day of a
+     * month are stored for reuse
+     */
+    public boolean isStorableForecastStart(String startMonth) {
+        return parseStartMonth(startMonth).getDayOfMonth() == 1;
+    }
+
+    private LocalDate parseStartMonth(String startMonthStr) {
+        if (startMonthStr.matches("\\d{4}-\\d{2}")) {
+            // Handle yyyy-MM format
+            return LocalDate.parse(startMonthStr + "-01");
+        }
+        // Handle yyyy-MM-dd format
+        return LocalDate.parse(startMonthStr);
+    }
+
+    /**
+     * Calculate the forecast (slow-fast-slow curve) for one CSV row, or null if the row is rejected
+     */
+    private LoanForecastData forecastLoan(CsvLoanData csvData, LocalDate forecastStartDate,
+                                          ForecastAlgorithmInterface algorithm, RejectionCollector rejections,
+                                          MonthWindow window) {
+        LoanRecord loan = toLoanRecord(csvData, rejections);
+        return loan != null ? forecastLoan(loan, forecastStartDate, algorithm, rejections, window) : null;
+    }
+
+    private LoanForecastData forecastLoan(LoanRecord loan, LocalDate forecastStartDate,
+                                          ForecastAlgorithmInterface algorithm, RejectionCollector rejections) {
+        return forecastLoan(loan, forecastStartDate, algorithm, rejections, null);
+    }
+
+    private LoanForecastData forecastLoan(LoanRecord loan, LocalDate forecastStartDate,
+                                          ForecastAlgorithmInterface algorithm, RejectionCollector rejections,
+                                          MonthWindow window) {
+        try {
+            return calculateSingleLoanForecastLocally(loan, forecastStartDate, algorithm, rejections, window);
+        } catch (Exception e) {
+            rejections.reject(loan.getRowNumber(), loan.getLoanNumber(), RejectionCollector.Reason.PROCESSING_ERROR,
+                null, e.toString(), e);
+            return null;
+        }
     }
     
     /**
      * Calculate forecasts for a single loan
+     * @param window The months to forecast, or null for the whole forecast
      */
-    private Map<String, Object> calculateSingleLoanForecastLocally(Map<String, Object> loanData, LocalDate forecastStartDate) {
-        String loanNumber = (String) loanData.get("loanNumber");
-        log.debug("Processing loan: {}", loanNumber);
+    private LoanForecastData calculateSingleLoanForecastLocally(LoanRecord loan, LocalDate forecastStartDate,
+                                                                ForecastAlgorithmInterface algorithm,
+                                                                RejectionCollector rejections, MonthWindow window) {
+        CurvePlan plan = planCurve(loan, forecastStartDate, rejections);
+        if (plan == null) {
+            return null;
+        }
         
-        String customerName = (String) loanData.get("customerName");
-        BigDecimal loanAmount = (BigDecimal) loanData.get("loanAmount");
-        BigDecimal outstandingBalance = (BigDecimal) loanData.get("outstandingBalance");
-        BigDecimal undisbursedAmount = (BigDecimal) loanData.get("undisbursedAmount");
-        Integer percentOfCompletion = (Integer) loanData.get("percentOfCompletion");
-        LocalDate extendedDate = (LocalDate) loanData.get("extendedDate");
+        if (window == null) {
+            // The whole curve in one call, the remaining months stay 0
+            long[] monthlyCents = new long[plan.forecastMonths];
+            algorithm.calculateForecastCurve(loan.getOutstandingBalanceCents(), loan.getUndisbursedAmountCents(),
+                loan.getPercentOfCompletion() / 100.0, plan.projectStartDate, forecastStartDate, loan.getExtendedDate(),
+                monthlyCents, plan.curveMonths);
+            return toForecastData(loan, forecastStartDate, monthlyCents);
+        }
         
-        log.debug("Loan {}: loanAmount={}, outstandingBalance={}, undisbursedAmount={}, percentOfCompletion={}, extendedDate={}", 
-                 loanNumber, loanAmount, outstandingBalance, undisbursedAmount, percentOfCompletion, extendedDate);
+        // Only the window's months of the curve, the project start still that of the whole forecast
+        int first = plan.windowStart(forecastStartDate, window);
+        int length = plan.windowLength(forecastStartDate, window);
+        int evaluationStart = evaluationStart(forecastStartDate, first);
+        long[] evaluated = new long[first + length - evaluationStart];
+        algorithm.calculateForecastCurve(loan.getOutstandingBalanceCents(), loan.getUndisbursedAmountCents(),
+            loan.getPercentOfCompletion() / 100.0, plan.projectStartDate, forecastStartDate.plusMonths(evaluationStart),
+            loan.getExtendedDate(), evaluated, Math.max(0, Math.min(plan.curveMonths, first + length) - evaluationStart));
+        long[] months = evaluationStart == first ? evaluated : Arrays.copyOfRange(evaluated, first - evaluationStart, evaluated.length);
+        return toWindowForecastData(loan, forecastStartDate, plan, algorithm, first, months);
+    }
+    
+    /**
+     * The month a window's curve is evaluated from. Month i of a forecast is forecastStartDate.plusMonths(i), which
+     * plusMonths from a later month only gives again when every month has the start day; after the 28th the curve
+     * is evaluated from the start.
+     * @param first Index of the window's first month
+     */
+    private static int evaluationStart(LocalDate forecastStartDate, int first) {
+        return forecastStartDate.getDayOfMonth() <= 28 ? first : 0;
+    }
+    
+    /**
+     * The months of a loan's forecast, or null if the loan is rejected
+     */
+    private CurvePlan planCurve(LoanRecord loan, LocalDate forecastStartDate, RejectionCollector rejections) {
+        int percentOfCompletion = loan.getPercentOfCompletion();
+        LocalDate extendedDate = loan.getExtendedDate();
         
         // Validate parameters
-        if (outstandingBalance.compareTo(BigDecimal.ZERO) < 0 || 
-            undisbursedAmount.compareTo(BigDecimal.ZERO) < 0 ||
-            percentOfCompletion < 0 || percentOfCompletion > 100) {
-            log.warn("Invalid parameters for loan {}", loanNumber);
-            log.warn("  outstandingBalance: {}, undisbursedAmount: {}, percentOfCompletion: {}", 
-                     outstandingBalance, undisbursedAmount, percentOfCompletion);
+        String invalidColumn = null;
+        String invalidValue = null;
+        if (loan.getOutstandingBalanceCents() < 0) {
+            invalidColumn = "Outstanding Balance";
+            invalidValue = LoanRecord.toDecimal(loan.getOutstandingBalanceCents()).toPlainString();
+        } else if (loan.getUndisbursedAmountCents() < 0) {
+            invalidColumn = "Undisbursed Amount";
+            invalidValue = LoanRecord.toDecimal(loan.getUndisbursedAmountCents()).toPlainString();
+        } else if (percentOfCompletion < 0 || percentOfCompletion > 100) {
+            invalidColumn = "% of Completion";
+            invalidValue = String.valueOf(percentOfCompletion);
+        }
+        if (invalidColumn != null) {
+            rejections.reject(loan.getRowNumber(), loan.getLoanNumber(), RejectionCollector.Reason.INVALID_VALUE, invalidColumn, invalidValue);
             return null;
         }
         
-        log.debug("Loan {} passed validation, generating forecasts...", loanNumber);
-        
         LocalDate projectStartDate = calculateProjectStartDate(percentOfCompletion / 100.0, forecastStartDate, extendedDate);
         LocalDate cutoffDate = extendedDate.plusMonths(6);
         LocalDate forecastEndDate = cutoffDate.withDayOfMonth(1).plusMonths(1);
-        
-        // Generate monthly forecasts
-        Map<String, BigDecimal> monthlyForecasts = new HashMap<>();
-        LocalDate currentDate = forecastStartDate;
-        BigDecimal totalForecastedAmount = BigDecimal.ZERO;
-        int forecastMonths = 0;
-        
-        while (!currentDate.isAfter(forecastEndDate)) {
-            BigDecimal forecastOutstandingBalance;
-            
-            // If the current date is after the month of Extended Date + 180 days, the forecast value is 0
-            if (currentDate.isAfter(cutoffDate.withDayOfMonth(1).minusMonths(1))) {
-                forecastOutstandingBalance = BigDecimal.ZERO;
-            } else {
-                forecastOutstandingBalance = calculateForecastOutstandingBalance(
-                    outstandingBalance, undisbursedAmount, percentOfCompletion / 100.0,
-                    projectStartDate, currentDate, extendedDate
-                );
+        // After the month before Extended Date + 180 days the forecast value is 0
+        LocalDate lastForecastedMonth = cutoffDate.withDayOfMonth(1).minusMonths(1);
+        int forecastMonths = monthsThrough(forecastStartDate, forecastEndDate);
+        int curveMonths = Math.min(monthsThrough(forecastStartDate, lastForecastedMonth), forecastMonths);
+        return new CurvePlan(projectStartDate, forecastMonths, curveMonths);
+    }
+    
+    private static LoanIndex.SortKey parseSortKey(String sort) {
+        if (sort == null) {
+            return LoanIndex.SortKey.LOAN_NUMBER;
+        }
+        // Accepts the field names of LoanForecastData as well as the key names
+        String normalized = sort.replace("_", "");
+        for (LoanIndex.SortKey key : LoanIndex.SortKey.values()) {
+            if (key.name().replace("_", "").equalsIgnoreCase(normalized)) {
+                return key;
             }
-            
-            // Formatting: MMM-yy
-            String monthKey = currentDate.format(DateTimeFormatter.ofPattern("MMM-yy", Locale.ENGLISH));
-            log.debug("Generating forecast for month: {} (currentDate: {})", monthKey, currentDate);
-            monthlyForecasts.put(monthKey, forecastOutstandingBalance.setScale(2, RoundingMode.HALF_UP));
-            totalForecastedAmount = totalForecastedAmount.add(forecastOutstandingBalance);
-            forecastMonths++;
-            
-            currentDate = currentDate.plusMonths(1);
         }
+        throw new IllegalArgumentException("Unknown sort " + sort
+            + ", expected loanNumber, customerName, outstandingBalance or totalForecastedAmount");
+    }
+
+    private static boolean parseDescending(String direction) {
+        if (direction == null || direction.equalsIgnoreCase("asc")) {
+            return false;
+        }
+        if (direction.equalsIgnoreCase("desc")) {
+            return true;
+        }
+        throw new IllegalArgumentException("Unknown direction " + direction + ", expected asc or desc");
+    }
+
+    /**
+     * A cursor is the position in the filtered order, bound to the query it was returned for
+     */
+    private static String encodeCursor(int position, String query) {
+        String cursor = position + ":" + Integer.toHexString(query.hashCode());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int decodeCursor(String cursor, String query) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(':');
+            if (separator > 0 && decoded.substring(separator + 1).equals(Integer.toHexString(query.hashCode()))) {
+                int position = Integer.parseInt(decoded.substring(0, separator));
+                if (position >= 0) {
+                    return position;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // Falls through to the error below, NumberFormatException included
+        }
+        throw new IllegalArgumentException("Invalid cursor for this sort and filter: " + cursor);
+    }
+
+    private LoanForecastData toForecastData(LoanRecord loan, LocalDate forecastStartDate, long[] monthlyCents) {
+        return forecastBuilder(loan, new ForecastSeries(YearMonth.from(forecastStartDate), monthlyCents),
+                sum(monthlyCents), monthlyCents.length).build();
+    }
+
+    /**
+     * The forecast of a loan from the months of a window. The whole-forecast total is summed by the algorithm without
+     * evaluating the curve for the other months.
+     * @param first Index of the window's first month
+     * @param windowCents The months of the window
+     */
+    private static LoanForecastData toWindowForecastData(LoanRecord loan, LocalDate forecastStartDate, CurvePlan plan,
+                                                         ForecastAlgorithmInterface algorithm, int first, long[] windowCents) {
+        long totalForecastedCents = algorithm.calculateForecastTotal(loan.getOutstandingBalanceCents(),
+                loan.getUndisbursedAmountCents(), loan.getPercentOfCompletion() / 100.0, plan.projectStartDate,
+                forecastStartDate, loan.getExtendedDate(), plan.curveMonths);
+        return forecastBuilder(loan, new ForecastSeries(YearMonth.from(forecastStartDate).plusMonths(first), windowCents),
+                totalForecastedCents, plan.forecastMonths)
+                .windowForecastedAmount(LoanRecord.toDecimal(sum(windowCents)))
+                .build();
+    }
+
+    /**
+     * A forecast stored at ingest, with only the months of window when there is one
+     */
+    private LoanForecastData storedForecast(LoanRecord loan, LocalDate forecastStartDate, long[] monthlyCents, MonthWindow window) {
+        LoanForecastData forecast = toForecastData(loan, forecastStartDate, monthlyCents);
+        return window != null ? inWindow(forecast, forecastStartDate, window) : forecast;
+    }
+
+    private static long sum(long[] cents) {
+        long total = 0;
+        for (long month : cents) {
+            total += month;
+        }
+        return total;
+    }
+
+    private static LoanForecastData.LoanForecastDataBuilder forecastBuilder(LoanRecord loan, ForecastSeries forecastData,
+                                                                           long totalForecastedCents, int forecastMonths) {
+        return LoanForecastData.builder()
+                .loanNumber(loan.getLoanNumber())
+                .customerName(loan.getCustomerName())
+                .loanAmount(LoanRecord.toDecimal(loan.getLoanAmountCents()))
+                .outstandingBalance(LoanRecord.toDecimal(loan.getOutstandingBalanceCents()))
+                .undisbursedAmount(LoanRecord.toDecimal(loan.getUndisbursedAmountCents()))
+                .percentOfCompletion(BigDecimal.valueOf(loan.getPercentOfCompletion()))
+                .maturityDate(loan.getMaturityDate())
+                .extendedDate(loan.getExtendedDate())
+                .percentOfLoanDrawn(LoanRecord.toDecimal(loan.getPercentOfLoanDrawnHundredths()))
+                .forecastData(forecastData)
+                .totalForecastedAmount(LoanRecord.toDecimal(totalForecastedCents))
+                .forecastMonths(forecastMonths);
+    }
+
+    /**
+     * A whole forecast with only the months of a window in forecastData and their sum in windowForecastedAmount.
+     * totalForecastedAmount and forecastMonths stay those of the whole forecast.
+     */
+    private static LoanForecastData inWindow(LoanForecastData forecast, LocalDate forecastStartDate, MonthWindow window) {
+        ForecastSeries series = forecast.getForecastData();
+        int first = Math.min(window.firstOffset(forecastStartDate), series.size());
+        ForecastSeries months = series.slice(first, first + window.length(forecastStartDate, series.size()));
+        long windowCents = 0;
+        for (int i = 0; i < months.size(); i++) {
+            windowCents += months.getCents(i);
+        }
+        return forecast.toBuilder()
+                .forecastData(months)
+                .windowForecastedAmount(LoanRecord.toDecimal(windowCents))
+                .build();
+    }
+    
+    /**
+     * The loans of a scenario sweep with their curve plans, as columns
+     */
+    private static final class SweepColumns {
+        final long[] outstandingCents;
+        final long[] undisbursedCents;
+        final double[] percentOfCompletion;
+        final long[] projectStartDays;
+        final long[] daysToExtended;
+        final int[] curveMonths;
+        int count;
+
+        SweepColumns(int capacity) {
+            outstandingCents = new long[capacity];
+            undisbursedCents = new long[capacity];
+            percentOfCompletion = new double[capacity];
+            projectStartDays = new long[capacity];
+            daysToExtended = new long[capacity];
+            curveMonths = new int[capacity];
+        }
+
+        void add(LoanRecord loan, CurvePlan plan) {
+            outstandingCents[count] = loan.getOutstandingBalanceCents();
+            undisbursedCents[count] = loan.getUndisbursedAmountCents();
+            percentOfCompletion[count] = loan.getPercentOfCompletion() / 100.0;
+            projectStartDays[count] = plan.projectStartDate.toEpochDay();
+            daysToExtended[count] = loan.getExtendedDate().toEpochDay() - projectStartDays[count];
+            curveMonths[count] = plan.curveMonths;
+            count++;
+        }
+
+        /**
+         * Add the monthly forecasts of the loans [from, to) under every scenario to totals[scenario][month].
+         * The months after a loan's curve forecast 0.
+         */
+        void sweep(int from, int to, SCurveScenario[] scenarios, long[] forecastDays, long[][] totals) {
+            for (int i = from; i < to; i++) {
+                for (int month = 0; month < curveMonths[i]; month++) {
+                    // Time progress as SimpleForecastAlgorithm.sCurve computes it, shared by the scenarios
+                    double timeProgress = daysToExtended[i] > 0
+                        ? (double) (forecastDays[month] - projectStartDays[i]) / daysToExtended[i] : 0;
+                    for (int s = 0; s < scenarios.length; s++) {
+                        totals[s][month] += CentsArithmetic.addFractionHalfUp(outstandingCents[i], undisbursedCents[i],
+                            scenarios[s].drawnFraction(percentOfCompletion[i], timeProgress));
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class CurvePlan {
+        final LocalDate projectStartDate;
+        // Months in the forecast
+        final int forecastMonths;
+        // Leading months on the S-curve, the rest are 0
+        final int curveMonths;
         
-        Map<String, Object> result = new HashMap<>();
-        result.put("loanNumber", loanNumber);
-        result.put("customerName", customerName);
-        result.put("loanAmount", loanAmount);
-        result.put("outstandingBalance", outstandingBalance);
-        result.put("undisbursedAmount", undisbursedAmount);
-        result.put("percentOfCompletion", BigDecimal.valueOf(percentOfCompletion));
-        result.put("maturityDate", loanData.get("maturityDate"));
-        result.put("extendedDate", extendedDate.toString());
-        result.put("percentOfLoanDrawn", loanData.get("percentOfLoanDrawn") != null ? loanData.get("percentOfLoanDrawn") : BigDecimal.ZERO);
-        result.put("forecastData", monthlyForecasts);
-        result.put("totalForecastedAmount", totalForecastedAmount.setScale(2, RoundingMode.HALF_UP));
-        result.put("forecastMonths", forecastMonths);
+        CurvePlan(LocalDate projectStartDate, int forecastMonths, int curveMonths) {
+            this.projectStartDate = projectStartDate;
+            this.forecastMonths = forecastMonths;
+            this.curveMonths = curveMonths;
+        }
         
-        return result;
+        /**
+         * @return Index of the window's first month, at most forecastMonths
+         */
+        int windowStart(LocalDate forecastStartDate, MonthWindow window) {
+            return Math.min(window.firstOffset(forecastStartDate), forecastMonths);
+        }
+        
+        int windowLength(LocalDate forecastStartDate, MonthWindow window) {
+            return window.length(forecastStartDate, forecastMonths);
+        }
     }
     
     private LocalDate calculateProjectStartDate(double percentOfCompletion, LocalDate forecastStartDate, LocalDate extendedDate) {
@@ -389,25 +1360,17 @@ public class CsvProcessingService {
         return forecastStartDate.minusDays(daysFromProjectStartToForecastStart);
     }
     
-    private BigDecimal calculateForecastOutstandingBalance(
-            BigDecimal outstandingBalance, 
-            BigDecimal undisbursedAmount, 
-            double percentOfCompletion,
-            LocalDate projectStartDate, 
-            LocalDate forecastDate, 
-            LocalDate extendedDate) {
-        
-        ForecastAlgorithmInterface algorithm = algorithmFactory.getActiveAlgorithm();
-        return algorithm.calculateForecastOutstandingBalance(
-                outstandingBalance, 
-                undisbursedAmount, 
-                percentOfCompletion,
-                projectStartDate, 
-                forecastDate, 
-                extendedDate);
+    /**
+     * @return How many of the dates from, from.plusMonths(1), ... are not after to
+     */
+    private static int monthsThrough(LocalDate from, LocalDate to) {
+        return from.isAfter(to) ? 0 : Math.toIntExact(ChronoUnit.MONTHS.between(from, to) + 1);
     }
     
-    private Map<String, Object> convertCsvToMap(CsvLoanData csvData) {
+    /**
+     * Validate a CSV row and convert it to the typed record, or return null (rejected)
+     */
+    private LoanRecord toLoanRecord(CsvLoanData csvData, RejectionCollector rejections) {
         try {
             // Only depend on the following fields
             String loanNumber = csvData.getLoanNumber();
@@ -417,77 +1380,61 @@ public class CsvProcessingService {
             String outstandingBalance = csvData.getOutstandingBalance();
             String undisbursedAmount = csvData.getUndisbursedAmount();
             String percentOfCompletion = csvData.getPercentOfCompletion();
-            String percentOfLoanDrawn = csvData.getPercentOfLoanDrawn();
 
             // Validate critical fields, discard if any is empty
             if (isEmpty(loanNumber) || isEmpty(loanAmount) || isEmpty(maturityDate)
                 || isEmpty(extendedDate) || isEmpty(outstandingBalance)
                 || isEmpty(undisbursedAmount) || isEmpty(percentOfCompletion)) {
+                rejections.reject(csvData.getRowNumber(), loanNumber, RejectionCollector.Reason.MISSING_VALUE, null, null);
                 return null;
             }
 
-            Map<String, Object> loanData = new HashMap<>();
-            loanData.put("loanNumber", loanNumber);
-            loanData.put("customerName", csvData.getCustomerName());
-            loanData.put("loanAmount", parseBigDecimal(loanAmount));
-            loanData.put("maturityDate", parseDate(maturityDate));
-            loanData.put("extendedDate", parseDate(extendedDate));
-            loanData.put("outstandingBalance", parseBigDecimal(outstandingBalance));
-            loanData.put("undisbursedAmount", parseBigDecimal(undisbursedAmount));
-            loanData.put("percentOfCompletion", parseInteger(percentOfCompletion));
-            loanData.put("percentOfLoanDrawn", parseBigDecimal(percentOfLoanDrawn));
-            return loanData;
-        } catch (Exception e) {
-            log.error("Error converting CSV data to map for loan: {}", csvData.getLoanNumber(), e);
-            return null;
-        }
-    }
-    
-    private LoanForecastData convertMapToLoanForecastData(Map<String, Object> forecast) {
-        try {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> forecastDataMap = (Map<String, Object>) forecast.get("forecastData");
-            
-            // Convert forecastData format
-            Map<String, BigDecimal> forecastData = new HashMap<>();
-            for (Map.Entry<String, Object> entry : forecastDataMap.entrySet()) {
-                forecastData.put(entry.getKey(), new BigDecimal(entry.getValue().toString()));
+            // Reject rather than guess when a date cannot be read
+            LocalDate maturity = parseDate(csvData, "Maturity Date", maturityDate, rejections);
+            LocalDate extended = parseDate(csvData, "Extended Date", extendedDate, rejections);
+            if (maturity == null || extended == null) {
+                return null;
             }
-            
-            return LoanForecastData.builder()
-                    .loanNumber((String) forecast.get("loanNumber"))
-                    .customerName((String) forecast.get("customerName"))
-                    .loanAmount(new BigDecimal(forecast.get("loanAmount").toString()))
-                    .outstandingBalance(new BigDecimal(forecast.get("outstandingBalance").toString()))
-                    .undisbursedAmount(new BigDecimal(forecast.get("undisbursedAmount").toString()))
-                    .percentOfCompletion(new BigDecimal(forecast.get("percentOfCompletion").toString()))
-                    .extendedDate(LocalDate.parse(forecast.get("extendedDate").toString()))
-                    .maturityDate(LocalDate.parse(forecast.get("maturityDate").toString()))
-                    .percentOfLoanDrawn(new BigDecimal(forecast.get("percentOfLoanDrawn").toString()))
-                    .forecastData(forecastData)
-                    .totalForecastedAmount(new BigDecimal(forecast.get("totalForecastedAmount").toString()))
-                    .forecastMonths((Integer) forecast.get("forecastMonths"))
-                    .build();
+
+            long loanAmountCents = parseCents(csvData, "Loan Amount", loanAmount, rejections);
+            long outstandingBalanceCents = parseCents(csvData, "Outstanding Balance", outstandingBalance, rejections);
+            long undisbursedAmountCents = parseCents(csvData, "Undisbursed Amount", undisbursedAmount, rejections);
+            long percentOfLoanDrawn = parseCents(csvData, "% of Loan Drawn", csvData.getPercentOfLoanDrawn(), rejections);
+            if (loanAmountCents == MoneyParser.INVALID || outstandingBalanceCents == MoneyParser.INVALID
+                || undisbursedAmountCents == MoneyParser.INVALID || percentOfLoanDrawn == MoneyParser.INVALID) {
+                return null;
+            }
+            return new LoanRecord(loanNumber, csvData.getCustomerName(), loanAmountCents, maturity, extended,
+                outstandingBalanceCents, undisbursedAmountCents, percentOfLoanDrawn,
+                parseInteger(percentOfCompletion, "% of Completion", rejections), csvData.getRowNumber());
         } catch (Exception e) {
-            log.error("Error converting forecast map to LoanForecastData: {}", e.getMessage(), e);
+            rejections.reject(csvData.getRowNumber(), csvData.getLoanNumber(), RejectionCollector.Reason.PROCESSING_ERROR,
+                null, e.toString(), e);
             return null;
         }
     }
     
-    private BigDecimal parseBigDecimal(String value) {
-        try {
-            if (value == null || value.trim().isEmpty() || "N/A".equals(value)) {
-                return BigDecimal.ZERO;
+    /**
+     * @return The value in cents (hundredths for percentages), 0 if it is empty or not a number,
+     *         or {@link MoneyParser#INVALID} (rejected) if it is too large to hold
+     */
+    private long parseCents(CsvLoanData csvData, String column, String value, RejectionCollector rejections) {
+        if (value == null || value.trim().isEmpty() || "N/A".equals(value)) {
+            return 0;
+        }
+        long cents = MoneyParser.parseCents(value);
+        if (cents == MoneyParser.INVALID) {
+            if (MoneyParser.parse(value) != null) {
+                rejections.reject(csvData.getRowNumber(), csvData.getLoanNumber(), RejectionCollector.Reason.INVALID_VALUE, column, value);
+                return MoneyParser.INVALID;
             }
-            String cleanValue = value.replaceAll("[$,%\\s]", "");
-            return new BigDecimal(cleanValue);
-        } catch (NumberFormatException e) {
-            log.warn("Could not parse BigDecimal from value: {}", value);
-            return BigDecimal.ZERO;
+            rejections.defaulted(column, value);
+            return 0;
         }
+        return cents;
     }
     
-    private Integer parseInteger(String value) {
+    private int parseInteger(String value, String column, RejectionCollector rejections) {
         try {
             if (value == null || value.trim().isEmpty() || "N/A".equals(value)) {
                 return 0;
@@ -495,51 +1442,20 @@ public class CsvProcessingService {
             String cleanValue = value.replaceAll("[%\\s]", "");
             return Integer.parseInt(cleanValue);
         } catch (NumberFormatException e) {
-            log.warn("Could not parse Integer from value: {}", value);
+            rejections.defaulted(column, value);
             return 0;
         }
     }
     
-    private LocalDate parseDate(String dateStr) {
-        if (dateStr == null || dateStr.trim().isEmpty() || "N/A".equals(dateStr)) {
-            return LocalDate.now();
-        }
-        
-        try {
-            // Handle M/d/yy or MM/dd/yyyy format
-            if (dateStr.contains("/")) {
-                String[] parts = dateStr.split("/");
-                if (parts.length == 3) {
-                    int month = Integer.parseInt(parts[0]);
-                    int day = Integer.parseInt(parts[1]);
-                    int year = Integer.parseInt(parts[2]);
-                    
-                    // Handle two-digit years
-                    if (year < 100) {
-                        if (year < 50) {
-                            year += 2000;
-                        } else {
-                            year += 1900;
-                        }
-                    }
-                    
-                    return LocalDate.of(year, month, day);
-                }
-            }
-            
-            // Try standard format
-            try {
-                return LocalDate.parse(dateStr);
-            } catch (Exception ignored) {
-                // Continue trying other formats
-            }
-            
-            log.warn("Could not parse date: {}, using current date", dateStr);
-            return LocalDate.now();
-        } catch (Exception e) {
-            log.error("Error parsing date: {}", dateStr, e);
-            return LocalDate.now();
+    /**
+     * @return The date, or null (rejected) if it is not M/d/yy, MM/dd/yyyy or yyyy-MM-dd
+     */
+    private LocalDate parseDate(CsvLoanData csvData, String column, String dateStr, RejectionCollector rejections) {
+        LocalDate date = dateParser.parse(dateStr.trim());
+        if (date == null) {
+            rejections.reject(csvData.getRowNumber(), csvData.getLoanNumber(), RejectionCollector.Reason.UNPARSEABLE_DATE, column, dateStr);
         }
+        return date;
     }
     
     // Write forecast results to Output directory CSV
@@ -562,7 +1478,10 @@ public class CsvProcessingService {
                     headers.add("% of Loan Drawn");
                     headers.add("% of Completion");
                     // Forecast months
-                    headers.addAll(first.getForecastData().keySet());
+                    ForecastSeries firstSeries = first.getForecastData();
+                    for (int month = 0; month < firstSeries.size(); month++) {
+                        headers.add(firstSeries.getLabel(month));
+                    }
                     writer.writeNext(headers.toArray(new String[0]));
                 }
 
@@ -577,8 +1496,9 @@ public class CsvProcessingService {
                     row.add(data.getUndisbursedAmount() != null ? data.getUndisbursedAmount().toString() : "");
                     row.add(data.getPercentOfLoanDrawn() != null ? data.getPercentOfLoanDrawn().toString() : "");
                     row.add(data.getPercentOfCompletion() != null ? data.getPercentOfCompletion().toString() : "");
-                    for (BigDecimal v : data.getForecastData().values()) {
-                        row.add(v != null ? v.toString() : "");
+                    ForecastSeries series = data.getForecastData();
+                    for (int month = 0; month < series.size(); month++) {
+                        row.add(series.getAmount(month).toString());
                     }
                     writer.writeNext(row.toArray(new String[0]));
                 }
@@ -597,7 +1517,7 @@ public class CsvProcessingService {
             Files.createDirectories(Paths.get(forecastDir));
             
             // <original_file_name>_forecast.csv
-            String baseName = inputFileName.replaceAll("\\.[^.]*$", ""); // Remove extension
+            String baseName = CompressedInput.baseName(inputFileName); // Remove extension
             String outputFileName = baseName + "_forecast.csv";
             String filePath = forecastDir + outputFileName;
             
@@ -618,8 +1538,10 @@ public class CsvProcessingService {
                 headers.add("Forecast End Date");
                 
                 // Add all month columns (based on the first loan's forecast data)
-                if (!forecastDataList.isEmpty() && forecastDataList.get(0).getForecastData() != null) {
-                    headers.addAll(forecastDataList.get(0).getForecastData().keySet());
+                ForecastSeries firstSeries = forecastDataList.isEmpty() ? null : forecastDataList.get(0).getForecastData();
+                int monthColumns = firstSeries != null ? firstSeries.size() : 0;
+                for (int month = 0; month < monthColumns; month++) {
+                    headers.add(firstSeries.getLabel(month));
                 }
                 
                 writer.writeNext(headers.toArray(new String[0]));
@@ -638,20 +1560,19 @@ public class CsvProcessingService {
                     row.add(data.getTotalForecastedAmount() != null ? data.getTotalForecastedAmount().toString() : "");
                     row.add(String.valueOf(data.getForecastMonths()));
 
-                    if (data.getForecastData() != null && !data.getForecastData().isEmpty()) {
-                        java.util.List<String> dates = new java.util.ArrayList<>(data.getForecastData().keySet());
-                        dates.sort((a, b) -> a.compareTo(b));
-                        row.add(dates.get(0)); // Start date
-                        row.add(dates.get(dates.size() - 1)); // End date
+                    ForecastSeries series = data.getForecastData();
+                    if (series != null && !series.isEmpty()) {
+                        row.add(series.getLabel(0)); // Start date
+                        row.add(series.getLabel(series.size() - 1)); // End date
                     } else {
                         row.add("");
                         row.add("");
                     }
                     
-                    if (data.getForecastData() != null) {
-                        for (String month : forecastDataList.get(0).getForecastData().keySet()) {
-                            BigDecimal amount = data.getForecastData().get(month);
-                            row.add(amount != null ? amount.toString() : "0");
+                    if (series != null) {
+                        // Columns follow the first loan's months, all series share the batch start month
+                        for (int month = 0; month < monthColumns; month++) {
+                            row.add(month < series.size() ? series.getAmount(month).toString() : "0");
                         }
                     }
                     
@@ -666,90 +1587,11 @@ public class CsvProcessingService {
     
     // Generate forecast CSV with custom format, headers are the same as the original csv, and the forecast data is appended after it
     public String generateForecastCsvWithOriginalFormat(List<CsvLoanData> originalList, List<LoanForecastData> forecastList, String inputFileName, String startMonth) {
-        String forecastDir = "backend/data/forecast/";
-        try {
-            Files.createDirectories(Paths.get(forecastDir));
-            String baseName = inputFileName.replaceAll("\\.[^.]*$", "");
-            String outputFileName = baseName + "_forecast.csv";
-            String filePath = forecastDir + outputFileName;
-
-            try (CSVWriter writer = new CSVWriter(new FileWriter(filePath))) {
-                String[] baseHeaders = new String[] {
-                    "Loan Number", "Loan Amount", "Maturity Date", "Extended Date",
-                    "Outstanding Balance", "Undisbursed Amount", "% of Completion"
-                };
-                
-                // Dynamically get all months from the forecast data
-                Set<String> allMonths = new TreeSet<>(new MonthComparator());
-                for (LoanForecastData forecast : forecastList) {
-                    if (forecast.getForecastData() != null) {
-                        allMonths.addAll(forecast.getForecastData().keySet());
-                    }
-                }
-                
-                String[] months = allMonths.toArray(new String[0]);
-                String[] headers = new String[baseHeaders.length + months.length];
-                System.arraycopy(baseHeaders, 0, headers, 0, baseHeaders.length);
-                System.arraycopy(months, 0, headers, baseHeaders.length, months.length);
-                writer.writeNext(headers);
-
-                // Calculate column sums for forecast data
-                Map<String, BigDecimal> columnSums = new HashMap<>();
-                for (String month : months) {
-                    columnSums.put(month, BigDecimal.ZERO);
-                }
-
-                // Only iterate forecastList, and only output valid rows
-                for (LoanForecastData forecast : forecastList) {
-                    if (forecast == null || forecast.getLoanNumber() == null || forecast.getLoanNumber().trim().isEmpty()) {
-                        continue;
-                    }
-                    java.util.List<String> row = new java.util.ArrayList<>();
-                    row.add(forecast.getLoanNumber());
-                    row.add(forecast.getLoanAmount() != null ? forecast.getLoanAmount().toString() : "");
-                    row.add(forecast.getMaturityDate() != null ? forecast.getMaturityDate().toString() : "");
-                    row.add(forecast.getExtendedDate() != null ? forecast.getExtendedDate().toString() : "");
-                    row.add(forecast.getOutstandingBalance() != null ? forecast.getOutstandingBalance().toString() : "");
-                    row.add(forecast.getUndisbursedAmount() != null ? forecast.getUndisbursedAmount().toString() : "");
-                    row.add(forecast.getPercentOfCompletion() != null ? forecast.getPercentOfCompletion().toString() : "");
-
-                    for (String m : months) {
-                        if (forecast.getForecastData() != null && forecast.getForecastData().containsKey(m)) {
-                            BigDecimal amount = forecast.getForecastData().get(m);
-                            if (amount != null) {
-                                row.add(amount.toString());
-                                // Add to column sum
-                                columnSums.put(m, columnSums.get(m).add(amount));
-                            } else {
-                                row.add("");
-                            }
-                        } else {
-                            row.add("");
-                        }
-                    }
-                    writer.writeNext(row.toArray(new String[0]));
-                }
-
-                // Add SUM OF FORECAST row
-                java.util.List<String> sumRow = new java.util.ArrayList<>();
-                sumRow.add("SUM OF FORECAST");
-                // Add empty values for base columns (Loan Amount, Maturity Date, etc.)
-                for (int i = 1; i < baseHeaders.length; i++) {
-                    sumRow.add("");
-                }
-                
-                // Add sum values for forecast columns
-                for (String m : months) {
-                    BigDecimal sum = columnSums.get(m);
-                    if (sum != null && sum.compareTo(BigDecimal.ZERO) > 0) {
-                        sumRow.add(sum.toString());
-                    } else {
-                        sumRow.add("");
-                    }
-                }
-                
-                writer.writeNext(sumRow.toArray(new String[0]));
+        try (ForecastCsvStreamWriter writer = openForecastCsvWriter(inputFileName, startMonth)) {
+            for (LoanForecastData forecast : forecastList) {
+                writer.accept(null, forecast);
             }
+            String filePath = writer.finish();
             log.info("Custom forecast CSV generated with sum row: {}", filePath);
             return filePath;
         } catch (Exception e) {
@@ -762,24 +1604,69 @@ public class CsvProcessingService {
         return "BATCH_" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
     }
     
+    @FunctionalInterface
+    private interface RowHandler {
+        void handle(CsvLoanData loanData) throws IOException;
+    }
+
     /**
-     * Custom month comparator, used to correctly sort month strings ("MMM-yy")
+     * Consecutive streamed rows forecast by one task, handed to the sink in order once the task is done
      */
-    private static class MonthComparator implements Comparator<String> {
-        @Override
-        public int compare(String month1, String month2) {
-            try {
-                // Parse month string to LocalDate, then compare
-                LocalDate date1 = parseMonthString(month1);
-                LocalDate date2 = parseMonthString(month2);
-                return date1.compareTo(date2);
-            } catch (Exception e) {
-                return month1.compareTo(month2);
-            }
+    private final class ForecastSlice {
+        private final CsvLoanData[] rows;
+        private final LoanRecord[] loans;
+        private final LoanForecastData[] forecasts;
+        private final boolean[] reused;
+        private PortfolioAccumulator portfolio;
+        private int size;
+        private ForkJoinTask<?> task;
+
+        ForecastSlice(int capacity) {
+            rows = new CsvLoanData[capacity];
+            loans = new LoanRecord[capacity];
+            forecasts = new LoanForecastData[capacity];
+            reused = new boolean[capacity];
         }
-        
-        private LocalDate parseMonthString(String monthStr) {
-            return LocalDate.parse("01-" + monthStr, DateTimeFormatter.ofPattern("dd-MMM-yy", Locale.ENGLISH));
+
+        /**
+         * @return Whether the slice is full
+         */
+        boolean add(CsvLoanData loanData) {
+            rows[size++] = loanData;
+            return size == rows.length;
+        }
+
+        void submit(ForkJoinPool pool, LocalDate forecastStartDate, ForecastAlgorithmInterface algorithm,
+                    ForecastBaseline baseline, RejectionCollector rejections) {
+            task = pool.submit(() -> {
+                portfolio = new PortfolioAccumulator(YearMonth.from(forecastStartDate));
+                for (int i = 0; i < size; i++) {
+                    loans[i] = toLoanRecord(rows[i], rejections);
+                    if (loans[i] == null) {
+                        continue;
+                    }
+                    forecasts[i] = reuseForecast(loans[i], forecastStartDate, baseline);
+                    reused[i] = forecasts[i] != null;
+                    if (!reused[i]) {
+                        forecasts[i] = forecastLoan(loans[i], forecastStartDate, algorithm, rejections);
+                    }
+                    if (forecasts[i] != null) {
+                        portfolio.add(loans[i], forecasts[i].getForecastData());
+                    }
+                }
+            });
+        }
+    }
+
+    private static class StreamCounters {
+        private final PortfolioAccumulator portfolio;
+        private int totalRecords;
+        private int processedRecords;
+        private int reusedRecords;
+        private BigDecimal totalAmount = BigDecimal.ZERO;
+
+        StreamCounters(PortfolioAccumulator portfolio) {
+            this.portfolio = portfolio;
         }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,151 @@
+package com.bankplus.loan_forecast.service;
+
+import com.bankplus.loan_forecast.dto.ForecastSeries;
+import com.bankplus.loan_forecast.dto.LoanForecastData;
+import com.bankplus.loan_forecast.dto.MonthAxis;
+import com.bankplus.loan_forecast.model.LoanRecord;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.CSVWriter;
+import com.opencsv.RFC4180ParserBuilder;
+import com.opencsv.exceptions.CsvValidationException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+
+/**
+ * Writes the forecast CSV (original headers followed by one column per month and a SUM OF FORECAST row)
+ * one loan at a time.
+ * The month columns are only known once every loan has been seen, so rows are spooled to a temporary
+ * file and {@link #finish()} writes the header, the spooled rows padded to the full width and the sum row.
+ * Only the per-month sums are kept in memory.
+ */
+@Slf4j
+public class ForecastCsvStreamWriter implements ForecastSink, Closeable {
+    static final String[] BASE_HEADERS = new String[] {
+        "Loan Number", "Loan Amount", "Maturity Date", "Extended Date",
+        "Outstanding Balance", "Undisbursed Amount", "% of Completion"
+    };
+
+    private final Path outputPath;
+    private final Path spoolPath;
+    private final MonthAxis months;
+    private final CSVWriter spool;
+    private long[] columnSums = new long[0];
+    private int maxMonths;
+    private int rowCount;
+    private boolean finished;
+
+    public ForecastCsvStreamWriter(Path outputPath, LocalDate startMonth) throws IOException {
+        this.outputPath = outputPath;
+        this.months = MonthAxis.of(YearMonth.from(startMonth));
+        Path parent = outputPath.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.spoolPath = outputPath.resolveSibling(outputPath.getFileName() + ".part");
+        this.spool = new CSVWriter(new FileWriter(spoolPath.toFile()));
+    }
+
+    @Override
+    public void accept(LoanRecord loan, LoanForecastData forecast) {
+        if (forecast == null || forecast.getLoanNumber() == null || forecast.getLoanNumber().trim().isEmpty()) {
+            return;
+        }
+        ForecastSeries series = forecast.getForecastData();
+        int monthCount = series != null ? series.size() : 0;
+        ensureMonths(monthCount);
+
+        String[] row = new String[BASE_HEADERS.length + monthCount];
+        row[0] = forecast.getLoanNumber();
+        row[1] = forecast.getLoanAmount() != null ? forecast.getLoanAmount().toString() : "";
+        row[2] = forecast.getMaturityDate() != null ? forecast.getMaturityDate().toString() : "";
+        row[3] = forecast.getExtendedDate() != null ? forecast.getExtendedDate().toString() : "";
+        row[4] = forecast.getOutstandingBalance() != null ? forecast.getOutstandingBalance().toString() : "";
+        row[5] = forecast.getUndisbursedAmount() != null ? forecast.getUndisbursedAmount().toString() : "";
+        row[6] = forecast.getPercentOfCompletion() != null ? forecast.getPercentOfCompletion().toString() : "";
+
+        // Every loan's months start at the batch start month, so month i is always column i
+        for (int i = 0; i < monthCount; i++) {
+            long cents = series.getCents(i);
+            row[BASE_HEADERS.length + i] = LoanRecord.toDecimal(cents).toString();
+            columnSums[i] += cents;
+        }
+        spool.writeNext(row);
+        rowCount++;
+    }
+
+    /**
+     * Write the final CSV and remove the spool file
+     * @return The path of the written forecast CSV
+     */
+    public String finish() throws IOException {
+        spool.close();
+        finished = true;
+
+        String[] headers = Arrays.copyOf(BASE_HEADERS, BASE_HEADERS.length + maxMonths);
+        for (int i = 0; i < maxMonths; i++) {
+            headers[BASE_HEADERS.length + i] = months.label(i);
+        }
+
+        try (CSVWriter writer = new CSVWriter(new FileWriter(outputPath.toFile()));
+             CSVReader spooled = new CSVReaderBuilder(new FileReader(spoolPath.toFile()))
+                     .withCSVParser(new RFC4180ParserBuilder().build())
+                     .build()) {
+            writer.writeNext(headers);
+
+            String[] row;
+            while ((row = spooled.readNext()) != null) {
+                if (row.length < headers.length) {
+                    int filled = row.length;
+                    row = Arrays.copyOf(row, headers.length);
+                    Arrays.fill(row, filled, headers.length, "");
+                }
+                writer.writeNext(row);
+            }
+
+            String[] sumRow = new String[headers.length];
+            Arrays.fill(sumRow, "");
+            sumRow[0] = "SUM OF FORECAST";
+            for (int i = 0; i < maxMonths; i++) {
+                if (columnSums[i] > 0) {
+                    sumRow[BASE_HEADERS.length + i] = LoanRecord.toDecimal(columnSums[i]).toString();
+                }
+            }
+            writer.writeNext(sumRow);
+        } catch (CsvValidationException e) {
+            throw new IOException("Invalid spooled forecast row: " + e.getMessage(), e);
+        } finally {
+            Files.deleteIfExists(spoolPath);
+        }
+
+        log.info("Forecast CSV streamed with {} rows and {} month columns: {}", rowCount, maxMonths, outputPath);
+        return outputPath.toString();
+    }
+
+    /**
+     * Discard the spool file if {@link #finish()} was never reached
+     */
+    @Override
+    public void close() throws IOException {
+        if (!finished) {
+            spool.close();
+            Files.deleteIfExists(spoolPath);
+        }
+    }
+
+    private void ensureMonths(int monthCount) {
+        if (monthCount <= maxMonths) {
+            return;
+        }
+        if (monthCount > columnSums.length) {
+            columnSums = Arrays.copyOf(columnSums, Math.max(monthCount, columnSums.length * 2));
+        }
+        maxMonths = monthCount;
+    }
+}
@@ -0,0 +1,101 @@
+package com.bankplus.loan_forecast.service;
+
+import com.bankplus.loan_forecast.dto.LoanForecastData;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of the forecasts of uploads, keyed by the SHA-256 of the upload, the start month and the
+ * algorithm name and version, so repeated views of a batch (and of an identical re-upload) skip the forecast.
+ * An entry holds either the whole forecasts or, under a start month suffixed with the window, only the months of
+ * one window, when that window was requested before the whole forecast was cached.
+ * The bound is on the number of loans held, since that is what the memory of an entry grows with; a window entry
+ * counts its loans like a whole forecast, so paging through many windows of an upload can evict whole forecasts.
+ */
+public class ForecastResultCache {
+    private static final char SEPARATOR = '\u001F';
+
+    private final LoanProcessingMetrics metrics;
+    private final Map<String, List<LoanForecastData>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long maxLoans;
+    private long cachedLoans;
+
+    public ForecastResultCache(long maxLoans, LoanProcessingMetrics metrics) {
+        this.maxLoans = maxLoans;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return The cached forecasts, unmodifiable, or null
+     */
+    public synchronized List<LoanForecastData> get(String key) {
+        List<LoanForecastData> forecasts = entries.get(key);
+        if (forecasts != null) {
+            metrics.onForecastCacheHit();
+        } else {
+            metrics.onForecastCacheMiss();
+        }
+        return forecasts;
+    }
+
+    /**
+     * {@link #get(String)} without counting a hit or miss, for a lookup that falls back to another key
+     * @return The cached forecasts, unmodifiable, or null
+     */
+    public synchronized List<LoanForecastData> peek(String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Cache the forecasts of an upload, evicting the least recently used entries beyond the bound.
+     * An upload with more loans than the bound is not cached.
+     * @return The forecasts as cached, unmodifiable
+     */
+    public synchronized List<LoanForecastData> put(String key, List<LoanForecastData> forecasts) {
+        List<LoanForecastData> cached = Collections.unmodifiableList(forecasts);
+        if (forecasts.size() > maxLoans) {
+            return cached;
+        }
+        List<LoanForecastData> previous = entries.put(key, cached);
+        if (previous != null) {
+            cachedLoans -= previous.size();
+        }
+        cachedLoans += forecasts.size();
+        evict();
+        return cached;
+    }
+
+    public synchronized void setMaxLoans(long maxLoans) {
+        this.maxLoans = maxLoans;
+        evict();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getCachedLoans() {
+        return cachedLoans;
+    }
+
+    private void evict() {
+        Iterator<List<LoanForecastData>> eldest = entries.values().iterator();
+        while (cachedLoans > maxLoans && eldest.hasNext()) {
+            cachedLoans -= eldest.next().size();
+            eldest.remove();
+            metrics.onForecastCacheEviction();
+        }
+    }
+
+    /**
+     * The key fields joined with a unit separator
+     * @param startMonth The normalized first forecast date
+     */
+    public static String key(String contentSha256, String startMonth, String algorithm, String algorithmVersion) {
+        return contentSha256 + SEPARATOR + startMonth + SEPARATOR + algorithm + SEPARATOR + algorithmVersion;
+    }
+}
@@ -0,0 +1,29 @@
+package com.bankplus.loan_forecast.service;
+
+import com.bankplus.loan_forecast.dto.LoanForecastData;
+import com.bankplus.loan_forecast.model.LoanRecord;
+
+import java.io.IOException;
+
+/**
+ * Receives each loan as soon as it has been parsed and forecast by the streaming pipeline
+ */
+@FunctionalInterface
+public interface ForecastSink {
+
+    /**
+     * @param loan The validated loan
+     * @param forecastData The forecast calculated for that loan
+     */
+    void accept(LoanRecord loan, LoanForecastData forecastData) throws IOException;
+
+    /**
+     * @return A sink passing each loan to this sink and then to next
+     */
+    default ForecastSink andThen(ForecastSink next) {
+        return (loan, forecastData) -> {
+            accept(loan, forecastData);
+            next.accept(loan, forecastData);
+        };
+    }
+}
@@ -20,6 +20,9 @@ public class LoanProcessingMetrics {
     private final Counter recordsProcessedCounter;
     private final Gauge amountProcessedGauge;
     private final AtomicInteger activeBatchCount;
+    private final Counter forecastCacheHitCounter;
+    private final Counter forecastCacheMissCounter;
+    private final Counter forecastCacheEvictionCounter;
     
     @Autowired
     public LoanProcessingMetrics(MeterRegistry registry) {
@@ -55,6 +58,17 @@ public class LoanProcessingMetrics {
             
         // Processing amount - using dynamic gauge
         this.amountProcessedGauge = null; // We will use registry.gauge to dynamically update
+        
+        // Forecast result cache
+        this.forecastCacheHitCounter = Counter.builder("forecast.cache.hits")
+            .description("Forecast reads served from the result cache")
+            .register(registry);
+        this.forecastCacheMissCounter = Counter.builder("forecast.cache.misses")
+            .description("Forecast reads that had to forecast the upload")
+            .register(registry);
+        this.forecastCacheEvictionCounter = Counter.builder("forecast.cache.evictions")
+            .description("Uploads evicted from the forecast result cache")
+            .register(registry);
     }
     
     public void onProcessingStart() {
@@ -113,6 +127,18 @@ public class LoanProcessingMetrics {
         }
     }
     
+    public void onForecastCacheHit() {
+        forecastCacheHitCounter.increment();
+    }
+    
+    public void onForecastCacheMiss() {
+        forecastCacheMissCounter.increment();
+    }
+    
+    public void onForecastCacheEviction() {
+        forecastCacheEvictionCounter.increment();
+    }
+    
     public int getActiveBatchCount() {
         return activeBatchCount.get();
     }
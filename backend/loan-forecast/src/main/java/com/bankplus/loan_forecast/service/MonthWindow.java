@@ -0,0 +1,85 @@
+package com.bankplus.loan_forecast.service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * The months of the forecast a query asks for. Only these months of each loan's curve are calculated, and the
+ * whole-forecast total is summed without keeping the others; forecasts already held whole are cut to the window.
+ * Either end may be open: from the first forecast month, or through the last one.
+ */
+public final class MonthWindow {
+    // null for the first forecast month
+    private final YearMonth fromMonth;
+    // null for the last forecast month
+    private final YearMonth toMonth;
+
+    public MonthWindow(YearMonth fromMonth, YearMonth toMonth) {
+        if (fromMonth != null && toMonth != null && fromMonth.isAfter(toMonth)) {
+            throw new IllegalArgumentException("fromMonth " + fromMonth + " is after toMonth " + toMonth);
+        }
+        this.fromMonth = fromMonth;
+        this.toMonth = toMonth;
+    }
+
+    /**
+     * @param fromMonth yyyy-MM or yyyy-MM-dd, null or blank for open
+     * @param toMonth yyyy-MM or yyyy-MM-dd, null or blank for open
+     * @return The window, or null if both ends are open
+     * @throws IllegalArgumentException If a month cannot be read or fromMonth is after toMonth
+     */
+    public static MonthWindow parse(String fromMonth, String toMonth) {
+        YearMonth from = parseMonth("fromMonth", fromMonth);
+        YearMonth to = parseMonth("toMonth", toMonth);
+        return from == null && to == null ? null : new MonthWindow(from, to);
+    }
+
+    /**
+     * @return Index of the first month of the window among the months from forecastStartDate
+     */
+    public int firstOffset(LocalDate forecastStartDate) {
+        if (fromMonth == null) {
+            return 0;
+        }
+        return (int) Math.max(0, ChronoUnit.MONTHS.between(YearMonth.from(forecastStartDate), fromMonth));
+    }
+
+    /**
+     * @param forecastMonths Number of months of the whole forecast
+     * @return Number of the forecastMonths months in the window
+     */
+    public int length(LocalDate forecastStartDate, int forecastMonths) {
+        long end = forecastMonths;
+        if (toMonth != null) {
+            end = Math.min(end, ChronoUnit.MONTHS.between(YearMonth.from(forecastStartDate), toMonth) + 1);
+        }
+        return (int) Math.max(0, end - firstOffset(forecastStartDate));
+    }
+
+    public YearMonth getFromMonth() {
+        return fromMonth;
+    }
+
+    public YearMonth getToMonth() {
+        return toMonth;
+    }
+
+    @Override
+    public String toString() {
+        return (fromMonth != null ? fromMonth.toString() : "") + ".." + (toMonth != null ? toMonth.toString() : "");
+    }
+
+    private static YearMonth parseMonth(String name, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String month = value.trim();
+        try {
+            return month.length() > 7 ? YearMonth.from(LocalDate.parse(month)) : YearMonth.parse(month);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(name + " must be yyyy-MM, got " + value);
+        }
+    }
+}
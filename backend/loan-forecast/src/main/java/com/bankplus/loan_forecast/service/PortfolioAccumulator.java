@@ -0,0 +1,177 @@
+package com.bankplus.loan_forecast.service;
+
+import com.bankplus.loan_forecast.dto.ForecastSeries;
+import com.bankplus.loan_forecast.dto.LoanForecastData;
+import com.bankplus.loan_forecast.dto.MonthAxis;
+import com.bankplus.loan_forecast.dto.PortfolioSummary;
+import com.bankplus.loan_forecast.model.LoanRecord;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Folds loan forecasts into portfolio aggregates as they are produced.
+ * An accumulator is used by one thread at a time: parallel workers each fill their own and the partial results are
+ * {@link #merge merged}. Everything is kept in cents, so the result does not depend on how loans were split.
+ */
+public class PortfolioAccumulator {
+    // % of Completion in tens, 100 counts with 90-99
+    static final int COMPLETION_BUCKETS = 10;
+
+    private final YearMonth startMonth;
+    private int loanCount;
+    private long loanAmountCents;
+    private long outstandingCents;
+    private long undisbursedCents;
+    private long minOutstandingCents = Long.MAX_VALUE;
+    private long maxOutstandingCents = Long.MIN_VALUE;
+    private long minUndisbursedCents = Long.MAX_VALUE;
+    private long maxUndisbursedCents = Long.MIN_VALUE;
+    private int months;
+    private long[] monthTotals = new long[0];
+    private long[] monthMin = new long[0];
+    private long[] monthMax = new long[0];
+    private int[] monthCounts = new int[0];
+    private final int[] bucketCounts = new int[COMPLETION_BUCKETS];
+    private final long[] bucketOutstanding = new long[COMPLETION_BUCKETS];
+    private final long[] bucketUndisbursed = new long[COMPLETION_BUCKETS];
+    private final long[] bucketForecast = new long[COMPLETION_BUCKETS];
+
+    /**
+     * @param startMonth The month every forecast series of the batch starts in
+     */
+    public PortfolioAccumulator(YearMonth startMonth) {
+        this.startMonth = startMonth;
+    }
+
+    public void add(LoanRecord loan, ForecastSeries series) {
+        add(loan.getLoanAmountCents(), loan.getOutstandingBalanceCents(), loan.getUndisbursedAmountCents(),
+            loan.getPercentOfCompletion(), series);
+    }
+
+    public void add(LoanForecastData forecast) {
+        add(cents(forecast.getLoanAmount()), cents(forecast.getOutstandingBalance()), cents(forecast.getUndisbursedAmount()),
+            forecast.getPercentOfCompletion() != null ? forecast.getPercentOfCompletion().intValue() : 0,
+            forecast.getForecastData());
+    }
+
+    public void add(long loanAmountCents, long outstandingCents, long undisbursedCents, int percentOfCompletion,
+                    ForecastSeries series) {
+        loanCount++;
+        this.loanAmountCents += loanAmountCents;
+        this.outstandingCents += outstandingCents;
+        this.undisbursedCents += undisbursedCents;
+        minOutstandingCents = Math.min(minOutstandingCents, outstandingCents);
+        maxOutstandingCents = Math.max(maxOutstandingCents, outstandingCents);
+        minUndisbursedCents = Math.min(minUndisbursedCents, undisbursedCents);
+        maxUndisbursedCents = Math.max(maxUndisbursedCents, undisbursedCents);
+
+        int size = series != null ? series.size() : 0;
+        ensureMonths(size);
+        long forecastCents = 0;
+        for (int i = 0; i < size; i++) {
+            long cents = series.getCents(i);
+            monthTotals[i] += cents;
+            monthMin[i] = Math.min(monthMin[i], cents);
+            monthMax[i] = Math.max(monthMax[i], cents);
+            monthCounts[i]++;
+            forecastCents += cents;
+        }
+
+        int bucket = bucket(percentOfCompletion);
+        bucketCounts[bucket]++;
+        bucketOutstanding[bucket] += outstandingCents;
+        bucketUndisbursed[bucket] += undisbursedCents;
+        bucketForecast[bucket] += forecastCents;
+    }
+
+    /**
+     * Add the loans folded into other, which must not be used concurrently
+     */
+    public void merge(PortfolioAccumulator other) {
+        loanCount += other.loanCount;
+        loanAmountCents += other.loanAmountCents;
+        outstandingCents += other.outstandingCents;
+        undisbursedCents += other.undisbursedCents;
+        minOutstandingCents = Math.min(minOutstandingCents, other.minOutstandingCents);
+        maxOutstandingCents = Math.max(maxOutstandingCents, other.maxOutstandingCents);
+        minUndisbursedCents = Math.min(minUndisbursedCents, other.minUndisbursedCents);
+        maxUndisbursedCents = Math.max(maxUndisbursedCents, other.maxUndisbursedCents);
+        ensureMonths(other.months);
+        for (int i = 0; i < other.months; i++) {
+            monthTotals[i] += other.monthTotals[i];
+            monthMin[i] = Math.min(monthMin[i], other.monthMin[i]);
+            monthMax[i] = Math.max(monthMax[i], other.monthMax[i]);
+            monthCounts[i] += other.monthCounts[i];
+        }
+        for (int b = 0; b < COMPLETION_BUCKETS; b++) {
+            bucketCounts[b] += other.bucketCounts[b];
+            bucketOutstanding[b] += other.bucketOutstanding[b];
+            bucketUndisbursed[b] += other.bucketUndisbursed[b];
+            bucketForecast[b] += other.bucketForecast[b];
+        }
+    }
+
+    public int getLoanCount() {
+        return loanCount;
+    }
+
+    public PortfolioSummary toSummary() {
+        MonthAxis axis = MonthAxis.of(startMonth);
+        Map<String, Integer> loanCounts = new LinkedHashMap<>();
+        for (int i = 0; i < months; i++) {
+            loanCounts.put(axis.label(i), monthCounts[i]);
+        }
+        List<PortfolioSummary.CompletionBucket> buckets = new ArrayList<>(COMPLETION_BUCKETS);
+        for (int b = 0; b < COMPLETION_BUCKETS; b++) {
+            buckets.add(new PortfolioSummary.CompletionBucket(b * 10 + "-" + (b == COMPLETION_BUCKETS - 1 ? 100 : b * 10 + 9),
+                bucketCounts[b], LoanRecord.toDecimal(bucketOutstanding[b]), LoanRecord.toDecimal(bucketUndisbursed[b]),
+                LoanRecord.toDecimal(bucketForecast[b])));
+        }
+        boolean empty = loanCount == 0;
+        return PortfolioSummary.builder()
+            .loanCount(loanCount)
+            .totalLoanAmount(LoanRecord.toDecimal(loanAmountCents))
+            .totalOutstandingBalance(LoanRecord.toDecimal(outstandingCents))
+            .totalUndisbursedAmount(LoanRecord.toDecimal(undisbursedCents))
+            .minOutstandingBalance(empty ? null : LoanRecord.toDecimal(minOutstandingCents))
+            .maxOutstandingBalance(empty ? null : LoanRecord.toDecimal(maxOutstandingCents))
+            .minUndisbursedAmount(empty ? null : LoanRecord.toDecimal(minUndisbursedCents))
+            .maxUndisbursedAmount(empty ? null : LoanRecord.toDecimal(maxUndisbursedCents))
+            .monthlyTotals(new ForecastSeries(startMonth, Arrays.copyOf(monthTotals, months)))
+            .monthlyMin(new ForecastSeries(startMonth, Arrays.copyOf(monthMin, months)))
+            .monthlyMax(new ForecastSeries(startMonth, Arrays.copyOf(monthMax, months)))
+            .monthlyLoanCounts(loanCounts)
+            .completionBuckets(buckets)
+            .build();
+    }
+
+    private void ensureMonths(int count) {
+        if (count <= months) {
+            return;
+        }
+        if (count > monthTotals.length) {
+            int capacity = Math.max(count, monthTotals.length * 2);
+            monthTotals = Arrays.copyOf(monthTotals, capacity);
+            monthCounts = Arrays.copyOf(monthCounts, capacity);
+            monthMin = Arrays.copyOf(monthMin, capacity);
+            monthMax = Arrays.copyOf(monthMax, capacity);
+        }
+        Arrays.fill(monthMin, months, count, Long.MAX_VALUE);
+        Arrays.fill(monthMax, months, count, Long.MIN_VALUE);
+        months = count;
+    }
+
+    private static int bucket(int percentOfCompletion) {
+        return Math.max(0, Math.min(COMPLETION_BUCKETS - 1, percentOfCompletion / 10));
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount != null ? amount.movePointRight(2).longValue() : 0;
+    }
+}
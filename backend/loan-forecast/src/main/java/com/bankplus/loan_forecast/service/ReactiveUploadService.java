@@ -36,8 +36,18 @@ public class ReactiveUploadService {
     }
 
     public Mono<Void> sendFileUploadEvent(String batchId, String filePath, String startMonth) {
-        String payload = String.format("{\"batchId\":\"%s\",\"filePath\":\"%s\",\"startMonth\":\"%s\"}",
-                batchId, filePath, startMonth);
+        return sendFileUploadEvent(batchId, filePath, startMonth, null);
+    }
+
+    /**
+     * @param baseBatchId Batch whose forecasts are reused for unchanged loans, or null to forecast every loan
+     */
+    public Mono<Void> sendFileUploadEvent(String batchId, String filePath, String startMonth, String baseBatchId) {
+        String payload = baseBatchId == null
+                ? String.format("{\"batchId\":\"%s\",\"filePath\":\"%s\",\"startMonth\":\"%s\"}",
+                        batchId, filePath, startMonth)
+                : String.format("{\"batchId\":\"%s\",\"filePath\":\"%s\",\"startMonth\":\"%s\",\"baseBatchId\":\"%s\"}",
+                        batchId, filePath, startMonth, baseBatchId);
         SenderRecord<String, String, String> record = SenderRecord.create(fileUploadTopic, null, null, batchId, payload, batchId);
         return kafkaSender.send(Mono.just(record))
                 .doOnNext(result -> log.info("Sent file upload event to Kafka: {}", payload))
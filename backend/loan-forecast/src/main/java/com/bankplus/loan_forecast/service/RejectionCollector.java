@@ -0,0 +1,114 @@
+package com.bankplus.loan_forecast.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the rows rejected while processing one file: counts by reason and column, plus the first few rows
+ * as samples. Only the first {@link #LOG_LIMIT} rejections are logged one by one, so a file with many bad rows
+ * costs about as much to process as a clean one; {@link #logSummary()} reports the rest in one line.
+ */
+@Slf4j
+public class RejectionCollector {
+    static final int LOG_LIMIT = 10;
+    static final int SAMPLE_LIMIT = 20;
+
+    public enum Reason {
+        // A required value is empty or N/A
+        MISSING_VALUE,
+        UNPARSEABLE_DATE,
+        // Outside the accepted range, e.g. a negative balance
+        INVALID_VALUE,
+        MALFORMED_ROW,
+        PROCESSING_ERROR
+    }
+
+    private final Map<Reason, Map<String, LongAdder>> counts = new EnumMap<>(Reason.class);
+    private final Map<String, LongAdder> defaultedValues = new ConcurrentHashMap<>();
+    private final AtomicLong totalRejected = new AtomicLong();
+    private final AtomicLong totalDefaulted = new AtomicLong();
+    private final List<RejectionSummary.Sample> samples = new ArrayList<>();
+
+    public RejectionCollector() {
+        for (Reason reason : Reason.values()) {
+            counts.put(reason, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Record a rejected row
+     * @param rowNumber Row in the source file (the header is row 1), 0 if unknown
+     * @param column The offending column header, or null if not specific to a column
+     * @param value The offending value or error message
+     */
+    public void reject(int rowNumber, String loanNumber, Reason reason, String column, String value) {
+        reject(rowNumber, loanNumber, reason, column, value, null);
+    }
+
+    public void reject(int rowNumber, String loanNumber, Reason reason, String column, String value, Throwable error) {
+        counts.get(reason).computeIfAbsent(column != null ? column : "", key -> new LongAdder()).increment();
+        long count = totalRejected.incrementAndGet();
+        if (count <= SAMPLE_LIMIT) {
+            synchronized (samples) {
+                samples.add(new RejectionSummary.Sample(rowNumber, loanNumber, reason.name(), column, value));
+            }
+        }
+        if (count <= LOG_LIMIT) {
+            if (error != null) {
+                log.warn("Rejected row {} (loan {}): {} {} '{}'", rowNumber, loanNumber, reason, column, value, error);
+            } else {
+                log.warn("Rejected row {} (loan {}): {} {} '{}'", rowNumber, loanNumber, reason, column, value);
+            }
+            if (count == LOG_LIMIT) {
+                log.warn("Further rejections are counted but not logged individually");
+            }
+        }
+    }
+
+    /**
+     * Record a value that could not be parsed and was replaced by a default, without rejecting the row
+     */
+    public void defaulted(String column, String value) {
+        defaultedValues.computeIfAbsent(column, key -> new LongAdder()).increment();
+        if (totalDefaulted.incrementAndGet() <= LOG_LIMIT) {
+            log.warn("Could not parse {} value '{}', using 0", column, value);
+        }
+    }
+
+    public long getTotalRejected() {
+        return totalRejected.get();
+    }
+
+    public RejectionSummary summarize() {
+        Map<String, Map<String, Long>> byReason = new TreeMap<>();
+        counts.forEach((reason, columns) -> {
+            if (!columns.isEmpty()) {
+                Map<String, Long> byColumn = new TreeMap<>();
+                columns.forEach((column, count) -> byColumn.put(column, count.sum()));
+                byReason.put(reason.name(), byColumn);
+            }
+        });
+        Map<String, Long> defaulted = new TreeMap<>();
+        defaultedValues.forEach((column, count) -> defaulted.put(column, count.sum()));
+        List<RejectionSummary.Sample> sampleCopy;
+        synchronized (samples) {
+            sampleCopy = new ArrayList<>(samples);
+        }
+        return new RejectionSummary(totalRejected.get(), byReason, defaulted, sampleCopy);
+    }
+
+    public void logSummary() {
+        if (totalRejected.get() > 0 || totalDefaulted.get() > 0) {
+            RejectionSummary summary = summarize();
+            log.warn("Rejected {} rows {}, defaulted values {}", summary.getTotalRejected(), summary.getByReason(), summary.getDefaultedValues());
+        }
+    }
+}
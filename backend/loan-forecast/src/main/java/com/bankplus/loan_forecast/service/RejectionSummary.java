@@ -0,0 +1,36 @@
+package com.bankplus.loan_forecast.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rejected rows of one file, stored as JSON on the upload history.
+ * Rows dropped for missing required values are included, although they are not part of totalRecords.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RejectionSummary {
+    private long totalRejected;
+    // Reason -> column -> number of rows ("" when not specific to a column)
+    private Map<String, Map<String, Long>> byReason;
+    // Column -> number of values that could not be parsed and were replaced by 0
+    private Map<String, Long> defaultedValues;
+    // The first rejected rows
+    private List<Sample> samples;
+
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Sample {
+        private int rowNumber;
+        private String loanNumber;
+        private String reason;
+        private String column;
+        private String value;
+    }
+}
@@ -0,0 +1,20 @@
+package com.bankplus.loan_forecast.service;
+
+import com.bankplus.loan_forecast.dto.ForecastSeries;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Portfolio forecasts of one upload under each scenario of a sensitivity sweep
+ */
+@Getter
+@AllArgsConstructor
+public class ScenarioSweepResult {
+    // Loans included in the curves
+    private final int loanCount;
+    private final long rejectedLoans;
+    // Sum of the monthly forecasts of every loan, one per scenario in request order, all on the same month axis
+    private final List<ForecastSeries> portfolioCurves;
+}
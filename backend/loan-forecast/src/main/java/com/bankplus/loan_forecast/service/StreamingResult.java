@@ -0,0 +1,34 @@
+package com.bankplus.loan_forecast.service;
+
+import com.bankplus.loan_forecast.dto.PortfolioSummary;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Counters collected while a file flows through the streaming pipeline
+ */
+@Getter
+@AllArgsConstructor
+public class StreamingResult {
+    private final int totalRecords;
+    private final int processedRecords;
+    private final BigDecimal totalAmount;
+    private final RejectionSummary rejections;
+    // Algorithm the file was forecast with
+    private final String algorithm;
+    private final String algorithmVersion;
+    // Forecasts taken unchanged from the base batch of an incremental upload
+    private final int reusedRecords;
+    // Aggregates of the forecast loans, folded while they were forecast
+    private final PortfolioSummary portfolio;
+
+    public int getFailedRecords() {
+        return totalRecords - processedRecords;
+    }
+
+    public int getRecomputedRecords() {
+        return processedRecords - reusedRecords;
+    }
+}
@@ -0,0 +1,18 @@
+package com.bankplus.loan_forecast.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * What was learned about an upload while it was being saved
+ */
+@Getter
+@AllArgsConstructor
+public class UploadScanResult {
+    private final long bytesWritten;
+    private final int totalRows;
+    // Rows with a value in every required column
+    private final int completeRows;
+    // SHA-256 of the bytes saved, see ContentDigest
+    private final String contentSha256;
+}
@@ -1,15 +1,18 @@
 package com.bankplus.loan_forecast.service.algorithm;
 
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import lombok.extern.slf4j.Slf4j;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Factory for creating and managing forecast algorithms
- * Supports dynamic algorithm selection based on configuration
+ * The active algorithm is resolved from configuration once at startup and can be switched at runtime;
+ * a batch reads it once when it starts, so a switch only affects batches started afterwards.
  */
 @Component
 @Slf4j
@@ -20,10 +23,13 @@ public class AlgorithmFactory {
     
     private final Map<String, ForecastAlgorithmInterface> algorithms;
     
+    private final AtomicReference<ForecastAlgorithmInterface> activeAlgorithm = new AtomicReference<>();
+    
     @Autowired
     public AlgorithmFactory(SimpleForecastAlgorithm simpleAlgorithm) {
         this.algorithms = new HashMap<>();
         this.algorithms.put("simple", simpleAlgorithm);
+        this.algorithms.put("simd", new SimdForecastAlgorithm());
         
         // Try to inject ForecastAlgorithm if it exists using reflection
         try {
@@ -36,13 +42,11 @@ public class AlgorithmFactory {
         }
         
         log.info("Algorithm factory initialized with algorithms: {}", algorithms.keySet());
+        this.activeAlgorithm.set(simpleAlgorithm);
     }
     
-    /**
-     * Get the configured forecast algorithm
-     * @return The active forecast algorithm
-     */
-    public ForecastAlgorithmInterface getActiveAlgorithm() {
+    @PostConstruct
+    public void initActiveAlgorithm() {
         String algorithmType = determineAlgorithmType();
         ForecastAlgorithmInterface algorithm = algorithms.get(algorithmType);
         
@@ -54,8 +58,41 @@ public class AlgorithmFactory {
         log.info("Using forecast algorithm: {} - {}", 
                 algorithm.getAlgorithmName(), 
                 algorithm.getAlgorithmDescription());
-        
-        return algorithm;
+        activeAlgorithm.set(algorithm);
+    }
+    
+    /**
+     * Get the forecast algorithm for new batches; callers should read it once per batch
+     * @return The active forecast algorithm
+     */
+    public ForecastAlgorithmInterface getActiveAlgorithm() {
+        return activeAlgorithm.get();
+    }
+    
+    /**
+     * Make another algorithm active for the batches started from now on
+     * @param algorithmType The algorithm type to activate
+     * @return The previously active algorithm
+     * @throws IllegalArgumentException If there is no algorithm of that type
+     */
+    public ForecastAlgorithmInterface switchAlgorithm(String algorithmType) {
+        ForecastAlgorithmInterface algorithm = algorithmType != null ? algorithms.get(algorithmType) : null;
+        if (algorithm == null) {
+            throw new IllegalArgumentException("Unknown forecast algorithm '" + algorithmType + "', available: " + algorithms.keySet());
+        }
+        ForecastAlgorithmInterface previous = activeAlgorithm.getAndSet(algorithm);
+        log.info("Switched forecast algorithm from {} to {}", previous.getAlgorithmName(), algorithm.getAlgorithmName());
+        return previous;
+    }
+    
+    /**
+     * Get the algorithm a batch was processed with
+     * @param algorithmType The recorded algorithm type, may be null for batches recorded before it was tracked
+     * @return That algorithm, or the active one if it is null or no longer available
+     */
+    public ForecastAlgorithmInterface resolve(String algorithmType) {
+        ForecastAlgorithmInterface algorithm = algorithmType != null ? algorithms.get(algorithmType) : null;
+        return algorithm != null ? algorithm : activeAlgorithm.get();
     }
     
     /**
@@ -89,7 +126,7 @@ public class AlgorithmFactory {
         
         // Use configuration value
         log.info("Using algorithm type from configuration: {}", algorithmType);
-        return algorithmType;
+        return algorithmType != null ? algorithmType : "simple";
     }
     
     /**
@@ -0,0 +1,50 @@
+package com.bankplus.loan_forecast.service.algorithm;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Forecast cell arithmetic in long cents that gives the same cents as the BigDecimal computation
+ * base + amount * BigDecimal.valueOf(fraction), rounded to 2 decimals HALF_UP.
+ * <p>
+ * Rounding policy: amount * fraction is rounded half up (away from zero) to whole cents and added to base.
+ * The product is taken in double. BigDecimal.valueOf(fraction) and fraction differ by at most half an ulp, and
+ * the multiplication rounds by at most another half ulp, so for base and amount in [0, {@link #MAX_FAST_AMOUNT_CENTS}]
+ * and fraction in [0, 1] the double product is within 2^-12 cent of the exact one. A product further than
+ * {@link #TIE_MARGIN} cent from a half cent therefore rounds the same way as the exact value. Anything else,
+ * i.e. a near tie or an operand out of those bounds, is computed with BigDecimal, so the result is always identical.
+ */
+public final class CentsArithmetic {
+    // 10 billion dollars
+    public static final long MAX_FAST_AMOUNT_CENTS = 1_000_000_000_000L;
+
+    static final double TIE_MARGIN = 0x1p-10;
+
+    private CentsArithmetic() {
+    }
+
+    /**
+     * @return baseCents + amountCents * fraction in cents, rounded HALF_UP
+     */
+    public static long addFractionHalfUp(long baseCents, long amountCents, double fraction) {
+        if (baseCents >= 0 && baseCents <= MAX_FAST_AMOUNT_CENTS && amountCents >= 0 && amountCents <= MAX_FAST_AMOUNT_CENTS
+                && fraction >= 0 && fraction <= 1) {
+            double product = amountCents * fraction;
+            double wholeCents = Math.floor(product);
+            double remainder = product - wholeCents;
+            if (Math.abs(remainder - 0.5) > TIE_MARGIN) {
+                return baseCents + (long) wholeCents + (remainder > 0.5 ? 1 : 0);
+            }
+        }
+        return addFractionExact(baseCents, amountCents, fraction);
+    }
+
+    /**
+     * The BigDecimal computation {@link #addFractionHalfUp} reproduces
+     */
+    public static long addFractionExact(long baseCents, long amountCents, double fraction) {
+        BigDecimal balance = BigDecimal.valueOf(baseCents, 2)
+                .add(BigDecimal.valueOf(amountCents, 2).multiply(BigDecimal.valueOf(fraction)));
+        return balance.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
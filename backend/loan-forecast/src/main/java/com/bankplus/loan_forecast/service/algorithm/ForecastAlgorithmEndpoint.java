@@ -0,0 +1,36 @@
+package com.bankplus.loan_forecast.service.algorithm;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Actuator endpoint (/actuator/forecastalgorithm) showing the active forecast algorithm.
+ * It is read-only, as the web endpoints are not authenticated; switching is done over JMX with
+ * {@link ForecastAlgorithmSwitchEndpoint}.
+ */
+@Component
+@Endpoint(id = "forecastalgorithm")
+public class ForecastAlgorithmEndpoint {
+
+    private final AlgorithmFactory algorithmFactory;
+
+    public ForecastAlgorithmEndpoint(AlgorithmFactory algorithmFactory) {
+        this.algorithmFactory = algorithmFactory;
+    }
+
+    @ReadOperation
+    public Map<String, Object> activeAlgorithm() {
+        ForecastAlgorithmInterface active = algorithmFactory.getActiveAlgorithm();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("algorithm", active.getAlgorithmName());
+        result.put("version", active.getAlgorithmVersion());
+        result.put("description", active.getAlgorithmDescription());
+        result.put("available", new TreeSet<>(algorithmFactory.getAllAlgorithms().keySet()));
+        return result;
+    }
+}
@@ -1,6 +1,7 @@
 package com.bankplus.loan_forecast.service.algorithm;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 
 /**
@@ -28,6 +29,102 @@ public interface ForecastAlgorithmInterface {
             LocalDate forecastDate, 
             LocalDate extendedDate);
     
+    /**
+     * Calculate the forecast outstanding balance of one loan for consecutive months in a single call,
+     * so work that only depends on the loan is done once. Month i is forecast at firstForecastDate.plusMonths(i).
+     * The default implementation calls {@link #calculateForecastOutstandingBalance} for every month.
+     * 
+     * @param outstandingBalanceCents Current outstanding balance in cents
+     * @param undisbursedAmountCents Amount not yet disbursed in cents
+     * @param percentOfCompletion Current completion percentage (0.0 to 1.0)
+     * @param projectStartDate Project start date
+     * @param firstForecastDate Date of the first month to forecast
+     * @param extendedDate Extended project completion date
+     * @param outCents Receives the forecast outstanding balance of month i in cents (rounded HALF_UP) at index i
+     * @param months Number of months to forecast
+     */
+    default void calculateForecastCurve(
+            long outstandingBalanceCents,
+            long undisbursedAmountCents,
+            double percentOfCompletion,
+            LocalDate projectStartDate,
+            LocalDate firstForecastDate,
+            LocalDate extendedDate,
+            long[] outCents,
+            int months) {
+        BigDecimal outstandingBalance = BigDecimal.valueOf(outstandingBalanceCents, 2);
+        BigDecimal undisbursedAmount = BigDecimal.valueOf(undisbursedAmountCents, 2);
+        for (int month = 0; month < months; month++) {
+            BigDecimal balance = calculateForecastOutstandingBalance(outstandingBalance, undisbursedAmount,
+                    percentOfCompletion, projectStartDate, firstForecastDate.plusMonths(month), extendedDate);
+            outCents[month] = balance.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        }
+    }
+    
+    /**
+     * Sum the curve {@link #calculateForecastCurve} would produce for the same arguments without keeping its months,
+     * for a total over months that are not otherwise needed.
+     * The default implementation calls {@link #calculateForecastCurve} for one month at a time.
+     * 
+     * @param outstandingBalanceCents Current outstanding balance in cents
+     * @param undisbursedAmountCents Amount not yet disbursed in cents
+     * @param percentOfCompletion Current completion percentage (0.0 to 1.0)
+     * @param projectStartDate Project start date
+     * @param firstForecastDate Date of the first month to forecast
+     * @param extendedDate Extended project completion date
+     * @param months Number of months to forecast
+     * @return Sum of the months in cents
+     */
+    default long calculateForecastTotal(
+            long outstandingBalanceCents,
+            long undisbursedAmountCents,
+            double percentOfCompletion,
+            LocalDate projectStartDate,
+            LocalDate firstForecastDate,
+            LocalDate extendedDate,
+            int months) {
+        long[] monthCents = new long[1];
+        long totalCents = 0;
+        for (int month = 0; month < months; month++) {
+            calculateForecastCurve(outstandingBalanceCents, undisbursedAmountCents, percentOfCompletion, projectStartDate,
+                    firstForecastDate.plusMonths(month), extendedDate, monthCents, 1);
+            totalCents += monthCents[0];
+        }
+        return totalCents;
+    }
+    
+    /**
+     * Calculate the curves of many loans that share the first forecast date, with one array element per loan
+     * (column-wise), so an implementation can evaluate a month across all loans at once.
+     * The default implementation calls {@link #calculateForecastCurve} for every loan.
+     * 
+     * @param outstandingBalanceCents Current outstanding balance of each loan in cents
+     * @param undisbursedAmountCents Amount not yet disbursed of each loan in cents
+     * @param percentOfCompletion Current completion percentage of each loan (0.0 to 1.0)
+     * @param projectStartDays Project start date of each loan as an epoch day
+     * @param firstForecastDate Date of the first month to forecast
+     * @param extendedDays Extended project completion date of each loan as an epoch day
+     * @param outCents Receives the curve of loan i, as {@link #calculateForecastCurve} would fill it, in outCents[i]
+     * @param months Number of months to forecast for each loan
+     * @param count Number of loans, the first count elements of every array
+     */
+    default void calculateForecastCurves(
+            long[] outstandingBalanceCents,
+            long[] undisbursedAmountCents,
+            double[] percentOfCompletion,
+            long[] projectStartDays,
+            LocalDate firstForecastDate,
+            long[] extendedDays,
+            long[][] outCents,
+            int[] months,
+            int count) {
+        for (int i = 0; i < count; i++) {
+            calculateForecastCurve(outstandingBalanceCents[i], undisbursedAmountCents[i], percentOfCompletion[i],
+                    LocalDate.ofEpochDay(projectStartDays[i]), firstForecastDate, LocalDate.ofEpochDay(extendedDays[i]),
+                    outCents[i], months[i]);
+        }
+    }
+    
     /**
      * Get the name/identifier of this algorithm
      * @return Algorithm name
@@ -39,4 +136,12 @@ public interface ForecastAlgorithmInterface {
      * @return Algorithm description
      */
     String getAlgorithmDescription();
+    
+    /**
+     * Get the version of the model, to be changed whenever the same inputs produce different forecasts
+     * @return Algorithm version
+     */
+    default String getAlgorithmVersion() {
+        return "1";
+    }
 } 
\ No newline at end of file
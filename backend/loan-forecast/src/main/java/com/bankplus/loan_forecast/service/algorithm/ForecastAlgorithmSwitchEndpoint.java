@@ -0,0 +1,39 @@
+package com.bankplus.loan_forecast.service.algorithm;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.jmx.annotation.JmxEndpoint;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * JMX-only actuator endpoint switching the forecast algorithm for future batches without a restart.
+ * It is kept off the web, where any client reaching the management port could call it; JMX access
+ * is local unless the JVM is configured for authenticated remote access.
+ */
+@Component
+@JmxEndpoint(id = "forecastalgorithmswitch")
+public class ForecastAlgorithmSwitchEndpoint {
+
+    private final AlgorithmFactory algorithmFactory;
+    private final ForecastAlgorithmEndpoint algorithmEndpoint;
+
+    public ForecastAlgorithmSwitchEndpoint(AlgorithmFactory algorithmFactory, ForecastAlgorithmEndpoint algorithmEndpoint) {
+        this.algorithmFactory = algorithmFactory;
+        this.algorithmEndpoint = algorithmEndpoint;
+    }
+
+    @WriteOperation
+    public Map<String, Object> switchAlgorithm(String algorithmType) {
+        ForecastAlgorithmInterface previous;
+        try {
+            previous = algorithmFactory.switchAlgorithm(algorithmType);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), "Unknown forecast algorithm");
+        }
+        Map<String, Object> result = algorithmEndpoint.activeAlgorithm();
+        result.put("previous", previous.getAlgorithmName());
+        return result;
+    }
+}
@@ -0,0 +1,27 @@
+package com.bankplus.loan_forecast.service.algorithm;
+
+import java.util.Locale;
+
+/**
+ * Arithmetic used for the forecast cells, configured with forecast.numeric.mode
+ */
+public enum NumericMode {
+    // Every cell in BigDecimal
+    DECIMAL,
+    // Cells in long cents, see CentsArithmetic; writes the same values as DECIMAL
+    CENTS;
+
+    /**
+     * @throws IllegalArgumentException If the value is not a mode name (case-insensitive)
+     */
+    public static NumericMode parse(String value) {
+        if (value != null) {
+            for (NumericMode mode : values()) {
+                if (mode.name().equals(value.trim().toUpperCase(Locale.ROOT))) {
+                    return mode;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unknown forecast numeric mode '" + value + "', expected decimal or cents");
+    }
+}
@@ -0,0 +1,18 @@
+package com.bankplus.loan_forecast.service.algorithm;
+
+/**
+ * Evaluates {@link SimpleForecastAlgorithm}'s exact S-curve model for one forecast month across loan columns.
+ * Every implementation writes the same cents as SimpleForecastAlgorithm.
+ */
+interface SCurveColumnKernel {
+
+    /**
+     * For every loan i in [0, count): outCents[i] = outstandingBalanceCents[i] + undisbursedAmountCents[i] * sCurve,
+     * rounded HALF_UP, with the S-curve taken at forecastDay
+     */
+    void forecastMonth(long forecastDay, long[] outstandingBalanceCents, long[] undisbursedAmountCents,
+                       double[] percentOfCompletion, long[] projectStartDays, long[] extendedDays,
+                       long[] outCents, int count);
+
+    String getName();
+}
@@ -0,0 +1,79 @@
+package com.bankplus.loan_forecast.service.algorithm;
+
+/**
+ * One set of S-curve parameters for a sensitivity sweep of {@link SimpleForecastAlgorithm}'s model.
+ * With the default parameters it draws exactly what the simple algorithm (exact S-curve) forecasts.
+ */
+public final class SCurveScenario {
+    public static final double DEFAULT_STEEPNESS = 12.0;
+    public static final double DEFAULT_MIDPOINT = 0.5;
+    public static final double DEFAULT_COMPLETION_RATE = 1.0;
+    public static final double DEFAULT_RISK_ADJUSTMENT = 1.0;
+
+    // Slope of the sigmoid at the midpoint
+    private final double steepness;
+    // Progress at which half of the undisbursed amount is drawn
+    private final double midpoint;
+    // Pace of construction relative to the schedule: time progress is multiplied by it
+    private final double completionRate;
+    // Share of the modeled draw expected to happen
+    private final double riskAdjustment;
+
+    /**
+     * Parameters left null take their default
+     * @throws IllegalArgumentException If a parameter is out of range
+     */
+    public SCurveScenario(Double steepness, Double midpoint, Double completionRate, Double riskAdjustment) {
+        this.steepness = orDefault(steepness, DEFAULT_STEEPNESS);
+        this.midpoint = orDefault(midpoint, DEFAULT_MIDPOINT);
+        this.completionRate = orDefault(completionRate, DEFAULT_COMPLETION_RATE);
+        this.riskAdjustment = orDefault(riskAdjustment, DEFAULT_RISK_ADJUSTMENT);
+        if (!(this.steepness > 0) || Double.isInfinite(this.steepness)) {
+            throw new IllegalArgumentException("sCurveSteepness must be positive, got " + steepness);
+        }
+        if (!(this.midpoint >= 0 && this.midpoint <= 1)) {
+            throw new IllegalArgumentException("sCurveMidpoint must be within [0, 1], got " + midpoint);
+        }
+        if (!(this.completionRate >= 0) || Double.isInfinite(this.completionRate)) {
+            throw new IllegalArgumentException("completionRate must not be negative, got " + completionRate);
+        }
+        if (!(this.riskAdjustment >= 0 && this.riskAdjustment <= 1)) {
+            throw new IllegalArgumentException("riskAdjustment must be within [0, 1], got " + riskAdjustment);
+        }
+    }
+
+    public static SCurveScenario defaults() {
+        return new SCurveScenario(null, null, null, null);
+    }
+
+    /**
+     * Fraction of the undisbursed amount drawn, the same steps as {@link SimpleForecastAlgorithm#sCurve}
+     * @param timeProgress Share of the time from project start to Extended Date that has passed, may be outside [0, 1]
+     */
+    public double drawnFraction(double percentOfCompletion, double timeProgress) {
+        double totalProgress = percentOfCompletion + timeProgress * completionRate * (1 - percentOfCompletion);
+        if (totalProgress < 0) totalProgress = 0;
+        if (totalProgress > 1) totalProgress = 1;
+        return 1.0 / (1.0 + Math.exp(-steepness * (totalProgress - midpoint))) * riskAdjustment;
+    }
+
+    public double getSteepness() {
+        return steepness;
+    }
+
+    public double getMidpoint() {
+        return midpoint;
+    }
+
+    public double getCompletionRate() {
+        return completionRate;
+    }
+
+    public double getRiskAdjustment() {
+        return riskAdjustment;
+    }
+
+    private static double orDefault(Double value, double defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+}
@@ -0,0 +1,29 @@
+package com.bankplus.loan_forecast.service.algorithm;
+
+/**
+ * The S-curve column kernel without SIMD, one loan at a time
+ */
+final class ScalarSCurveKernel implements SCurveColumnKernel {
+
+    @Override
+    public void forecastMonth(long forecastDay, long[] outstandingBalanceCents, long[] undisbursedAmountCents,
+                              double[] percentOfCompletion, long[] projectStartDays, long[] extendedDays,
+                              long[] outCents, int count) {
+        for (int i = 0; i < count; i++) {
+            outCents[i] = forecastCell(forecastDay, outstandingBalanceCents[i], undisbursedAmountCents[i],
+                    percentOfCompletion[i], projectStartDays[i], extendedDays[i]);
+        }
+    }
+
+    static long forecastCell(long forecastDay, long outstandingBalanceCents, long undisbursedAmountCents,
+                             double percentOfCompletion, long projectStartDay, long extendedDay) {
+        double sCurveValue = SimpleForecastAlgorithm.sCurve(null, percentOfCompletion,
+                forecastDay - projectStartDay, extendedDay - projectStartDay);
+        return CentsArithmetic.addFractionHalfUp(outstandingBalanceCents, undisbursedAmountCents, sCurveValue);
+    }
+
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+}
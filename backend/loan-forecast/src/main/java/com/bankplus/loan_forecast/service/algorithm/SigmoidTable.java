@@ -0,0 +1,71 @@
+package com.bankplus.loan_forecast.service.algorithm;
+
+/**
+ * The S-curve 1 / (1 + exp(-12 (x - 0.5))) on [0, 1] as a table of values and slopes at size + 1 evenly spaced
+ * points, evaluated by cubic Hermite interpolation instead of Math.exp.
+ * <p>
+ * Error bound: the interpolation error of cubic Hermite on an interval of width h is at most
+ * h^4 / 384 * max|f''''|, and max|f''''| = 12^4 * max|s(1-s)(1-2s)(1-12s+12s^2)| &lt; 2648 for this curve, so
+ * |table - exact| &lt;= 2648 / (384 size^4) (2.5e-14 for the default 4096 intervals). On the largest undisbursed
+ * amount the cents arithmetic handles, 10^12 cents, that is below 0.025 cent, so a forecast cell differs from
+ * the exact formula only where the exact value is within that distance of a half cent, and then by one cent.
+ */
+public final class SigmoidTable {
+    public static final int DEFAULT_SIZE = 4096;
+    static final int MIN_SIZE = 16;
+    // Upper bound of the fourth derivative of the curve on [0, 1]
+    static final double MAX_FOURTH_DERIVATIVE = 2648;
+
+    private final int size;
+    private final double[] values;
+    // Slope at each point times the interval width
+    private final double[] scaledSlopes;
+
+    public SigmoidTable(int size) {
+        if (size < MIN_SIZE) {
+            throw new IllegalArgumentException("Sigmoid table size must be at least " + MIN_SIZE + ", got " + size);
+        }
+        this.size = size;
+        this.values = new double[size + 1];
+        this.scaledSlopes = new double[size + 1];
+        for (int i = 0; i <= size; i++) {
+            double value = exact((double) i / size);
+            values[i] = value;
+            scaledSlopes[i] = 12.0 * value * (1 - value) / size;
+        }
+    }
+
+    /**
+     * The exact curve at progress x
+     */
+    public static double exact(double x) {
+        return 1.0 / (1.0 + Math.exp(-12.0 * (x - 0.5)));
+    }
+
+    /**
+     * @param x Progress in [0, 1]
+     */
+    public double valueAt(double x) {
+        double position = x * size;
+        int i = Math.min((int) position, size - 1);
+        double u = position - i;
+        double u2 = u * u;
+        double u3 = u2 * u;
+        return (2 * u3 - 3 * u2 + 1) * values[i]
+                + (u3 - 2 * u2 + u) * scaledSlopes[i]
+                + (3 * u2 - 2 * u3) * values[i + 1]
+                + (u3 - u2) * scaledSlopes[i + 1];
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return The proven bound on |valueAt(x) - exact(x)| for x in [0, 1]
+     */
+    public double maxError() {
+        double h = 1.0 / size;
+        return h * h * h * h / 384 * MAX_FOURTH_DERIVATIVE;
+    }
+}
@@ -0,0 +1,108 @@
+package com.bankplus.loan_forecast.service.algorithm;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * {@link SimpleForecastAlgorithm}'s model (exact S-curve) evaluated column-wise: for a batch of loans each forecast
+ * month is one pass over the loan columns, on jdk.incubator.vector when the JVM was started with
+ * --add-modules jdk.incubator.vector and on a scalar kernel otherwise. The forecasts are identical to the simple
+ * algorithm's; one loan at a time it is the simple algorithm in cents mode.
+ */
+@Slf4j
+public class SimdForecastAlgorithm implements ForecastAlgorithmInterface {
+
+    private final SimpleForecastAlgorithm model = new SimpleForecastAlgorithm();
+    private final SCurveColumnKernel kernel;
+
+    public SimdForecastAlgorithm() {
+        this(loadKernel());
+    }
+
+    SimdForecastAlgorithm(SCurveColumnKernel kernel) {
+        this.kernel = kernel;
+        model.setNumericMode(NumericMode.CENTS.name());
+    }
+
+    /**
+     * @return The vector kernel if the jdk.incubator.vector module is present, otherwise the scalar kernel
+     */
+    static SCurveColumnKernel loadKernel() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            log.info("jdk.incubator.vector not available, the simd forecast algorithm uses the scalar kernel");
+            return new ScalarSCurveKernel();
+        }
+        // Loaded by name so that this class links without the module
+        try {
+            Class<?> kernelClass = Class.forName("com.bankplus.loan_forecast.service.algorithm.VectorSCurveKernel");
+            SCurveColumnKernel kernel = (SCurveColumnKernel) kernelClass.getDeclaredConstructor().newInstance();
+            log.info("The simd forecast algorithm uses the {} kernel", kernel.getName());
+            return kernel;
+        } catch (Exception | LinkageError e) {
+            log.warn("Vector forecast kernel unavailable, using the scalar kernel: {}", e.toString());
+            return new ScalarSCurveKernel();
+        }
+    }
+
+    @Override
+    public BigDecimal calculateForecastOutstandingBalance(BigDecimal outstandingBalance, BigDecimal undisbursedAmount,
+                                                          double percentOfCompletion, LocalDate projectStartDate,
+                                                          LocalDate forecastDate, LocalDate extendedDate) {
+        return model.calculateForecastOutstandingBalance(outstandingBalance, undisbursedAmount, percentOfCompletion,
+                projectStartDate, forecastDate, extendedDate);
+    }
+
+    @Override
+    public void calculateForecastCurve(long outstandingBalanceCents, long undisbursedAmountCents, double percentOfCompletion,
+                                       LocalDate projectStartDate, LocalDate firstForecastDate, LocalDate extendedDate,
+                                       long[] outCents, int months) {
+        model.calculateForecastCurve(outstandingBalanceCents, undisbursedAmountCents, percentOfCompletion,
+                projectStartDate, firstForecastDate, extendedDate, outCents, months);
+    }
+
+    @Override
+    public long calculateForecastTotal(long outstandingBalanceCents, long undisbursedAmountCents, double percentOfCompletion,
+                                       LocalDate projectStartDate, LocalDate firstForecastDate, LocalDate extendedDate,
+                                       int months) {
+        return model.calculateForecastTotal(outstandingBalanceCents, undisbursedAmountCents, percentOfCompletion,
+                projectStartDate, firstForecastDate, extendedDate, months);
+    }
+
+    @Override
+    public void calculateForecastCurves(long[] outstandingBalanceCents, long[] undisbursedAmountCents,
+                                        double[] percentOfCompletion, long[] projectStartDays, LocalDate firstForecastDate,
+                                        long[] extendedDays, long[][] outCents, int[] months, int count) {
+        int maxMonths = 0;
+        for (int i = 0; i < count; i++) {
+            maxMonths = Math.max(maxMonths, months[i]);
+        }
+        // Month-major: one kernel pass per month, then the month is copied into the loans that still run
+        long[] monthCents = new long[count];
+        for (int month = 0; month < maxMonths; month++) {
+            long forecastDay = firstForecastDate.plusMonths(month).toEpochDay();
+            kernel.forecastMonth(forecastDay, outstandingBalanceCents, undisbursedAmountCents, percentOfCompletion,
+                    projectStartDays, extendedDays, monthCents, count);
+            for (int i = 0; i < count; i++) {
+                if (month < months[i]) {
+                    outCents[i][month] = monthCents[i];
+                }
+            }
+        }
+    }
+
+    public String getKernelName() {
+        return kernel.getName();
+    }
+
+    @Override
+    public String getAlgorithmName() {
+        return "simd";
+    }
+
+    @Override
+    public String getAlgorithmDescription() {
+        return "Simple sigmoid S-curve model evaluated across loan columns (" + kernel.getName() + " kernel)";
+    }
+}
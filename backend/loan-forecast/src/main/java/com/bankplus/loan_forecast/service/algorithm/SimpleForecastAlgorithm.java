@@ -1,7 +1,9 @@
 package com.bankplus.loan_forecast.service.algorithm;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 
@@ -12,6 +14,46 @@ import java.time.temporal.ChronoUnit;
 @Component("simpleAlgorithm")
 public class SimpleForecastAlgorithm implements ForecastAlgorithmInterface {
     
+    private NumericMode numericMode = NumericMode.DECIMAL;
+    
+    /**
+     * @param numericMode decimal or cents, both produce the same forecast
+     */
+    @Value("${forecast.numeric.mode:decimal}")
+    public void setNumericMode(String numericMode) {
+        this.numericMode = NumericMode.parse(numericMode);
+    }
+    
+    public NumericMode getNumericMode() {
+        return numericMode;
+    }
+    
+    private boolean sigmoidTableEnabled;
+    private int sigmoidTableSize = SigmoidTable.DEFAULT_SIZE;
+    // null when the S-curve is evaluated with Math.exp
+    private volatile SigmoidTable sigmoidTable;
+    
+    /**
+     * @param sigmoid exact to evaluate the S-curve with Math.exp, table for the interpolated {@link SigmoidTable}
+     */
+    @Value("${forecast.algorithm.sigmoid:exact}")
+    public void setSigmoid(String sigmoid) {
+        if ("table".equalsIgnoreCase(sigmoid.trim())) {
+            sigmoidTableEnabled = true;
+        } else if ("exact".equalsIgnoreCase(sigmoid.trim())) {
+            sigmoidTableEnabled = false;
+        } else {
+            throw new IllegalArgumentException("Unknown sigmoid mode '" + sigmoid + "', expected exact or table");
+        }
+        sigmoidTable = sigmoidTableEnabled ? new SigmoidTable(sigmoidTableSize) : null;
+    }
+    
+    @Value("${forecast.algorithm.sigmoid-table-size:" + SigmoidTable.DEFAULT_SIZE + "}")
+    public void setSigmoidTableSize(int sigmoidTableSize) {
+        this.sigmoidTableSize = sigmoidTableSize;
+        sigmoidTable = sigmoidTableEnabled ? new SigmoidTable(sigmoidTableSize) : null;
+    }
+    
     @Override
     public BigDecimal calculateForecastOutstandingBalance(
             BigDecimal outstandingBalance, 
@@ -23,7 +65,92 @@ public class SimpleForecastAlgorithm implements ForecastAlgorithmInterface {
         
         long daysBetweenStartAndForecast = ChronoUnit.DAYS.between(projectStartDate, forecastDate);
         long daysBetweenStartAndExtended = ChronoUnit.DAYS.between(projectStartDate, extendedDate);
+        double sCurveValue = sCurve(sigmoidTable, percentOfCompletion, daysBetweenStartAndForecast, daysBetweenStartAndExtended);
+        
+        BigDecimal additionalDisbursement = undisbursedAmount.multiply(BigDecimal.valueOf(sCurveValue));
+        return outstandingBalance.add(additionalDisbursement);
+    }
+    
+    @Override
+    public void calculateForecastCurve(
+            long outstandingBalanceCents,
+            long undisbursedAmountCents,
+            double percentOfCompletion,
+            LocalDate projectStartDate,
+            LocalDate firstForecastDate,
+            LocalDate extendedDate,
+            long[] outCents,
+            int months) {
+        
+        // Only the forecast date changes from month to month
+        long projectStartDay = projectStartDate.toEpochDay();
+        long daysBetweenStartAndExtended = extendedDate.toEpochDay() - projectStartDay;
+        SigmoidTable table = sigmoidTable;
+        
+        if (numericMode == NumericMode.CENTS) {
+            for (int month = 0; month < months; month++) {
+                long daysBetweenStartAndForecast = firstForecastDate.plusMonths(month).toEpochDay() - projectStartDay;
+                double sCurveValue = sCurve(table, percentOfCompletion, daysBetweenStartAndForecast, daysBetweenStartAndExtended);
+                outCents[month] = CentsArithmetic.addFractionHalfUp(outstandingBalanceCents, undisbursedAmountCents, sCurveValue);
+            }
+            return;
+        }
         
+        BigDecimal outstandingBalance = BigDecimal.valueOf(outstandingBalanceCents, 2);
+        BigDecimal undisbursedAmount = BigDecimal.valueOf(undisbursedAmountCents, 2);
+        for (int month = 0; month < months; month++) {
+            long daysBetweenStartAndForecast = firstForecastDate.plusMonths(month).toEpochDay() - projectStartDay;
+            double sCurveValue = sCurve(table, percentOfCompletion, daysBetweenStartAndForecast, daysBetweenStartAndExtended);
+            BigDecimal balance = outstandingBalance.add(undisbursedAmount.multiply(BigDecimal.valueOf(sCurveValue)));
+            outCents[month] = balance.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        }
+    }
+    
+    @Override
+    public long calculateForecastTotal(
+            long outstandingBalanceCents,
+            long undisbursedAmountCents,
+            double percentOfCompletion,
+            LocalDate projectStartDate,
+            LocalDate firstForecastDate,
+            LocalDate extendedDate,
+            int months) {
+        
+        long projectStartDay = projectStartDate.toEpochDay();
+        long daysBetweenStartAndExtended = extendedDate.toEpochDay() - projectStartDay;
+        SigmoidTable table = sigmoidTable;
+        long totalCents = 0;
+        for (int month = 0; month < months; month++) {
+            long daysBetweenStartAndForecast = firstForecastDate.plusMonths(month).toEpochDay() - projectStartDay;
+            double progress = totalProgress(percentOfCompletion, daysBetweenStartAndForecast, daysBetweenStartAndExtended);
+            // Both numeric modes give these cents
+            long cents = CentsArithmetic.addFractionHalfUp(outstandingBalanceCents, undisbursedAmountCents,
+                    table != null ? table.valueAt(progress) : SigmoidTable.exact(progress));
+            if (daysBetweenStartAndExtended <= 0 || (progress >= 1 && percentOfCompletion <= 1)) {
+                // Time progress no longer moves the S-curve (it is not used, or total progress has reached 1 and only
+                // grows with it), so every remaining month forecasts the same
+                return totalCents + cents * (months - month);
+            }
+            totalCents += cents;
+        }
+        return totalCents;
+    }
+    
+    /**
+     * Fraction of the undisbursed amount drawn by the forecast date
+     * @param table The interpolated S-curve, or null for the exact formula
+     */
+    static double sCurve(SigmoidTable table, double percentOfCompletion, long daysBetweenStartAndForecast, long daysBetweenStartAndExtended) {
+        double totalProgress = totalProgress(percentOfCompletion, daysBetweenStartAndForecast, daysBetweenStartAndExtended);
+        
+        // Simple sigmoid S-curve model
+        return table != null ? table.valueAt(totalProgress) : SigmoidTable.exact(totalProgress);
+    }
+    
+    /**
+     * Completion plus the completion left times time progress, within [0, 1]
+     */
+    private static double totalProgress(double percentOfCompletion, long daysBetweenStartAndForecast, long daysBetweenStartAndExtended) {
         double timeProgress = daysBetweenStartAndExtended > 0 ? 
             (double) daysBetweenStartAndForecast / daysBetweenStartAndExtended : 0;
         
@@ -32,12 +159,7 @@ public class SimpleForecastAlgorithm implements ForecastAlgorithmInterface {
         // Ensure total progress is within [0, 1]
         if (totalProgress < 0) totalProgress = 0;
         if (totalProgress > 1) totalProgress = 1;
-        
-        // Simple sigmoid S-curve model
-        double sCurveValue = 1.0 / (1.0 + Math.exp(-12.0 * (totalProgress - 0.5)));
-        
-        BigDecimal additionalDisbursement = undisbursedAmount.multiply(BigDecimal.valueOf(sCurveValue));
-        return outstandingBalance.add(additionalDisbursement);
+        return totalProgress;
     }
     
     @Override
@@ -45,6 +167,12 @@ public class SimpleForecastAlgorithm implements ForecastAlgorithmInterface {
         return "simple";
     }
     
+    @Override
+    public String getAlgorithmVersion() {
+        // The table can move a cell by a cent where the exact value is within its error of a half cent
+        return sigmoidTable != null ? "1-table" + sigmoidTable.getSize() : "1";
+    }
+    
     @Override
     public String getAlgorithmDescription() {
         return "Simple sigmoid S-curve model for personal/development use";
@@ -0,0 +1,96 @@
+package com.bankplus.loan_forecast.service.algorithm;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The S-curve column kernel on jdk.incubator.vector, a vector of loans at a time.
+ * Only loaded when the module is present, see {@link SimdForecastAlgorithm}.
+ * <p>
+ * The lanes repeat the scalar operations in the same order, so they agree with SimpleForecastAlgorithm except
+ * for the exponential: the vector EXP and Math.exp are each within 1 ulp of exp, so the S-curve values are at
+ * most a few ulps apart. For amounts up to {@link CentsArithmetic#MAX_FAST_AMOUNT_CENTS} that moves
+ * undisbursed * sCurve by less than 2^-9 cent, so a lane is rounded in the vector only when its product is more
+ * than {@link #TIE_MARGIN} cent away from a half cent; the other lanes (near ties, amounts out of range) are
+ * recomputed with the scalar kernel.
+ */
+final class VectorSCurveKernel implements SCurveColumnKernel {
+    static final double TIE_MARGIN = 0x1p-8;
+
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final double MAX_AMOUNT = CentsArithmetic.MAX_FAST_AMOUNT_CENTS;
+
+    VectorSCurveKernel() {
+        if (DOUBLES.length() != LONGS.length()) {
+            throw new IllegalStateException("Unexpected vector shapes " + DOUBLES + ", " + LONGS);
+        }
+    }
+
+    @Override
+    public void forecastMonth(long forecastDay, long[] outstandingBalanceCents, long[] undisbursedAmountCents,
+                              double[] percentOfCompletion, long[] projectStartDays, long[] extendedDays,
+                              long[] outCents, int count) {
+        DoubleVector day = DoubleVector.broadcast(DOUBLES, (double) forecastDay);
+        DoubleVector zero = DoubleVector.zero(DOUBLES);
+        DoubleVector one = DoubleVector.broadcast(DOUBLES, 1.0);
+        int upper = DOUBLES.loopBound(count);
+        int i = 0;
+        for (; i < upper; i += DOUBLES.length()) {
+            DoubleVector projectStart = toDoubles(LongVector.fromArray(LONGS, projectStartDays, i));
+            DoubleVector daysToExtended = toDoubles(LongVector.fromArray(LONGS, extendedDays, i)).sub(projectStart);
+            DoubleVector percent = DoubleVector.fromArray(DOUBLES, percentOfCompletion, i);
+
+            DoubleVector timeProgress = zero.blend(day.sub(projectStart).div(daysToExtended),
+                    daysToExtended.compare(VectorOperators.GT, 0));
+            DoubleVector totalProgress = percent.add(timeProgress.mul(one.sub(percent)));
+            totalProgress = totalProgress.blend(zero, totalProgress.compare(VectorOperators.LT, 0));
+            totalProgress = totalProgress.blend(one, totalProgress.compare(VectorOperators.GT, 1));
+            DoubleVector sCurve = one.div(one.add(totalProgress.sub(0.5).mul(-12.0).lanewise(VectorOperators.EXP)));
+
+            LongVector outstandingCents = LongVector.fromArray(LONGS, outstandingBalanceCents, i);
+            LongVector undisbursedCents = LongVector.fromArray(LONGS, undisbursedAmountCents, i);
+            DoubleVector outstanding = toDoubles(outstandingCents);
+            DoubleVector undisbursed = toDoubles(undisbursedCents);
+            DoubleVector product = undisbursed.mul(sCurve);
+            // Truncation is floor here, the product is not negative where the lane is kept
+            DoubleVector wholeCents = toDoubles((LongVector) product.convert(VectorOperators.D2L, 0));
+            DoubleVector remainder = product.sub(wholeCents);
+
+            VectorMask<Double> fast = remainder.sub(0.5).abs().compare(VectorOperators.GT, TIE_MARGIN)
+                    .and(outstanding.compare(VectorOperators.GE, 0))
+                    .and(outstanding.compare(VectorOperators.LE, MAX_AMOUNT))
+                    .and(undisbursed.compare(VectorOperators.GE, 0))
+                    .and(undisbursed.compare(VectorOperators.LE, MAX_AMOUNT));
+            DoubleVector cents = outstanding.add(wholeCents)
+                    .add(zero.blend(one, remainder.compare(VectorOperators.GT, 0.5)));
+            ((LongVector) cents.convert(VectorOperators.D2L, 0)).intoArray(outCents, i);
+
+            if (!fast.allTrue()) {
+                for (int lane = 0; lane < DOUBLES.length(); lane++) {
+                    if (!fast.laneIsSet(lane)) {
+                        int loan = i + lane;
+                        outCents[loan] = ScalarSCurveKernel.forecastCell(forecastDay, outstandingBalanceCents[loan],
+                                undisbursedAmountCents[loan], percentOfCompletion[loan], projectStartDays[loan], extendedDays[loan]);
+                    }
+                }
+            }
+        }
+        for (; i < count; i++) {
+            outCents[i] = ScalarSCurveKernel.forecastCell(forecastDay, outstandingBalanceCents[i], undisbursedAmountCents[i],
+                    percentOfCompletion[i], projectStartDays[i], extendedDays[i]);
+        }
+    }
+
+    private static DoubleVector toDoubles(LongVector values) {
+        return (DoubleVector) values.convert(VectorOperators.L2D, 0);
+    }
+
+    @Override
+    public String getName() {
+        return "vector " + DOUBLES.vectorBitSize() + "-bit";
+    }
+}
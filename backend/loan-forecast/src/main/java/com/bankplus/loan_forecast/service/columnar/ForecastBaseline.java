@@ -0,0 +1,69 @@
+package com.bankplus.loan_forecast.service.columnar;
+
+import com.bankplus.loan_forecast.model.LoanRecord;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The forecasts of an earlier batch, keyed by loan number, for an upload that only recomputes changed loans.
+ * A stored forecast is reused when the loan's forecast inputs (Outstanding Balance, Undisbursed Amount,
+ * % of Completion, Extended Date) are unchanged and the forecast has the same start month and algorithm:
+ * the forecast is a function of exactly these, so the reused forecast is the one recomputing would give.
+ * With another start month every loan is recomputed, since the start month also moves the loan's project start.
+ */
+public class ForecastBaseline implements Closeable {
+    private final LoanColumnarReader reader;
+    private final Map<String, Integer> rows;
+
+    private ForecastBaseline(LoanColumnarReader reader) {
+        this.reader = reader;
+        this.rows = new HashMap<>(reader.getRowCount() * 4 / 3 + 1);
+        for (int row = 0; row < reader.getRowCount(); row++) {
+            rows.put(reader.loanNumber(row), row);
+        }
+    }
+
+    /**
+     * Open the forecasts stored with the columnar cache of a saved upload
+     * @return The baseline, or null if the upload has no current cache
+     */
+    public static ForecastBaseline open(Path source) throws IOException {
+        LoanColumnarReader reader = LoanColumnarReader.open(LoanColumnarFile.pathFor(source), source);
+        return reader != null ? new ForecastBaseline(reader) : null;
+    }
+
+    /**
+     * @return Whether the stored forecasts start in startMonth and were calculated with the given algorithm
+     */
+    public boolean isComparable(YearMonth startMonth, String algorithm, String algorithmVersion) {
+        return startMonth.equals(reader.getForecastStartMonth())
+            && algorithm.equals(reader.getForecastAlgorithm())
+            && algorithmVersion.equals(reader.getForecastAlgorithmVersion());
+    }
+
+    /**
+     * Safe to call from several threads once opened
+     * @return The stored monthly forecast of the loan in cents, or null if the loan is new or its inputs changed
+     */
+    public long[] reusableForecast(LoanRecord loan) {
+        Integer row = rows.get(loan.getLoanNumber());
+        if (row == null || !reader.hasForecastInputsOf(row, loan)) {
+            return null;
+        }
+        return reader.forecastCents(row);
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,55 @@
+package com.bankplus.loan_forecast.service.columnar;
+
+import java.nio.file.Path;
+
+/**
+ * Layout of the per-batch columnar cache of parsed loans.
+ *
+ * The file starts with a fixed header (magic, version, size and modification time of the source CSV,
+ * row count and the offset and length of every section), followed by one section per column.
+ * Numbers are big-endian. Amounts are longs in cents and percentages in hundredths, as held by
+ * {@link com.bankplus.loan_forecast.model.LoanRecord}; dates are epoch days.
+ * The monthly forecast of every loan is kept with it, so a later upload can reuse the forecasts of unchanged loans.
+ */
+public final class LoanColumnarFile {
+    static final int MAGIC = 0x4C464331; // "LFC1"
+    static final int VERSION = 3;
+
+    // long per row: end offset of the loan number in LOAN_NUMBER_BYTES
+    static final int LOAN_NUMBER_ENDS = 0;
+    // UTF-8 loan numbers, back to back
+    static final int LOAN_NUMBER_BYTES = 1;
+    // int per row: index into CUSTOMER_NAME_DICTIONARY, -1 for no name
+    static final int CUSTOMER_NAME_CODES = 2;
+    static final int LOAN_AMOUNT = 3;
+    static final int OUTSTANDING_BALANCE = 4;
+    static final int UNDISBURSED_AMOUNT = 5;
+    static final int PERCENT_OF_LOAN_DRAWN = 6;
+    static final int PERCENT_OF_COMPLETION = 7;
+    static final int MATURITY_DATE = 8;
+    static final int EXTENDED_DATE = 9;
+    // int per row: row of the loan in the source file
+    static final int ROW_NUMBER = 10;
+    // long per row: end index of the loan's forecast in FORECAST_CENTS
+    static final int FORECAST_ENDS = 11;
+    // long per forecast month in cents, the loans' forecasts back to back
+    static final int FORECAST_CENTS = 12;
+    // int entry count, then int length and UTF-8 bytes per distinct name
+    static final int CUSTOMER_NAME_DICTIONARY = 13;
+    // int first forecast month (year * 12 + month - 1, -1 for no forecasts), then the algorithm name and version
+    // as int length and UTF-8 bytes (length -1 for none)
+    static final int FORECAST_INFO = 14;
+    static final int SECTION_COUNT = 15;
+
+    static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4 + SECTION_COUNT * 16;
+
+    private LoanColumnarFile() {
+    }
+
+    /**
+     * @return Where the cache of a saved upload is kept: next to the upload, with a ".cols" suffix
+     */
+    public static Path pathFor(Path source) {
+        return source.resolveSibling(source.getFileName() + ".cols");
+    }
+}
@@ -0,0 +1,305 @@
+package com.bankplus.loan_forecast.service.columnar;
+
+import com.bankplus.loan_forecast.model.LoanRecord;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static com.bankplus.loan_forecast.service.columnar.LoanColumnarFile.*;
+
+/**
+ * Memory-mapped view of a columnar cache written by {@link LoanColumnarWriter}.
+ * Every column is a typed view over the mapping, so reading a loan is a few absolute reads;
+ * only the loan number (and each distinct customer name, once) is decoded into a String.
+ */
+@Slf4j
+public class LoanColumnarReader implements Closeable {
+    private static final int FNV_OFFSET_BASIS = 0x811C9DC5;
+    private static final int FNV_PRIME = 0x01000193;
+
+    private final FileChannel channel;
+    private final int rowCount;
+    private final LongBuffer loanNumberEnds;
+    private final ByteBuffer loanNumberBytes;
+    private final IntBuffer customerNameCodes;
+    private final LongBuffer loanAmounts;
+    private final LongBuffer outstandingBalances;
+    private final LongBuffer undisbursedAmounts;
+    private final LongBuffer percentsOfLoanDrawn;
+    private final IntBuffer percentsOfCompletion;
+    private final IntBuffer maturityDates;
+    private final IntBuffer extendedDates;
+    private final IntBuffer rowNumbers;
+    private final LongBuffer forecastEnds;
+    private final LongBuffer forecastCents;
+    private final String[] customerNames;
+    private final YearMonth forecastStartMonth;
+    private final String forecastAlgorithm;
+    private final String forecastAlgorithmVersion;
+
+    private LoanColumnarReader(FileChannel channel, MappedByteBuffer buffer, int rowCount, long[] offsets, long[] lengths) {
+        this.channel = channel;
+        this.rowCount = rowCount;
+        this.loanNumberEnds = section(buffer, offsets, lengths, LOAN_NUMBER_ENDS).asLongBuffer();
+        this.loanNumberBytes = section(buffer, offsets, lengths, LOAN_NUMBER_BYTES);
+        this.customerNameCodes = section(buffer, offsets, lengths, CUSTOMER_NAME_CODES).asIntBuffer();
+        this.loanAmounts = section(buffer, offsets, lengths, LOAN_AMOUNT).asLongBuffer();
+        this.outstandingBalances = section(buffer, offsets, lengths, OUTSTANDING_BALANCE).asLongBuffer();
+        this.undisbursedAmounts = section(buffer, offsets, lengths, UNDISBURSED_AMOUNT).asLongBuffer();
+        this.percentsOfLoanDrawn = section(buffer, offsets, lengths, PERCENT_OF_LOAN_DRAWN).asLongBuffer();
+        this.percentsOfCompletion = section(buffer, offsets, lengths, PERCENT_OF_COMPLETION).asIntBuffer();
+        this.maturityDates = section(buffer, offsets, lengths, MATURITY_DATE).asIntBuffer();
+        this.extendedDates = section(buffer, offsets, lengths, EXTENDED_DATE).asIntBuffer();
+        this.rowNumbers = section(buffer, offsets, lengths, ROW_NUMBER).asIntBuffer();
+        this.forecastEnds = section(buffer, offsets, lengths, FORECAST_ENDS).asLongBuffer();
+        this.forecastCents = section(buffer, offsets, lengths, FORECAST_CENTS).asLongBuffer();
+        this.customerNames = decodeDictionary(section(buffer, offsets, lengths, CUSTOMER_NAME_DICTIONARY));
+        ByteBuffer forecastInfo = section(buffer, offsets, lengths, FORECAST_INFO);
+        int startMonth = forecastInfo.getInt();
+        this.forecastStartMonth = startMonth < 0 ? null : YearMonth.of(startMonth / 12, startMonth % 12 + 1);
+        this.forecastAlgorithm = readString(forecastInfo);
+        this.forecastAlgorithmVersion = readString(forecastInfo);
+    }
+
+    /**
+     * Open the cache of a saved upload
+     * @return The reader, or null if there is no cache or it was not built from the current source file
+     */
+    public static LoanColumnarReader open(Path cachePath, Path source) throws IOException {
+        if (!Files.exists(cachePath) || !Files.exists(source)) {
+            return null;
+        }
+        FileChannel channel = FileChannel.open(cachePath, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                log.warn("Ignoring columnar cache {} of unexpected size {}", cachePath, size);
+                channel.close();
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                log.warn("Ignoring columnar cache {} with unknown format", cachePath);
+                channel.close();
+                return null;
+            }
+            if (buffer.getLong(8) != Files.size(source)
+                    || buffer.getLong(16) != Files.getLastModifiedTime(source).toMillis()) {
+                log.info("Ignoring stale columnar cache {}", cachePath);
+                channel.close();
+                return null;
+            }
+            int rowCount = buffer.getInt(24);
+            long[] offsets = new long[SECTION_COUNT];
+            long[] lengths = new long[SECTION_COUNT];
+            for (int i = 0; i < SECTION_COUNT; i++) {
+                offsets[i] = buffer.getLong(28 + i * 16);
+                lengths[i] = buffer.getLong(36 + i * 16);
+                if (offsets[i] < HEADER_SIZE || offsets[i] + lengths[i] > size) {
+                    log.warn("Ignoring corrupt columnar cache {}", cachePath);
+                    channel.close();
+                    return null;
+                }
+            }
+            return new LoanColumnarReader(channel, buffer, rowCount, offsets, lengths);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public String loanNumber(int row) {
+        int start = row == 0 ? 0 : (int) loanNumberEnds.get(row - 1);
+        int end = (int) loanNumberEnds.get(row);
+        byte[] bytes = new byte[end - start];
+        loanNumberBytes.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return Whether the loan number of a row has exactly the given UTF-8 bytes
+     */
+    public boolean loanNumberEquals(int row, byte[] loanNumber) {
+        int start = row == 0 ? 0 : (int) loanNumberEnds.get(row - 1);
+        int length = (int) loanNumberEnds.get(row) - start;
+        return length == loanNumber.length && loanNumberBytes.slice(start, length).equals(ByteBuffer.wrap(loanNumber));
+    }
+
+    /**
+     * @return The {@link #hashLoanNumber} of the loan number of a row, without decoding it
+     */
+    public int loanNumberHash(int row) {
+        int start = row == 0 ? 0 : (int) loanNumberEnds.get(row - 1);
+        int end = (int) loanNumberEnds.get(row);
+        int hash = FNV_OFFSET_BASIS;
+        for (int i = start; i < end; i++) {
+            hash = (hash ^ (loanNumberBytes.get(i) & 0xFF)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * 32-bit FNV-1a of UTF-8 bytes, stable across JVMs so it can be persisted
+     */
+    public static int hashLoanNumber(byte[] loanNumber) {
+        int hash = FNV_OFFSET_BASIS;
+        for (byte b : loanNumber) {
+            hash = (hash ^ (b & 0xFF)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    public String customerName(int row) {
+        int code = customerNameCodes.get(row);
+        return code < 0 ? null : customerNames[code];
+    }
+
+    /**
+     * @return The index of the row's customer name among {@link #getCustomerNameCount()} distinct names, -1 for none
+     */
+    public int customerNameCode(int row) {
+        return customerNameCodes.get(row);
+    }
+
+    public int getCustomerNameCount() {
+        return customerNames.length;
+    }
+
+    public String customerNameOf(int code) {
+        return customerNames[code];
+    }
+
+    /**
+     * Compare the loan numbers of two rows in code point order, without decoding them
+     */
+    public int compareLoanNumbers(int rowA, int rowB) {
+        int startA = rowA == 0 ? 0 : (int) loanNumberEnds.get(rowA - 1);
+        int startB = rowB == 0 ? 0 : (int) loanNumberEnds.get(rowB - 1);
+        int lengthA = (int) loanNumberEnds.get(rowA) - startA;
+        int lengthB = (int) loanNumberEnds.get(rowB) - startB;
+        int mismatch = loanNumberBytes.slice(startA, lengthA).mismatch(loanNumberBytes.slice(startB, lengthB));
+        if (mismatch < 0) {
+            return 0;
+        }
+        if (mismatch == lengthA || mismatch == lengthB) {
+            return Integer.compare(lengthA, lengthB);
+        }
+        // UTF-8 sorts by code point when compared as unsigned bytes
+        return Integer.compare(Byte.toUnsignedInt(loanNumberBytes.get(startA + mismatch)),
+            Byte.toUnsignedInt(loanNumberBytes.get(startB + mismatch)));
+    }
+
+    public long outstandingBalanceCents(int row) {
+        return outstandingBalances.get(row);
+    }
+
+    public int percentOfCompletion(int row) {
+        return percentsOfCompletion.get(row);
+    }
+
+    /**
+     * @return The loan stored in a row, with the values it was validated with at ingest
+     */
+    public LoanRecord loan(int row) {
+        return new LoanRecord(loanNumber(row), customerName(row), loanAmounts.get(row),
+            LocalDate.ofEpochDay(maturityDates.get(row)), LocalDate.ofEpochDay(extendedDates.get(row)),
+            outstandingBalances.get(row), undisbursedAmounts.get(row), percentsOfLoanDrawn.get(row),
+            percentsOfCompletion.get(row), rowNumbers.get(row));
+    }
+
+    /**
+     * @return Whether the loan stored in a row has the same values as loan for every column its forecast depends on
+     */
+    public boolean hasForecastInputsOf(int row, LoanRecord loan) {
+        return outstandingBalances.get(row) == loan.getOutstandingBalanceCents()
+            && undisbursedAmounts.get(row) == loan.getUndisbursedAmountCents()
+            && percentsOfCompletion.get(row) == loan.getPercentOfCompletion()
+            && extendedDates.get(row) == loan.getExtendedDate().toEpochDay();
+    }
+
+    /**
+     * @return The monthly forecast of a row in cents, starting at {@link #getForecastStartMonth()}
+     */
+    public long[] forecastCents(int row) {
+        int start = row == 0 ? 0 : (int) forecastEnds.get(row - 1);
+        long[] cents = new long[(int) forecastEnds.get(row) - start];
+        forecastCents.get(start, cents);
+        return cents;
+    }
+
+    /**
+     * @return The sum of the monthly forecast of a row in cents
+     */
+    public long forecastTotalCents(int row) {
+        int start = row == 0 ? 0 : (int) forecastEnds.get(row - 1);
+        int end = (int) forecastEnds.get(row);
+        long total = 0;
+        for (int i = start; i < end; i++) {
+            total += forecastCents.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * @return The first month of the stored forecasts, or null if the cache has no loans
+     */
+    public YearMonth getForecastStartMonth() {
+        return forecastStartMonth;
+    }
+
+    /**
+     * @return The algorithm the stored forecasts were calculated with, or null if it was not recorded
+     */
+    public String getForecastAlgorithm() {
+        return forecastAlgorithm;
+    }
+
+    public String getForecastAlgorithmVersion() {
+        return forecastAlgorithmVersion;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static ByteBuffer section(MappedByteBuffer buffer, long[] offsets, long[] lengths, int section) {
+        return buffer.slice((int) offsets[section], (int) lengths[section]);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String[] decodeDictionary(ByteBuffer dictionary) {
+        String[] names = new String[dictionary.getInt()];
+        for (int i = 0; i < names.length; i++) {
+            byte[] bytes = new byte[dictionary.getInt()];
+            dictionary.get(bytes);
+            names[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return names;
+    }
+}
@@ -0,0 +1,262 @@
+package com.bankplus.loan_forecast.service.columnar;
+
+import com.bankplus.loan_forecast.dto.ForecastSeries;
+import com.bankplus.loan_forecast.dto.LoanForecastData;
+import com.bankplus.loan_forecast.model.LoanRecord;
+import com.bankplus.loan_forecast.service.ForecastSink;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.bankplus.loan_forecast.service.columnar.LoanColumnarFile.*;
+
+/**
+ * Builds the columnar cache of a batch from the loans accepted by the streaming pipeline.
+ * Each column is spooled to its own temporary file while loans arrive, and {@link #finish()} concatenates
+ * them behind the header, so heap usage only depends on the number of distinct customer names.
+ *
+ * The cache is an optimization: a write that fails abandons the cache instead of failing the batch,
+ * and readers then fall back to the CSV.
+ */
+@Slf4j
+public class LoanColumnarWriter implements ForecastSink, Closeable {
+    // Every section before the dictionary and the forecast info, which are written from memory
+    private static final int SPOOLED_SECTIONS = CUSTOMER_NAME_DICTIONARY;
+
+    private final Path target;
+    private final long sourceSize;
+    private final long sourceModified;
+    private final Path[] spoolPaths = new Path[SPOOLED_SECTIONS];
+    private final DataOutputStream[] spools = new DataOutputStream[SPOOLED_SECTIONS];
+    private final Map<String, Integer> customerNameCodes = new HashMap<>();
+    private final List<String> customerNames = new ArrayList<>();
+    private long loanNumberBytes;
+    private long forecastCells;
+    private YearMonth forecastStartMonth;
+    private String forecastAlgorithm;
+    private String forecastAlgorithmVersion;
+    private int rowCount;
+    private boolean abandoned;
+    private boolean finished;
+
+    public LoanColumnarWriter(Path target, Path source) throws IOException {
+        this.target = target;
+        this.sourceSize = Files.size(source);
+        this.sourceModified = Files.getLastModifiedTime(source).toMillis();
+        try {
+            for (int i = 0; i < SPOOLED_SECTIONS; i++) {
+                spoolPaths[i] = target.resolveSibling(target.getFileName() + ".s" + i + ".part");
+                spools[i] = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spoolPaths[i]), 64 * 1024));
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void accept(LoanRecord loan, LoanForecastData forecast) {
+        // Only loans that produced a forecast are cached, so reading the cache repeats the same forecasts
+        if (abandoned || loan == null || forecast == null) {
+            return;
+        }
+        try {
+            byte[] loanNumber = loan.getLoanNumber().getBytes(StandardCharsets.UTF_8);
+            spools[LOAN_NUMBER_BYTES].write(loanNumber);
+            loanNumberBytes += loanNumber.length;
+            spools[LOAN_NUMBER_ENDS].writeLong(loanNumberBytes);
+            spools[CUSTOMER_NAME_CODES].writeInt(customerNameCode(loan.getCustomerName()));
+            spools[LOAN_AMOUNT].writeLong(loan.getLoanAmountCents());
+            spools[OUTSTANDING_BALANCE].writeLong(loan.getOutstandingBalanceCents());
+            spools[UNDISBURSED_AMOUNT].writeLong(loan.getUndisbursedAmountCents());
+            spools[PERCENT_OF_LOAN_DRAWN].writeLong(loan.getPercentOfLoanDrawnHundredths());
+            spools[PERCENT_OF_COMPLETION].writeInt(loan.getPercentOfCompletion());
+            spools[MATURITY_DATE].writeInt(Math.toIntExact(loan.getMaturityDate().toEpochDay()));
+            spools[EXTENDED_DATE].writeInt(Math.toIntExact(loan.getExtendedDate().toEpochDay()));
+            spools[ROW_NUMBER].writeInt(loan.getRowNumber());
+            ForecastSeries series = forecast.getForecastData();
+            if (forecastStartMonth == null) {
+                forecastStartMonth = series.getStartMonth();
+            } else if (!forecastStartMonth.equals(series.getStartMonth())) {
+                abandon("forecasts start in both " + forecastStartMonth + " and " + series.getStartMonth());
+                return;
+            }
+            for (int i = 0; i < series.size(); i++) {
+                spools[FORECAST_CENTS].writeLong(series.getCents(i));
+            }
+            forecastCells += series.size();
+            spools[FORECAST_ENDS].writeLong(forecastCells);
+            rowCount++;
+        } catch (IOException | ArithmeticException e) {
+            abandon(e.getMessage());
+        }
+    }
+
+    /**
+     * Record the algorithm the loans were forecast with, which a reader checks before reusing the stored forecasts
+     */
+    public void setForecastAlgorithm(String algorithm, String algorithmVersion) {
+        this.forecastAlgorithm = algorithm;
+        this.forecastAlgorithmVersion = algorithmVersion;
+    }
+
+    /**
+     * Write the cache file
+     * @return The cache path, or null if the cache was abandoned
+     */
+    public Path finish() throws IOException {
+        if (abandoned) {
+            close();
+            return null;
+        }
+        for (DataOutputStream spool : spools) {
+            spool.close();
+        }
+        byte[] dictionary = encodeDictionary();
+        byte[] forecastInfo = encodeForecastInfo();
+
+        long[] lengths = new long[SECTION_COUNT];
+        for (int i = 0; i < SPOOLED_SECTIONS; i++) {
+            lengths[i] = Files.size(spoolPaths[i]);
+        }
+        lengths[CUSTOMER_NAME_DICTIONARY] = dictionary.length;
+        lengths[FORECAST_INFO] = forecastInfo.length;
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putLong(sourceSize).putLong(sourceModified).putInt(rowCount);
+        long offset = HEADER_SIZE;
+        for (int i = 0; i < SECTION_COUNT; i++) {
+            header.putLong(offset).putLong(lengths[i]);
+            offset += lengths[i];
+        }
+        header.flip();
+
+        // Write next to the target and move it into place, so readers never see a partial cache
+        Path partPath = target.resolveSibling(target.getFileName() + ".part");
+        try (FileChannel out = FileChannel.open(partPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+            for (int i = 0; i < SPOOLED_SECTIONS; i++) {
+                try (FileChannel in = FileChannel.open(spoolPaths[i], StandardOpenOption.READ)) {
+                    long position = 0;
+                    while (position < lengths[i]) {
+                        position += in.transferTo(position, lengths[i] - position, out);
+                    }
+                }
+            }
+            for (byte[] section : new byte[][] {dictionary, forecastInfo}) {
+                ByteBuffer sectionBuffer = ByteBuffer.wrap(section);
+                while (sectionBuffer.hasRemaining()) {
+                    out.write(sectionBuffer);
+                }
+            }
+        }
+        Files.move(partPath, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        finished = true;
+        deleteSpools();
+        log.info("Wrote columnar cache {} ({} loans, {} customer names)", target, rowCount, customerNames.size());
+        return target;
+    }
+
+    /**
+     * Remove the temporary files; called without {@link #finish()} no cache is written
+     */
+    @Override
+    public void close() {
+        for (DataOutputStream spool : spools) {
+            if (spool != null) {
+                try {
+                    spool.close();
+                } catch (IOException e) {
+                    log.debug("Failed to close columnar spool: {}", e.getMessage());
+                }
+            }
+        }
+        deleteSpools();
+        if (!finished) {
+            try {
+                Files.deleteIfExists(target.resolveSibling(target.getFileName() + ".part"));
+            } catch (IOException e) {
+                log.warn("Failed to delete partial columnar cache for {}: {}", target, e.getMessage());
+            }
+        }
+    }
+
+    private int customerNameCode(String customerName) {
+        if (customerName == null) {
+            return -1;
+        }
+        return customerNameCodes.computeIfAbsent(customerName, name -> {
+            customerNames.add(name);
+            return customerNames.size() - 1;
+        });
+    }
+
+    private byte[] encodeDictionary() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(customerNames.size());
+            for (String name : customerNames) {
+                byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(encoded.length);
+                out.write(encoded);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private byte[] encodeForecastInfo() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(forecastStartMonth == null ? -1 : forecastStartMonth.getYear() * 12 + forecastStartMonth.getMonthValue() - 1);
+            writeString(out, forecastAlgorithm);
+            writeString(out, forecastAlgorithmVersion);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(encoded.length);
+        out.write(encoded);
+    }
+
+    private void abandon(String reason) {
+        log.warn("Not writing columnar cache {}: {}", target, reason);
+        abandoned = true;
+    }
+
+    private void deleteSpools() {
+        for (Path spoolPath : spoolPaths) {
+            if (spoolPath != null) {
+                try {
+                    Files.deleteIfExists(spoolPath);
+                } catch (IOException e) {
+                    log.warn("Failed to delete columnar spool {}: {}", spoolPath, e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package com.bankplus.loan_forecast.service.columnar;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static com.bankplus.loan_forecast.service.columnar.LoanIndexFile.*;
+
+/**
+ * Sorted views of a batch's columnar cache, for paging through its loans.
+ * A page walks one stored sort order from a position and checks the filters against the mapped columns, so its cost
+ * depends on the page size (and on how selective the filters are), not on the size of the batch.
+ * A customer name prefix on the customer order is a binary search to the matching range.
+ * A loan is found by its loan number in a persisted hash table, a few probes and byte comparisons.
+ */
+@Slf4j
+public class LoanIndex implements Closeable {
+
+    public enum SortKey {
+        LOAN_NUMBER, CUSTOMER_NAME, OUTSTANDING_BALANCE, TOTAL_FORECASTED_AMOUNT
+    }
+
+    private final FileChannel channel;
+    private final LoanColumnarReader loans;
+    private final IntBuffer[] orders = new IntBuffer[SortKey.values().length];
+    private final IntBuffer customerRanks;
+    private final IntBuffer customersByRank;
+    private final IntBuffer loanNumberSlots;
+
+    private LoanIndex(FileChannel channel, MappedByteBuffer buffer, LoanColumnarReader loans, long[] offsets, long[] lengths) {
+        this.channel = channel;
+        this.loans = loans;
+        for (int i = 0; i < orders.length; i++) {
+            orders[i] = section(buffer, offsets, lengths, BY_LOAN_NUMBER + i);
+        }
+        this.customerRanks = section(buffer, offsets, lengths, CUSTOMER_RANKS);
+        this.customersByRank = section(buffer, offsets, lengths, CUSTOMERS_BY_RANK);
+        this.loanNumberSlots = section(buffer, offsets, lengths, LOAN_NUMBER_SLOTS);
+    }
+
+    /**
+     * Open the index of a saved upload together with its columnar cache
+     * @return The index, or null if there is no current cache or no index built from it
+     */
+    public static LoanIndex open(Path source) throws IOException {
+        Path cachePath = LoanColumnarFile.pathFor(source);
+        Path indexPath = LoanIndexFile.pathFor(source);
+        if (!Files.exists(indexPath)) {
+            return null;
+        }
+        LoanColumnarReader loans = LoanColumnarReader.open(cachePath, source);
+        if (loans == null) {
+            return null;
+        }
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(indexPath, StandardOpenOption.READ);
+            long size = channel.size();
+            MappedByteBuffer buffer = size >= HEADER_SIZE && size <= Integer.MAX_VALUE
+                ? channel.map(FileChannel.MapMode.READ_ONLY, 0, size) : null;
+            if (buffer == null || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                    || buffer.getLong(8) != Files.size(cachePath)
+                    || buffer.getLong(16) != Files.getLastModifiedTime(cachePath).toMillis()
+                    || buffer.getInt(24) != loans.getRowCount()) {
+                log.info("Ignoring stale or unknown loan index {}", indexPath);
+                channel.close();
+                loans.close();
+                return null;
+            }
+            long[] offsets = new long[SECTION_COUNT];
+            long[] lengths = new long[SECTION_COUNT];
+            for (int i = 0; i < SECTION_COUNT; i++) {
+                offsets[i] = buffer.getLong(28 + i * 16);
+                lengths[i] = buffer.getLong(36 + i * 16);
+                if (offsets[i] < HEADER_SIZE || offsets[i] + lengths[i] > size) {
+                    log.warn("Ignoring corrupt loan index {}", indexPath);
+                    channel.close();
+                    loans.close();
+                    return null;
+                }
+            }
+            return new LoanIndex(channel, buffer, loans, offsets, lengths);
+        } catch (IOException | RuntimeException e) {
+            if (channel != null) {
+                channel.close();
+            }
+            loans.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Sort the loans of a saved upload's columnar cache and write the index next to the upload
+     * @return The index path, or null if the upload has no current cache
+     */
+    public static Path build(Path source) throws IOException {
+        Path cachePath = LoanColumnarFile.pathFor(source);
+        Path indexPath = LoanIndexFile.pathFor(source);
+        try (LoanColumnarReader loans = LoanColumnarReader.open(cachePath, source)) {
+            if (loans == null) {
+                return null;
+            }
+            int rowCount = loans.getRowCount();
+            int nameCount = loans.getCustomerNameCount();
+            int[] customersByRank = sorted(nameCount,
+                (a, b) -> String.CASE_INSENSITIVE_ORDER.compare(loans.customerNameOf(a), loans.customerNameOf(b)));
+            int[] customerRanks = new int[nameCount];
+            for (int rank = 0; rank < nameCount; rank++) {
+                customerRanks[customersByRank[rank]] = rank;
+            }
+            long[] totals = new long[rowCount];
+            for (int row = 0; row < rowCount; row++) {
+                totals[row] = loans.forecastTotalCents(row);
+            }
+
+            int[][] sections = new int[SECTION_COUNT][];
+            sections[BY_LOAN_NUMBER] = sorted(rowCount, loans::compareLoanNumbers);
+            sections[BY_CUSTOMER_NAME] = sorted(rowCount,
+                (a, b) -> Integer.compare(rank(customerRanks, loans.customerNameCode(a)), rank(customerRanks, loans.customerNameCode(b))));
+            sections[BY_OUTSTANDING_BALANCE] = sorted(rowCount,
+                (a, b) -> Long.compare(loans.outstandingBalanceCents(a), loans.outstandingBalanceCents(b)));
+            sections[BY_TOTAL_FORECASTED_AMOUNT] = sorted(rowCount, (a, b) -> Long.compare(totals[a], totals[b]));
+            sections[CUSTOMER_RANKS] = customerRanks;
+            sections[CUSTOMERS_BY_RANK] = customersByRank;
+            sections[LOAN_NUMBER_SLOTS] = loanNumberSlots(loans);
+
+            // Write next to the target and move it into place, so readers never see a partial index
+            Path partPath = indexPath.resolveSibling(indexPath.getFileName() + ".part");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(partPath), 64 * 1024))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(Files.size(cachePath));
+                out.writeLong(Files.getLastModifiedTime(cachePath).toMillis());
+                out.writeInt(rowCount);
+                long offset = HEADER_SIZE;
+                for (int[] section : sections) {
+                    out.writeLong(offset);
+                    out.writeLong(section.length * 4L);
+                    offset += section.length * 4L;
+                }
+                for (int[] section : sections) {
+                    for (int value : section) {
+                        out.writeInt(value);
+                    }
+                }
+            } catch (IOException e) {
+                Files.deleteIfExists(partPath);
+                throw e;
+            }
+            Files.move(partPath, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Wrote loan index {} ({} loans, {} customer names)", indexPath, rowCount, nameCount);
+            return indexPath;
+        }
+    }
+
+    /**
+     * The next rows of a sort order that pass the filters
+     * @param position Number of rows of the (filtered) order already returned, 0 for the first page
+     * @param customerPrefix Case-insensitive prefix of the customer name, or null
+     * @param minCompletion Lowest % of Completion, or null
+     * @param maxCompletion Highest % of Completion, or null
+     */
+    public Page page(SortKey sort, boolean descending, int position, int limit, String customerPrefix,
+                     Integer minCompletion, Integer maxCompletion) {
+        IntBuffer order = orders[sort.ordinal()];
+        int from = 0;
+        int to = loans.getRowCount();
+        int rankFrom = 0;
+        int rankTo = Integer.MAX_VALUE;
+        boolean byPrefix = customerPrefix != null && !customerPrefix.isEmpty();
+        if (byPrefix) {
+            rankFrom = firstRank(customerPrefix, false);
+            rankTo = firstRank(customerPrefix, true);
+            if (sort == SortKey.CUSTOMER_NAME) {
+                // The matching loans are contiguous in the customer order
+                from = firstPosition(order, rankFrom);
+                to = firstPosition(order, rankTo);
+            }
+        }
+
+        int[] rows = new int[Math.min(limit, to - from)];
+        int count = 0;
+        int next = position;
+        int available = to - from;
+        while (next < available && count < rows.length) {
+            int row = order.get(descending ? to - 1 - next : from + next);
+            next++;
+            if (byPrefix && sort != SortKey.CUSTOMER_NAME) {
+                int rank = rank(customerRanks, loans.customerNameCode(row));
+                if (rank < rankFrom || rank >= rankTo) {
+                    continue;
+                }
+            }
+            int completion = loans.percentOfCompletion(row);
+            if ((minCompletion != null && completion < minCompletion) || (maxCompletion != null && completion > maxCompletion)) {
+                continue;
+            }
+            rows[count++] = row;
+        }
+        return new Page(Arrays.copyOf(rows, count), next < available ? next : -1);
+    }
+
+    /**
+     * @return The cache row of the loan, or -1 if the batch has no such loan
+     */
+    public int findRow(String loanNumber) {
+        byte[] bytes = loanNumber.getBytes(StandardCharsets.UTF_8);
+        int mask = loanNumberSlots.limit() - 1;
+        for (int slot = LoanColumnarReader.hashLoanNumber(bytes) & mask; ; slot = (slot + 1) & mask) {
+            int entry = loanNumberSlots.get(slot);
+            if (entry == 0) {
+                return -1;
+            }
+            if (loans.loanNumberEquals(entry - 1, bytes)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    public LoanColumnarReader getLoans() {
+        return loans;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            channel.close();
+        } finally {
+            loans.close();
+        }
+    }
+
+    /**
+     * Rows of a page and where the next page starts
+     */
+    public static final class Page {
+        private final int[] rows;
+        private final int nextPosition;
+
+        Page(int[] rows, int nextPosition) {
+            this.rows = rows;
+            this.nextPosition = nextPosition;
+        }
+
+        public int[] getRows() {
+            return rows;
+        }
+
+        /**
+         * @return The position of the next page, or -1 if this is the last one
+         */
+        public int getNextPosition() {
+            return nextPosition;
+        }
+    }
+
+    /**
+     * @param afterPrefix Whether to find the first name past the names starting with prefix,
+     *                    rather than the first name not before prefix
+     */
+    private int firstRank(String prefix, boolean afterPrefix) {
+        int low = 0;
+        int high = customersByRank.limit();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            String name = loans.customerNameOf(customersByRank.get(mid));
+            boolean before = String.CASE_INSENSITIVE_ORDER.compare(name, prefix) < 0
+                || (afterPrefix && name.regionMatches(true, 0, prefix, 0, prefix.length()));
+            if (before) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return The first position of the customer order whose name has at least the given rank
+     */
+    private int firstPosition(IntBuffer order, int rank) {
+        int low = 0;
+        int high = order.limit();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (rank(customerRanks, loans.customerNameCode(order.get(mid))) < rank) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Loans without a customer name sort first
+    private static int rank(IntBuffer customerRanks, int code) {
+        return code < 0 ? -1 : customerRanks.get(code);
+    }
+
+    private static int rank(int[] customerRanks, int code) {
+        return code < 0 ? -1 : customerRanks[code];
+    }
+
+    /**
+     * Open-addressing table of the rows by loan number; a loan number repeated in the batch resolves to its first row
+     */
+    private static int[] loanNumberSlots(LoanColumnarReader loans) {
+        int rowCount = loans.getRowCount();
+        // At most half full, so a miss ends after a few probes
+        int[] slots = new int[Math.max(2, Integer.highestOneBit(Math.max(1, rowCount)) << 2)];
+        int mask = slots.length - 1;
+        for (int row = 0; row < rowCount; row++) {
+            int slot = loans.loanNumberHash(row) & mask;
+            while (slots[slot] != 0 && !sameLoanNumber(loans, slots[slot] - 1, row)) {
+                slot = (slot + 1) & mask;
+            }
+            if (slots[slot] == 0) {
+                slots[slot] = row + 1;
+            }
+        }
+        return slots;
+    }
+
+    private static boolean sameLoanNumber(LoanColumnarReader loans, int rowA, int rowB) {
+        return loans.loanNumberHash(rowA) == loans.loanNumberHash(rowB) && loans.compareLoanNumbers(rowA, rowB) == 0;
+    }
+
+    private interface RowComparator {
+        int compare(int a, int b);
+    }
+
+    /**
+     * Stable bottom-up merge sort of 0..count-1, without boxing
+     */
+    private static int[] sorted(int count, RowComparator comparator) {
+        int[] rows = new int[count];
+        for (int i = 0; i < count; i++) {
+            rows[i] = i;
+        }
+        int[] merged = new int[count];
+        for (int width = 1; width < count; width *= 2) {
+            for (int low = 0; low < count - width; low += 2 * width) {
+                int mid = low + width;
+                int high = Math.min(low + 2 * width, count);
+                if (comparator.compare(rows[mid - 1], rows[mid]) <= 0) {
+                    continue;
+                }
+                int left = low;
+                int right = mid;
+                for (int out = low; out < high; out++) {
+                    if (right >= high || (left < mid && comparator.compare(rows[left], rows[right]) <= 0)) {
+                        merged[out] = rows[left++];
+                    } else {
+                        merged[out] = rows[right++];
+                    }
+                }
+                System.arraycopy(merged, low, rows, low, high - low);
+            }
+        }
+        return rows;
+    }
+
+    private static IntBuffer section(MappedByteBuffer buffer, long[] offsets, long[] lengths, int section) {
+        return buffer.slice((int) offsets[section], (int) lengths[section]).asIntBuffer();
+    }
+}
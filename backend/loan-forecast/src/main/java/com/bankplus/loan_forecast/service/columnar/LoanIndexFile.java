@@ -0,0 +1,42 @@
+package com.bankplus.loan_forecast.service.columnar;
+
+import java.nio.file.Path;
+
+/**
+ * Layout of the per-batch index over a columnar cache, built once at ingest so that pages of a batch and single
+ * loans are served without sorting or scanning its loans.
+ *
+ * The file starts with a fixed header (magic, version, size and modification time of the columnar cache it was
+ * built from, row count and the offset and length of every section). Numbers are big-endian.
+ * A sort order is an int per row: the cache rows in ascending order of the key, ties in row order.
+ * Loan numbers are found through an open-addressing hash table with linear probing over the UTF-8 loan numbers.
+ */
+public final class LoanIndexFile {
+    static final int MAGIC = 0x4C464931; // "LFI1"
+    static final int VERSION = 2;
+
+    // Sort orders, in the order of LoanIndex.SortKey
+    static final int BY_LOAN_NUMBER = 0;
+    static final int BY_CUSTOMER_NAME = 1;
+    static final int BY_OUTSTANDING_BALANCE = 2;
+    static final int BY_TOTAL_FORECASTED_AMOUNT = 3;
+    // int per customer name code: rank of the name in case-insensitive order
+    static final int CUSTOMER_RANKS = 4;
+    // int per rank: customer name code
+    static final int CUSTOMERS_BY_RANK = 5;
+    // int per slot, a power of two at least twice the row count: cache row + 1 of the loan number, 0 for empty
+    static final int LOAN_NUMBER_SLOTS = 6;
+    static final int SECTION_COUNT = 7;
+
+    static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4 + SECTION_COUNT * 16;
+
+    private LoanIndexFile() {
+    }
+
+    /**
+     * @return Where the index of a saved upload is kept: next to the upload, with a ".idx" suffix
+     */
+    public static Path pathFor(Path source) {
+        return source.resolveSibling(source.getFileName() + ".idx");
+    }
+}
@@ -0,0 +1,46 @@
+package com.bankplus.loan_forecast.service.csv;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Detection and streaming decompression of gzip-compressed uploads.
+ * Compression is recognised by the gzip magic bytes rather than the file name, and the data is only ever
+ * inflated while it is being read, never to disk.
+ */
+public final class CompressedInput {
+    private static final int GZIP_MAGIC_1 = 0x1f;
+    private static final int GZIP_MAGIC_2 = 0x8b;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private CompressedInput() {
+    }
+
+    public static boolean isGzip(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return in.read() == GZIP_MAGIC_1 && in.read() == GZIP_MAGIC_2;
+        }
+    }
+
+    /**
+     * @return A stream of the decompressed data if the input is gzip, otherwise the input unchanged
+     */
+    public static InputStream decompressIfGzip(InputStream in) throws IOException {
+        InputStream buffered = in.markSupported() ? in : new BufferedInputStream(in);
+        buffered.mark(2);
+        boolean gzip = buffered.read() == GZIP_MAGIC_1 && buffered.read() == GZIP_MAGIC_2;
+        buffered.reset();
+        return gzip ? new GZIPInputStream(buffered, BUFFER_SIZE) : buffered;
+    }
+
+    /**
+     * @return The file name without a trailing ".gz" and the extension before it, e.g. "loans" for "loans.csv.gz"
+     */
+    public static String baseName(String fileName) {
+        return fileName.replaceAll("(?i)\\.gz$", "").replaceAll("\\.[^.]*$", "");
+    }
+}
@@ -0,0 +1,31 @@
+package com.bankplus.loan_forecast.service.csv;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 of an upload's bytes as saved, computed while the upload streams to disk.
+ * Two uploads with the same digest hold the same loans, so their forecasts can be shared.
+ */
+public final class ContentDigest {
+
+    private ContentDigest() {
+    }
+
+    public static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM provides SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return The digest of the bytes passed to the MessageDigest so far, as lowercase hex
+     */
+    public static String hex(MessageDigest digest) {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
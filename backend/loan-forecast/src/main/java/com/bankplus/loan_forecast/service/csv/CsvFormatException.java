@@ -0,0 +1,17 @@
+package com.bankplus.loan_forecast.service.csv;
+
+import java.io.IOException;
+
+/**
+ * Thrown by a {@link CsvRowSource} when the input is not well-formed CSV
+ */
+public class CsvFormatException extends IOException {
+
+    public CsvFormatException(String message) {
+        super(message);
+    }
+
+    public CsvFormatException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
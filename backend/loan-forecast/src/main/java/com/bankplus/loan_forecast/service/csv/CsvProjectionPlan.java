@@ -0,0 +1,206 @@
+package com.bankplus.loan_forecast.service.csv;
+
+import com.bankplus.loan_forecast.model.CsvLoanData;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable mapping from the required loan columns to their positions in one header layout.
+ * Compiled once per header and reused for every row, so extracting a row is a plain array lookup per column.
+ */
+public final class CsvProjectionPlan {
+
+    /**
+     * The columns read from an uploaded CSV, in the order they are checked
+     */
+    public enum RequiredColumn {
+        LOAN_NUMBER("Loan Number", true, CsvLoanData::setLoanNumber),
+        CUSTOMER_NAME("Customer Name", false, CsvLoanData::setCustomerName),
+        LOAN_AMOUNT("Loan Amount", true, CsvLoanData::setLoanAmount),
+        MATURITY_DATE("Maturity Date", true, CsvLoanData::setMaturityDate),
+        EXTENDED_DATE("Extended Date", true, CsvLoanData::setExtendedDate),
+        OUTSTANDING_BALANCE("Outstanding Balance", true, CsvLoanData::setOutstandingBalance),
+        UNDISBURSED_AMOUNT("Undisbursed Amount", true, CsvLoanData::setUndisbursedAmount),
+        PERCENT_OF_LOAN_DRAWN("% of Loan Drawn", false, CsvLoanData::setPercentOfLoanDrawn),
+        PERCENT_OF_COMPLETION("% of Completion", true, CsvLoanData::setPercentOfCompletion);
+
+        private final String header;
+        private final boolean critical;
+        private final BiConsumer<CsvLoanData, String> setter;
+
+        RequiredColumn(String header, boolean critical, BiConsumer<CsvLoanData, String> setter) {
+            this.header = header;
+            this.critical = critical;
+            this.setter = setter;
+        }
+
+        public String getHeader() {
+            return header;
+        }
+
+        public boolean isCritical() {
+            return critical;
+        }
+    }
+
+    private static final RequiredColumn[] COLUMNS = RequiredColumn.values();
+
+    // Column index in the file for each RequiredColumn ordinal, -1 if absent
+    private final int[] indexes;
+    private final int[] projected;
+
+    private CsvProjectionPlan(int[] indexes) {
+        this.indexes = indexes;
+        this.projected = Arrays.stream(indexes).filter(i -> i >= 0).toArray();
+    }
+
+    /**
+     * Resolve the required columns against a header row
+     */
+    public static CsvProjectionPlan compile(String[] headers) {
+        int[] indexes = new int[COLUMNS.length];
+        Arrays.fill(indexes, -1);
+        for (int i = 0; i < headers.length; i++) {
+            String header = normalizeHeader(headers[i]);
+            for (RequiredColumn column : COLUMNS) {
+                // The first header matching a column wins
+                if (indexes[column.ordinal()] < 0 && column.header.equals(header)) {
+                    indexes[column.ordinal()] = i;
+                    break;
+                }
+            }
+        }
+        return new CsvProjectionPlan(indexes);
+    }
+
+    /**
+     * Trim, remove quotes, collapse whitespace runs to a single space and remove a leading BOM
+     */
+    static String normalizeHeader(String raw) {
+        if (raw == null) {
+            return "";
+        }
+        String trimmed = raw.trim();
+        StringBuilder sb = new StringBuilder(trimmed.length());
+        boolean inWhitespace = false;
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (c == '"') {
+                continue;
+            }
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r') {
+                if (!inWhitespace) {
+                    sb.append(' ');
+                    inWhitespace = true;
+                }
+                continue;
+            }
+            inWhitespace = false;
+            sb.append(c);
+        }
+        if (sb.length() > 0 && sb.charAt(0) == '\uFEFF') {
+            sb.deleteCharAt(0);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return The first critical column missing from the header, or null if all are present
+     */
+    public RequiredColumn firstMissingCriticalColumn() {
+        for (RequiredColumn column : COLUMNS) {
+            if (column.critical && indexes[column.ordinal()] < 0) {
+                return column;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The file column indexes a row source needs to decode
+     */
+    public int[] getProjectedColumns() {
+        return projected.clone();
+    }
+
+    public int indexOf(RequiredColumn column) {
+        return indexes[column.ordinal()];
+    }
+
+    /**
+     * Extract the required fields from a row
+     * @return The loan, or null if a critical field is empty or N/A
+     */
+    public CsvLoanData extract(String[] row) {
+        String[] values = new String[COLUMNS.length];
+        for (RequiredColumn column : COLUMNS) {
+            String value = valueAt(row, indexes[column.ordinal()]);
+            if (column.critical && isEmpty(value)) {
+                return null;
+            }
+            values[column.ordinal()] = value;
+        }
+        CsvLoanData loanData = new CsvLoanData();
+        for (RequiredColumn column : COLUMNS) {
+            column.setter.accept(loanData, values[column.ordinal()]);
+        }
+        return loanData;
+    }
+
+    /**
+     * @return The first critical column whose value is empty or N/A in the row, or null if there is none
+     */
+    public RequiredColumn firstMissingValue(String[] row) {
+        for (RequiredColumn column : COLUMNS) {
+            if (column.critical && isEmpty(valueAt(row, indexes[column.ordinal()]))) {
+                return column;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The trimmed value of a column in a row, "" if absent
+     */
+    public String valueOf(String[] row, RequiredColumn column) {
+        return valueAt(row, indexes[column.ordinal()]);
+    }
+
+    /**
+     * @return Whether every projected cell of the row is empty, e.g. for a blank line
+     */
+    public boolean isBlank(String[] row) {
+        for (int index : projected) {
+            if (!valueAt(row, index).isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String valueAt(String[] row, int index) {
+        if (index < 0 || index >= row.length) {
+            return "";
+        }
+        String value = row[index];
+        return value != null ? value.trim() : "";
+    }
+
+    private static boolean isEmpty(String s) {
+        return s.isEmpty() || "N/A".equalsIgnoreCase(s);
+    }
+
+    @Override
+    public String toString() {
+        Map<String, Integer> found = new LinkedHashMap<>();
+        for (RequiredColumn column : COLUMNS) {
+            if (indexes[column.ordinal()] >= 0) {
+                found.put(column.header, indexes[column.ordinal()]);
+            }
+        }
+        return found.toString();
+    }
+}
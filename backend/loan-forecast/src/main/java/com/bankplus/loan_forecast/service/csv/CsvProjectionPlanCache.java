@@ -0,0 +1,48 @@
+package com.bankplus.loan_forecast.service.csv;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of compiled projection plans keyed by header fingerprint,
+ * so repeated uploads of the same export layout skip header analysis
+ */
+public class CsvProjectionPlanCache {
+    private static final char SEPARATOR = '\u001F';
+
+    private final Map<String, CsvProjectionPlan> plans;
+
+    public CsvProjectionPlanCache(int maxEntries) {
+        this.plans = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CsvProjectionPlan> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Get the plan for a header row, compiling it on first use
+     */
+    public synchronized CsvProjectionPlan planFor(String[] headers) {
+        return plans.computeIfAbsent(fingerprint(headers), key -> CsvProjectionPlan.compile(headers));
+    }
+
+    public synchronized boolean contains(String[] headers) {
+        return plans.containsKey(fingerprint(headers));
+    }
+
+    /**
+     * The raw header cells joined with a unit separator. Two headers share a plan only if they are identical.
+     */
+    static String fingerprint(String[] headers) {
+        StringBuilder sb = new StringBuilder(headers.length * 16);
+        for (String header : headers) {
+            if (header != null) {
+                sb.append(header);
+            }
+            sb.append(SEPARATOR);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,52 @@
+package com.bankplus.loan_forecast.service.csv;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Row-at-a-time access to a CSV input.
+ * Implementations may skip decoding columns that are not part of the projection.
+ */
+public interface CsvRowSource extends Closeable {
+
+    String OPENCSV = "opencsv";
+    String MAPPED = "mapped";
+
+    /**
+     * Read the header row with every column decoded
+     * @return The header cells, or null if the input is empty
+     */
+    String[] readHeader() throws IOException;
+
+    /**
+     * Restrict decoding of the following rows to the given column indexes.
+     * Rows returned afterwards hold null for every other column.
+     * @param columns Zero-based column indexes to decode
+     */
+    void project(int[] columns);
+
+    /**
+     * Read the next data row
+     * @return The row cells, or null at the end of the input
+     * @throws CsvFormatException If the row is not well-formed CSV
+     */
+    String[] readNext() throws IOException;
+
+    /**
+     * Open a row source of the given type for a file on disk
+     * @param path The CSV file
+     * @param readerType {@link #MAPPED} for the memory-mapped tokenizer, anything else for OpenCSV.
+     *                   Both decode the file as UTF-8.
+     * @return The opened row source
+     */
+    static CsvRowSource open(Path path, String readerType) throws IOException {
+        if (MAPPED.equalsIgnoreCase(readerType)) {
+            return new MappedCsvRowSource(path);
+        }
+        return new OpenCsvRowSource(new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,132 @@
+package com.bankplus.loan_forecast.service.csv;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parser for the Maturity Date / Extended Date cells.
+ * Accepts M/d/yy, MM/dd/yyyy (two-digit years below 50 are 20xx, the rest 19xx) and ISO yyyy-MM-dd,
+ * scanning characters directly instead of splitting or relying on exceptions.
+ *
+ * A portfolio only contains a few hundred distinct dates, so results (including failures) are memoized
+ * in a bounded map shared by every thread using this parser.
+ */
+public class LoanDateParser {
+    private static final Object UNPARSEABLE = new Object();
+
+    private final Map<String, Object> cache = new ConcurrentHashMap<>();
+    private final int maxEntries;
+
+    public LoanDateParser(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @return The parsed date, or null if the value is not a valid date in a supported format
+     */
+    public LocalDate parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        Object cached = cache.get(value);
+        if (cached == null) {
+            LocalDate parsed = parseUncached(value);
+            cached = parsed != null ? parsed : UNPARSEABLE;
+            // Once full, new values are still parsed but no longer remembered
+            if (cache.size() < maxEntries) {
+                cache.putIfAbsent(value, cached);
+            }
+        }
+        return cached == UNPARSEABLE ? null : (LocalDate) cached;
+    }
+
+    static LocalDate parseUncached(String value) {
+        int length = value.length();
+        int first = readNumber(value, 0);
+        int firstEnd = numberEnd(value, 0);
+        if (first < 0 || firstEnd >= length) {
+            return null;
+        }
+        char separator = value.charAt(firstEnd);
+        if (separator != '/' && separator != '-') {
+            return null;
+        }
+        int second = readNumber(value, firstEnd + 1);
+        int secondEnd = numberEnd(value, firstEnd + 1);
+        if (second < 0 || secondEnd >= length || value.charAt(secondEnd) != separator) {
+            return null;
+        }
+        int third = readNumber(value, secondEnd + 1);
+        int thirdEnd = numberEnd(value, secondEnd + 1);
+        if (third < 0 || !onlySeparatorsFollow(value, thirdEnd, separator)) {
+            return null;
+        }
+
+        int year;
+        int month;
+        int day;
+        if (separator == '/') {
+            // M/d/yy or MM/dd/yyyy
+            month = first;
+            day = second;
+            year = third;
+            if (year < 100) {
+                year += year < 50 ? 2000 : 1900;
+            }
+        } else {
+            // yyyy-MM-dd
+            if (thirdEnd != length || firstEnd != 4 || secondEnd - firstEnd != 3 || thirdEnd - secondEnd != 3) {
+                return null;
+            }
+            year = first;
+            month = second;
+            day = third;
+        }
+        if (month < 1 || month > 12 || day < 1 || day > 31) {
+            return null;
+        }
+        try {
+            return LocalDate.of(year, month, day);
+        } catch (DateTimeException e) {
+            // e.g. February 30th
+            return null;
+        }
+    }
+
+    /**
+     * @return The value of the 1-4 digit number starting at index, or -1 if there is none
+     */
+    private static int readNumber(String value, int index) {
+        int end = numberEnd(value, index);
+        if (end == index || end - index > 4) {
+            return -1;
+        }
+        int number = 0;
+        for (int i = index; i < end; i++) {
+            number = number * 10 + (value.charAt(i) - '0');
+        }
+        return number;
+    }
+
+    /**
+     * Trailing slashes were tolerated when dates were split on "/", which drops trailing empty parts
+     */
+    private static boolean onlySeparatorsFollow(String value, int index, char separator) {
+        for (int i = index; i < value.length(); i++) {
+            if (separator != '/' || value.charAt(i) != '/') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int numberEnd(String value, int index) {
+        int i = index;
+        while (i < value.length() && value.charAt(i) >= '0' && value.charAt(i) <= '9') {
+            i++;
+        }
+        return i;
+    }
+}
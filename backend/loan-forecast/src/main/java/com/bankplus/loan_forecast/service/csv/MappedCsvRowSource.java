@@ -0,0 +1,353 @@
+package com.bankplus.loan_forecast.service.csv;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Quote-aware CSV tokenizer over a memory-mapped file.
+ * Bytes are scanned in place and only the projected columns are decoded into Strings (as UTF-8);
+ * every other column is skipped without copying.
+ *
+ * Cells are the ones OpenCSV's default CSVReader returns for the same bytes. A quote opens or closes a quoted
+ * section wherever it appears, two quotes in a row inside a field are a literal quote, and whitespace before an
+ * opening quote is dropped. A quote in the middle of a field is also kept as a character, except next to a comma
+ * or a line break, or within the first three characters of a line. A backslash escapes a quote, comma or backslash
+ * after it and is otherwise dropped. Records end with LF, CRLF or CR outside quotes; a line break inside quotes
+ * is read as LF.
+ *
+ * Files larger than the mapping window are mapped piece by piece; a record crossing the end of a window
+ * is re-read from a window starting at that record.
+ */
+public class MappedCsvRowSource implements CsvRowSource {
+    private static final long MAX_WINDOW = 1L << 30;
+
+    private final FileChannel channel;
+    private final long end;
+    private final long maxWindow;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int limit;
+    private int pos;
+    private boolean[] projected;
+    private int rowWidth;
+    private byte[] scratch = new byte[128];
+    private final List<String> headerCells = new ArrayList<>();
+
+    public MappedCsvRowSource(Path path) throws IOException {
+        this(path, 0, -1);
+    }
+
+    /**
+     * Read the byte range [start, end) of a file. start must be the first byte of a record
+     * and end the byte following the last record of the range.
+     * @param end Exclusive end offset, or -1 for the end of the file
+     */
+    public MappedCsvRowSource(Path path, long start, long end) throws IOException {
+        this(path, start, end, MAX_WINDOW);
+    }
+
+    MappedCsvRowSource(Path path, long start, long end, long maxWindow) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        long size = channel.size();
+        this.end = end < 0 ? size : Math.min(end, size);
+        this.maxWindow = maxWindow;
+        mapWindow(Math.min(start, this.end));
+    }
+
+    @Override
+    public String[] readHeader() throws IOException {
+        headerCells.clear();
+        if (!readRecord(null)) {
+            return null;
+        }
+        return headerCells.toArray(new String[0]);
+    }
+
+    @Override
+    public void project(int[] columns) {
+        int width = 0;
+        for (int column : columns) {
+            width = Math.max(width, column + 1);
+        }
+        projected = new boolean[width];
+        for (int column : columns) {
+            projected[column] = true;
+        }
+        rowWidth = width;
+    }
+
+    @Override
+    public String[] readNext() throws IOException {
+        if (projected == null) {
+            headerCells.clear();
+            return readRecord(null) ? headerCells.toArray(new String[0]) : null;
+        }
+        String[] row = new String[rowWidth];
+        return readRecord(row) ? row : null;
+    }
+
+    /**
+     * @return The file offset of the next record
+     */
+    public long position() {
+        return windowStart + pos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Tokenize one record into row (projected columns) or headerCells (all columns, when row is null)
+     * @return false at the end of the range
+     */
+    private boolean readRecord(String[] row) throws IOException {
+        while (true) {
+            if (windowStart + pos >= end) {
+                return false;
+            }
+            int recordStart = pos;
+            if (scanRecord(row)) {
+                return true;
+            }
+            // The record runs past the mapped window: map a new window starting at the record and retry
+            long recordOffset = windowStart + recordStart;
+            if (recordStart == 0) {
+                throw new CsvFormatException("CSV record at byte " + recordOffset + " is larger than the mapping window");
+            }
+            mapWindow(recordOffset);
+            if (row != null) {
+                Arrays.fill(row, null);
+            } else {
+                headerCells.clear();
+            }
+        }
+    }
+
+    /**
+     * @return false if the record is cut off by the end of the window and more data follows
+     */
+    private boolean scanRecord(String[] row) throws IOException {
+        boolean lastWindow = windowStart + limit >= end;
+        int p = pos;
+        int lineStart = p;
+        int column = 0;
+        while (true) {
+            boolean decode = row == null || (column < rowWidth && projected[column]);
+            int fieldStart = p;
+            int fieldEnd;
+            // Until the first quote or backslash the field is the bytes [fieldStart, p) and is decoded in place;
+            // from then on its content is built in scratch
+            boolean copied = false;
+            int length = 0;
+            boolean inQuotes = false;
+            // OpenCSV's inField flag, which decides whether two quotes in a row are an escaped quote
+            boolean inField = false;
+            boolean recordEnd;
+
+            while (true) {
+                if (p >= limit) {
+                    if (!lastWindow) {
+                        return false;
+                    }
+                    if (inQuotes) {
+                        throw new CsvFormatException("Unterminated quoted field in CSV at byte " + (windowStart + p));
+                    }
+                    fieldEnd = p;
+                    recordEnd = true;
+                    break;
+                }
+                byte b = window.get(p);
+                if (b == '\n' || b == '\r') {
+                    // LF, CR and CRLF all end a line
+                    int next = p + 1;
+                    if (b == '\r') {
+                        if (next >= limit && !lastWindow) {
+                            return false;
+                        }
+                        if (next < limit && window.get(next) == '\n') {
+                            next++;
+                        }
+                    }
+                    if (!inQuotes) {
+                        fieldEnd = p;
+                        p = next;
+                        recordEnd = true;
+                        break;
+                    }
+                    // A line break inside quotes is kept as a single LF
+                    if (decode) {
+                        length = append(length, (byte) '\n');
+                    }
+                    p = next;
+                    lineStart = p;
+                    continue;
+                }
+                if (b == ',' && !inQuotes) {
+                    fieldEnd = p;
+                    p++;
+                    recordEnd = false;
+                    break;
+                }
+                if (b != '"' && b != '\\') {
+                    if (copied && decode) {
+                        // Copy the run of plain bytes up to the next byte with a meaning in one call
+                        int runEnd = p + 1;
+                        while (runEnd < limit && isPlain(window.get(runEnd), inQuotes)) {
+                            runEnd++;
+                        }
+                        ensureScratch(length + runEnd - p);
+                        window.get(p, scratch, length, runEnd - p);
+                        length += runEnd - p;
+                        p = runEnd;
+                    } else {
+                        p++;
+                    }
+                    inField = true;
+                    continue;
+                }
+
+                if (p + 1 >= limit && !lastWindow) {
+                    return false;
+                }
+                if (!copied) {
+                    length = decode ? copy(fieldStart, p) : 0;
+                    copied = true;
+                }
+                // Only a byte on the same line is looked at, as OpenCSV parses a line at a time
+                byte next = p + 1 < limit ? window.get(p + 1) : (byte) '\n';
+                boolean nextInLine = next != '\n' && next != '\r';
+                if (b == '\\') {
+                    // Dropped, and the next byte kept as-is if it is a quote, backslash or comma
+                    inField = true;
+                    if (next == '"' || next == '\\' || next == ',') {
+                        if (decode) {
+                            length = append(length, next);
+                        }
+                        p++;
+                    }
+                    p++;
+                    continue;
+                }
+                if ((inQuotes || inField) && next == '"') {
+                    if (decode) {
+                        length = append(length, (byte) '"');
+                    }
+                    p += 2;
+                } else {
+                    inQuotes = !inQuotes;
+                    // A quote inside a field is kept, unless it follows only whitespace, which is dropped instead
+                    if (decode && nextInLine && next != ',' && charsBefore(lineStart, p) > 2 && window.get(p - 1) != ',') {
+                        length = length > 0 && isBlank(length) ? 0 : append(length, (byte) '"');
+                    }
+                    p++;
+                }
+                inField = !inField;
+            }
+
+            if (decode) {
+                store(row, column, copied ? new String(scratch, 0, length, StandardCharsets.UTF_8) : decode(fieldStart, fieldEnd - fieldStart));
+            }
+            if (recordEnd) {
+                pos = p;
+                return true;
+            }
+            column++;
+        }
+    }
+
+    /**
+     * Copy the bytes [from, to) into scratch
+     * @return The number of bytes copied
+     */
+    private int copy(int from, int to) {
+        int length = to - from;
+        ensureScratch(length);
+        window.get(from, scratch, 0, length);
+        return length;
+    }
+
+    /**
+     * @return True if b is field content whatever precedes it: not a quote, backslash or line break, nor a comma
+     *         outside quotes
+     */
+    private static boolean isPlain(byte b, boolean inQuotes) {
+        return b != '"' && b != '\\' && b != '\n' && b != '\r' && (inQuotes || b != ',');
+    }
+
+    /**
+     * @return True if the first length bytes of scratch are all whitespace, as Character.isWhitespace defines it
+     */
+    private boolean isBlank(int length) {
+        for (int i = 0; i < length; i++) {
+            byte b = scratch[i];
+            if (b < 0) {
+                return new String(scratch, 0, length, StandardCharsets.UTF_8).chars().allMatch(Character::isWhitespace);
+            }
+            if (!Character.isWhitespace(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Count the UTF-16 characters of the UTF-8 bytes [from, to), stopping at 3
+     */
+    private int charsBefore(int from, int to) {
+        int chars = 0;
+        for (int p = from; p < to && chars < 3; p++) {
+            byte b = window.get(p);
+            if ((b & 0xC0) != 0x80) {
+                // A four byte sequence is a surrogate pair
+                chars += (b & 0xF8) == 0xF0 ? 2 : 1;
+            }
+        }
+        return chars;
+    }
+
+    private String decode(int offset, int length) {
+        if (length == 0) {
+            return "";
+        }
+        ensureScratch(length);
+        window.get(offset, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private int append(int length, byte b) {
+        ensureScratch(length + 1);
+        scratch[length] = b;
+        return length + 1;
+    }
+
+    private void ensureScratch(int capacity) {
+        if (capacity > scratch.length) {
+            scratch = Arrays.copyOf(scratch, Math.max(capacity, scratch.length * 2));
+        }
+    }
+
+    private void store(String[] row, int column, String value) {
+        if (row == null) {
+            headerCells.add(value);
+        } else {
+            row[column] = value;
+        }
+    }
+
+    private void mapWindow(long offset) throws IOException {
+        long length = Math.min(maxWindow, end - offset);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        windowStart = offset;
+        limit = (int) length;
+        pos = 0;
+    }
+}
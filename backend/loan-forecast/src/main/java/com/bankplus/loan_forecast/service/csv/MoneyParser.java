@@ -0,0 +1,164 @@
+package com.bankplus.loan_forecast.service.csv;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Single-pass parser for monetary and percentage cells such as "$1,250,000.00", "35%" or " 400000 ".
+ * '$', ',', '%' and whitespace are skipped wherever they appear, which matches stripping them with
+ * {@code replaceAll("[$,%\\s]", "")} before {@code new BigDecimal(...)}, but without a regex or intermediate strings.
+ *
+ * Plain decimals of up to 17 digits are parsed directly; anything else (exponents, longer numbers,
+ * malformed input) goes through the BigDecimal constructor so the results stay identical.
+ */
+public final class MoneyParser {
+
+    /**
+     * Returned by {@link #parseCents(String)} when the value is not a number or does not fit in a long
+     */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    private static final int MAX_FAST_DIGITS = 17;
+    private static final long FALLBACK = -1L;
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private MoneyParser() {
+    }
+
+    /**
+     * @return The value with the scale implied by its digits (e.g. "1,000.50" gives 1000.50),
+     *         or null if it is not a number once '$', ',', '%' and whitespace are removed
+     */
+    public static BigDecimal parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        long packed = scan(value);
+        if (packed == FALLBACK) {
+            return parseSlow(value);
+        }
+        long magnitude = packed >>> 6;
+        int scale = (int) ((packed >>> 1) & 0x1F);
+        return BigDecimal.valueOf((packed & 1) != 0 ? -magnitude : magnitude, scale);
+    }
+
+    /**
+     * @return The value in cents rounded HALF_UP, or {@link #INVALID}
+     */
+    public static long parseCents(String value) {
+        if (value == null) {
+            return INVALID;
+        }
+        long packed = scan(value);
+        if (packed == FALLBACK) {
+            return toCents(parseSlow(value));
+        }
+        long magnitude = packed >>> 6;
+        int scale = (int) ((packed >>> 1) & 0x1F);
+        long cents;
+        if (scale <= 2) {
+            long factor = POWERS_OF_TEN[2 - scale];
+            if (magnitude > Long.MAX_VALUE / factor) {
+                return INVALID;
+            }
+            cents = magnitude * factor;
+        } else {
+            long divisor = POWERS_OF_TEN[scale - 2];
+            cents = magnitude / divisor;
+            if ((magnitude % divisor) * 2 >= divisor) {
+                cents++;
+            }
+        }
+        return (packed & 1) != 0 ? -cents : cents;
+    }
+
+    /**
+     * Convert to cents without letting extreme exponents such as "1e999999999" expand into huge numbers
+     */
+    static long toCents(BigDecimal value) {
+        if (value == null) {
+            return INVALID;
+        }
+        int integerDigits = value.precision() - value.scale();
+        if (integerDigits > 18) {
+            return INVALID;
+        }
+        if (integerDigits < -2) {
+            // |value| < 0.001 rounds to zero cents
+            return 0;
+        }
+        try {
+            return value.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            return INVALID;
+        }
+    }
+
+    /**
+     * Scan the value once, packing magnitude, scale and sign into a long, or return FALLBACK
+     */
+    private static long scan(String value) {
+        long magnitude = 0;
+        int digits = 0;
+        int scale = -1;
+        boolean negative = false;
+        boolean signSeen = false;
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (digits == MAX_FAST_DIGITS) {
+                    return FALLBACK;
+                }
+                magnitude = magnitude * 10 + (c - '0');
+                digits++;
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (isSkipped(c)) {
+                continue;
+            } else if (c == '.') {
+                if (scale >= 0) {
+                    return FALLBACK;
+                }
+                scale = 0;
+            } else if ((c == '-' || c == '+') && !signSeen && digits == 0 && scale < 0) {
+                signSeen = true;
+                negative = c == '-';
+            } else {
+                return FALLBACK;
+            }
+        }
+        if (digits == 0) {
+            return FALLBACK;
+        }
+        return (magnitude << 6) | ((long) Math.max(scale, 0) << 1) | (negative ? 1 : 0);
+    }
+
+    private static BigDecimal parseSlow(String value) {
+        StringBuilder clean = new StringBuilder(value.length());
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if (!isSkipped(c)) {
+                clean.append(c);
+            }
+        }
+        try {
+            return new BigDecimal(clean.toString());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // '$', ',', '%' and the characters matched by the regex class \s
+    private static boolean isSkipped(char c) {
+        return c == '$' || c == ',' || c == '%'
+            || c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
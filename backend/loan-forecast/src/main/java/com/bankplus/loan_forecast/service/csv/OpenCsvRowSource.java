@@ -0,0 +1,42 @@
+package com.bankplus.loan_forecast.service.csv;
+
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * {@link CsvRowSource} backed by OpenCSV. Every column of every row is decoded, so the projection is ignored.
+ */
+public class OpenCsvRowSource implements CsvRowSource {
+    private final CSVReader csvReader;
+
+    public OpenCsvRowSource(Reader reader) {
+        this.csvReader = new CSVReader(reader);
+    }
+
+    @Override
+    public String[] readHeader() throws IOException {
+        return readNext();
+    }
+
+    @Override
+    public void project(int[] columns) {
+        // OpenCSV always splits the whole line
+    }
+
+    @Override
+    public String[] readNext() throws IOException {
+        try {
+            return csvReader.readNext();
+        } catch (CsvValidationException e) {
+            throw new CsvFormatException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        csvReader.close();
+    }
+}
@@ -0,0 +1,190 @@
+package com.bankplus.loan_forecast.service.csv;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Parses a file on disk in parallel with {@link MappedCsvRowSource}, one byte range per task, and returns the rows
+ * in file order. Row numbers seen by the caller are therefore the same as with a single sequential reader.
+ *
+ * Ranges are cut at record boundaries found by a quote-aware scan that follows the same rules as the tokenizer,
+ * including quotes opened after leading whitespace or in the middle of a field, so a quoted section containing
+ * line breaks is never split. The scan only tracks quoting state and is much cheaper
+ * than tokenizing. At most maxInFlight ranges are parsed ahead of the caller, which bounds memory for large files.
+ */
+public class ParallelCsvRowSource implements CsvRowSource {
+    private static final long SCAN_WINDOW = 1L << 30;
+
+    private final Path path;
+    private final ForkJoinPool pool;
+    private final long chunkBytes;
+    private final int maxInFlight;
+    private final FileChannel channel;
+    private final long size;
+    private final Deque<ForkJoinTask<Chunk>> pending = new ArrayDeque<>();
+    private int[] columns;
+    private long nextChunkStart;
+    private MappedByteBuffer scanWindow;
+    private long scanWindowStart;
+    private Chunk current;
+    private int currentIndex;
+
+    /**
+     * @param chunkBytes Approximate size of each range; ranges are extended to the end of the record
+     * @param maxInFlight Maximum number of ranges parsed or waiting to be read at any time
+     */
+    public ParallelCsvRowSource(Path path, ForkJoinPool pool, long chunkBytes, int maxInFlight) throws IOException {
+        this.path = path;
+        this.pool = pool;
+        this.chunkBytes = Math.max(1, chunkBytes);
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+    }
+
+    @Override
+    public String[] readHeader() throws IOException {
+        try (MappedCsvRowSource header = new MappedCsvRowSource(path, nextChunkStart, -1)) {
+            String[] cells = header.readHeader();
+            nextChunkStart = header.position();
+            return cells;
+        }
+    }
+
+    @Override
+    public void project(int[] columns) {
+        this.columns = columns.clone();
+    }
+
+    @Override
+    public String[] readNext() throws IOException {
+        while (current == null || currentIndex == current.rows.size()) {
+            if (current != null && current.error != null) {
+                // Every row before the malformed record has been returned, as with a sequential reader
+                throw current.error;
+            }
+            submitChunks();
+            ForkJoinTask<Chunk> task = pending.poll();
+            if (task == null) {
+                return null;
+            }
+            current = task.join();
+            currentIndex = 0;
+        }
+        String[] row = current.rows.get(currentIndex);
+        current.rows.set(currentIndex++, null);
+        return row;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (ForkJoinTask<Chunk> task : pending) {
+            task.cancel(false);
+        }
+        pending.clear();
+        channel.close();
+    }
+
+    private void submitChunks() throws IOException {
+        while (pending.size() < maxInFlight && nextChunkStart < size) {
+            long start = nextChunkStart;
+            long end = findRecordEnd(start, start + chunkBytes);
+            pending.add(pool.submit(() -> parseRange(start, end)));
+            nextChunkStart = end;
+        }
+    }
+
+    private Chunk parseRange(long start, long end) {
+        List<String[]> rows = new ArrayList<>();
+        try (MappedCsvRowSource source = new MappedCsvRowSource(path, start, end)) {
+            if (columns != null) {
+                source.project(columns);
+            }
+            String[] row;
+            while ((row = source.readNext()) != null) {
+                rows.add(row);
+            }
+            return new Chunk(rows, null);
+        } catch (IOException e) {
+            return new Chunk(rows, e);
+        }
+    }
+
+    /**
+     * Scan from a record start and return the offset following the first record that ends at or after target,
+     * or the file size if there is none (including when a quoted field is never closed)
+     */
+    private long findRecordEnd(long start, long target) throws IOException {
+        if (target >= size) {
+            return size;
+        }
+        boolean inQuotes = false;
+        boolean inField = false;
+        for (long offset = start; offset < size; offset++) {
+            byte b = byteAt(offset);
+            byte next = offset + 1 < size ? byteAt(offset + 1) : (byte) '\n';
+            if (b == '\n' || b == '\r') {
+                if (b == '\r' && next == '\n') {
+                    offset++;
+                }
+                if (!inQuotes) {
+                    if (offset >= target - 1) {
+                        return offset + 1;
+                    }
+                    inField = false;
+                }
+            } else if (b == ',' && !inQuotes) {
+                inField = false;
+            } else if (b == '\\') {
+                // An escaped quote, comma or backslash is part of the field
+                inField = true;
+                if (next == '"' || next == '\\' || next == ',') {
+                    offset++;
+                }
+            } else if (b == '"') {
+                // Two quotes in a row are a literal quote; any other quote opens or closes a quoted section
+                if ((inQuotes || inField) && next == '"') {
+                    offset++;
+                } else {
+                    inQuotes = !inQuotes;
+                }
+                inField = !inField;
+            } else {
+                inField = true;
+            }
+        }
+        return size;
+    }
+
+    private byte byteAt(long offset) throws IOException {
+        if (scanWindow == null || offset < scanWindowStart || offset >= scanWindowStart + scanWindow.limit()) {
+            mapScanWindow(offset);
+        }
+        return scanWindow.get((int) (offset - scanWindowStart));
+    }
+
+    private void mapScanWindow(long offset) throws IOException {
+        long length = Math.min(SCAN_WINDOW, size - offset);
+        scanWindow = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        scanWindowStart = offset;
+    }
+
+    private static class Chunk {
+        private final List<String[]> rows;
+        private final IOException error;
+
+        Chunk(List<String[]> rows, IOException error) {
+            this.rows = rows;
+            this.error = error;
+        }
+    }
+}
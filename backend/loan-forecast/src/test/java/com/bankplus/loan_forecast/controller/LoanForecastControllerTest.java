@@ -3,6 +3,7 @@ package com.bankplus.loan_forecast.controller;
 import com.bankplus.loan_forecast.model.UploadHistory;
 import com.bankplus.loan_forecast.repository.UploadHistoryRepository;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -11,16 +12,26 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
 @AutoConfigureMockMvc
+// JSON request bodies need the MVC configuration with its Jackson converter
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, HttpMessageConvertersAutoConfiguration.class, WebMvcAutoConfiguration.class})
 @ContextConfiguration(classes = {LoanForecastController.class, TestConfig.class})
 class LoanForecastControllerTest {
     @Autowired
@@ -82,4 +93,66 @@ class LoanForecastControllerTest {
         mockMvc.perform(get("/api/loan-forecast/upload-history/latest").accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isInternalServerError());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testSweepScenarios(@TempDir Path tempDir) throws Exception {
+        Path input = tempDir.resolve("loans.csv");
+        Files.writeString(input, "Loan Number,Customer Name,Loan Amount,Maturity Date,Extended Date,Outstanding Balance,Undisbursed Amount,% of Loan Drawn,% of Completion\n"
+                + "L1,Alice,1000000,6/30/25,12/31/25,400000,600000,40,35\n");
+        UploadHistory h = new UploadHistory();
+        h.setBatchId("b3");
+        h.setOriginalFilePath(input.toString());
+        h.setForecastStartDate("2025-01");
+        when(uploadHistoryRepository.findByBatchId("b3")).thenReturn(Optional.of(h));
+
+        mockMvc.perform(post("/api/loan-forecast/scenarios").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"batchId\":\"b3\",\"scenarios\":[{},{\"sCurveSteepness\":20,\"riskAdjustment\":0.5}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.loanCount").value(1))
+                .andExpect(jsonPath("$.forecastStartDate").value("2025-01"))
+                .andExpect(jsonPath("$.scenarios[0].parameters.sCurveSteepness").value(12.0))
+                .andExpect(jsonPath("$.scenarios[1].parameters.sCurveSteepness").value(20.0))
+                .andExpect(jsonPath("$.scenarios[1].parameters.riskAdjustment").value(0.5))
+                .andExpect(jsonPath("$.scenarios[0].portfolio['Jan-25']").exists());
+
+        mockMvc.perform(post("/api/loan-forecast/scenarios").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"batchId\":\"b3\",\"scenarios\":[{\"sCurveMidpoint\":2}]}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/loan-forecast/scenarios").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"batchId\":\"missing\",\"scenarios\":[{}]}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetLoanAndForecastSelectedLoans(@TempDir Path tempDir) throws Exception {
+        Path input = tempDir.resolve("loans.csv");
+        Files.writeString(input, "Loan Number,Customer Name,Loan Amount,Maturity Date,Extended Date,Outstanding Balance,Undisbursed Amount,% of Loan Drawn,% of Completion\n"
+                + "L1,Alice,1000000,6/30/25,12/31/25,400000,600000,40,35\n"
+                + "L2,Bob,2000000,6/30/25,12/31/26,800000,1200000,40,50\n");
+        UploadHistory h = new UploadHistory();
+        h.setBatchId("b4");
+        h.setOriginalFilePath(input.toString());
+        h.setForecastStartDate("2025-01");
+        when(uploadHistoryRepository.findByBatchId("b4")).thenReturn(Optional.of(h));
+
+        mockMvc.perform(get("/api/loan-forecast/batches/b4/loans/L2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.loanNumber").value("L2"))
+                .andExpect(jsonPath("$.customerName").value("Bob"));
+        mockMvc.perform(get("/api/loan-forecast/batches/b4/loans/L9"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/loan-forecast/batches/missing/loans/L1"))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(post("/api/loan-forecast/batches/b4/forecast").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"selectedLoanNumbers\":[\"L2\",\"L9\",\"L1\"],\"forecastStartDate\":\"2025-03-01\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].loanNumber").value("L2"))
+                .andExpect(jsonPath("$[1].loanNumber").value("L1"))
+                .andExpect(jsonPath("$[1].forecastData['Mar-25']").exists());
+        mockMvc.perform(post("/api/loan-forecast/batches/b4/forecast").contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,32 @@
+package com.bankplus.loan_forecast.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForecastSeriesTest {
+
+    @Test
+    void serializesAsMonthLabelsInOrder() throws Exception {
+        ForecastSeries series = new ForecastSeries(YearMonth.of(2025, 11), new long[] {12345, 0, 100});
+
+        String json = new ObjectMapper().writeValueAsString(series);
+
+        assertEquals("{\"Nov-25\":123.45,\"Dec-25\":0.00,\"Jan-26\":1.00}", json);
+    }
+
+    @Test
+    void seriesOfABatchShareOneAxis() {
+        ForecastSeries first = new ForecastSeries(YearMonth.of(2025, 6), new long[] {1});
+        ForecastSeries second = new ForecastSeries(YearMonth.of(2025, 6), new long[] {2, 3});
+
+        assertSame(first.getAxis(), second.getAxis());
+        assertEquals("Jul-25", second.getLabel(1));
+        assertEquals(new BigDecimal("0.03"), second.getAmount(1));
+        assertEquals(new ForecastSeries(YearMonth.of(2025, 6), new long[] {2, 3}), second);
+    }
+}
@@ -1,33 +1,69 @@
 package com.bankplus.loan_forecast.service;
 
 import com.bankplus.loan_forecast.model.CsvLoanData;
+import com.bankplus.loan_forecast.dto.ForecastPageRequest;
+import com.bankplus.loan_forecast.dto.ForecastPageResponse;
+import com.bankplus.loan_forecast.dto.ForecastSeries;
 import com.bankplus.loan_forecast.dto.LoanForecastData;
 import com.bankplus.loan_forecast.service.algorithm.AlgorithmFactory;
 import com.bankplus.loan_forecast.service.algorithm.SimpleForecastAlgorithm;
+import com.bankplus.loan_forecast.service.algorithm.SCurveScenario;
+import com.bankplus.loan_forecast.service.columnar.ForecastBaseline;
+import com.bankplus.loan_forecast.service.columnar.LoanColumnarFile;
+import com.bankplus.loan_forecast.service.columnar.LoanColumnarReader;
+import com.bankplus.loan_forecast.service.columnar.LoanColumnarWriter;
+import com.bankplus.loan_forecast.service.columnar.LoanIndex;
+import com.bankplus.loan_forecast.service.columnar.LoanIndexFile;
+import com.bankplus.loan_forecast.service.csv.CsvFormatException;
+import com.bankplus.loan_forecast.service.csv.CsvRowSource;
+import com.bankplus.loan_forecast.service.csv.MappedCsvRowSource;
+import com.bankplus.loan_forecast.service.csv.ParallelCsvRowSource;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.core.io.ClassPathResource;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.StringReader;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
-import java.util.HashMap;
+import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class CsvProcessingServiceTest {
+    // The columns read from an upload
+    private static final String REQUIRED_HEADER = "Loan Number,Customer Name,Loan Amount,Maturity Date,Extended Date,Outstanding Balance,Undisbursed Amount,% of Completion\n";
+    private static final String LOANS_HEADER = "Loan Number,Customer Name,Loan Amount,Maturity Date,Extended Date,Outstanding Balance,Undisbursed Amount,% of Loan Drawn,% of Completion\n";
+    private static final String[] CUSTOMERS = {"Acme", "acme builders", "Baker", "Carter"};
+
+    private MeterRegistry registry;
     private CsvProcessingService service;
+    private AlgorithmFactory algorithmFactory;
 
     @BeforeEach
     void setUp() {
-        MeterRegistry registry = new SimpleMeterRegistry();
+        registry = new SimpleMeterRegistry();
         LoanProcessingMetrics metrics = new LoanProcessingMetrics(registry);
         
         SimpleForecastAlgorithm simpleAlgorithm = new SimpleForecastAlgorithm();
-        AlgorithmFactory algorithmFactory = new AlgorithmFactory(simpleAlgorithm);
+        algorithmFactory = new AlgorithmFactory(simpleAlgorithm);
         
         service = new CsvProcessingService(metrics, algorithmFactory);
     }
@@ -48,7 +84,7 @@ class CsvProcessingServiceTest {
 
     @Test
     void testProcessCsvData_invalidRow() throws Exception {
-        String csv = "Loan Number,Customer Name,Loan Amount,Maturity Date,Extended Date,Outstanding Balance,Undisbursed Amount,% of Completion\n1,Alice,1000,2024-01-01,2024-12-01,500,100,90\n2,Bob,notanumber,2024-01-01,2024-12-01,500,100,90";
+        String csv = REQUIRED_HEADER + "1,Alice,1000,2024-01-01,2024-12-01,500,100,90\n2,Bob,notanumber,2024-01-01,2024-12-01,500,100,90";
         List<CsvLoanData> list = service.processCsvData(new StringReader(csv));
         assertTrue(list.stream().anyMatch(l -> l.getLoanAmount() != null && l.getLoanAmount().matches("\\d+")));
     }
@@ -72,7 +108,7 @@ class CsvProcessingServiceTest {
 
     @Test
     void testProcessCsvData_csvValidationException() {
-        String csv = "Loan Number,Customer Name,Loan Amount,Maturity Date,Extended Date,Outstanding Balance,Undisbursed Amount,% of Completion\n1,Alice,1000,2024-01-01,2024-12-01,500,100,90\n\"unclosed";
+        String csv = REQUIRED_HEADER + "1,Alice,1000,2024-01-01,2024-12-01,500,100,90\n\"unclosed";
         Exception ex = assertThrows(Exception.class, () -> service.processCsvData(new StringReader(csv)));
         assertTrue(ex.getMessage().toLowerCase().contains("csv"));
     }
@@ -91,12 +127,10 @@ class CsvProcessingServiceTest {
                 .maturityDate(LocalDate.of(2025, 12, 31))
                 .extendedDate(LocalDate.of(2026, 6, 30))
                 .percentOfCompletion(new BigDecimal("60"))
-                .forecastData(new HashMap<>())
+                .forecastData(new ForecastSeries(YearMonth.of(2025, 1), new long[] {90000, 80000}))
                 .totalForecastedAmount(new BigDecimal("1000"))
                 .forecastMonths(12)
                 .build();
-        data.getForecastData().put("Jan-25", new BigDecimal("900"));
-        data.getForecastData().put("Feb-25", new BigDecimal("800"));
         service.generateForecastCsv(List.of(data), "test_input.csv");
         service.writeForecastToCsv(List.of(data), "test_output.csv");
         File f1 = new File("backend/data/forecast/test_input_forecast.csv");
@@ -110,4 +144,893 @@ class CsvProcessingServiceTest {
         f1.delete();
         f2.delete();
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testProcessCsvStreaming_matchesListPipeline(@TempDir Path tempDir) throws Exception {
+        String csv = LOANS_HEADER
+                + "L1,Alice,\"$1,000,000\",6/30/25,12/31/25,\"$400,000\",\"$600,000\",40%,35%\n"
+                + "L2,Bob,500000,2025-03-01,2026-09-30,100000,400000,20,10\n"
+                + "L3,Carol,250000,1/15/25,N/A,100000,150000,40,50\n"
+                + "L4,Dave,800000,3/31/26,3/31/27,50000,750000,5,2\n";
+        Path input = tempDir.resolve("loans.csv");
+        Files.writeString(input, csv);
+
+        List<LoanForecastData> expected = service.processCsvFileFromPath(input.toString(), "2025-01");
+        List<LoanForecastData> streamed = new ArrayList<>();
+        StreamingResult result = service.processCsvStreaming(input, "2025-01", (loan, forecast) -> streamed.add(forecast));
+
+        assertEquals(3, result.getTotalRecords());
+        assertEquals(expected.size(), result.getProcessedRecords());
+        assertEquals(expected, streamed);
+
+        ForecastCsvStreamWriter writer = new ForecastCsvStreamWriter(tempDir.resolve("out_forecast.csv"), LocalDate.of(2025, 1, 1));
+        streamed.forEach(forecast -> writer.accept(null, forecast));
+        List<String> lines = Files.readAllLines(Path.of(writer.finish()));
+        writer.close();
+        assertEquals(streamed.size() + 2, lines.size());
+        assertTrue(lines.get(0).contains("\"Jan-25\""));
+        assertTrue(lines.get(lines.size() - 1).startsWith("\"SUM OF FORECAST\""));
+        assertFalse(Files.exists(tempDir.resolve("out_forecast.csv.part")));
+    }
+
+    @Test
+    void testProcessCsvData_mappedReaderMatchesOpenCsv(@TempDir Path tempDir) throws Exception {
+        String csv = "\uFEFFLoan Number,Notes,Customer Name,Loan Amount,Maturity Date,Extended Date,Outstanding Balance,Undisbursed Amount,% of Loan Drawn,% of Completion\r\n"
+                + "L1,\"multi\nline, with \"\"quotes\"\"\",\"Smith, John\",\"$1,000,000\",6/30/25,12/31/25,\"$400,000\",\"$600,000\",40%,35%\r\n"
+                + "L2,,Bob,500000,2025-03-01,2026-09-30,100000,400000,20,10\r\n"
+                + "\r\n"
+                + "L3,x,Café Ltd, 250000 ,1/15/25,N/A,100000,150000,40,50\r\n"
+                // A backslash escapes the next character and is dropped at the end of a line
+                + "L5,\"note \\\"quoted\\\" \\\\ end\",Back\\, Slash,700000,3/31/26,3/31/27,50000,650000,5,2\r\n"
+                + "L6,C:\\\\dir,Erin,100000,3/31/26,3/31/27,50000,50000,5,7\\\r\n"
+                + "L4,y,Dave,800000,3/31/26,3/31/27,50000,750000,5,2";
+        Path input = tempDir.resolve("loans.csv");
+        Files.writeString(input, csv);
+
+        List<CsvLoanData> expected = service.processCsvData(new StringReader(csv));
+        service.setCsvReaderType("mapped");
+        List<CsvLoanData> mapped = service.processCsvData(input);
+
+        assertEquals(5, expected.size());
+        assertEquals(expected, mapped);
+        assertEquals("Smith, John", mapped.get(0).getCustomerName());
+        assertEquals("Back, Slash", mapped.get(2).getCustomerName());
+        assertEquals("7", mapped.get(3).getPercentOfCompletion());
+    }
+
+    @Test
+    void testProcessCsvData_mappedReaderUnterminatedQuote(@TempDir Path tempDir) throws Exception {
+        Path input = tempDir.resolve("broken.csv");
+        Files.writeString(input, REQUIRED_HEADER + "1,Alice,1000,2024-01-01,2024-12-01,500,100,90\n\"unclosed");
+        service.setCsvReaderType("mapped");
+        Exception ex = assertThrows(Exception.class, () -> service.processCsvData(input));
+        assertTrue(ex.getMessage().toLowerCase().contains("csv"));
+    }
+
+    @Test
+    void testProcessCsvData_normalizesHeadersAndReusesLayout() throws Exception {
+        String header = "\uFEFFLoan  Number ,\"Customer Name\",Loan\tAmount,Maturity Date,Extended Date,Outstanding Balance,Undisbursed Amount,% of Completion,Loan Number\n";
+        String csv = header + "L1,Alice,1000,2024-01-01,2024-12-01,500,100,90,IGNORED\n";
+
+        List<CsvLoanData> first = service.processCsvData(new StringReader(csv));
+        List<CsvLoanData> second = service.processCsvData(new StringReader(csv));
+
+        assertEquals(1, first.size());
+        assertEquals("L1", first.get(0).getLoanNumber());
+        assertEquals("1000", first.get(0).getLoanAmount());
+        assertEquals("", first.get(0).getPercentOfLoanDrawn());
+        assertEquals(first, second);
+    }
+
+    @Test
+    void testProcessCsvData_parallelParseMatchesSequential(@TempDir Path tempDir) throws Exception {
+        StringBuilder csv = new StringBuilder("Loan Number,Notes,Customer Name,Loan Amount,Maturity Date,Extended Date,Outstanding Balance,Undisbursed Amount,% of Loan Drawn,% of Completion\n");
+        for (int i = 0; i < 500; i++) {
+            String notes = i % 3 == 0 ? "\"line one\nline \"\"two\"\", end\"" : i % 3 == 1 ? "\"escaped \\\"\nquote\\\\\"" : "n\\," + i;
+            csv.append("L").append(i).append(',').append(notes).append(",\"Customer, ").append(i).append("\",")
+                .append("\"$").append(1000 + i).append(",000\",6/30/25,12/31/25,400000,600000,40%,").append(i % 100).append('\n');
+        }
+        Path input = tempDir.resolve("loans.csv");
+        Files.writeString(input, csv);
+
+        service.setCsvReaderType("mapped");
+        List<CsvLoanData> sequential = service.processCsvData(input);
+        service.setParallelThresholdBytes(1);
+        service.setParallelChunkBytes(512);
+        List<CsvLoanData> parallel = service.processCsvData(input);
+
+        assertEquals(500, sequential.size());
+        assertEquals(service.processCsvData(new StringReader(csv.toString())), sequential);
+        assertEquals(sequential, parallel);
+
+        // A malformed record is reported at the same absolute row
+        Files.writeString(input, csv + "L500,\"unclosed\n");
+        service.setParallelThresholdBytes(0);
+        Exception sequentialError = assertThrows(Exception.class, () -> service.processCsvData(input));
+        service.setParallelThresholdBytes(1);
+        Exception parallelError = assertThrows(Exception.class, () -> service.processCsvData(input));
+        assertTrue(parallelError.getMessage().contains("row 501"), parallelError.getMessage());
+        assertEquals(sequentialError.getMessage(), parallelError.getMessage());
+    }
+
+    @Test
+    void testOpenRowSource_defaultConfigurationParsesLargeFilesInParallel(@TempDir Path tempDir) throws Exception {
+        // The deployed configuration keeps the reader that can split a file, with parallel parsing on
+        YamlPropertiesFactoryBean yaml = new YamlPropertiesFactoryBean();
+        yaml.setResources(new ClassPathResource("application.yml"));
+        Properties deployed = yaml.getObject();
+        assertEquals(CsvRowSource.MAPPED, deployed.getProperty("csv.reader.type"));
+        assertTrue(Long.parseLong(deployed.getProperty("csv.parallel.threshold-bytes")) > 0);
+
+        Path input = tempDir.resolve("loans.csv");
+        Files.writeString(input, randomLoansCsv(5, 200));
+        // The reader type is left as configured by default, only the threshold is lowered to the file's size
+        service.setParallelThresholdBytes(Files.size(input));
+        try (CsvRowSource source = service.openRowSource(input)) {
+            assertInstanceOf(ParallelCsvRowSource.class, source);
+        }
+        service.setParallelThresholdBytes(Files.size(input) + 1);
+        try (CsvRowSource source = service.openRowSource(input)) {
+            assertInstanceOf(MappedCsvRowSource.class, source);
+        } finally {
+            service.shutdownParsePool();
+        }
+    }
+
+    @Test
+    void testSaveAndScanCsv_savesWhileCounting(@TempDir Path tempDir) throws Exception {
+        String csv = REQUIRED_HEADER
+                + "1,\"Smith, John\",1000,2024-01-01,2024-12-01,500,100,90\n"
+                + "2,Bob,,2024-01-01,2024-12-01,500,100,90\n"
+                + "3,Café,2000,2024-01-01,2024-12-01,500,100,50\n";
+        byte[] bytes = csv.getBytes(StandardCharsets.UTF_8);
+        Path target = tempDir.resolve("saved.csv");
+
+        UploadScanResult result = service.saveAndScanCsv(new ByteArrayInputStream(bytes), target);
+
+        assertArrayEquals(bytes, Files.readAllBytes(target));
+        assertEquals(bytes.length, result.getBytesWritten());
+        assertEquals(3, result.getTotalRows());
+        assertEquals(2, result.getCompleteRows());
+        assertEquals(java.util.HexFormat.of().formatHex(java.security.MessageDigest.getInstance("SHA-256").digest(bytes)),
+                result.getContentSha256());
+    }
+
+    @Test
+    void testSaveAndScanCsv_rejectsHeaderBeforeReadingBody(@TempDir Path tempDir) throws Exception {
+        StringBuilder csv = new StringBuilder("Loan Number,Customer Name,Loan Amount\n");
+        for (int i = 0; i < 100_000; i++) {
+            csv.append(i).append(",Name,1000\n");
+        }
+        ByteArrayInputStream body = new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8));
+        int size = body.available();
+
+        CsvFormatException e = assertThrows(CsvFormatException.class,
+                () -> service.saveAndScanCsv(body, tempDir.resolve("rejected.csv")));
+        assertTrue(e.getMessage().contains("Required column missing: Maturity Date"));
+        // Only the first buffer or so has been consumed
+        assertTrue(body.available() > size - 64 * 1024);
+    }
+
+    @Test
+    void testGzipInput_readWithoutInflatingToDisk(@TempDir Path tempDir) throws Exception {
+        String csv = REQUIRED_HEADER
+                + "1,\"Smith, John\",1000,2024-01-01,2024-12-01,500,100,90\n"
+                + "2,Café Müller,2000,6/30/25,12/31/25,500,100,50\n";
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(csv.getBytes(StandardCharsets.UTF_8));
+        }
+        byte[] gzipBytes = compressed.toByteArray();
+        // Detected by content, not by name
+        Path input = tempDir.resolve("loans.dat");
+        Files.write(input, gzipBytes);
+
+        List<CsvLoanData> expected = service.processCsvData(new StringReader(csv));
+        assertEquals(expected, service.processCsvData(input));
+        // A plain upload is decoded as UTF-8 too, whatever the platform charset
+        Path plain = tempDir.resolve("loans.csv");
+        Files.write(plain, csv.getBytes(StandardCharsets.UTF_8));
+        assertEquals(expected, service.processCsvData(plain));
+        assertEquals("Café Müller", service.processCsvData(plain).get(1).getCustomerName());
+        service.setCsvReaderType("mapped");
+        assertEquals(expected, service.processCsvData(input));
+        assertEquals(2, service.processCsvFileFromPath(input.toString(), "2025-01").size());
+
+        Path saved = tempDir.resolve("saved.csv.gz");
+        UploadScanResult result = service.saveAndScanCsv(new ByteArrayInputStream(gzipBytes), saved);
+        assertArrayEquals(gzipBytes, Files.readAllBytes(saved));
+        assertEquals(2, result.getTotalRows());
+        assertEquals(gzipBytes.length, result.getBytesWritten());
+    }
+
+    @Test
+    void testLoadForecastData_columnarCacheMatchesCsv(@TempDir Path tempDir) throws Exception {
+        String csv = LOANS_HEADER
+                + "L1,\"Smith, John\",\"$1,000,000\",6/30/25,12/31/25,\"$400,000.50\",\"$600,000\",40%,35%\n"
+                + "L2,Bob,500000,2025-03-01,2026-09-30,100000,400000,,10\n"
+                + "L3,Bob,250000,1/15/25,3/31/26,-5,150000,40,50\n"
+                + "L4,,800000,3/31/26,3/31/27,50000,750000,5,2\n";
+        Path input = tempDir.resolve("loans.csv");
+        Files.writeString(input, csv);
+
+        try (LoanColumnarWriter columnarWriter = service.openColumnarWriter(input)) {
+            service.processCsvStreaming(input, "2025-01", columnarWriter);
+            assertNotNull(columnarWriter.finish());
+        }
+
+        List<LoanForecastData> fromCsv = service.processCsvFileFromPath(input.toString(), "2025-01");
+        try (LoanColumnarReader reader = LoanColumnarReader.open(LoanColumnarFile.pathFor(input), input)) {
+            assertNotNull(reader);
+            assertEquals(3, reader.getRowCount());
+            assertEquals(fromCsv, service.forecastFromColumnar(reader, "2025-01"));
+        }
+        assertEquals(fromCsv, service.loadForecastData(input.toString(), "2025-01", null));
+
+        // A rewritten upload is read from the CSV again
+        Files.writeString(input, csv.substring(0, csv.indexOf("L2,")));
+        assertEquals(1, service.loadForecastData(input.toString(), "2025-01", null).size());
+    }
+
+    @Test
+    void testLoadForecastData_servesStoredForecasts(@TempDir Path tempDir) throws Exception {
+        SimpleForecastAlgorithm algorithm = Mockito.spy(new SimpleForecastAlgorithm());
+        CsvProcessingService stored = new CsvProcessingService(new LoanProcessingMetrics(new SimpleMeterRegistry()),
+                new AlgorithmFactory(algorithm));
+        Path input = tempDir.resolve("loans.csv");
+        Files.writeString(input, randomLoansCsv(13, 300));
+        List<LoanForecastData> expected = stored.processCsvFileFromPath(input.toString(), "2025-01");
+        List<LoanForecastData> expectedLater = stored.processCsvFileFromPath(input.toString(), "2025-02");
+        try (LoanColumnarWriter columnarWriter = stored.openColumnarWriter(input)) {
+            StreamingResult result = stored.processCsvStreaming(input, "2025-01", columnarWriter);
+            columnarWriter.setForecastAlgorithm(result.getAlgorithm(), result.getAlgorithmVersion());
+            columnarWriter.finish();
+        }
+
+        Mockito.clearInvocations(algorithm);
+        assertEquals(expected, stored.loadForecastData(input.toString(), "2025-01", null));
+        assertEquals(0, curveCalculations(algorithm));
+        // Another start month is forecast again
+        assertEquals(expectedLater, stored.loadForecastData(input.toString(), "2025-02", null));
+        assertTrue(curveCalculations(algorithm) > 0);
+    }
+
+    private static long curveCalculations(Object algorithm) {
+        return Mockito.mockingDetails(algorithm).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().startsWith("calculateForecast"))
+                .count();
+    }
+
+    @Test
+    void testProcessCsvStreaming_summarizesRejectedRows(@TempDir Path tempDir) throws Exception {
+        StringBuilder csv = new StringBuilder(LOANS_HEADER);
+        csv.append("L1,Alice,500000,6/30/25,12/31/25,100000,400000,20,10\n");
+        csv.append("L2,Bob,500000,6/30/25,N/A,100000,400000,20,10\n");
+        csv.append("\n");
+        csv.append("L3,Carol,500000,13/45/25,12/31/25,100000,400000,20,10\n");
+        csv.append("L4,Dave,500000,6/30/25,12/31/25,-5,400000,20,10\n");
+        csv.append("L5,Erin,lots,6/30/25,12/31/25,100000,400000,20,10\n");
+        for (int i = 0; i < 30; i++) {
+            csv.append("B").append(i).append(",X,500000,6/30/25,someday,100000,400000,20,10\n");
+        }
+        Path input = tempDir.resolve("loans.csv");
+        Files.writeString(input, csv.toString());
+
+        StreamingResult result = service.processCsvStreaming(input, "2025-01", (loan, forecast) -> { });
+        assertEquals(2, result.getProcessedRecords());
+        assertEquals("simple", result.getAlgorithm());
+
+        RejectionSummary summary = result.getRejections();
+        assertEquals(33, summary.getTotalRejected());
+        assertEquals(Map.of("Extended Date", 1L), summary.getByReason().get("MISSING_VALUE"));
+        assertEquals(Map.of("Maturity Date", 1L, "Extended Date", 30L), summary.getByReason().get("UNPARSEABLE_DATE"));
+        assertEquals(Map.of("Outstanding Balance", 1L), summary.getByReason().get("INVALID_VALUE"));
+        assertEquals(Map.of("Loan Amount", 1L), summary.getDefaultedValues());
+
+        // Samples keep the first rejections only, with their position in the file
+        assertEquals(RejectionCollector.SAMPLE_LIMIT, summary.getSamples().size());
+        RejectionSummary.Sample first = summary.getSamples().get(0);
+        assertEquals(3, first.getRowNumber());
+        assertEquals("L2", first.getLoanNumber());
+        assertEquals("N/A", first.getValue());
+        RejectionSummary.Sample date = summary.getSamples().get(1);
+        assertEquals(5, date.getRowNumber());
+        assertEquals("13/45/25", date.getValue());
+        assertEquals(6, summary.getSamples().get(2).getRowNumber());
+    }
+
+    @Test
+    void testProcessCsvStreaming_amountsHeldInCents(@TempDir Path tempDir) throws Exception {
+        String csv = LOANS_HEADER
+                + "L1,Alice,\"$1,000.005\",6/30/25,12/31/25,400000.5,600000,33.333%,35\n"
+                + "L2,Bob,1e30,6/30/25,12/31/25,100000,400000,20,10\n";
+        Path input = tempDir.resolve("loans.csv");
+        Files.writeString(input, csv);
+
+        List<LoanForecastData> streamed = new ArrayList<>();
+        StreamingResult result = service.processCsvStreaming(input, "2025-01", (loan, forecast) -> {
+            assertEquals(100001L, loan.getLoanAmountCents());
+            assertEquals(3333L, loan.getPercentOfLoanDrawnHundredths());
+            assertEquals(2, loan.getRowNumber());
+            streamed.add(forecast);
+        });
+
+        assertEquals(1, streamed.size());
+        assertEquals(new BigDecimal("1000.01"), streamed.get(0).getLoanAmount());
+        assertEquals(new BigDecimal("400000.50"), streamed.get(0).getOutstandingBalance());
+        // Too large to hold in cents: rejected, not defaulted to zero
+        assertEquals(Map.of("Loan Amount", 1L), result.getRejections().getByReason().get("INVALID_VALUE"));
+    }
+
+    @Test
+    void testParallelForecastMatchesSequential(@TempDir Path tempDir) throws Exception {
+        List<String> rows = randomLoanRows(7, 1000);
+        for (int i = 0; i < rows.size(); i += 37) {
+            // Every 37th row is rejected
+            rows.set(i, withCompletion(rows.get(i), "150"));
+        }
+        Path input = tempDir.resolve("loans.csv");
+        Files.writeString(input, LOANS_HEADER + String.join("", rows));
+
+        service.setForecastParallelThreshold(0);
+        List<LoanForecastData> expected = service.processCsvFileFromPath(input.toString(), "2025-01");
+        List<String> expectedLoans = new ArrayList<>();
+        StreamingResult expectedResult = service.processCsvStreaming(input, "2025-01", (loan, forecast) -> expectedLoans.add(loan.getLoanNumber()));
+        assertEquals(1000 - 28, expected.size());
+
+        CsvProcessingService parallel = new CsvProcessingService(new LoanProcessingMetrics(new SimpleMeterRegistry()),
+                new AlgorithmFactory(new SimpleForecastAlgorithm()));
+        parallel.setForecastParallelThreshold(10);
+        parallel.setForecastSliceSize(7);
+        parallel.setForecastParallelism(3);
+        try {
+            assertEquals(expected, parallel.processCsvFileFromPath(input.toString(), "2025-01"));
+
+            List<String> streamedLoans = new ArrayList<>();
+            List<LoanForecastData> streamed = new ArrayList<>();
+            StreamingResult result = parallel.processCsvStreaming(input, "2025-01", (loan, forecast) -> {
+                streamedLoans.add(loan.getLoanNumber());
+                streamed.add(forecast);
+            });
+            assertEquals(expectedLoans, streamedLoans);
+            assertEquals(expected, streamed);
+            assertEquals(expectedResult.getProcessedRecords(), result.getProcessedRecords());
+            assertEquals(expectedResult.getTotalAmount(), result.getTotalAmount());
+            assertEquals(28, result.getRejections().getTotalRejected());
+            // Slice accumulators merged in any order give the sequential fold
+            assertEquals(expectedResult.getPortfolio(), result.getPortfolio());
+            assertEquals(expected.size(), result.getPortfolio().getLoanCount());
+            assertEquals(expectedResult.getPortfolio(), service.summarizeForecastData(input.toString(), "2025-01", null, null));
+        } finally {
+            parallel.shutdownParsePool();
+        }
+    }
+
+    @Test
+    void testCentsModeWritesIdenticalCsv(@TempDir Path tempDir) throws Exception {
+        Path input = tempDir.resolve("loans.csv");
+        Files.writeString(input, randomLoansCsv(23, 500));
+
+        Path decimalCsv = tempDir.resolve("decimal.csv");
+        try (ForecastCsvStreamWriter writer = new ForecastCsvStreamWriter(decimalCsv, LocalDate.of(2025, 1, 1))) {
+            service.processCsvStreaming(input, "2025-01", writer);
+            writer.finish();
+        }
+
+        SimpleForecastAlgorithm centsAlgorithm = new SimpleForecastAlgorithm();
+        centsAlgorithm.setNumericMode("cents");
+        CsvProcessingService cents = new CsvProcessingService(new LoanProcessingMetrics(new SimpleMeterRegistry()),
+                new AlgorithmFactory(centsAlgorithm));
+        Path centsCsv = tempDir.resolve("cents.csv");
+        try (ForecastCsvStreamWriter writer = new ForecastCsvStreamWriter(centsCsv, LocalDate.of(2025, 1, 1))) {
+            cents.processCsvStreaming(input, "2025-01", writer);
+            writer.finish();
+        } finally {
+            cents.shutdownParsePool();
+        }
+
+        assertEquals(Files.readString(decimalCsv), Files.readString(centsCsv));
+    }
+
+    @Test
+    void testForecastFromColumnar_simdMatchesSimple(@TempDir Path tempDir) throws Exception {
+        Path input = tempDir.resolve("loans.csv");
+        Files.writeString(input, randomLoansCsv(41, 700));
+        try (LoanColumnarWriter columnarWriter = service.openColumnarWriter(input)) {
+            service.processCsvStreaming(input, "2025-01", columnarWriter);
+            columnarWriter.finish();
+        }
+
+        List<LoanForecastData> expected = service.processCsvFileFromPath(input.toString(), "2025-01");
+        service.setForecastParallelThreshold(100);
+        service.setForecastSliceSize(67);
+        try (LoanColumnarReader reader = LoanColumnarReader.open(LoanColumnarFile.pathFor(input), input)) {
+            assertEquals(700, reader.getRowCount());
+            assertEquals(expected, service.forecastFromColumnar(reader, "2025-01"));
+            algorithmFactory.switchAlgorithm("simd");
+            assertEquals(expected, service.forecastFromColumnar(reader, "2025-01"));
+        } finally {
+            service.shutdownParsePool();
+        }
+    }
+
+    @Test
+    void testProcessCsvStreaming_incrementalReusesUnchangedLoans(@TempDir Path tempDir) throws Exception {
+        List<String> rows = randomLoanRows(43, 600);
+        StringBuilder nextCsv = new StringBuilder(LOANS_HEADER);
+        int changed = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            if (i % 50 == 0) {
+                // Dropped from the next upload
+                continue;
+            }
+            if (i % 10 == 0) {
+                changed++;
+                int completion = completionOf(rows.get(i));
+                nextCsv.append(withCompletion(rows.get(i), String.valueOf(completion == 100 ? 99 : completion + 1)));
+            } else {
+                nextCsv.append(rows.get(i));
+            }
+        }
+        nextCsv.append("N1,New,500000,6/30/25,12/31/26,100000,400000,20,10\n");
+        Path base = tempDir.resolve("base.csv");
+        Path next = tempDir.resolve("next.csv");
+        Files.writeString(base, LOANS_HEADER + String.join("", rows));
+        Files.writeString(next, nextCsv.toString());
+        try (LoanColumnarWriter columnarWriter = service.openColumnarWriter(base)) {
+            StreamingResult result = service.processCsvStreaming(base, "2025-01", columnarWriter);
+            columnarWriter.setForecastAlgorithm(result.getAlgorithm(), result.getAlgorithmVersion());
+            columnarWriter.finish();
+        }
+
+        List<LoanForecastData> expected = new ArrayList<>();
+        service.processCsvStreaming(next, "2025-01", (loan, forecast) -> expected.add(forecast));
+        for (int threshold : new int[]{0, 100}) {
+            service.setForecastParallelThreshold(threshold);
+            service.setForecastSliceSize(37);
+            List<LoanForecastData> incremental = new ArrayList<>();
+            StreamingResult result;
+            try (ForecastBaseline baseline = service.openForecastBaseline(base)) {
+                result = service.processCsvStreaming(next, "2025-01", (loan, forecast) -> incremental.add(forecast), baseline);
+            }
+            assertEquals(expected, incremental);
+            assertEquals(expected.size(), result.getProcessedRecords());
+            assertEquals(changed + 1, result.getRecomputedRecords());
+            assertEquals(expected.size() - changed - 1, result.getReusedRecords());
+        }
+
+        // Another start month moves every loan's project start, nothing is reused
+        try (ForecastBaseline baseline = service.openForecastBaseline(base)) {
+            StreamingResult result = service.processCsvStreaming(next, "2025-02", (loan, forecast) -> { }, baseline);
+            assertEquals(0, result.getReusedRecords());
+            assertEquals(result.getProcessedRecords(), result.getRecomputedRecords());
+        } finally {
+            service.shutdownParsePool();
+        }
+    }
+
+    @Test
+    void testLoadForecastData_cachedByContentDigest(@TempDir Path tempDir) throws Exception {
+        String csv = LOANS_HEADER
+                + "L1,Alice,1000000,6/30/25,12/31/25,400000,600000,40,35\n"
+                + "L2,Bob,500000,2025-03-01,2026-09-30,100000,400000,,10\n";
+        Path input = tempDir.resolve("loans.csv");
+        Path copy = tempDir.resolve("copy.csv");
+        Files.writeString(input, csv);
+        Files.writeString(copy, csv);
+        List<LoanForecastData> expected = service.processCsvFileFromPath(input.toString(), "2025-01");
+
+        List<LoanForecastData> first = service.loadForecastData(input.toString(), "2025-01", "simple", "digest-1");
+        assertEquals(expected, first);
+        // Another upload of the same content and the same start month in another format share the entry
+        assertSame(first, service.loadForecastData(copy.toString(), "2025-01-01", "simple", "digest-1"));
+        assertNotSame(first, service.loadForecastData(input.toString(), "2025-02", "simple", "digest-1"));
+        assertEquals(2, service.getForecastCache().size());
+        assertThrows(UnsupportedOperationException.class, () -> first.remove(0));
+
+        // The algorithm is part of the key: a switch leaves the entries of batches forecast with the previous one valid
+        algorithmFactory.switchAlgorithm("simd");
+        assertSame(first, service.loadForecastData(input.toString(), "2025-01", "simple", "digest-1"));
+        assertEquals(expected, service.loadForecastData(input.toString(), "2025-01", null, "digest-1"));
+        assertEquals(3, service.getForecastCache().size());
+    }
+
+    @Test
+    void testLoadForecastData_countsOneHitOrMissPerLoad(@TempDir Path tempDir) throws Exception {
+        Path input = tempDir.resolve("loans.csv");
+        Files.writeString(input, randomLoansCsv(17, 20));
+        MonthWindow window = MonthWindow.parse("2025-04", "2025-09");
+
+        // A window missing both the whole forecast and its own entry is one miss
+        service.loadForecastData(input.toString(), "2025-01", "simple", "digest-1", window);
+        assertCacheLookups(0, 1);
+        service.loadForecastData(input.toString(), "2025-01", "simple", "digest-1", window);
+        assertCacheLookups(1, 1);
+        service.loadForecastData(input.toString(), "2025-01", "simple", "digest-1");
+        assertCacheLookups(1, 2);
+        // Cut from the whole forecast
+        service.loadForecastData(input.toString(), "2025-01", "simple", "digest-1", MonthWindow.parse("2025-02", null));
+        assertCacheLookups(2, 2);
+    }
+
+    private void assertCacheLookups(double hits, double misses) {
+        assertEquals(hits, registry.get("forecast.cache.hits").counter().count());
+        assertEquals(misses, registry.get("forecast.cache.misses").counter().count());
+    }
+
+    @Test
+    void testSweepScenarios_defaultScenarioIsPortfolioOfForecasts(@TempDir Path tempDir) throws Exception {
+        Path input = tempDir.resolve("loans.csv");
+        Files.writeString(input, randomLoansCsv(61, 500) + "L-bad,C,500000,6/30/25,12/31/25,100000,400000,20,150\n");
+
+        List<LoanForecastData> forecasts = service.processCsvFileFromPath(input.toString(), "2025-01");
+        long[] expected = new long[0];
+        for (LoanForecastData forecast : forecasts) {
+            ForecastSeries series = forecast.getForecastData();
+            if (series.size() > expected.length) {
+                expected = java.util.Arrays.copyOf(expected, series.size());
+            }
+            for (int month = 0; month < series.size(); month++) {
+                expected[month] += series.getCents(month);
+            }
+        }
+
+        List<SCurveScenario> scenarios = List.of(SCurveScenario.defaults(), new SCurveScenario(null, null, null, 0.0),
+                new SCurveScenario(8.0, 0.6, 1.2, 0.9));
+        ScenarioSweepResult sequential = service.sweepScenarios(input.toString(), "2025-01", scenarios);
+        assertEquals(500, sequential.getLoanCount());
+        assertEquals(1, sequential.getRejectedLoans());
+        assertEquals(3, sequential.getPortfolioCurves().size());
+        assertEquals(new ForecastSeries(YearMonth.of(2025, 1), expected), sequential.getPortfolioCurves().get(0));
+        // Nothing more drawn: each month is the outstanding balance of the loans still on their curve
+        ForecastSeries undrawn = sequential.getPortfolioCurves().get(1);
+        assertTrue(undrawn.getCents(0) < expected[0]);
+
+        // The same curves from the columnar cache and in parallel
+        try (LoanColumnarWriter columnarWriter = service.openColumnarWriter(input)) {
+            service.processCsvStreaming(input, "2025-01", columnarWriter);
+            columnarWriter.finish();
+        }
+        service.setForecastParallelThreshold(100);
+        service.setForecastSliceSize(37);
+        try {
+            ScenarioSweepResult parallel = service.sweepScenarios(input.toString(), "2025-01", scenarios);
+            assertEquals(sequential.getPortfolioCurves(), parallel.getPortfolioCurves());
+            assertEquals(0, parallel.getRejectedLoans());
+        } finally {
+            service.shutdownParsePool();
+        }
+    }
+
+    @Test
+    void testPageForecastData_walksIndexWithCursor(@TempDir Path tempDir) throws Exception {
+        Path input = tempDir.resolve("loans.csv");
+        Files.writeString(input, randomLoansCsv(23, 300));
+        List<LoanForecastData> all = service.processCsvFileFromPath(input.toString(), "2025-01");
+
+        ForecastPageRequest request = ForecastPageRequest.builder().sort("totalForecastedAmount").direction("desc")
+                .limit(17).customerPrefix("ACME").minCompletion(20).maxCompletion(80).build();
+        // No columnar cache, no pages
+        assertNull(service.pageForecastData(input.toString(), "2025-01", null, request));
+        try (LoanColumnarWriter columnarWriter = service.openColumnarWriter(input)) {
+            service.processCsvStreaming(input, "2025-01", columnarWriter);
+            columnarWriter.setForecastAlgorithm("simple", algorithmFactory.getActiveAlgorithm().getAlgorithmVersion());
+            columnarWriter.finish();
+        }
+        assertNotNull(service.buildLoanIndex(input));
+
+        List<LoanForecastData> expected = all.stream()
+                .filter(f -> f.getCustomerName().toLowerCase().startsWith("acme"))
+                .filter(f -> f.getPercentOfCompletion().intValue() >= 20 && f.getPercentOfCompletion().intValue() <= 80)
+                .sorted(java.util.Comparator.comparing(LoanForecastData::getTotalForecastedAmount).reversed())
+                .toList();
+        List<LoanForecastData> paged = new ArrayList<>();
+        int pages = 0;
+        do {
+            ForecastPageResponse page = service.pageForecastData(input.toString(), "2025-01", null, request);
+            assertEquals(300, page.getTotalLoans());
+            assertTrue(page.getLoans().size() <= 17);
+            paged.addAll(page.getLoans());
+            request.setCursor(page.getNextCursor());
+            pages++;
+        } while (request.getCursor() != null);
+        assertTrue(pages > 2);
+        assertEquals(expected.stream().map(LoanForecastData::getTotalForecastedAmount).toList(),
+                paged.stream().map(LoanForecastData::getTotalForecastedAmount).toList());
+        assertEquals(new java.util.HashSet<>(expected), new java.util.HashSet<>(paged));
+
+        // A cursor only continues the query it came from
+        ForecastPageResponse first = service.pageForecastData(input.toString(), "2025-01", null,
+                ForecastPageRequest.builder().limit(5).build());
+        assertEquals(all.stream().map(LoanForecastData::getLoanNumber).sorted().limit(5).toList(),
+                first.getLoans().stream().map(LoanForecastData::getLoanNumber).toList());
+        assertThrows(IllegalArgumentException.class, () -> service.pageForecastData(input.toString(), "2025-01", null,
+                ForecastPageRequest.builder().sort("customerName").cursor(first.getNextCursor()).build()));
+        assertThrows(IllegalArgumentException.class, () -> service.pageForecastData(input.toString(), "2025-01", null,
+                ForecastPageRequest.builder().sort("rowNumber").build()));
+    }
+
+    @Test
+    void testForecastSelectedLoans_throughLoanIndex(@TempDir Path tempDir) throws Exception {
+        Path input = tempDir.resolve("loans.csv");
+        Files.writeString(input, randomLoansCsv(41, 400));
+        List<String> selected = List.of("L399", "missing", "L0", "L17");
+        List<LoanForecastData> all = service.processCsvFileFromPath(input.toString(), "2025-01");
+        List<LoanForecastData> allLater = service.processCsvFileFromPath(input.toString(), "2025-04");
+        List<LoanForecastData> expected = List.of(all.get(399), all.get(0), all.get(17));
+
+        // Without a columnar cache the whole upload is forecast
+        assertEquals(expected, service.forecastSelectedLoans(input.toString(), "2025-01", null, selected));
+
+        try (LoanColumnarWriter columnarWriter = service.openColumnarWriter(input)) {
+            service.processCsvStreaming(input, "2025-01", columnarWriter);
+            columnarWriter.setForecastAlgorithm("simple", algorithmFactory.getActiveAlgorithm().getAlgorithmVersion());
+            columnarWriter.finish();
+        }
+        assertEquals(expected, service.forecastSelectedLoans(input.toString(), "2025-01", null, selected));
+        assertTrue(Files.exists(LoanIndexFile.pathFor(input)));
+        // Another start month forecasts the selected loans again
+        assertEquals(List.of(allLater.get(399), allLater.get(0), allLater.get(17)),
+                service.forecastSelectedLoans(input.toString(), "2025-04", null, selected));
+
+        try (LoanIndex index = LoanIndex.open(input)) {
+            for (int row = 0; row < 400; row++) {
+                assertEquals(row, index.findRow("L" + row));
+            }
+            assertEquals(-1, index.findRow("L400"));
+            assertEquals(-1, index.findRow(""));
+        }
+    }
+
+    /**
+     * Month windows of one upload of 250 loans forecast from 2025-01
+     */
+    @Nested
+    class MonthWindows {
+        @TempDir
+        Path tempDir;
+        private Path input;
+        // The whole forecasts from 2025-01
+        private List<LoanForecastData> all;
+        private final MonthWindow window = MonthWindow.parse("2025-04", "2025-09");
+
+        @BeforeEach
+        void writeUpload() throws IOException {
+            input = tempDir.resolve("loans.csv");
+            Files.writeString(input, randomLoansCsv(59, 250));
+            all = service.processCsvFileFromPath(input.toString(), "2025-01");
+        }
+
+        @Test
+        void testLoadForecastData_windowCutFromWholeForecast() throws Exception {
+            List<LoanForecastData> expected = all.stream().map(f -> inWindow(f, 3, 9)).toList();
+
+            // From the CSV, then from the forecasts stored in the columnar cache
+            assertWindowed(expected, service.loadForecastData(input.toString(), "2025-01", null, null, window));
+            writeColumnarCache(input);
+            assertWindowed(expected, service.loadForecastData(input.toString(), "2025-01", null, null, window));
+        }
+
+        @Test
+        void testLoadForecastData_windowEvaluatesOnlyItsMonths() throws Exception {
+            List<LoanForecastData> allLater = service.processCsvFileFromPath(input.toString(), "2025-02");
+
+            // Counts the months of every curve the service asks for
+            long[] months = new long[1];
+            SimpleForecastAlgorithm counting = new SimpleForecastAlgorithm() {
+                @Override
+                public void calculateForecastCurve(long outstandingBalanceCents, long undisbursedAmountCents,
+                                                   double percentOfCompletion, LocalDate projectStartDate,
+                                                   LocalDate firstForecastDate, LocalDate extendedDate, long[] outCents, int count) {
+                    months[0] += count;
+                    super.calculateForecastCurve(outstandingBalanceCents, undisbursedAmountCents, percentOfCompletion,
+                            projectStartDate, firstForecastDate, extendedDate, outCents, count);
+                }
+            };
+            CsvProcessingService countingService = new CsvProcessingService(new LoanProcessingMetrics(new SimpleMeterRegistry()),
+                    new AlgorithmFactory(counting));
+
+            // From the CSV
+            assertWindowed(all.stream().map(f -> inWindow(f, 3, 9)).toList(),
+                    countingService.loadForecastData(input.toString(), "2025-01", null, null, window));
+            assertTrue(months[0] > 0 && months[0] <= 6 * 250, "months evaluated: " + months[0]);
+            // From a columnar cache whose stored forecasts start in another month
+            writeColumnarCache(input);
+            months[0] = 0;
+            assertWindowed(allLater.stream().map(f -> inWindow(f, 2, 8)).toList(),
+                    countingService.loadForecastData(input.toString(), "2025-02", null, null, window));
+            assertTrue(months[0] > 0 && months[0] <= 6 * 250, "months evaluated: " + months[0]);
+
+            // The whole forecast evaluates many times more
+            months[0] = 0;
+            countingService.loadForecastData(input.toString(), "2025-02", null, null, null);
+            assertTrue(months[0] > 6 * 250, "months evaluated: " + months[0]);
+        }
+
+        @Test
+        void testLoadForecastData_windowsCutFromCachedWholeForecast() throws Exception {
+            // Without the whole forecast in the cache, each window is forecast and cached on its own
+            List<LoanForecastData> windowed = service.loadForecastData(input.toString(), "2025-01", null, "digest-1", window);
+            assertWindowed(all.stream().map(f -> inWindow(f, 3, 9)).toList(), windowed);
+            assertCacheLookups(0, 1);
+            assertSame(windowed, service.loadForecastData(input.toString(), "2025-01", null, "digest-1", window));
+            assertCacheLookups(1, 1);
+            assertEquals(1, service.getForecastCache().size());
+
+            // Once the whole forecast is cached, a query without a window gets it as it is and windows are cut from it
+            List<LoanForecastData> whole = service.loadForecastData(input.toString(), "2025-01", null, "digest-1");
+            assertEquals(all, whole);
+            assertSame(whole, service.loadForecastData(input.toString(), "2025-01", null, "digest-1", null));
+            assertCacheLookups(2, 2);
+            assertWindowed(all.stream().map(f -> inWindow(f, 0, 2)).toList(), service.loadForecastData(input.toString(),
+                    "2025-01", null, "digest-1", MonthWindow.parse(null, "2025-02")));
+            assertCacheLookups(3, 2);
+            // A window entry counts its loans against the same bound as a whole forecast
+            assertEquals(2, service.getForecastCache().size());
+            assertEquals(500, service.getForecastCache().getCachedLoans());
+        }
+
+        @Test
+        void testLoadForecastData_windowOpenEnds() throws Exception {
+            assertWindowed(all.stream().map(f -> inWindow(f, 0, 2)).toList(),
+                    service.loadForecastData(input.toString(), "2025-01", null, null, MonthWindow.parse(null, "2025-02")));
+            // A start day that plusMonths clamps
+            List<LoanForecastData> endOfMonth = service.processCsvFileFromPath(input.toString(), "2025-01-31");
+            assertWindowed(endOfMonth.stream().map(f -> inWindow(f, 2, Integer.MAX_VALUE)).toList(),
+                    service.loadForecastData(input.toString(), "2025-01-31", null, null, MonthWindow.parse("2025-03", null)));
+        }
+
+        @Test
+        void testLoadForecastData_windowBeforeForecastHasNoMonths() throws Exception {
+            assertTrue(service.loadForecastData(input.toString(), "2025-01", null, null, MonthWindow.parse("2024-01", "2024-06"))
+                    .stream().allMatch(f -> f.getForecastData().isEmpty() && f.getWindowForecastedAmount().signum() == 0));
+            // Without a window there is no window sum
+            assertTrue(service.loadForecastData(input.toString(), "2025-01", null, null).stream()
+                    .allMatch(f -> f.getWindowForecastedAmount() == null));
+        }
+
+        @Test
+        void testForecastSelectedLoans_window() throws Exception {
+            writeColumnarCache(input);
+
+            assertWindowed(List.of(inWindow(all.get(7), 3, 9), inWindow(all.get(200), 3, 9)), service.forecastSelectedLoans(
+                    input.toString(), "2025-01", null, List.of("L7", "L200"), window));
+        }
+
+        @Test
+        void testPageForecastData_window() throws Exception {
+            List<LoanForecastData> expected = all.stream().map(f -> inWindow(f, 3, 9))
+                    .sorted(java.util.Comparator.comparing(LoanForecastData::getLoanNumber)).toList();
+            writeColumnarCache(input);
+
+            ForecastPageResponse page = service.pageForecastData(input.toString(), "2025-01", null,
+                    ForecastPageRequest.builder().limit(250).fromMonth("2025-04").toMonth("2025-09").build());
+            assertWindowed(expected, page.getLoans());
+        }
+
+        @Test
+        void testPageForecastData_windowSortedByWholeTotalAcrossPages() throws Exception {
+            List<LoanForecastData> expected = all.stream().map(f -> inWindow(f, 3, 9))
+                    .sorted(java.util.Comparator.comparing(LoanForecastData::getLoanNumber)).toList();
+            writeColumnarCache(input);
+
+            ForecastPageRequest byTotal = ForecastPageRequest.builder().sort("totalForecastedAmount").direction("desc")
+                    .limit(40).fromMonth("2025-04").toMonth("2025-09").build();
+            List<LoanForecastData> paged = new ArrayList<>();
+            do {
+                ForecastPageResponse next = service.pageForecastData(input.toString(), "2025-01", null, byTotal);
+                paged.addAll(next.getLoans());
+                byTotal.setCursor(next.getNextCursor());
+            } while (byTotal.getCursor() != null);
+            assertEquals(250, paged.size());
+            for (int i = 1; i < paged.size(); i++) {
+                assertTrue(paged.get(i - 1).getTotalForecastedAmount().compareTo(paged.get(i).getTotalForecastedAmount()) >= 0);
+            }
+            assertWindowed(expected, paged.stream().sorted(java.util.Comparator.comparing(LoanForecastData::getLoanNumber)).toList());
+        }
+
+        @Test
+        void testPageForecastData_cursorOnlyContinuesItsWindow() throws Exception {
+            writeColumnarCache(input);
+
+            String cursor = service.pageForecastData(input.toString(), "2025-01", null, ForecastPageRequest.builder()
+                    .sort("totalForecastedAmount").limit(40).fromMonth("2025-04").toMonth("2025-09").build()).getNextCursor();
+            assertThrows(IllegalArgumentException.class, () -> service.pageForecastData(input.toString(), "2025-01", null,
+                    ForecastPageRequest.builder().sort("totalForecastedAmount").limit(40).cursor(cursor)
+                            .fromMonth("2025-05").toMonth("2025-09").build()));
+        }
+
+        @Test
+        void testExportForecastCsv_windowColumns() throws Exception {
+            Path exported = tempDir.resolve("window.csv");
+            service.exportForecastCsv(input.toString(), "2025-01", null, null, window, exported);
+            String header = Files.readAllLines(exported).get(0);
+            assertTrue(header.endsWith("\"Apr-25\",\"May-25\",\"Jun-25\",\"Jul-25\",\"Aug-25\",\"Sep-25\""), header);
+        }
+    }
+
+    @Test
+    void testMonthWindow_parse() {
+        assertNull(MonthWindow.parse(" ", null));
+        assertEquals("2025-04..", MonthWindow.parse("2025-04-15", null).toString());
+        assertThrows(IllegalArgumentException.class, () -> MonthWindow.parse("2025-09", "2025-04"));
+        assertThrows(IllegalArgumentException.class, () -> MonthWindow.parse("April", null));
+    }
+
+    /**
+     * Write the columnar cache of an upload with its forecasts from 2025-01, and its loan index
+     */
+    private void writeColumnarCache(Path input) throws IOException {
+        try (LoanColumnarWriter columnarWriter = service.openColumnarWriter(input)) {
+            service.processCsvStreaming(input, "2025-01", columnarWriter);
+            columnarWriter.setForecastAlgorithm("simple", algorithmFactory.getActiveAlgorithm().getAlgorithmVersion());
+            columnarWriter.finish();
+        }
+        assertNotNull(service.buildLoanIndex(input));
+    }
+
+    /**
+     * An upload of count valid loans L0, L1, ... with random amounts, completions and Extended Dates from 2024 to 2028
+     */
+    private static String randomLoansCsv(long seed, int count) {
+        return LOANS_HEADER + String.join("", randomLoanRows(seed, count));
+    }
+
+    /**
+     * The rows of {@link #randomLoansCsv}, each ending with its % of Completion and a newline
+     */
+    private static List<String> randomLoanRows(long seed, int count) {
+        java.util.Random random = new java.util.Random(seed);
+        List<String> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add("L" + i + "," + CUSTOMERS[random.nextInt(CUSTOMERS.length)] + "," + random.nextInt(50_000_000)
+                    + ",6/30/25," + (1 + random.nextInt(12)) + "/" + (1 + random.nextInt(28)) + "/" + (24 + random.nextInt(5))
+                    + "," + random.nextInt(10_000_000) + "." + random.nextInt(10) + random.nextInt(10)
+                    + "," + random.nextInt(40_000_000) + ".5,20," + random.nextInt(101) + "\n");
+        }
+        return rows;
+    }
+
+    /**
+     * A row of {@link #randomLoanRows} with another % of Completion
+     */
+    private static String withCompletion(String row, String completion) {
+        return row.substring(0, row.lastIndexOf(',') + 1) + completion + "\n";
+    }
+
+    private static int completionOf(String row) {
+        return Integer.parseInt(row.substring(row.lastIndexOf(',') + 1).trim());
+    }
+
+    /**
+     * A forecast with only its months [from, to), as a windowed forecast returns it
+     */
+    private static LoanForecastData inWindow(LoanForecastData forecast, int from, int to) {
+        ForecastSeries series = forecast.getForecastData();
+        int first = Math.min(from, series.size());
+        long[] cents = new long[Math.min(to, series.size()) - first];
+        long total = 0;
+        for (int i = 0; i < cents.length; i++) {
+            cents[i] = series.getCents(first + i);
+            total += cents[i];
+        }
+        return LoanForecastData.builder()
+                .loanNumber(forecast.getLoanNumber())
+                .forecastData(new ForecastSeries(series.getStartMonth().plusMonths(first), cents))
+                .totalForecastedAmount(forecast.getTotalForecastedAmount())
+                .windowForecastedAmount(com.bankplus.loan_forecast.model.LoanRecord.toDecimal(total))
+                .forecastMonths(forecast.getForecastMonths())
+                .build();
+    }
+
+    private static void assertWindowed(List<LoanForecastData> expected, List<LoanForecastData> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getLoanNumber(), actual.get(i).getLoanNumber());
+            assertEquals(expected.get(i).getForecastData(), actual.get(i).getForecastData(), expected.get(i).getLoanNumber());
+            assertEquals(expected.get(i).getTotalForecastedAmount(), actual.get(i).getTotalForecastedAmount());
+            assertEquals(expected.get(i).getWindowForecastedAmount(), actual.get(i).getWindowForecastedAmount());
+            assertEquals(expected.get(i).getForecastMonths(), actual.get(i).getForecastMonths());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.bankplus.loan_forecast.service;
+
+import com.bankplus.loan_forecast.dto.LoanForecastData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForecastResultCacheTest {
+
+    private SimpleMeterRegistry registry;
+    private ForecastResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        cache = new ForecastResultCache(10, new LoanProcessingMetrics(registry));
+    }
+
+    private static List<LoanForecastData> forecasts(int loans) {
+        List<LoanForecastData> forecasts = new ArrayList<>();
+        for (int i = 0; i < loans; i++) {
+            forecasts.add(LoanForecastData.builder().loanNumber("L" + i).build());
+        }
+        return forecasts;
+    }
+
+    private double count(String meter) {
+        return registry.get(meter).counter().count();
+    }
+
+    @Test
+    void testKeyCoversEveryField() {
+        String key = ForecastResultCache.key("abc", "2025-01-01", "simple", "1");
+        assertEquals(key, ForecastResultCache.key("abc", "2025-01-01", "simple", "1"));
+        assertNotEquals(key, ForecastResultCache.key("abd", "2025-01-01", "simple", "1"));
+        assertNotEquals(key, ForecastResultCache.key("abc", "2025-02-01", "simple", "1"));
+        assertNotEquals(key, ForecastResultCache.key("abc", "2025-01-01", "simd", "1"));
+        assertNotEquals(key, ForecastResultCache.key("abc", "2025-01-01", "simple", "1-table4096"));
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedByLoans() {
+        cache.put("a", forecasts(4));
+        cache.put("b", forecasts(4));
+        assertNull(cache.get("c"));
+        assertNotNull(cache.get("a"));
+        // 12 loans: b is the least recently used
+        cache.put("c", forecasts(4));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("c"));
+        assertEquals(8, cache.getCachedLoans());
+        assertEquals(3, count("forecast.cache.hits"));
+        assertEquals(2, count("forecast.cache.misses"));
+        assertEquals(1, count("forecast.cache.evictions"));
+
+        // Too large for the cache: returned but not kept
+        assertEquals(11, cache.put("d", forecasts(11)).size());
+        assertNull(cache.get("d"));
+        assertEquals(2, cache.size());
+
+        cache.setMaxLoans(4);
+        assertEquals(1, cache.size());
+        assertNotNull(cache.get("c"));
+    }
+
+    @Test
+    void testPeekCountsNoHitOrMiss() {
+        cache.put("a", forecasts(2));
+        assertNotNull(cache.peek("a"));
+        assertNull(cache.peek("b"));
+        assertEquals(0, count("forecast.cache.hits"));
+        assertEquals(0, count("forecast.cache.misses"));
+    }
+}
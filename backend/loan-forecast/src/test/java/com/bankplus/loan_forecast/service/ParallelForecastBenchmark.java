@@ -0,0 +1,82 @@
+package com.bankplus.loan_forecast.service;
+
+import com.bankplus.loan_forecast.dto.LoanForecastData;
+import com.bankplus.loan_forecast.model.CsvLoanData;
+import com.bankplus.loan_forecast.service.algorithm.AlgorithmFactory;
+import com.bankplus.loan_forecast.service.algorithm.SimpleForecastAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Throughput of the parallel forecast stage from 1 thread up to the available processors.
+ * Not part of the regular test run (surefire only picks up *Test classes); run it on the target hardware with
+ * mvn test -Dtest=ParallelForecastBenchmark -Dbenchmark.loans=200000
+ */
+class ParallelForecastBenchmark {
+
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    @Test
+    void benchmarkScaling() {
+        int loans = Integer.getInteger("benchmark.loans", 200_000);
+        List<CsvLoanData> rows = generateRows(loans);
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        double singleThreadRate = 0;
+        int expectedSize = -1;
+        for (int threads = 1; threads <= processors; threads = threads < processors ? Math.min(threads * 2, processors) : threads + 1) {
+            CsvProcessingService service = new CsvProcessingService(new LoanProcessingMetrics(new SimpleMeterRegistry()),
+                    new AlgorithmFactory(new SimpleForecastAlgorithm()));
+            service.setForecastParallelThreshold(threads == 1 ? 0 : 1);
+            service.setForecastParallelism(threads);
+            try {
+                for (int round = 0; round < WARMUP_ROUNDS; round++) {
+                    service.convertToLoanForecastData(rows, "2025-01");
+                }
+                long start = System.nanoTime();
+                for (int round = 0; round < MEASURED_ROUNDS; round++) {
+                    List<LoanForecastData> result = service.convertToLoanForecastData(rows, "2025-01");
+                    if (expectedSize < 0) {
+                        expectedSize = result.size();
+                    }
+                    assertEquals(expectedSize, result.size());
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                double rate = (double) loans * MEASURED_ROUNDS / seconds;
+                if (threads == 1) {
+                    singleThreadRate = rate;
+                }
+                System.out.printf("threads=%2d  %,12.0f loans/s  speedup %.2fx%n", threads, rate, rate / singleThreadRate);
+            } finally {
+                service.shutdownParsePool();
+            }
+        }
+    }
+
+    private static List<CsvLoanData> generateRows(int count) {
+        Random random = new Random(42);
+        List<CsvLoanData> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            CsvLoanData row = new CsvLoanData();
+            row.setLoanNumber("L" + i);
+            row.setCustomerName("Customer " + (i % 500));
+            row.setLoanAmount(String.valueOf(100_000 + random.nextInt(5_000_000)));
+            row.setMaturityDate("6/30/25");
+            row.setExtendedDate((1 + random.nextInt(12)) + "/15/" + (25 + random.nextInt(4)));
+            row.setOutstandingBalance(String.valueOf(random.nextInt(2_000_000)));
+            row.setUndisbursedAmount(String.valueOf(random.nextInt(3_000_000)));
+            row.setPercentOfLoanDrawn(random.nextInt(100) + "%");
+            row.setPercentOfCompletion(random.nextInt(100) + "%");
+            row.setRowNumber(i + 2);
+            rows.add(row);
+        }
+        return rows;
+    }
+}
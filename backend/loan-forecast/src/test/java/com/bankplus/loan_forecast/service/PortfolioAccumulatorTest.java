@@ -0,0 +1,84 @@
+package com.bankplus.loan_forecast.service;
+
+import com.bankplus.loan_forecast.dto.ForecastSeries;
+import com.bankplus.loan_forecast.dto.PortfolioSummary;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PortfolioAccumulatorTest {
+
+    private static final YearMonth START_MONTH = YearMonth.of(2025, 1);
+
+    private static ForecastSeries series(long... monthlyCents) {
+        return new ForecastSeries(START_MONTH, monthlyCents);
+    }
+
+    @Test
+    void testFoldsTotalsMinMaxAndBuckets() {
+        PortfolioAccumulator portfolio = new PortfolioAccumulator(START_MONTH);
+        portfolio.add(100000L, 30000L, 70000L, 5, series(50000L, 40000L, 30000L));
+        portfolio.add(200000L, 150000L, 50000L, 100, series(20000L));
+        portfolio.add(300000L, 0L, 300000L, 95, series());
+
+        PortfolioSummary summary = portfolio.toSummary();
+        assertEquals(3, summary.getLoanCount());
+        assertEquals(new BigDecimal("6000.00"), summary.getTotalLoanAmount());
+        assertEquals(new BigDecimal("1800.00"), summary.getTotalOutstandingBalance());
+        assertEquals(new BigDecimal("0.00"), summary.getMinOutstandingBalance());
+        assertEquals(new BigDecimal("3000.00"), summary.getMaxUndisbursedAmount());
+        assertEquals(series(70000L, 40000L, 30000L), summary.getMonthlyTotals());
+        assertEquals(series(20000L, 40000L, 30000L), summary.getMonthlyMin());
+        assertEquals(series(50000L, 40000L, 30000L), summary.getMonthlyMax());
+        assertEquals(Map.of("Jan-25", 2, "Feb-25", 1, "Mar-25", 1), summary.getMonthlyLoanCounts());
+
+        assertEquals(10, summary.getCompletionBuckets().size());
+        PortfolioSummary.CompletionBucket low = summary.getCompletionBuckets().get(0);
+        assertEquals("0-9", low.getRange());
+        assertEquals(1, low.getLoanCount());
+        assertEquals(new BigDecimal("1200.00"), low.getTotalForecastedAmount());
+        // 100% falls in the top bucket
+        PortfolioSummary.CompletionBucket high = summary.getCompletionBuckets().get(9);
+        assertEquals("90-100", high.getRange());
+        assertEquals(2, high.getLoanCount());
+        assertEquals(new BigDecimal("3500.00"), high.getUndisbursedAmount());
+    }
+
+    @Test
+    void testMergeMatchesSingleFold() {
+        java.util.Random random = new java.util.Random(3);
+        PortfolioAccumulator whole = new PortfolioAccumulator(START_MONTH);
+        PortfolioAccumulator[] parts = {new PortfolioAccumulator(START_MONTH), new PortfolioAccumulator(START_MONTH),
+                new PortfolioAccumulator(START_MONTH)};
+        for (int i = 0; i < 200; i++) {
+            long[] cents = new long[random.nextInt(30)];
+            for (int m = 0; m < cents.length; m++) {
+                cents[m] = random.nextInt(1_000_000);
+            }
+            long outstanding = random.nextInt(5_000_000);
+            long undisbursed = random.nextInt(5_000_000);
+            int completion = random.nextInt(101);
+            whole.add(outstanding + undisbursed, outstanding, undisbursed, completion, series(cents));
+            parts[i % parts.length].add(outstanding + undisbursed, outstanding, undisbursed, completion, series(cents));
+        }
+
+        PortfolioAccumulator merged = new PortfolioAccumulator(START_MONTH);
+        merged.merge(parts[2]);
+        merged.merge(new PortfolioAccumulator(START_MONTH));
+        merged.merge(parts[0]);
+        merged.merge(parts[1]);
+        assertEquals(whole.toSummary(), merged.toSummary());
+    }
+
+    @Test
+    void testEmptyPortfolio() {
+        PortfolioSummary summary = new PortfolioAccumulator(START_MONTH).toSummary();
+        assertEquals(0, summary.getLoanCount());
+        assertNull(summary.getMinOutstandingBalance());
+        assertTrue(summary.getMonthlyTotals().isEmpty());
+    }
+}
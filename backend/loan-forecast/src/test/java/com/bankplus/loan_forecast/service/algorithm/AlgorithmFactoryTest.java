@@ -0,0 +1,58 @@
+package com.bankplus.loan_forecast.service.algorithm;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlgorithmFactoryTest {
+
+    private final SimpleForecastAlgorithm simpleAlgorithm = new SimpleForecastAlgorithm();
+    private final AlgorithmFactory factory = new AlgorithmFactory(simpleAlgorithm);
+
+    @Test
+    void testActiveAlgorithmDefaultsToSimple() {
+        factory.initActiveAlgorithm();
+        assertSame(simpleAlgorithm, factory.getActiveAlgorithm());
+        assertEquals("1", factory.getActiveAlgorithm().getAlgorithmVersion());
+    }
+
+    @Test
+    void testSwitchAlgorithm() {
+        assertSame(simpleAlgorithm, factory.switchAlgorithm("simple"));
+        assertSame(simpleAlgorithm, factory.getActiveAlgorithm());
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> factory.switchAlgorithm("missing"));
+        assertTrue(e.getMessage().contains("missing"));
+        assertThrows(IllegalArgumentException.class, () -> factory.switchAlgorithm(null));
+        // A failed switch keeps the active algorithm
+        assertSame(simpleAlgorithm, factory.getActiveAlgorithm());
+    }
+
+    @Test
+    void testResolveRecordedAlgorithm() {
+        assertSame(simpleAlgorithm, factory.resolve("simple"));
+        // Batches recorded before the algorithm was tracked, or with one no longer available, use the active one
+        assertSame(factory.getActiveAlgorithm(), factory.resolve(null));
+        assertSame(factory.getActiveAlgorithm(), factory.resolve("retired"));
+    }
+
+    @Test
+    void testSwitchOnlyThroughJmxEndpoint() {
+        ForecastAlgorithmEndpoint webEndpoint = new ForecastAlgorithmEndpoint(factory);
+        // The web endpoint is not authenticated, so it has no operation that changes state
+        assertTrue(Arrays.stream(ForecastAlgorithmEndpoint.class.getMethods())
+                .noneMatch(method -> method.isAnnotationPresent(WriteOperation.class)));
+        assertEquals("simple", webEndpoint.activeAlgorithm().get("algorithm"));
+
+        ForecastAlgorithmSwitchEndpoint switchEndpoint = new ForecastAlgorithmSwitchEndpoint(factory, webEndpoint);
+        Map<String, Object> result = switchEndpoint.switchAlgorithm("simple");
+        assertEquals("simple", result.get("algorithm"));
+        assertEquals("simple", result.get("previous"));
+        assertThrows(InvalidEndpointRequestException.class, () -> switchEndpoint.switchAlgorithm("missing"));
+    }
+}
@@ -0,0 +1,65 @@
+package com.bankplus.loan_forecast.service.algorithm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CentsArithmeticTest {
+
+    @Test
+    void testMatchesBigDecimalWithinBound() {
+        Random random = new Random(11);
+        for (int i = 0; i < 200_000; i++) {
+            long base = (long) (random.nextDouble() * CentsArithmetic.MAX_FAST_AMOUNT_CENTS);
+            // Small amounts as well as amounts close to the bound
+            long amount = i % 2 == 0 ? random.nextInt(10_000_000) : (long) (random.nextDouble() * CentsArithmetic.MAX_FAST_AMOUNT_CENTS);
+            double fraction = random.nextDouble();
+            assertEquals(CentsArithmetic.addFractionExact(base, amount, fraction),
+                    CentsArithmetic.addFractionHalfUp(base, amount, fraction), base + " + " + amount + " * " + fraction);
+        }
+    }
+
+    @Test
+    void testHalfCentRoundsUp() {
+        assertEquals(101, CentsArithmetic.addFractionHalfUp(100, 1, 0.5));
+        assertEquals(2, CentsArithmetic.addFractionHalfUp(0, 3, 0.5));
+        assertEquals(1, CentsArithmetic.addFractionHalfUp(0, 200, 0.0025));
+        assertEquals(0, CentsArithmetic.addFractionHalfUp(0, 200, 0.0024));
+        // 5 * 0.1 is a tie in decimal, whatever the binary value of 0.1
+        assertEquals(1, CentsArithmetic.addFractionHalfUp(0, 5, 0.1));
+    }
+
+    @Test
+    void testNearTiesMatchBigDecimal() {
+        Random random = new Random(3);
+        for (int i = 0; i < 100_000; i++) {
+            long amount = 1 + random.nextInt(1_000_000);
+            // A fraction that puts amount * fraction at a half cent, give or take a few ulps
+            double fraction = (random.nextInt((int) amount) + 0.5) / amount;
+            fraction = Math.nextAfter(fraction, random.nextBoolean() ? 1 : 0);
+            assertEquals(CentsArithmetic.addFractionExact(7, amount, fraction),
+                    CentsArithmetic.addFractionHalfUp(7, amount, fraction), amount + " * " + fraction);
+        }
+    }
+
+    @Test
+    void testOutsideBoundFallsBackToBigDecimal() {
+        Random random = new Random(5);
+        for (int i = 0; i < 10_000; i++) {
+            long amount = CentsArithmetic.MAX_FAST_AMOUNT_CENTS + (long) (random.nextDouble() * 1e16);
+            double fraction = random.nextDouble();
+            assertEquals(CentsArithmetic.addFractionExact(0, amount, fraction), CentsArithmetic.addFractionHalfUp(0, amount, fraction));
+        }
+        assertEquals(CentsArithmetic.addFractionExact(-100, 1, 0.5), CentsArithmetic.addFractionHalfUp(-100, 1, 0.5));
+        assertEquals(CentsArithmetic.addFractionExact(0, 100, 1.5), CentsArithmetic.addFractionHalfUp(0, 100, 1.5));
+    }
+
+    @Test
+    void testParseNumericMode() {
+        assertEquals(NumericMode.CENTS, NumericMode.parse(" Cents "));
+        assertEquals(NumericMode.DECIMAL, NumericMode.parse("decimal"));
+        assertThrows(IllegalArgumentException.class, () -> NumericMode.parse("float"));
+    }
+}
@@ -0,0 +1,73 @@
+package com.bankplus.loan_forecast.service.algorithm;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Forecast curve throughput of the decimal and cents numeric modes, each with the exact and the tabled S-curve,
+ * on the same loans.
+ * Not part of the regular test run (surefire only picks up *Test classes); run it on the target hardware with
+ * mvn test -Dtest=NumericModeBenchmark -Dbenchmark.loans=200000
+ */
+class NumericModeBenchmark {
+
+    private static final int MONTHS = 36;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    @Test
+    void benchmarkNumericModes() {
+        int loans = Integer.getInteger("benchmark.loans", 200_000);
+        Random random = new Random(42);
+        long[] outstanding = new long[loans];
+        long[] undisbursed = new long[loans];
+        double[] completion = new double[loans];
+        LocalDate[] extendedDates = new LocalDate[loans];
+        for (int i = 0; i < loans; i++) {
+            outstanding[i] = random.nextInt(200_000_000);
+            undisbursed[i] = random.nextInt(300_000_000);
+            completion[i] = random.nextInt(100) / 100.0;
+            extendedDates[i] = LocalDate.of(2025 + random.nextInt(3), 1 + random.nextInt(12), 15);
+        }
+        LocalDate firstForecastDate = LocalDate.of(2025, 1, 1);
+        LocalDate projectStartDate = LocalDate.of(2024, 1, 1);
+
+        double decimalRate = 0;
+        long decimalChecksum = 0;
+        for (NumericMode mode : NumericMode.values()) {
+            for (String sigmoid : new String[] {"exact", "table"}) {
+                SimpleForecastAlgorithm algorithm = new SimpleForecastAlgorithm();
+                algorithm.setNumericMode(mode.name());
+                algorithm.setSigmoid(sigmoid);
+                long[] out = new long[MONTHS];
+                long checksum = 0;
+                long start = 0;
+                for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+                    if (round == WARMUP_ROUNDS) {
+                        start = System.nanoTime();
+                        checksum = 0;
+                    }
+                    for (int i = 0; i < loans; i++) {
+                        algorithm.calculateForecastCurve(outstanding[i], undisbursed[i], completion[i],
+                                projectStartDate, firstForecastDate, extendedDates[i], out, MONTHS);
+                        checksum += out[MONTHS - 1];
+                    }
+                }
+                double rate = (double) loans * MEASURED_ROUNDS / ((System.nanoTime() - start) / 1e9);
+                if (decimalRate == 0) {
+                    decimalRate = rate;
+                    decimalChecksum = checksum;
+                }
+                if (sigmoid.equals("exact")) {
+                    // Both numeric modes write the same cents
+                    assertEquals(decimalChecksum, checksum);
+                }
+                System.out.printf("%-8s %-6s %,12.0f loans/s  %.2fx%n", mode, sigmoid, rate, rate / decimalRate);
+            }
+        }
+    }
+}
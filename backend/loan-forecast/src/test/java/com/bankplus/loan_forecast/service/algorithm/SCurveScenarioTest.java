@@ -0,0 +1,44 @@
+package com.bankplus.loan_forecast.service.algorithm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SCurveScenarioTest {
+
+    @Test
+    void testDefaultsMatchSimpleAlgorithm() {
+        SCurveScenario scenario = SCurveScenario.defaults();
+        Random random = new Random(59);
+        for (int i = 0; i < 100_000; i++) {
+            double percentOfCompletion = random.nextInt(101) / 100.0;
+            long daysToExtended = random.nextInt(2000) - 10;
+            long daysSinceStart = random.nextInt(3000) - 500;
+            double timeProgress = daysToExtended > 0 ? (double) daysSinceStart / daysToExtended : 0;
+            assertEquals(SimpleForecastAlgorithm.sCurve(null, percentOfCompletion, daysSinceStart, daysToExtended),
+                    scenario.drawnFraction(percentOfCompletion, timeProgress));
+        }
+    }
+
+    @Test
+    void testParametersShapeTheCurve() {
+        SCurveScenario base = SCurveScenario.defaults();
+        // Half drawn at the midpoint
+        assertEquals(0.5, new SCurveScenario(null, 0.3, null, null).drawnFraction(0.3, 0), 1e-15);
+        assertTrue(new SCurveScenario(null, null, 1.5, null).drawnFraction(0.2, 0.4) > base.drawnFraction(0.2, 0.4));
+        assertTrue(new SCurveScenario(20.0, null, null, null).drawnFraction(0.2, 0.1) < base.drawnFraction(0.2, 0.1));
+        assertEquals(base.drawnFraction(0.2, 0.4) * 0.8, new SCurveScenario(null, null, null, 0.8).drawnFraction(0.2, 0.4));
+        assertEquals(0.0, new SCurveScenario(null, null, null, 0.0).drawnFraction(0.9, 1));
+    }
+
+    @Test
+    void testRejectsOutOfRangeParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new SCurveScenario(0.0, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> new SCurveScenario(Double.NaN, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> new SCurveScenario(null, 1.5, null, null));
+        assertThrows(IllegalArgumentException.class, () -> new SCurveScenario(null, null, -0.1, null));
+        assertThrows(IllegalArgumentException.class, () -> new SCurveScenario(null, null, null, 1.1));
+    }
+}
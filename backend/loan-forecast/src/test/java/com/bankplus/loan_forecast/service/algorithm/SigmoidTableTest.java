@@ -0,0 +1,90 @@
+package com.bankplus.loan_forecast.service.algorithm;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SigmoidTableTest {
+
+    // Rounding in the table evaluation and in Math.exp, far below any bound checked here
+    private static final double FLOATING_POINT_SLACK = 1e-15;
+
+    @Test
+    void testErrorWithinProvenBound() {
+        Random random = new Random(29);
+        for (int size : new int[] {16, 64, 1024, SigmoidTable.DEFAULT_SIZE, 10_000}) {
+            SigmoidTable table = new SigmoidTable(size);
+            double worst = 0;
+            for (int i = 0; i < 200_000; i++) {
+                double x;
+                switch (i % 4) {
+                    case 0 -> x = random.nextDouble();
+                    // On and next to the table points
+                    case 1 -> x = (double) random.nextInt(size + 1) / size;
+                    case 2 -> x = Math.min(1, Math.max(0, Math.nextAfter((double) random.nextInt(size + 1) / size, random.nextBoolean() ? 1 : 0)));
+                    // Mid-interval, where the interpolation error peaks
+                    default -> x = (random.nextInt(size) + 0.5) / size;
+                }
+                double error = Math.abs(table.valueAt(x) - SigmoidTable.exact(x));
+                worst = Math.max(worst, error);
+                assertTrue(error <= table.maxError() + FLOATING_POINT_SLACK, "size " + size + " x " + x + " error " + error);
+            }
+            assertTrue(worst > 0);
+        }
+        assertEquals(SigmoidTable.exact(0), new SigmoidTable(64).valueAt(0), 0);
+        assertEquals(SigmoidTable.exact(1), new SigmoidTable(64).valueAt(1), 0);
+    }
+
+    @Test
+    void testDefaultTableErrorBelowHalfCentOnLargestAmounts() {
+        double worstCents = (new SigmoidTable(SigmoidTable.DEFAULT_SIZE).maxError() + FLOATING_POINT_SLACK) * CentsArithmetic.MAX_FAST_AMOUNT_CENTS;
+        assertTrue(worstCents < 0.05, "worst case " + worstCents + " cent");
+    }
+
+    @Test
+    void testTableCurveWithinOneCentOfExactCurve() {
+        SimpleForecastAlgorithm exact = new SimpleForecastAlgorithm();
+        SimpleForecastAlgorithm tabled = new SimpleForecastAlgorithm();
+        tabled.setSigmoid("table");
+        assertEquals("1", exact.getAlgorithmVersion());
+        assertNotEquals(exact.getAlgorithmVersion(), tabled.getAlgorithmVersion());
+
+        Random random = new Random(31);
+        int differingCells = 0;
+        for (int i = 0; i < 5000; i++) {
+            long outstanding = (long) (random.nextDouble() * 1_000_000_000L);
+            long undisbursed = (long) (random.nextDouble() * CentsArithmetic.MAX_FAST_AMOUNT_CENTS);
+            double percentOfCompletion = random.nextInt(101) / 100.0;
+            LocalDate firstForecastDate = LocalDate.of(2024, 1 + random.nextInt(12), 1);
+            LocalDate projectStartDate = firstForecastDate.minusDays(random.nextInt(2000));
+            LocalDate extendedDate = firstForecastDate.plusDays(random.nextInt(1500) - 100);
+            int months = random.nextInt(60);
+
+            long[] expected = new long[months];
+            long[] actual = new long[months];
+            exact.calculateForecastCurve(outstanding, undisbursed, percentOfCompletion,
+                    projectStartDate, firstForecastDate, extendedDate, expected, months);
+            tabled.calculateForecastCurve(outstanding, undisbursed, percentOfCompletion,
+                    projectStartDate, firstForecastDate, extendedDate, actual, months);
+            for (int month = 0; month < months; month++) {
+                assertTrue(Math.abs(expected[month] - actual[month]) <= 1);
+                if (expected[month] != actual[month]) {
+                    differingCells++;
+                }
+            }
+        }
+        // A cell only moves when the exact value is within 0.025 cent of a half cent
+        assertTrue(differingCells < 500, differingCells + " cells differ");
+    }
+
+    @Test
+    void testRejectsInvalidConfiguration() {
+        SimpleForecastAlgorithm algorithm = new SimpleForecastAlgorithm();
+        assertThrows(IllegalArgumentException.class, () -> algorithm.setSigmoid("fast"));
+        algorithm.setSigmoid("table");
+        assertThrows(IllegalArgumentException.class, () -> algorithm.setSigmoidTableSize(4));
+    }
+}
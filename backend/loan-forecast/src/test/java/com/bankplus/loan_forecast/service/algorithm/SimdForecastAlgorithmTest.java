@@ -0,0 +1,67 @@
+package com.bankplus.loan_forecast.service.algorithm;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimdForecastAlgorithmTest {
+
+    private final SimpleForecastAlgorithm simple = new SimpleForecastAlgorithm();
+
+    @Test
+    void testUsesVectorKernelWhenModulePresent() {
+        SimdForecastAlgorithm algorithm = new SimdForecastAlgorithm();
+        boolean modulePresent = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+        assertEquals(modulePresent, algorithm.getKernelName().startsWith("vector"), algorithm.getKernelName());
+    }
+
+    @Test
+    void testVectorKernelMatchesSimpleAlgorithm() {
+        assertBatchMatchesSimple(new SimdForecastAlgorithm());
+    }
+
+    @Test
+    void testScalarKernelMatchesSimpleAlgorithm() {
+        assertBatchMatchesSimple(new SimdForecastAlgorithm(new ScalarSCurveKernel()));
+    }
+
+    private void assertBatchMatchesSimple(SimdForecastAlgorithm algorithm) {
+        Random random = new Random(53);
+        for (int batch = 0; batch < 20; batch++) {
+            // Sizes around the vector width and a larger batch
+            int count = batch < 19 ? batch : 3000;
+            long[] outstanding = new long[count];
+            long[] undisbursed = new long[count];
+            double[] percentOfCompletion = new double[count];
+            long[] projectStartDays = new long[count];
+            long[] extendedDays = new long[count];
+            long[][] curves = new long[count][];
+            int[] months = new int[count];
+            LocalDate firstForecastDate = LocalDate.of(2024, 1 + random.nextInt(12), 1);
+            for (int i = 0; i < count; i++) {
+                // Includes amounts beyond the fast bound and extended dates at or before the project start
+                outstanding[i] = i % 97 == 0 ? Long.MAX_VALUE / 1000 : random.nextInt(1_000_000_000);
+                undisbursed[i] = i % 89 == 0 ? CentsArithmetic.MAX_FAST_AMOUNT_CENTS * 10 : (long) (random.nextDouble() * 10_000_000_000L);
+                percentOfCompletion[i] = random.nextInt(101) / 100.0;
+                projectStartDays[i] = firstForecastDate.minusDays(random.nextInt(2000)).toEpochDay();
+                extendedDays[i] = i % 83 == 0 ? projectStartDays[i] : firstForecastDate.plusDays(random.nextInt(1500) - 100).toEpochDay();
+                months[i] = random.nextInt(60);
+                curves[i] = new long[months[i] + 2];
+            }
+
+            algorithm.calculateForecastCurves(outstanding, undisbursed, percentOfCompletion, projectStartDays,
+                    firstForecastDate, extendedDays, curves, months, count);
+
+            for (int i = 0; i < count; i++) {
+                long[] expected = new long[months[i] + 2];
+                simple.calculateForecastCurve(outstanding[i], undisbursed[i], percentOfCompletion[i],
+                        LocalDate.ofEpochDay(projectStartDays[i]), firstForecastDate, LocalDate.ofEpochDay(extendedDays[i]),
+                        expected, months[i]);
+                assertArrayEquals(expected, curves[i], "loan " + i + " of " + count);
+            }
+        }
+    }
+}
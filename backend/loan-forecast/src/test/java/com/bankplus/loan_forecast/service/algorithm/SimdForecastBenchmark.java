@@ -0,0 +1,101 @@
+package com.bankplus.loan_forecast.service.algorithm;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Forecast curve throughput of the simple algorithm one loan at a time against the simd algorithm column-wise,
+ * with the vector and the scalar kernel, in slices of 256 loans as the service forecasts a columnar cache.
+ * Not part of the regular test run (surefire only picks up *Test classes); run it on the target hardware with
+ * mvn test -Dtest=SimdForecastBenchmark -Dbenchmark.loans=200000
+ */
+class SimdForecastBenchmark {
+
+    private static final int SLICE = 256;
+    private static final int MONTHS = 36;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    @Test
+    void benchmarkColumnarKernels() {
+        int loans = Integer.getInteger("benchmark.loans", 200_000);
+        Random random = new Random(42);
+        long[] outstanding = new long[loans];
+        long[] undisbursed = new long[loans];
+        double[] completion = new double[loans];
+        long[] projectStartDays = new long[loans];
+        long[] extendedDays = new long[loans];
+        int[] months = new int[loans];
+        for (int i = 0; i < loans; i++) {
+            outstanding[i] = random.nextInt(200_000_000);
+            undisbursed[i] = random.nextInt(300_000_000);
+            completion[i] = random.nextInt(100) / 100.0;
+            projectStartDays[i] = LocalDate.of(2024, 1, 1).minusDays(random.nextInt(700)).toEpochDay();
+            extendedDays[i] = LocalDate.of(2025 + random.nextInt(3), 1 + random.nextInt(12), 15).toEpochDay();
+            months[i] = MONTHS;
+        }
+        LocalDate firstForecastDate = LocalDate.of(2025, 1, 1);
+
+        SimpleForecastAlgorithm simpleCents = new SimpleForecastAlgorithm();
+        simpleCents.setNumericMode("cents");
+        ForecastAlgorithmInterface[] algorithms = {
+            new SimpleForecastAlgorithm(), simpleCents,
+            new SimdForecastAlgorithm(new ScalarSCurveKernel()), new SimdForecastAlgorithm()
+        };
+        String[] names = {"simple decimal, per loan", "simple cents, per loan", "simd scalar kernel",
+            "simd " + new SimdForecastAlgorithm().getKernelName() + " kernel"};
+
+        double baseRate = 0;
+        long baseChecksum = 0;
+        long[][] curves = new long[SLICE][MONTHS];
+        for (int a = 0; a < algorithms.length; a++) {
+            ForecastAlgorithmInterface algorithm = algorithms[a];
+            long checksum = 0;
+            long start = 0;
+            for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+                if (round == WARMUP_ROUNDS) {
+                    start = System.nanoTime();
+                    checksum = 0;
+                }
+                for (int from = 0; from < loans; from += SLICE) {
+                    int count = Math.min(SLICE, loans - from);
+                    if (algorithm instanceof SimdForecastAlgorithm) {
+                        algorithm.calculateForecastCurves(slice(outstanding, from, count), slice(undisbursed, from, count),
+                                slice(completion, from, count), slice(projectStartDays, from, count), firstForecastDate,
+                                slice(extendedDays, from, count), curves, months, count);
+                    } else {
+                        for (int i = 0; i < count; i++) {
+                            algorithm.calculateForecastCurve(outstanding[from + i], undisbursed[from + i], completion[from + i],
+                                    LocalDate.ofEpochDay(projectStartDays[from + i]), firstForecastDate,
+                                    LocalDate.ofEpochDay(extendedDays[from + i]), curves[i], MONTHS);
+                        }
+                    }
+                    for (int i = 0; i < count; i++) {
+                        checksum += curves[i][MONTHS - 1];
+                    }
+                }
+            }
+            double rate = (double) loans * MEASURED_ROUNDS / ((System.nanoTime() - start) / 1e9);
+            if (a == 0) {
+                baseRate = rate;
+                baseChecksum = checksum;
+            }
+            assertEquals(baseChecksum, checksum);
+            System.out.printf("%-32s %,12.0f loans/s  %.2fx%n", names[a], rate, rate / baseRate);
+        }
+    }
+
+    // The columns of a slice, as the service builds them
+    private static long[] slice(long[] column, int from, int count) {
+        return Arrays.copyOfRange(column, from, from + count);
+    }
+
+    private static double[] slice(double[] column, int from, int count) {
+        return Arrays.copyOfRange(column, from, from + count);
+    }
+}
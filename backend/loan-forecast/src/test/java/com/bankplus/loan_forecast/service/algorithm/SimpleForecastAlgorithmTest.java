@@ -0,0 +1,118 @@
+package com.bankplus.loan_forecast.service.algorithm;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimpleForecastAlgorithmTest {
+
+    private final SimpleForecastAlgorithm algorithm = new SimpleForecastAlgorithm();
+
+    // The interface's default curve, which calls the scalar method once per month
+    private final ForecastAlgorithmInterface scalarOnly = new ForecastAlgorithmInterface() {
+        @Override
+        public BigDecimal calculateForecastOutstandingBalance(BigDecimal outstandingBalance, BigDecimal undisbursedAmount,
+                                                              double percentOfCompletion, LocalDate projectStartDate,
+                                                              LocalDate forecastDate, LocalDate extendedDate) {
+            return algorithm.calculateForecastOutstandingBalance(outstandingBalance, undisbursedAmount,
+                    percentOfCompletion, projectStartDate, forecastDate, extendedDate);
+        }
+
+        @Override
+        public String getAlgorithmName() {
+            return "scalar";
+        }
+
+        @Override
+        public String getAlgorithmDescription() {
+            return "scalar";
+        }
+    };
+
+    @Test
+    void testCurveMatchesScalarMethod() {
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            long outstanding = random.nextInt(100_000_000);
+            long undisbursed = (long) (random.nextDouble() * 10_000_000_000L);
+            double percentOfCompletion = random.nextInt(101) / 100.0;
+            LocalDate firstForecastDate = LocalDate.of(2024, 1 + random.nextInt(12), 1 + random.nextInt(28));
+            LocalDate projectStartDate = firstForecastDate.minusDays(random.nextInt(2000));
+            // Includes extended dates before the project start
+            LocalDate extendedDate = firstForecastDate.plusDays(random.nextInt(1500) - 100);
+            int months = random.nextInt(60);
+
+            long[] expected = new long[months];
+            long[] actual = new long[months];
+            scalarOnly.calculateForecastCurve(outstanding, undisbursed, percentOfCompletion,
+                    projectStartDate, firstForecastDate, extendedDate, expected, months);
+            algorithm.calculateForecastCurve(outstanding, undisbursed, percentOfCompletion,
+                    projectStartDate, firstForecastDate, extendedDate, actual, months);
+            assertArrayEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void testCurveLeavesRemainingMonthsUntouched() {
+        long[] out = {-1, -1, -1, -1};
+        algorithm.calculateForecastCurve(100_00, 900_00, 0.5, LocalDate.of(2024, 1, 1),
+                LocalDate.of(2024, 6, 1), LocalDate.of(2024, 12, 31), out, 2);
+        assertTrue(out[0] > 100_00 && out[1] > out[0]);
+        assertEquals(-1, out[2]);
+        assertEquals(-1, out[3]);
+    }
+
+    @Test
+    void testCentsModeMatchesDecimalMode() {
+        SimpleForecastAlgorithm cents = new SimpleForecastAlgorithm();
+        cents.setNumericMode("cents");
+        Random random = new Random(17);
+        for (int i = 0; i < 5000; i++) {
+            long outstanding = (long) (random.nextDouble() * 10_000_000_000L);
+            long undisbursed = (long) (random.nextDouble() * 10_000_000_000L);
+            double percentOfCompletion = random.nextInt(101) / 100.0;
+            LocalDate firstForecastDate = LocalDate.of(2024, 1 + random.nextInt(12), 1 + random.nextInt(28));
+            LocalDate projectStartDate = firstForecastDate.minusDays(random.nextInt(2000));
+            LocalDate extendedDate = firstForecastDate.plusDays(random.nextInt(1500) - 100);
+            int months = random.nextInt(60);
+
+            long[] expected = new long[months];
+            long[] actual = new long[months];
+            algorithm.calculateForecastCurve(outstanding, undisbursed, percentOfCompletion,
+                    projectStartDate, firstForecastDate, extendedDate, expected, months);
+            cents.calculateForecastCurve(outstanding, undisbursed, percentOfCompletion,
+                    projectStartDate, firstForecastDate, extendedDate, actual, months);
+            assertArrayEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void testTotalMatchesCurveSum() {
+        SimpleForecastAlgorithm table = new SimpleForecastAlgorithm();
+        table.setSigmoid("table");
+        Random random = new Random(23);
+        for (int i = 0; i < 3000; i++) {
+            long outstanding = (long) (random.nextDouble() * 10_000_000_000L);
+            long undisbursed = (long) (random.nextDouble() * 10_000_000_000L);
+            double percentOfCompletion = random.nextInt(101) / 100.0;
+            LocalDate firstForecastDate = LocalDate.of(2024, 1 + random.nextInt(12), 1 + random.nextInt(28));
+            LocalDate projectStartDate = firstForecastDate.minusDays(random.nextInt(2000) - 100);
+            // Includes extended dates before the project start and curves that run months past the extended date
+            LocalDate extendedDate = firstForecastDate.plusDays(random.nextInt(1500) - 100);
+            int months = random.nextInt(72);
+
+            for (ForecastAlgorithmInterface curve : new ForecastAlgorithmInterface[] {algorithm, table, scalarOnly}) {
+                long[] monthCents = new long[months];
+                curve.calculateForecastCurve(outstanding, undisbursed, percentOfCompletion,
+                        projectStartDate, firstForecastDate, extendedDate, monthCents, months);
+                assertEquals(Arrays.stream(monthCents).sum(), curve.calculateForecastTotal(outstanding, undisbursed,
+                        percentOfCompletion, projectStartDate, firstForecastDate, extendedDate, months));
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.bankplus.loan_forecast.service.columnar;
+
+import com.bankplus.loan_forecast.dto.ForecastSeries;
+import com.bankplus.loan_forecast.dto.LoanForecastData;
+import com.bankplus.loan_forecast.model.LoanRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoanColumnarCacheTest {
+
+    private static final YearMonth START_MONTH = YearMonth.of(2025, 1);
+
+    private static LoanForecastData forecast(long... monthlyCents) {
+        return LoanForecastData.builder().forecastData(new ForecastSeries(START_MONTH, monthlyCents)).build();
+    }
+
+    private static LoanRecord loan(String loanNumber, String customerName, long loanAmountCents, int rowNumber) {
+        return new LoanRecord(loanNumber, customerName, loanAmountCents, LocalDate.of(2025, 6, 30), LocalDate.of(2025, 12, 31),
+                40000050L, 60000000L, 0L, 35, rowNumber);
+    }
+
+    @Test
+    void testRoundTrip(@TempDir Path tempDir) throws Exception {
+        Path source = tempDir.resolve("loans.csv");
+        Files.writeString(source, "source");
+        Path cache = LoanColumnarFile.pathFor(source);
+
+        LoanRecord[] loans = {
+            loan("L-1", "Smith, John", 100000000L, 2),
+            loan("L-ü2", null, Long.MAX_VALUE, 3),
+            loan("L-3", "Smith, John", -1235L, 5)
+        };
+        long[][] forecasts = {{90000L, 80000L, 0L}, {}, {-5L}};
+        try (LoanColumnarWriter writer = new LoanColumnarWriter(cache, source)) {
+            for (int i = 0; i < loans.length; i++) {
+                writer.accept(loans[i], forecast(forecasts[i]));
+            }
+            // Rejected loans are not cached
+            writer.accept(loan("L-4", "X", 1L, 6), null);
+            writer.setForecastAlgorithm("simple", "1");
+            assertEquals(cache, writer.finish());
+        }
+
+        try (LoanColumnarReader reader = LoanColumnarReader.open(cache, source)) {
+            assertNotNull(reader);
+            assertEquals(3, reader.getRowCount());
+            assertEquals("L-ü2", reader.loanNumber(1));
+            assertNull(reader.customerName(1));
+            assertEquals("Smith, John", reader.customerName(2));
+            for (int row = 0; row < loans.length; row++) {
+                LoanRecord loan = reader.loan(row);
+                assertEquals(loans[row], loan);
+                assertEquals(loans[row].getRowNumber(), loan.getRowNumber());
+                assertArrayEquals(forecasts[row], reader.forecastCents(row));
+            }
+            assertEquals(START_MONTH, reader.getForecastStartMonth());
+            assertEquals("simple", reader.getForecastAlgorithm());
+            assertEquals("1", reader.getForecastAlgorithmVersion());
+        }
+
+        // A changed source makes the cache stale
+        Files.setLastModifiedTime(source, FileTime.fromMillis(Files.getLastModifiedTime(source).toMillis() + 1000));
+        assertNull(LoanColumnarReader.open(cache, source));
+    }
+
+    @Test
+    void testUnfinishedWriterLeavesNoFiles(@TempDir Path tempDir) throws Exception {
+        Path source = tempDir.resolve("loans.csv");
+        Files.writeString(source, "source");
+        Path cache = LoanColumnarFile.pathFor(source);
+
+        try (LoanColumnarWriter writer = new LoanColumnarWriter(cache, source)) {
+            writer.accept(loan("L-1", "A", 100000L, 2), forecast(1L));
+        }
+        assertNull(LoanColumnarReader.open(cache, source));
+        try (var files = Files.list(tempDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void testBaselineReusesOnlyUnchangedLoans(@TempDir Path tempDir) throws Exception {
+        Path source = tempDir.resolve("loans.csv");
+        Files.writeString(source, "source");
+        try (LoanColumnarWriter writer = new LoanColumnarWriter(LoanColumnarFile.pathFor(source), source)) {
+            writer.accept(loan("L-1", "A", 100000L, 2), forecast(70000L, 60000L));
+            writer.accept(loan("L-2", "B", 100000L, 3), forecast(50000L));
+            writer.setForecastAlgorithm("simple", "1");
+            writer.finish();
+        }
+
+        try (ForecastBaseline baseline = ForecastBaseline.open(source)) {
+            assertNotNull(baseline);
+            assertEquals(2, baseline.size());
+            assertTrue(baseline.isComparable(START_MONTH, "simple", "1"));
+            assertFalse(baseline.isComparable(START_MONTH.plusMonths(1), "simple", "1"));
+            assertFalse(baseline.isComparable(START_MONTH, "simple", "1-table4096"));
+
+            // Customer, amount and row do not affect the forecast
+            assertArrayEquals(new long[]{70000L, 60000L}, baseline.reusableForecast(loan("L-1", "Renamed", 5L, 9)));
+            LoanRecord changed = new LoanRecord("L-2", "B", 100000L, LocalDate.of(2025, 6, 30), LocalDate.of(2025, 12, 31),
+                    40000050L, 60000000L, 0L, 36, 3);
+            assertNull(baseline.reusableForecast(changed));
+            assertNull(baseline.reusableForecast(loan("L-3", "C", 100000L, 4)));
+        }
+        assertNull(ForecastBaseline.open(tempDir.resolve("other.csv")));
+    }
+}
@@ -0,0 +1,113 @@
+package com.bankplus.loan_forecast.service.columnar;
+
+import com.bankplus.loan_forecast.dto.ForecastSeries;
+import com.bankplus.loan_forecast.dto.LoanForecastData;
+import com.bankplus.loan_forecast.model.LoanRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoanIndexTest {
+
+    private static LoanRecord loan(String loanNumber, String customerName, long outstandingCents, int percentOfCompletion) {
+        return new LoanRecord(loanNumber, customerName, 100000000L, LocalDate.of(2025, 6, 30), LocalDate.of(2025, 12, 31),
+                outstandingCents, 60000000L, 0L, percentOfCompletion, 0);
+    }
+
+    private static Path writeBatch(Path tempDir) throws Exception {
+        Path source = tempDir.resolve("loans.csv");
+        Files.writeString(source, "source");
+        LoanRecord[] loans = {
+            loan("L-3", "smith", 500L, 10),
+            loan("L-10", "Adams", 100L, 90),
+            loan("L-é", null, 300L, 50),
+            loan("L-2", "Smithers", 200L, 60),
+            loan("L-1", "Baker", 400L, 30)
+        };
+        long[] totals = {50L, 10L, 40L, 30L, 20L};
+        try (LoanColumnarWriter writer = new LoanColumnarWriter(LoanColumnarFile.pathFor(source), source)) {
+            for (int i = 0; i < loans.length; i++) {
+                writer.accept(loans[i], LoanForecastData.builder()
+                        .forecastData(new ForecastSeries(YearMonth.of(2025, 1), new long[] {totals[i] - 1, 1L})).build());
+            }
+            writer.finish();
+        }
+        return source;
+    }
+
+    private static String[] loanNumbers(LoanIndex index, LoanIndex.Page page) {
+        String[] loanNumbers = new String[page.getRows().length];
+        for (int i = 0; i < loanNumbers.length; i++) {
+            loanNumbers[i] = index.getLoans().loanNumber(page.getRows()[i]);
+        }
+        return loanNumbers;
+    }
+
+    @Test
+    void testSortOrders(@TempDir Path tempDir) throws Exception {
+        Path source = writeBatch(tempDir);
+        assertNull(LoanIndex.open(source));
+        assertEquals(LoanIndexFile.pathFor(source), LoanIndex.build(source));
+
+        try (LoanIndex index = LoanIndex.open(source)) {
+            assertNotNull(index);
+            assertArrayEquals(new String[] {"L-1", "L-10", "L-2", "L-3", "L-é"},
+                    loanNumbers(index, index.page(LoanIndex.SortKey.LOAN_NUMBER, false, 0, 10, null, null, null)));
+            // No name first, then case-insensitive
+            assertArrayEquals(new String[] {"L-é", "L-10", "L-1", "L-3", "L-2"},
+                    loanNumbers(index, index.page(LoanIndex.SortKey.CUSTOMER_NAME, false, 0, 10, null, null, null)));
+            assertArrayEquals(new String[] {"L-3", "L-1", "L-é", "L-2", "L-10"},
+                    loanNumbers(index, index.page(LoanIndex.SortKey.OUTSTANDING_BALANCE, true, 0, 10, null, null, null)));
+            assertArrayEquals(new String[] {"L-10", "L-1", "L-2", "L-é", "L-3"},
+                    loanNumbers(index, index.page(LoanIndex.SortKey.TOTAL_FORECASTED_AMOUNT, false, 0, 10, null, null, null)));
+
+            assertEquals(2, index.findRow("L-é"));
+            assertEquals(1, index.findRow("L-10"));
+            assertEquals(-1, index.findRow("L-1 "));
+        }
+    }
+
+    @Test
+    void testPagesAndFilters(@TempDir Path tempDir) throws Exception {
+        Path source = writeBatch(tempDir);
+        LoanIndex.build(source);
+
+        try (LoanIndex index = LoanIndex.open(source)) {
+            LoanIndex.Page first = index.page(LoanIndex.SortKey.LOAN_NUMBER, false, 0, 2, null, null, null);
+            assertArrayEquals(new String[] {"L-1", "L-10"}, loanNumbers(index, first));
+            LoanIndex.Page second = index.page(LoanIndex.SortKey.LOAN_NUMBER, false, first.getNextPosition(), 2, null, null, null);
+            assertArrayEquals(new String[] {"L-2", "L-3"}, loanNumbers(index, second));
+            LoanIndex.Page last = index.page(LoanIndex.SortKey.LOAN_NUMBER, false, second.getNextPosition(), 2, null, null, null);
+            assertArrayEquals(new String[] {"L-é"}, loanNumbers(index, last));
+            assertEquals(-1, last.getNextPosition());
+
+            // The prefix matches "smith" and "Smithers", as a range of the customer order or checked per loan
+            assertArrayEquals(new String[] {"L-3", "L-2"},
+                    loanNumbers(index, index.page(LoanIndex.SortKey.CUSTOMER_NAME, false, 0, 10, "SMITH", null, null)));
+            assertArrayEquals(new String[] {"L-2", "L-3"},
+                    loanNumbers(index, index.page(LoanIndex.SortKey.LOAN_NUMBER, false, 0, 10, "smith", null, null)));
+            assertArrayEquals(new String[] {"L-2"},
+                    loanNumbers(index, index.page(LoanIndex.SortKey.CUSTOMER_NAME, true, 0, 10, "Smith", 50, 100)));
+            assertArrayEquals(new String[0],
+                    loanNumbers(index, index.page(LoanIndex.SortKey.CUSTOMER_NAME, false, 0, 10, "Z", null, null)));
+            assertArrayEquals(new String[] {"L-1", "L-é"},
+                    loanNumbers(index, index.page(LoanIndex.SortKey.LOAN_NUMBER, false, 0, 10, null, 30, 50)));
+        }
+    }
+
+    @Test
+    void testRewrittenCacheMakesIndexStale(@TempDir Path tempDir) throws Exception {
+        Path source = writeBatch(tempDir);
+        LoanIndex.build(source);
+        Path cache = LoanColumnarFile.pathFor(source);
+        Files.setLastModifiedTime(cache, FileTime.fromMillis(Files.getLastModifiedTime(cache).toMillis() + 1000));
+        assertNull(LoanIndex.open(source));
+    }
+}
@@ -0,0 +1,98 @@
+package com.bankplus.loan_forecast.service.csv;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoanDateParserTest {
+
+    // The split-based parsing LoanDateParser replaces, with null instead of falling back to today
+    private static LocalDate legacyParse(String dateStr) {
+        try {
+            if (dateStr.contains("/")) {
+                String[] parts = dateStr.split("/");
+                if (parts.length == 3) {
+                    int month = Integer.parseInt(parts[0]);
+                    int day = Integer.parseInt(parts[1]);
+                    int year = Integer.parseInt(parts[2]);
+                    if (year < 100) {
+                        year += year < 50 ? 2000 : 1900;
+                    }
+                    return LocalDate.of(year, month, day);
+                }
+            }
+            return LocalDate.parse(dateStr);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    @Test
+    void testKnownValues() {
+        LoanDateParser parser = new LoanDateParser(16);
+        assertEquals(LocalDate.of(2025, 3, 7), parser.parse("3/7/25"));
+        assertEquals(LocalDate.of(1999, 12, 31), parser.parse("12/31/99"));
+        assertEquals(LocalDate.of(2049, 1, 1), parser.parse("1/1/49"));
+        assertEquals(LocalDate.of(1950, 1, 1), parser.parse("01/01/50"));
+        assertEquals(LocalDate.of(2026, 2, 28), parser.parse("02/28/2026"));
+        assertEquals(LocalDate.of(2024, 1, 1), parser.parse("2024-01-01"));
+        assertEquals(LocalDate.of(2024, 1, 1), parser.parse("1/1/24/"));
+
+        List<String> invalid = List.of("", "N/A", "2/30/2024", "13/1/24", "0/1/24", "1/1", "1/1/", "1//24",
+                "a/1/24", "2024-1-01", "2024/01", "24-01-01", "2024-13-01", "1-1-2024", "1/1-24");
+        for (String value : invalid) {
+            assertNull(parser.parse(value), value);
+            // The cached failure is returned the same way
+            assertNull(parser.parse(value), value);
+        }
+        assertNull(parser.parse(null));
+    }
+
+    @Test
+    void testCachedResultsAreStable() {
+        LoanDateParser parser = new LoanDateParser(2);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(LocalDate.of(2025, 6, 30), parser.parse("6/30/25"));
+            assertEquals(LocalDate.of(2025, 7, 31), parser.parse("7/31/25"));
+            // Past the bound: still parsed, just not memoized
+            assertEquals(LocalDate.of(2025, 8, 31), parser.parse("8/31/25"));
+        }
+    }
+
+    @Test
+    void testRandomStringsMatchLegacyParser() {
+        LoanDateParser parser = new LoanDateParser(1024);
+        Random random = new Random(7L);
+        String alphabet = "0123456789012345678901234567890123456789//--x";
+        for (int i = 0; i < 50_000; i++) {
+            int length = random.nextInt(12);
+            StringBuilder sb = new StringBuilder(length);
+            for (int j = 0; j < length; j++) {
+                sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String value = sb.toString();
+            LocalDate expected = legacyParse(value);
+            LocalDate actual = parser.parse(value);
+            // Numbers longer than 4 digits ("00012/1/24") and signed parts ("1/2/-24") are deliberately rejected
+            if (expected != null && actual == null && (hasLongNumber(value) || value.contains("/-"))) {
+                continue;
+            }
+            assertEquals(expected, actual, value);
+        }
+    }
+
+    private static boolean hasLongNumber(String value) {
+        int run = 0;
+        for (int i = 0; i < value.length(); i++) {
+            run = Character.isDigit(value.charAt(i)) ? run + 1 : 0;
+            if (run > 4) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
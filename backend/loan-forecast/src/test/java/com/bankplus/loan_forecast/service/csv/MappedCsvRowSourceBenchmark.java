@@ -0,0 +1,111 @@
+package com.bankplus.loan_forecast.service.csv;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Read throughput of the mapped tokenizer against OpenCSV on a 17-column export, projecting the nine loan columns,
+ * once with unquoted cells and once with quoted amounts and names, which the tokenizer copies through its scratch
+ * buffer.
+ * Not part of the regular test run (surefire only picks up *Test classes); run it on the target hardware with
+ * mvn test -Dtest=MappedCsvRowSourceBenchmark -Dbenchmark.rows=400000
+ */
+class MappedCsvRowSourceBenchmark {
+
+    private static final int COLUMNS = 17;
+    // Where the nine loan columns sit in the export
+    private static final int[] PROJECTED = {0, 2, 3, 5, 6, 8, 9, 12, 15};
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    @Test
+    void benchmarkReaders(@TempDir Path tempDir) throws Exception {
+        int rows = Integer.getInteger("benchmark.rows", 400_000);
+        Path[] inputs = {tempDir.resolve("plain.csv"), tempDir.resolve("quoted.csv")};
+        writeExport(inputs[0], rows, false);
+        writeExport(inputs[1], rows, true);
+        String[] readerTypes = {CsvRowSource.OPENCSV, CsvRowSource.MAPPED};
+        // Warm up on both files first, so neither is measured with code compiled for the other
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            for (Path input : inputs) {
+                for (String readerType : readerTypes) {
+                    read(input, readerType);
+                }
+            }
+        }
+
+        for (Path input : inputs) {
+            double megabytes = Files.size(input) / 1e6;
+            double openCsvRate = 0;
+            long openCsvChecksum = 0;
+            for (String readerType : readerTypes) {
+                long checksum = 0;
+                long start = System.nanoTime();
+                for (int round = 0; round < MEASURED_ROUNDS; round++) {
+                    checksum = read(input, readerType);
+                }
+                double rate = (double) rows * MEASURED_ROUNDS / ((System.nanoTime() - start) / 1e9);
+                if (openCsvRate == 0) {
+                    openCsvRate = rate;
+                    openCsvChecksum = checksum;
+                }
+                // Both readers return the same projected cells
+                assertEquals(openCsvChecksum, checksum);
+                System.out.printf("%-10s %-7s %,12.0f rows/s  %7.1f MB/s  %.2fx%n", input.getFileName(), readerType, rate,
+                        megabytes * rate / rows, rate / openCsvRate);
+            }
+        }
+    }
+
+    /**
+     * Read every row and hash the projected cells
+     */
+    private static long read(Path input, String readerType) throws Exception {
+        long checksum = 0;
+        try (CsvRowSource source = CsvRowSource.open(input, readerType)) {
+            source.readHeader();
+            source.project(PROJECTED);
+            String[] row;
+            while ((row = source.readNext()) != null) {
+                for (int column : PROJECTED) {
+                    checksum = 31 * checksum + row[column].hashCode();
+                }
+            }
+        }
+        return checksum;
+    }
+
+    private static void writeExport(Path path, int rows, boolean quoted) throws Exception {
+        Random random = new Random(42);
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            for (int column = 0; column < COLUMNS; column++) {
+                writer.write((column > 0 ? "," : "") + "Column " + column);
+            }
+            writer.write('\n');
+            for (int i = 0; i < rows; i++) {
+                for (int column = 0; column < COLUMNS; column++) {
+                    if (column > 0) {
+                        writer.write(',');
+                    }
+                    int value = random.nextInt(50_000_000);
+                    if (!quoted) {
+                        writer.write(column % 4 == 1 ? "note " + value : String.valueOf(value));
+                    } else if (column % 4 == 1) {
+                        writer.write("\"Customer \"\"" + (value % 500) + "\"\", Ltd\"");
+                    } else {
+                        writer.write(String.format("\"$%,d.%02d\"", value, value % 100));
+                    }
+                }
+                writer.write('\n');
+            }
+        }
+    }
+}
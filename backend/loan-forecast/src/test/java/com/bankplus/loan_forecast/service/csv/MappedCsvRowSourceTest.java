@@ -0,0 +1,132 @@
+package com.bankplus.loan_forecast.service.csv;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedCsvRowSourceTest {
+
+    private static List<String[]> readAll(CsvRowSource source) throws Exception {
+        List<String[]> rows = new ArrayList<>();
+        String[] row;
+        while ((row = source.readNext()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static void assertReadLikeOpenCsv(Path tempDir, String csv) throws Exception {
+        Path input = tempDir.resolve("compare.csv");
+        Files.writeString(input, csv);
+        List<String[]> expected;
+        try (OpenCsvRowSource source = new OpenCsvRowSource(new StringReader(csv))) {
+            expected = readAll(source);
+        }
+        try (MappedCsvRowSource source = new MappedCsvRowSource(input)) {
+            List<String[]> actual = readAll(source);
+            assertEquals(expected.size(), actual.size(), csv);
+            for (int i = 0; i < expected.size(); i++) {
+                assertArrayEquals(expected.get(i), actual.get(i), csv);
+            }
+        }
+    }
+
+    @Test
+    void testRecordsCrossingWindowBoundaries(@TempDir Path tempDir) throws Exception {
+        StringBuilder csv = new StringBuilder("id,name,amount\n");
+        for (int i = 0; i < 200; i++) {
+            csv.append(i).append(",\"name ").append(i).append(", \"\"q\"\"\",").append(i * 10).append('\n');
+        }
+        Path input = tempDir.resolve("rows.csv");
+        Files.writeString(input, csv);
+
+        // A 64 byte window forces most records to be re-read from a remapped window
+        try (MappedCsvRowSource source = new MappedCsvRowSource(input, 0, -1, 64)) {
+            assertArrayEquals(new String[] {"id", "name", "amount"}, source.readHeader());
+            source.project(new int[] {0, 2});
+            for (int i = 0; i < 200; i++) {
+                String[] row = source.readNext();
+                assertEquals(String.valueOf(i), row[0]);
+                assertNull(row[1]);
+                assertEquals(String.valueOf(i * 10), row[2]);
+            }
+            assertNull(source.readNext());
+        }
+    }
+
+    @Test
+    void testByteRange(@TempDir Path tempDir) throws Exception {
+        String header = "a,b\n";
+        String first = "1,\"x\ny\"\n";
+        Path input = tempDir.resolve("range.csv");
+        Files.writeString(input, header + first + "2,z\n3,w\n");
+
+        long start = header.length() + first.length();
+        try (MappedCsvRowSource source = new MappedCsvRowSource(input, start, start + 4)) {
+            source.project(new int[] {0, 1});
+            assertArrayEquals(new String[] {"2", "z"}, source.readNext());
+            assertNull(source.readNext());
+        }
+    }
+
+    @Test
+    void testEscapesAndMidFieldQuotes(@TempDir Path tempDir) throws Exception {
+        Path input = tempDir.resolve("escapes.csv");
+        Files.writeString(input, "a\\,b,\"c\\\"d\",e\\\\f\nab\"cd\"ef,g\\\n");
+
+        try (MappedCsvRowSource source = new MappedCsvRowSource(input)) {
+            // The backslash escapes the next character
+            assertArrayEquals(new String[] {"a,b", "c\"d", "e\\f"}, source.readHeader());
+            // As OpenCSV reads it: the first quote is within the first three characters of the line and is dropped,
+            // the second closes the section it opened and is kept
+            assertArrayEquals(new String[] {"abcd\"ef", "g"}, source.readNext());
+            assertNull(source.readNext());
+        }
+    }
+
+    @Test
+    void testQuotesAfterWhitespaceAndMidField(@TempDir Path tempDir) throws Exception {
+        assertReadLikeOpenCsv(tempDir, "x, \"1,000\",z");
+        assertReadLikeOpenCsv(tempDir, "x,\"y\" ,z");
+        assertReadLikeOpenCsv(tempDir, "x,\t\"a\nb\",z\r\nx,a\"b,c\"d,z\rx,5\" pipe\"\n");
+    }
+
+    @Test
+    void testRandomInputReadLikeOpenCsv(@TempDir Path tempDir) throws Exception {
+        String alphabet = "a,\" \\\n\r\t\u00e9";
+        Random random = new Random(3L);
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder csv = new StringBuilder();
+            for (int length = 1 + random.nextInt(12); length > 0; length--) {
+                csv.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String text = csv.toString();
+            boolean openCsvFails;
+            try (OpenCsvRowSource source = new OpenCsvRowSource(new StringReader(text))) {
+                readAll(source);
+                openCsvFails = false;
+            } catch (IOException e) {
+                // An unterminated quote
+                openCsvFails = true;
+            }
+            if (openCsvFails) {
+                Path input = tempDir.resolve("malformed.csv");
+                Files.writeString(input, text);
+                try (MappedCsvRowSource source = new MappedCsvRowSource(input)) {
+                    assertThrows(CsvFormatException.class, () -> readAll(source), text);
+                }
+            } else {
+                assertReadLikeOpenCsv(tempDir, text);
+            }
+        }
+    }
+}
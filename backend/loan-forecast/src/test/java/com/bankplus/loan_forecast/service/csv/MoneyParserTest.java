@@ -0,0 +1,98 @@
+package com.bankplus.loan_forecast.service.csv;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyParserTest {
+
+    // The regex-based behaviour MoneyParser replaces
+    private static BigDecimal legacyParse(String value) {
+        try {
+            return new BigDecimal(value.replaceAll("[$,%\\s]", ""));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void assertEquivalent(String value) {
+        BigDecimal expected = legacyParse(value);
+        assertEquals(expected, MoneyParser.parse(value), () -> "parse(\"" + value + "\")");
+
+        assertEquals(MoneyParser.toCents(expected), MoneyParser.parseCents(value), () -> "parseCents(\"" + value + "\")");
+    }
+
+    @Test
+    void testToCents() {
+        assertEquals(123457L, MoneyParser.toCents(new BigDecimal("1234.565")));
+        assertEquals(-123457L, MoneyParser.toCents(new BigDecimal("-1234.565")));
+        assertEquals(1L, MoneyParser.toCents(new BigDecimal("0.005")));
+        assertEquals(0L, MoneyParser.toCents(new BigDecimal("1e-999999999")));
+        assertEquals(MoneyParser.INVALID, MoneyParser.toCents(new BigDecimal("1e999999999")));
+        assertEquals(MoneyParser.INVALID, MoneyParser.toCents(new BigDecimal("92233720368547758.08")));
+        assertEquals(Long.MAX_VALUE, MoneyParser.toCents(new BigDecimal("92233720368547758.07")));
+    }
+
+    @Test
+    void testKnownValues() {
+        List<String> values = List.of(
+                "$1,250,000.00", "1000", " 400000 ", "35%", "-$1,000.5", "$-1,000.5", "+12.345", "12.345",
+                "-12.345", "12.3449", "0.005", "-0.005", "1.", ".5", "-.5", "0", "-0", "000123.4500",
+                "1e5", "1E-2", "12345678901234567", "123456789012345678", "99999999999999999999.999",
+                "", " ", ".", "-", "$", "N/A", "1.2.3", "1-2", "--1", "abc", "1,2 3\t4\n", "12%%"
+        );
+        values.forEach(MoneyParserTest::assertEquivalent);
+    }
+
+    @Test
+    void testNullValue() {
+        assertNull(MoneyParser.parse(null));
+        assertEquals(MoneyParser.INVALID, MoneyParser.parseCents(null));
+    }
+
+    @Test
+    void testRandomStringsMatchLegacyParser() {
+        Random random = new Random(20240101L);
+        String alphabet = "0123456789012345678901234567890123456789..,,$$%  -+eE\tx";
+        for (int i = 0; i < 50_000; i++) {
+            int length = random.nextInt(24);
+            StringBuilder sb = new StringBuilder(length);
+            for (int j = 0; j < length; j++) {
+                sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            assertEquivalent(sb.toString());
+        }
+    }
+
+    @Test
+    void testRandomFormattedAmountsMatchLegacyParser() {
+        Random random = new Random(42L);
+        for (int i = 0; i < 20_000; i++) {
+            long whole = (long) (random.nextDouble() * Math.pow(10, random.nextInt(16)));
+            String digits = String.format("%,d", whole);
+            StringBuilder sb = new StringBuilder();
+            if (random.nextBoolean()) {
+                sb.append('-');
+            }
+            if (random.nextBoolean()) {
+                sb.append('$');
+            }
+            sb.append(random.nextBoolean() ? digits : digits.replace(",", ""));
+            int decimals = random.nextInt(5);
+            if (decimals > 0) {
+                sb.append('.');
+                for (int j = 0; j < decimals; j++) {
+                    sb.append(random.nextInt(10));
+                }
+            }
+            if (random.nextInt(4) == 0) {
+                sb.append('%');
+            }
+            assertEquivalent(sb.toString());
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.bankplus.loan_forecast.service.csv;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelCsvRowSourceTest {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @AfterAll
+    static void shutdownPool() {
+        POOL.shutdown();
+    }
+
+    private static List<String[]> readAll(CsvRowSource source, int[] columns) throws Exception {
+        List<String[]> rows = new ArrayList<>();
+        rows.add(source.readHeader());
+        if (columns != null) {
+            source.project(columns);
+        }
+        String[] row;
+        while ((row = source.readNext()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static void assertSameRows(List<String[]> expected, List<String[]> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), actual.get(i), "row " + i);
+        }
+    }
+
+    // Quoted commas, doubled quotes, embedded line breaks, CRLF, blank lines, quotes after leading whitespace,
+    // quoted sections in the middle of a field and backslash escapes, including an escaped quote before a line break
+    private static String randomCsv(Random random, int rows) {
+        String[] cells = {"plain", "\"a,b\"", "\"say \"\"hi\"\"\"", "\"two\nlines\"", "\"x\r\ny\"", " \"sp,ace\"", "ab\"c,\nd\"e", "",
+                "\"\"", "\"q\"tail", "12,345", "\"esc \\\"\nquote\"", "back\\,slash", "\"dir\\\\\"", "end\\"};
+        StringBuilder csv = new StringBuilder("id,name,note,amount\n");
+        for (int i = 0; i < rows; i++) {
+            if (random.nextInt(20) == 0) {
+                csv.append('\n');
+                continue;
+            }
+            csv.append(i);
+            for (int c = 0; c < 3; c++) {
+                csv.append(',').append(cells[random.nextInt(cells.length)]);
+            }
+            csv.append(random.nextBoolean() ? "\n" : "\r\n");
+        }
+        return csv.toString();
+    }
+
+    @Test
+    void testMatchesSequentialReaderRowForRow(@TempDir Path tempDir) throws Exception {
+        Random random = new Random(11L);
+        for (int round = 0; round < 20; round++) {
+            Path input = tempDir.resolve("rows" + round + ".csv");
+            Files.writeString(input, randomCsv(random, 300));
+            int[] columns = round % 2 == 0 ? new int[] {0, 2, 3} : null;
+
+            List<String[]> expected;
+            try (MappedCsvRowSource source = new MappedCsvRowSource(input)) {
+                expected = readAll(source, columns);
+            }
+            // Chunks of a few dozen bytes put boundaries next to almost every quote and line break
+            long chunkBytes = 1 + random.nextInt(64);
+            try (ParallelCsvRowSource source = new ParallelCsvRowSource(input, POOL, chunkBytes, 3)) {
+                assertSameRows(expected, readAll(source, columns));
+            }
+        }
+    }
+
+    @Test
+    void testMalformedRecordFailsAfterTheSameRows(@TempDir Path tempDir) throws Exception {
+        StringBuilder csv = new StringBuilder("id,name\n");
+        for (int i = 0; i < 100; i++) {
+            csv.append(i).append(",name ").append(i).append('\n');
+        }
+        csv.append("100,\"never closed\n101,x\n");
+        Path input = tempDir.resolve("broken.csv");
+        Files.writeString(input, csv);
+
+        try (ParallelCsvRowSource source = new ParallelCsvRowSource(input, POOL, 32, 4)) {
+            source.readHeader();
+            source.project(new int[] {0, 1});
+            for (int i = 0; i < 100; i++) {
+                assertEquals(String.valueOf(i), source.readNext()[0]);
+            }
+            CsvFormatException e = assertThrows(CsvFormatException.class, source::readNext);
+            assertTrue(e.getMessage().startsWith("Unterminated quoted field"));
+        }
+    }
+}
@@ -36,7 +36,15 @@ CREATE TABLE IF NOT EXISTS upload_history (
     forecast_start_date VARCHAR(255),
     error_message TEXT,
     original_file_path VARCHAR(500),
-    forecast_csv_path VARCHAR(500)
+    forecast_csv_path VARCHAR(500),
+    rejection_summary TEXT,
+    forecast_algorithm VARCHAR(50),
+    forecast_algorithm_version VARCHAR(50),
+    base_batch_id VARCHAR(255),
+    content_sha256 VARCHAR(64),
+    reused_records INTEGER,
+    recomputed_records INTEGER,
+    portfolio_summary TEXT
 );
 
 -- Grant table privileges